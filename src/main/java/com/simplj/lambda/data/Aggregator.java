@@ -0,0 +1,75 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates elements into a (possibly mutable) accumulator and produces the result out of it. Accumulators of independent parts of
+ * the input can be {@link #combine(Object, Object) combined}, which is how the parallel aggregations merge their partial results;
+ * `combine` is always called with the accumulator of the earlier part first.
+ * @param <T> Type of the elements
+ * @param <A> Type of the accumulator
+ * @param <R> Type of the result
+ */
+public interface Aggregator<T, A, R> {
+    A init();
+    A accumulate(A acc, T elem);
+    A combine(A left, A right);
+    R finish(A acc);
+
+    static <T, A, R> Aggregator<T, A, R> of(Producer<A> init, BiFunction<A, T, A> accumulate, BiFunction<A, A, A> combine, Function<A, R> finish) {
+        return new Aggregator<T, A, R>() {
+            @Override
+            public A init() {
+                return init.produce();
+            }
+
+            @Override
+            public A accumulate(A acc, T elem) {
+                return accumulate.apply(acc, elem);
+            }
+
+            @Override
+            public A combine(A left, A right) {
+                return combine.apply(left, right);
+            }
+
+            @Override
+            public R finish(A acc) {
+                return finish.apply(acc);
+            }
+        };
+    }
+
+    /**
+     * @param identity initial value of each accumulator (expected to be immutable)
+     * @param accumulate accumulates an element into the result
+     * @param combine combines two partial results
+     * @param <T> Type of the elements
+     * @param <R> Type of the result
+     * @return aggregator folding the elements into an (immutable) result
+     */
+    static <T, R> Aggregator<T, R, R> folding(R identity, BiFunction<R, T, R> accumulate, BiFunction<R, R, R> combine) {
+        return of(() -> identity, accumulate, combine, Function.id());
+    }
+
+    static <T> Aggregator<T, long[], Long> counting() {
+        return of(() -> new long[1], (a, t) -> { a[0]++; return a; }, (a, b) -> { a[0] += b[0]; return a; }, a -> a[0]);
+    }
+
+    static <T> Aggregator<T, long[], Long> summingLong(Function<T, Long> f) {
+        return of(() -> new long[1], (a, t) -> { a[0] += f.apply(t); return a; }, (a, b) -> { a[0] += b[0]; return a; }, a -> a[0]);
+    }
+
+    static <T> Aggregator<T, double[], Double> summingDouble(Function<T, Double> f) {
+        return of(() -> new double[1], (a, t) -> { a[0] += f.apply(t); return a; }, (a, b) -> { a[0] += b[0]; return a; }, a -> a[0]);
+    }
+
+    static <T> Aggregator<T, List<T>, IList<T>> toList() {
+        return of(ArrayList::new, (a, t) -> { a.add(t); return a; }, (a, b) -> { a.addAll(b); return a; }, a -> IList.of(a, ArrayList::new));
+    }
+}
@@ -0,0 +1,157 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free append-only list. The elements are kept in segments of doubling sizes (32, 64, 128, ...) which are never moved once
+ * allocated: an {@link #add(Object) add} claims its slot by a single atomic increment (wait-free), allocates the segment of the slot by
+ * a CAS if it is the first to reach it and publishes the element by a volatile write. The {@link #size() size} is the length of the
+ * prefix of the published slots, hence a reader never observes a claimed but not yet written slot.<br>
+ * The iteration is safe under concurrent appends and visits the elements published when it began; {@link #snapshot() snapshot}
+ * takes <code>O(1)</code> as the published prefix never changes. Only appending is supported: <code>set</code>, <code>remove</code>,
+ * <code>clear</code> (and the operations relying on them, e.g. in place sorting) throw <code>UnsupportedOperationException</code>.<br>
+ * It can be used as the backing list of the jlx lists, e.g. <code>MList.unit(AppendList::new)</code> (see {@link MList#concurrent() MList.concurrent}).
+ * @param <E> Type of the elements
+ */
+public final class AppendList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BASE_SHIFT = 5;
+    private static final int SEGMENTS = Integer.SIZE - BASE_SHIFT;
+    private static final Object NULL = new Object();
+
+    private final AtomicReferenceArray<AtomicReferenceArray<Object>> segments = new AtomicReferenceArray<>(SEGMENTS);
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+
+    public AppendList() {
+    }
+
+    public AppendList(Collection<? extends E> c) {
+        addAll(c);
+    }
+
+    @Override
+    public boolean add(E e) {
+        int idx = claimed.getAndIncrement();
+        if (idx < 0 || idx > Integer.MAX_VALUE - (1 << BASE_SHIFT)) {
+            claimed.decrementAndGet();
+            throw new IllegalStateException("List is full!");
+        }
+        int p = idx + (1 << BASE_SHIFT);
+        int seg = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(p) - BASE_SHIFT;
+        segment(seg).set(p - (1 << (seg + BASE_SHIFT)), e == null ? NULL : e);
+        publish();
+        return true;
+    }
+
+    @Override
+    public E get(int index) {
+        int n = size();
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + n);
+        }
+        return at(index);
+    }
+
+    /**
+     * @return number of published elements
+     */
+    @Override
+    public int size() {
+        return publish();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(size());
+    }
+
+    /**
+     * @return unmodifiable list of the elements published so far (sharing the segments of the current list)
+     */
+    public List<E> snapshot() {
+        int n = size();
+        return new AbstractList<E>() {
+            @Override
+            public E get(int index) {
+                if (index < 0 || index >= n) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + n);
+                }
+                return at(index);
+            }
+
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public Iterator<E> iterator() {
+                return new Itr(n);
+            }
+        };
+    }
+
+    private E at(int index) {
+        int p = index + (1 << BASE_SHIFT);
+        int seg = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(p) - BASE_SHIFT;
+        Object o = segments.get(seg).get(p - (1 << (seg + BASE_SHIFT)));
+        return o == NULL ? null : Util.cast(o);
+    }
+
+    private AtomicReferenceArray<Object> segment(int seg) {
+        AtomicReferenceArray<Object> s = segments.get(seg);
+        if (s == null) {
+            segments.compareAndSet(seg, null, new AtomicReferenceArray<>(1 << (seg + BASE_SHIFT)));
+            s = segments.get(seg);
+        }
+        return s;
+    }
+
+    /**
+     * Advances the published size over the written slots following it.
+     * @return the published size
+     */
+    private int publish() {
+        int n = published.get();
+        int m = n;
+        int limit = claimed.get();
+        while (m < limit && written(m)) {
+            m++;
+        }
+        while (m > n && !published.compareAndSet(n, m)) {
+            n = published.get();
+        }
+        return Math.max(n, m);
+    }
+
+    private boolean written(int index) {
+        int p = index + (1 << BASE_SHIFT);
+        int seg = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(p) - BASE_SHIFT;
+        AtomicReferenceArray<Object> s = segments.get(seg);
+        return s != null && s.get(p - (1 << (seg + BASE_SHIFT))) != null;
+    }
+
+    private final class Itr implements Iterator<E> {
+        private final int limit;
+        private int cursor;
+
+        private Itr(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < limit;
+        }
+
+        @Override
+        public E next() {
+            if (cursor >= limit) {
+                throw new NoSuchElementException();
+            }
+            return at(cursor++);
+        }
+    }
+}
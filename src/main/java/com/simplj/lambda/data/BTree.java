@@ -0,0 +1,586 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+
+import java.util.*;
+
+/**
+ * Persistent (immutable) B-tree of order {@value #ORDER}. Every update copies only the path from the root to the affected
+ * node and shares all the other nodes with the previous version. Every node keeps the size of its subtree, hence ranks and
+ * the sizes of ranges are answered in <code>O(log n)</code> as well.
+ */
+final class BTree {
+    static final int ORDER = 16;
+    private static final int MAX = 2 * ORDER - 1;
+    private static final int MIN = ORDER - 1;
+
+    private BTree() {
+    }
+
+    static final class Node {
+        final Object[] keys;
+        final Object[] vals;
+        final Node[] kids;
+        final int size;
+
+        Node(Object[] keys, Object[] vals, Node[] kids) {
+            this.keys = keys;
+            this.vals = vals;
+            this.kids = kids;
+            int s = keys.length;
+            if (kids != null) {
+                for (Node k : kids) {
+                    s += k.size;
+                }
+            }
+            this.size = s;
+        }
+
+        boolean isLeaf() {
+            return kids == null;
+        }
+    }
+
+    /**
+     * Bounds of a range of keys; a <code>null</code> range is unbounded.
+     */
+    static final class Range {
+        final boolean hasLo;
+        final Object lo;
+        final boolean loIncl;
+        final boolean hasHi;
+        final Object hi;
+        final boolean hiIncl;
+
+        Range(boolean hasLo, Object lo, boolean loIncl, boolean hasHi, Object hi, boolean hiIncl) {
+            this.hasLo = hasLo;
+            this.lo = lo;
+            this.loIncl = loIncl;
+            this.hasHi = hasHi;
+            this.hi = hi;
+            this.hiIncl = hiIncl;
+        }
+
+        static Range of(Object lo, boolean loIncl, Object hi, boolean hiIncl) {
+            return new Range(true, lo, loIncl, true, hi, hiIncl);
+        }
+
+        static Range below(Object hi, boolean hiIncl) {
+            return new Range(false, null, false, true, hi, hiIncl);
+        }
+
+        static Range above(Object lo, boolean loIncl) {
+            return new Range(true, lo, loIncl, false, null, false);
+        }
+
+        boolean tooLow(Object k, Comparator<Object> c) {
+            if (!hasLo) {
+                return false;
+            }
+            int r = c.compare(k, lo);
+            return r < 0 || (r == 0 && !loIncl);
+        }
+
+        boolean tooHigh(Object k, Comparator<Object> c) {
+            if (!hasHi) {
+                return false;
+            }
+            int r = c.compare(k, hi);
+            return r > 0 || (r == 0 && !hiIncl);
+        }
+
+        boolean contains(Object k, Comparator<Object> c) {
+            return !tooLow(k, c) && !tooHigh(k, c);
+        }
+
+        /**
+         * @return intersection of the current range and `that`
+         */
+        Range and(Range that, Comparator<Object> c) {
+            if (that == null) {
+                return this;
+            }
+            boolean hl = hasLo || that.hasLo;
+            Object l = lo;
+            boolean li = loIncl;
+            if (that.hasLo && (!hasLo || c.compare(that.lo, lo) > 0 || (c.compare(that.lo, lo) == 0 && !that.loIncl))) {
+                l = that.lo;
+                li = that.loIncl;
+            }
+            boolean hh = hasHi || that.hasHi;
+            Object h = hi;
+            boolean hi2 = hiIncl;
+            if (that.hasHi && (!hasHi || c.compare(that.hi, hi) < 0 || (c.compare(that.hi, hi) == 0 && !that.hiIncl))) {
+                h = that.hi;
+                hi2 = that.hiIncl;
+            }
+            return new Range(hl, l, li, hh, h, hi2);
+        }
+    }
+
+    static int search(Object[] keys, Object k, Comparator<Object> c) {
+        int lo = 0;
+        int hi = keys.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int r = c.compare(keys[mid], k);
+            if (r < 0) {
+                lo = mid + 1;
+            } else if (r > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    static int size(Node root) {
+        return root == null ? 0 : root.size;
+    }
+
+    /**
+     * @return the node and the index at which `k` is stored or <code>null</code> if `k` is absent
+     */
+    static Couple<Node, Integer> find(Node root, Object k, Comparator<Object> c) {
+        Node n = root;
+        while (n != null) {
+            int i = search(n.keys, k, c);
+            if (i >= 0) {
+                return Tuple.of(n, i);
+            }
+            n = n.isLeaf() ? null : n.kids[-(i + 1)];
+        }
+        return null;
+    }
+
+    static Node put(Node root, Object k, Object v, Comparator<Object> c) {
+        if (root == null) {
+            return new Node(new Object[] {k}, new Object[] {v}, null);
+        }
+        Object r = insert(root, k, v, c);
+        if (r instanceof Split) {
+            Split s = (Split) r;
+            return new Node(new Object[] {s.key}, new Object[] {s.val}, new Node[] {s.left, s.right});
+        }
+        return (Node) r;
+    }
+
+    static Node remove(Node root, Object k, Comparator<Object> c) {
+        if (root == null || find(root, k, c) == null) {
+            return root;
+        }
+        Node r = delete(root, k, c);
+        if (r.keys.length == 0) {
+            r = r.isLeaf() ? null : r.kids[0];
+        }
+        return r;
+    }
+
+    /**
+     * Builds a balanced tree out of keys sorted in ascending order (and without duplicates) in <code>O(n)</code>.
+     */
+    static Node build(Object[] keys, Object[] vals, int n) {
+        if (n == 0) {
+            return null;
+        }
+        int h = 1;
+        while (capacity(h) < n) {
+            h++;
+        }
+        return build(keys, vals, 0, n, h);
+    }
+
+    private static Node build(Object[] keys, Object[] vals, int from, int n, int h) {
+        if (h == 1) {
+            return new Node(Arrays.copyOfRange(keys, from, from + n), Arrays.copyOfRange(vals, from, from + n), null);
+        }
+        int c = (int) ((n + 1 + capacity(h - 1)) / (capacity(h - 1) + 1));
+        c = Math.max(c, 2);
+        int perKid = (n - (c - 1)) / c;
+        int extra = (n - (c - 1)) % c;
+        Object[] ks = new Object[c - 1];
+        Object[] vs = new Object[c - 1];
+        Node[] kids = new Node[c];
+        int pos = from;
+        for (int i = 0; i < c; i++) {
+            int len = perKid + (i < extra ? 1 : 0);
+            kids[i] = build(keys, vals, pos, len, h - 1);
+            pos += len;
+            if (i < c - 1) {
+                ks[i] = keys[pos];
+                vs[i] = vals[pos];
+                pos++;
+            }
+        }
+        return new Node(ks, vs, kids);
+    }
+
+    private static long capacity(int h) {
+        long res = 1;
+        for (int i = 0; i < h && res <= Integer.MAX_VALUE; i++) {
+            res *= MAX + 1;
+        }
+        return res - 1;
+    }
+
+    /**
+     * @return number of keys lesser than (or equal to if `inclusive`) `k`
+     */
+    static int rank(Node root, Object k, boolean inclusive, Comparator<Object> c) {
+        int res = 0;
+        Node n = root;
+        while (n != null) {
+            int i = search(n.keys, k, c);
+            int p = i >= 0 ? i : -(i + 1);
+            res += p;
+            if (!n.isLeaf()) {
+                for (int j = 0; j < p; j++) {
+                    res += n.kids[j].size;
+                }
+            }
+            if (i >= 0) {
+                res += (n.isLeaf() ? 0 : n.kids[i].size) + (inclusive ? 1 : 0);
+                break;
+            }
+            n = n.isLeaf() ? null : n.kids[p];
+        }
+        return res;
+    }
+
+    /**
+     * @return the node and the index holding the key at position `idx` (in ascending order)
+     */
+    static Couple<Node, Integer> select(Node root, int idx) {
+        Node n = root;
+        while (true) {
+            if (n.isLeaf()) {
+                return Tuple.of(n, idx);
+            }
+            int i = 0;
+            while (true) {
+                int s = n.kids[i].size;
+                if (idx < s) {
+                    n = n.kids[i];
+                    break;
+                } else if (idx == s) {
+                    return Tuple.of(n, i);
+                }
+                idx -= s + 1;
+                i++;
+            }
+        }
+    }
+
+    static int size(Node root, Range range, Comparator<Object> c) {
+        if (range == null) {
+            return size(root);
+        }
+        int hi = range.hasHi ? rank(root, range.hi, range.hiIncl, c) : size(root);
+        int lo = range.hasLo ? rank(root, range.lo, !range.loIncl, c) : 0;
+        return Math.max(0, hi - lo);
+    }
+
+    /**
+     * @param above <code>true</code> to look for the least key greater than `k`, <code>false</code> for the greatest key lesser than `k`
+     * @param inclusive <code>true</code> if `k` itself qualifies
+     * @return the node and the index holding the key found or <code>null</code> if there is no such key
+     */
+    static Couple<Node, Integer> neighbour(Node root, Object k, boolean above, boolean inclusive, Comparator<Object> c) {
+        Couple<Node, Integer> res = null;
+        Node n = root;
+        while (n != null) {
+            int i = search(n.keys, k, c);
+            if (i >= 0 && inclusive) {
+                return Tuple.of(n, i);
+            }
+            int p;
+            if (i >= 0) {
+                if (above) {
+                    if (i + 1 < n.keys.length) {
+                        res = Tuple.of(n, i + 1);
+                    }
+                    p = i + 1;
+                } else {
+                    if (i > 0) {
+                        res = Tuple.of(n, i - 1);
+                    }
+                    p = i;
+                }
+            } else {
+                p = -(i + 1);
+                if (above && p < n.keys.length) {
+                    res = Tuple.of(n, p);
+                } else if (!above && p > 0) {
+                    res = Tuple.of(n, p - 1);
+                }
+            }
+            n = n.isLeaf() ? null : n.kids[p];
+        }
+        return res;
+    }
+
+    static Couple<Node, Integer> first(Node root, Range range, Comparator<Object> c) {
+        Couple<Node, Integer> res;
+        if (root == null) {
+            res = null;
+        } else if (range == null || !range.hasLo) {
+            res = select(root, 0);
+        } else {
+            res = neighbour(root, range.lo, true, range.loIncl, c);
+        }
+        return res != null && range != null && range.tooHigh(res.first().keys[res.second()], c) ? null : res;
+    }
+
+    static Couple<Node, Integer> last(Node root, Range range, Comparator<Object> c) {
+        Couple<Node, Integer> res;
+        if (root == null) {
+            res = null;
+        } else if (range == null || !range.hasHi) {
+            res = select(root, root.size - 1);
+        } else {
+            res = neighbour(root, range.hi, false, range.hiIncl, c);
+        }
+        return res != null && range != null && range.tooLow(res.first().keys[res.second()], c) ? null : res;
+    }
+
+    private static Object insert(Node n, Object k, Object v, Comparator<Object> c) {
+        int i = search(n.keys, k, c);
+        if (i >= 0) {
+            if (n.vals[i] == v) {
+                return n;
+            }
+            Object[] vals = n.vals.clone();
+            vals[i] = v;
+            return new Node(n.keys, vals, n.kids);
+        }
+        int p = -(i + 1);
+        if (n.isLeaf()) {
+            return fit(insertAt(n.keys, p, k), insertAt(n.vals, p, v), null);
+        }
+        Object r = insert(n.kids[p], k, v, c);
+        if (r instanceof Split) {
+            Split s = (Split) r;
+            Node[] kids = new Node[n.kids.length + 1];
+            System.arraycopy(n.kids, 0, kids, 0, p);
+            kids[p] = s.left;
+            kids[p + 1] = s.right;
+            System.arraycopy(n.kids, p + 1, kids, p + 2, n.kids.length - p - 1);
+            return fit(insertAt(n.keys, p, s.key), insertAt(n.vals, p, s.val), kids);
+        }
+        return new Node(n.keys, n.vals, replaceAt(n.kids, p, (Node) r));
+    }
+
+    private static Object fit(Object[] keys, Object[] vals, Node[] kids) {
+        if (keys.length <= MAX) {
+            return new Node(keys, vals, kids);
+        }
+        int m = keys.length / 2;
+        Node left = new Node(Arrays.copyOfRange(keys, 0, m), Arrays.copyOfRange(vals, 0, m), kids == null ? null : Arrays.copyOfRange(kids, 0, m + 1));
+        Node right = new Node(Arrays.copyOfRange(keys, m + 1, keys.length), Arrays.copyOfRange(vals, m + 1, vals.length), kids == null ? null : Arrays.copyOfRange(kids, m + 1, kids.length));
+        return new Split(left, keys[m], vals[m], right);
+    }
+
+    private static Node delete(Node n, Object k, Comparator<Object> c) {
+        int i = search(n.keys, k, c);
+        if (n.isLeaf()) {
+            return new Node(removeAt(n.keys, i), removeAt(n.vals, i), null);
+        }
+        if (i >= 0) {
+            Node left = n.kids[i];
+            Couple<Node, Integer> pred = select(left, left.size - 1);
+            Object pk = pred.first().keys[pred.second()];
+            Object pv = pred.first().vals[pred.second()];
+            Node kid = delete(left, pk, c);
+            Object[] keys = n.keys.clone();
+            Object[] vals = n.vals.clone();
+            keys[i] = pk;
+            vals[i] = pv;
+            return rebalance(keys, vals, replaceAt(n.kids, i, kid), i);
+        }
+        int p = -(i + 1);
+        return rebalance(n.keys, n.vals, replaceAt(n.kids, p, delete(n.kids[p], k, c)), p);
+    }
+
+    /**
+     * Fixes the kid at `p` if it has underflown by borrowing from or merging with a sibling.
+     */
+    private static Node rebalance(Object[] keys, Object[] vals, Node[] kids, int p) {
+        Node kid = kids[p];
+        if (kid.keys.length >= MIN) {
+            return new Node(keys, vals, kids);
+        }
+        if (p > 0 && kids[p - 1].keys.length > MIN) {
+            Node l = kids[p - 1];
+            int last = l.keys.length - 1;
+            Node nl = new Node(Arrays.copyOf(l.keys, last), Arrays.copyOf(l.vals, last), l.isLeaf() ? null : Arrays.copyOf(l.kids, last + 1));
+            Node nk = new Node(insertAt(kid.keys, 0, keys[p - 1]), insertAt(kid.vals, 0, vals[p - 1]), kid.isLeaf() ? null : insertAt(kid.kids, 0, l.kids[last + 1]));
+            keys = keys.clone();
+            vals = vals.clone();
+            keys[p - 1] = l.keys[last];
+            vals[p - 1] = l.vals[last];
+            kids = kids.clone();
+            kids[p - 1] = nl;
+            kids[p] = nk;
+            return new Node(keys, vals, kids);
+        }
+        if (p < kids.length - 1 && kids[p + 1].keys.length > MIN) {
+            Node r = kids[p + 1];
+            Node nr = new Node(removeAt(r.keys, 0), removeAt(r.vals, 0), r.isLeaf() ? null : removeAt(r.kids, 0));
+            Node nk = new Node(insertAt(kid.keys, kid.keys.length, keys[p]), insertAt(kid.vals, kid.vals.length, vals[p]), kid.isLeaf() ? null : insertAt(kid.kids, kid.kids.length, r.kids[0]));
+            keys = keys.clone();
+            vals = vals.clone();
+            keys[p] = r.keys[0];
+            vals[p] = r.vals[0];
+            kids = kids.clone();
+            kids[p] = nk;
+            kids[p + 1] = nr;
+            return new Node(keys, vals, kids);
+        }
+        int l = p > 0 ? p - 1 : p;
+        Node a = kids[l];
+        Node b = kids[l + 1];
+        Node merged = new Node(concat(a.keys, keys[l], b.keys), concat(a.vals, vals[l], b.vals), a.isLeaf() ? null : concat(a.kids, b.kids));
+        Node[] nk = new Node[kids.length - 1];
+        System.arraycopy(kids, 0, nk, 0, l);
+        nk[l] = merged;
+        System.arraycopy(kids, l + 2, nk, l + 1, kids.length - l - 2);
+        return new Node(removeAt(keys, l), removeAt(vals, l), nk);
+    }
+
+    private static <T> T[] insertAt(T[] arr, int i, T v) {
+        T[] res = Arrays.copyOf(arr, arr.length + 1);
+        System.arraycopy(arr, i, res, i + 1, arr.length - i);
+        res[i] = v;
+        return res;
+    }
+
+    private static <T> T[] removeAt(T[] arr, int i) {
+        T[] res = Arrays.copyOf(arr, arr.length - 1);
+        System.arraycopy(arr, i + 1, res, i, arr.length - i - 1);
+        return res;
+    }
+
+    private static <T> T[] replaceAt(T[] arr, int i, T v) {
+        T[] res = arr.clone();
+        res[i] = v;
+        return res;
+    }
+
+    private static Object[] concat(Object[] a, Object mid, Object[] b) {
+        Object[] res = new Object[a.length + 1 + b.length];
+        System.arraycopy(a, 0, res, 0, a.length);
+        res[a.length] = mid;
+        System.arraycopy(b, 0, res, a.length + 1, b.length);
+        return res;
+    }
+
+    private static Node[] concat(Node[] a, Node[] b) {
+        Node[] res = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, res, a.length, b.length);
+        return res;
+    }
+
+    private static final class Split {
+        private final Node left;
+        private final Object key;
+        private final Object val;
+        private final Node right;
+
+        Split(Node left, Object key, Object val, Node right) {
+            this.left = left;
+            this.key = key;
+            this.val = val;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Lazy in-order iterator over the keys within a range. {@link #next()} returns the node holding the next key whose index
+     * is then available through {@link #index()}.
+     */
+    static final class Cursor implements Iterator<Node> {
+        private final Comparator<Object> c;
+        private final Range range;
+        private Node[] nodes = new Node[8];
+        private int[] idx = new int[8];
+        private int top = -1;
+        private Node node;
+        private int index;
+        private boolean ready;
+
+        Cursor(Node root, Range range, Comparator<Object> c) {
+            this.c = c;
+            this.range = range;
+            Node n = root;
+            while (n != null) {
+                int p;
+                if (range == null || !range.hasLo) {
+                    p = 0;
+                } else {
+                    int i = search(n.keys, range.lo, c);
+                    p = i >= 0 ? (range.loIncl ? i : i + 1) : -(i + 1);
+                }
+                push(n, p);
+                n = n.isLeaf() ? null : n.kids[p];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!ready) {
+                advance();
+            }
+            return node != null;
+        }
+
+        @Override
+        public Node next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            return node;
+        }
+
+        int index() {
+            return index;
+        }
+
+        private void advance() {
+            ready = true;
+            node = null;
+            while (top >= 0) {
+                Node n = nodes[top];
+                int i = idx[top];
+                if (i < n.keys.length) {
+                    idx[top] = i + 1;
+                    if (range != null && range.tooHigh(n.keys[i], c)) {
+                        top = -1;
+                        return;
+                    }
+                    node = n;
+                    index = i;
+                    Node k = n.isLeaf() ? null : n.kids[i + 1];
+                    while (k != null) {
+                        push(k, 0);
+                        k = k.isLeaf() ? null : k.kids[0];
+                    }
+                    return;
+                }
+                top--;
+            }
+        }
+
+        private void push(Node n, int i) {
+            top++;
+            if (top == nodes.length) {
+                nodes = Arrays.copyOf(nodes, top << 1);
+                idx = Arrays.copyOf(idx, top << 1);
+            }
+            nodes[top] = n;
+            idx[top] = i;
+        }
+    }
+}
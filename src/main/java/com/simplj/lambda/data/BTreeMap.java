@@ -0,0 +1,269 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+
+import java.util.*;
+
+/**
+ * Immutable <code>SortedMap</code> over a version of a {@link BTree persistent B-tree}, optionally restricted to a range of
+ * keys. Updates return a new version sharing all the untouched nodes with the current one. Range views share the whole tree
+ * and are created in constant time.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+final class BTreeMap<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+    private final Comparator<? super K> comparator;
+    private final Comparator<Object> cmp;
+    private final BTree.Node root;
+    private final BTree.Range range;
+    private volatile int size = -1;
+
+    private BTreeMap(Comparator<? super K> comparator, BTree.Node root, BTree.Range range) {
+        this.comparator = comparator;
+        this.cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+        this.root = root;
+        this.range = range;
+    }
+
+    static <K, V> BTreeMap<K, V> empty(Comparator<? super K> comparator) {
+        return new BTreeMap<>(comparator, null, null);
+    }
+
+    static <K, V> BTreeMap<K, V> of(Map<? extends K, ? extends V> m, Comparator<? super K> comparator) {
+        SortedMap<? extends K, ? extends V> sorted;
+        if (m instanceof SortedMap && Objects.equals(((SortedMap<?, ?>) m).comparator(), comparator)) {
+            sorted = Util.cast(m);
+        } else {
+            TreeMap<K, V> t = new TreeMap<>(comparator);
+            t.putAll(m);
+            sorted = t;
+        }
+        Object[] keys = new Object[sorted.size()];
+        Object[] vals = new Object[keys.length];
+        int n = 0;
+        for (Map.Entry<? extends K, ? extends V> e : sorted.entrySet()) {
+            keys[n] = e.getKey();
+            vals[n++] = e.getValue();
+        }
+        return new BTreeMap<>(comparator, BTree.build(keys, vals, n), null);
+    }
+
+    BTree.Node root() {
+        return root;
+    }
+
+    BTreeMap<K, V> with(BTree.Node r) {
+        return r == root ? this : new BTreeMap<>(comparator, r, range);
+    }
+
+    BTreeMap<K, V> sub(BTree.Range r) {
+        return new BTreeMap<>(comparator, root, range == null ? r : range.and(r, cmp));
+    }
+
+    BTreeMap<K, V> putting(K key, V val) {
+        if (range != null && !range.contains(key, cmp)) {
+            throw new IllegalArgumentException("Key out of range: " + key);
+        }
+        return with(BTree.put(root, key, val, cmp));
+    }
+
+    BTreeMap<K, V> removing(Object key) {
+        return range != null && !range.contains(key, cmp) ? this : with(BTree.remove(root, key, cmp));
+    }
+
+    /**
+     * @return current version if it is not restricted to a range otherwise a new version containing only the entries of the range
+     */
+    BTreeMap<K, V> unbounded() {
+        return range == null ? this : remap((k, v) -> v);
+    }
+
+    /**
+     * @return new unbounded version containing the entries (of the current range) satisfying `c`, built in <code>O(n)</code>
+     */
+    BTreeMap<K, V> filter(BiFunction<K, V, Boolean> c) {
+        Object[] keys = new Object[size()];
+        Object[] vals = new Object[keys.length];
+        int n = 0;
+        for (Map.Entry<K, V> e : entrySet()) {
+            if (c.apply(e.getKey(), e.getValue())) {
+                keys[n] = e.getKey();
+                vals[n++] = e.getValue();
+            }
+        }
+        return new BTreeMap<>(comparator, BTree.build(keys, vals, n), null);
+    }
+
+    /**
+     * @return new unbounded version with the keys (of the current range) mapped to the values computed by `f`, built in <code>O(n)</code>
+     */
+    <R> BTreeMap<K, R> remap(java.util.function.BiFunction<? super K, ? super V, ? extends R> f) {
+        Object[] keys = new Object[size()];
+        Object[] vals = new Object[keys.length];
+        int n = 0;
+        for (Map.Entry<K, V> e : entrySet()) {
+            keys[n] = e.getKey();
+            vals[n++] = f.apply(e.getKey(), e.getValue());
+        }
+        return new BTreeMap<>(comparator, BTree.build(keys, vals, n), null);
+    }
+
+    <R> BTreeMap<K, R> mapV(Function<V, R> f) {
+        return remap((k, v) -> f.apply(v));
+    }
+
+    Couple<K, V> floor(K key) {
+        return neighbour(key, false, true);
+    }
+
+    Couple<K, V> lower(K key) {
+        return neighbour(key, false, false);
+    }
+
+    Couple<K, V> ceiling(K key) {
+        return neighbour(key, true, true);
+    }
+
+    Couple<K, V> higher(K key) {
+        return neighbour(key, true, false);
+    }
+
+    Couple<K, V> first() {
+        return entry(BTree.first(root, range, cmp));
+    }
+
+    Couple<K, V> last() {
+        return entry(BTree.last(root, range, cmp));
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public int size() {
+        int s = size;
+        if (s < 0) {
+            s = BTree.size(root, range, cmp);
+            size = s;
+        }
+        return s;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return range == null ? root == null : first() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        Couple<BTree.Node, Integer> r = find(key);
+        return r == null ? null : Util.cast(r.first().vals[r.second()]);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return sub(BTree.Range.of(fromKey, true, toKey, false));
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return sub(BTree.Range.below(toKey, false));
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return sub(BTree.Range.above(fromKey, true));
+    }
+
+    @Override
+    public K firstKey() {
+        return key(first());
+    }
+
+    @Override
+    public K lastKey() {
+        return key(last());
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                BTree.Cursor c = new BTree.Cursor(root, range, cmp);
+                return new Iterator<Map.Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return c.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        BTree.Node n = c.next();
+                        return new AbstractMap.SimpleImmutableEntry<>(Util.cast(n.keys[c.index()]), Util.cast(n.vals[c.index()]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return BTreeMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * @return iterator over the keys (of the current range) in ascending order
+     */
+    Iterator<K> keyIterator() {
+        BTree.Cursor c = new BTree.Cursor(root, range, cmp);
+        return new Iterator<K>() {
+            @Override
+            public boolean hasNext() {
+                return c.hasNext();
+            }
+
+            @Override
+            public K next() {
+                BTree.Node n = c.next();
+                return Util.cast(n.keys[c.index()]);
+            }
+        };
+    }
+
+    private Couple<BTree.Node, Integer> find(Object key) {
+        return root == null || (range != null && !range.contains(key, cmp)) ? null : BTree.find(root, key, cmp);
+    }
+
+    private Couple<K, V> neighbour(K key, boolean above, boolean inclusive) {
+        if (range != null && (above ? range.tooLow(key, cmp) : range.tooHigh(key, cmp))) {
+            return above ? first() : last();
+        }
+        Couple<BTree.Node, Integer> r = BTree.neighbour(root, key, above, inclusive, cmp);
+        if (r != null && range != null && !range.contains(r.first().keys[r.second()], cmp)) {
+            r = null;
+        }
+        return entry(r);
+    }
+
+    private static <K> K key(Couple<K, ?> e) {
+        if (e == null) {
+            throw new NoSuchElementException();
+        }
+        return e.first();
+    }
+
+    private static <K, V> Couple<K, V> entry(Couple<BTree.Node, Integer> r) {
+        return r == null ? null : Tuple.of(Util.cast(r.first().keys[r.second()]), Util.cast(r.first().vals[r.second()]));
+    }
+}
@@ -0,0 +1,73 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+
+/**
+ * Immutable <code>SortedSet</code> view of the keys of a {@link BTreeMap}.
+ * @param <E> Type of the elements
+ */
+final class BTreeSet<E> extends AbstractSet<E> implements SortedSet<E> {
+    final BTreeMap<E, E> tree;
+
+    BTreeSet(BTreeMap<E, E> tree) {
+        this.tree = tree;
+    }
+
+    static <E> BTreeSet<E> of(Iterable<? extends E> c, Comparator<? super E> comparator) {
+        TreeMap<E, E> t = new TreeMap<>(comparator);
+        for (E e : c) {
+            t.put(e, e);
+        }
+        return new BTreeSet<>(BTreeMap.of(t, comparator));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return tree.keyIterator();
+    }
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tree.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return tree.containsKey(o);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return tree.comparator();
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return new BTreeSet<>(tree.sub(BTree.Range.of(fromElement, true, toElement, false)));
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return new BTreeSet<>(tree.sub(BTree.Range.below(toElement, false)));
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return new BTreeSet<>(tree.sub(BTree.Range.above(fromElement, true)));
+    }
+
+    @Override
+    public E first() {
+        return tree.firstKey();
+    }
+
+    @Override
+    public E last() {
+        return tree.lastKey();
+    }
+}
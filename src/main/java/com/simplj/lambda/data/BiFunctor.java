@@ -2,8 +2,10 @@ package com.simplj.lambda.data;
 
 import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
 import com.simplj.lambda.tuples.Tuple2;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -88,6 +90,29 @@ interface BiFunctor<K, V, A, B> {
         });
     }
 
+    /**
+     * Applies `func` to contiguous chunks of the entries of `src` into per-chunk maps (produced by `constructor`) in parallel and merges
+     * them in the order of the chunks.
+     */
+    default Map<A, B> applyParallel(Map<K, V> src, BiFunction<K, V, LinkedPair<A, B>> func, Producer<Map<?, ?>> constructor) {
+        Object[] entries = src.entrySet().toArray();
+        List<Map<A, B>> parts = Parallel.map(entries.length, (from, to) -> {
+            Map<A, B> r = Util.cast(constructor.produce());
+            for (int i = from; i < to; i++) {
+                Map.Entry<K, V> e = Util.cast(entries[i]);
+                for (LinkedPair.Node<A, B> n = func.apply(e.getKey(), e.getValue()).head(); n != null; n = n.next()) {
+                    r.put(n.key(), n.val());
+                }
+            }
+            return r;
+        });
+        Map<A, B> res = parts.get(0);
+        for (int i = 1; i < parts.size(); i++) {
+            res.putAll(parts.get(i));
+        }
+        return res;
+    }
+
     default Map<A, B> apply(Map<K, V> src, BiFunction<K, V, LinkedPair<A, B>> func, Map<A, B> r) {
         for (Map.Entry<K, V> e : src.entrySet()) {
             LinkedPair.Node<A, B> fh = func.apply(e.getKey(), e.getValue()).head();
@@ -0,0 +1,418 @@
+package com.simplj.lambda.data;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable compressed bitmap of non-negative <code>int</code>s in the spirit of Roaring bitmaps: the values are partitioned
+ * by their high 16 bits into chunks and every chunk keeps its low 16 bits either in a sorted <code>char</code> array (sparse
+ * chunks) or in a 65536 bit wide bitmap (dense chunks).
+ */
+final class Bitmap {
+    static final Bitmap EMPTY = new Bitmap(new char[0], new Container[0]);
+    private static final int ARRAY_LIMIT = 4096;
+    private final char[] keys;
+    private final Container[] containers;
+
+    private Bitmap(char[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+    }
+
+    /**
+     * @param n upper bound (exclusive)
+     * @return bitmap containing all the values in <code>[0, n)</code>
+     */
+    static Bitmap range(int n) {
+        Builder b = new Builder();
+        for (int i = 0; i < n; i++) {
+            b.add(i);
+        }
+        return b.build();
+    }
+
+    int cardinality() {
+        int res = 0;
+        for (Container c : containers) {
+            res += c.cardinality();
+        }
+        return res;
+    }
+
+    boolean isEmpty() {
+        return containers.length == 0;
+    }
+
+    boolean contains(int v) {
+        int i = Arrays.binarySearch(keys, (char) (v >>> 16));
+        return i >= 0 && containers[i].contains((char) v);
+    }
+
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    int[] toArray() {
+        int[] res = new int[cardinality()];
+        int[] idx = new int[1];
+        forEach(v -> res[idx[0]++] = v);
+        return res;
+    }
+
+    Bitmap and(Bitmap that) {
+        Combiner r = new Combiner(Math.min(keys.length, that.keys.length));
+        int i = 0, j = 0;
+        while (i < keys.length && j < that.keys.length) {
+            if (keys[i] < that.keys[j]) {
+                i++;
+            } else if (keys[i] > that.keys[j]) {
+                j++;
+            } else {
+                r.add(keys[i], containers[i].and(that.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return r.build();
+    }
+
+    Bitmap or(Bitmap that) {
+        Combiner r = new Combiner(keys.length + that.keys.length);
+        int i = 0, j = 0;
+        while (i < keys.length || j < that.keys.length) {
+            if (j == that.keys.length || (i < keys.length && keys[i] < that.keys[j])) {
+                r.add(keys[i], containers[i]);
+                i++;
+            } else if (i == keys.length || keys[i] > that.keys[j]) {
+                r.add(that.keys[j], that.containers[j]);
+                j++;
+            } else {
+                r.add(keys[i], containers[i].or(that.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return r.build();
+    }
+
+    Bitmap andNot(Bitmap that) {
+        Combiner r = new Combiner(keys.length);
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < that.keys.length && that.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < that.keys.length && that.keys[j] == keys[i]) {
+                r.add(keys[i], containers[i].andNot(that.containers[j]));
+            } else {
+                r.add(keys[i], containers[i]);
+            }
+        }
+        return r.build();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Bitmap)) return false;
+        Bitmap that = (Bitmap) obj;
+        return Arrays.equals(toArray(), that.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    /**
+     * Builds a bitmap from values added in ascending order.
+     */
+    static final class Builder {
+        private final Combiner chunks = new Combiner(4);
+        private int key = -1;
+        private char[] vals = new char[16];
+        private long[] words;
+        private int card;
+
+        Builder add(int v) {
+            int k = v >>> 16;
+            if (k != key) {
+                flush();
+                key = k;
+            }
+            char low = (char) v;
+            if (words != null) {
+                words[low >>> 6] |= 1L << low;
+            } else if (card < ARRAY_LIMIT) {
+                if (card == vals.length) {
+                    vals = Arrays.copyOf(vals, Math.min(card << 1, ARRAY_LIMIT));
+                }
+                vals[card] = low;
+            } else {
+                words = new long[1024];
+                for (int i = 0; i < card; i++) {
+                    words[vals[i] >>> 6] |= 1L << vals[i];
+                }
+                words[low >>> 6] |= 1L << low;
+            }
+            card++;
+            return this;
+        }
+
+        Bitmap build() {
+            flush();
+            return chunks.build();
+        }
+
+        private void flush() {
+            if (card > 0) {
+                chunks.add((char) key, words == null ? new ArrayContainer(Arrays.copyOf(vals, card)) : new BitmapContainer(words, card));
+            }
+            words = null;
+            vals = new char[16];
+            card = 0;
+        }
+    }
+
+    private static final class Combiner {
+        private char[] keys;
+        private Container[] containers;
+        private int size;
+
+        Combiner(int capacity) {
+            keys = new char[Math.max(capacity, 1)];
+            containers = new Container[keys.length];
+        }
+
+        void add(char key, Container c) {
+            if (c.cardinality() > 0) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size << 1);
+                    containers = Arrays.copyOf(containers, size << 1);
+                }
+                keys[size] = key;
+                containers[size++] = c;
+            }
+        }
+
+        Bitmap build() {
+            return size == 0 ? EMPTY : new Bitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size));
+        }
+    }
+
+    private abstract static class Container {
+        abstract int cardinality();
+        abstract boolean contains(char v);
+        abstract void forEach(int high, IntConsumer action);
+        abstract Container and(Container that);
+        abstract Container or(Container that);
+        abstract Container andNot(Container that);
+
+        static Container of(long[] words) {
+            int card = 0;
+            for (long w : words) {
+                card += Long.bitCount(w);
+            }
+            Container res;
+            if (card > ARRAY_LIMIT) {
+                res = new BitmapContainer(words, card);
+            } else {
+                char[] vals = new char[card];
+                int n = 0;
+                for (int i = 0; i < words.length; i++) {
+                    long w = words[i];
+                    while (w != 0) {
+                        vals[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(w));
+                        w &= w - 1;
+                    }
+                }
+                res = new ArrayContainer(vals);
+            }
+            return res;
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private final char[] vals;
+
+        ArrayContainer(char[] vals) {
+            this.vals = vals;
+        }
+
+        @Override
+        int cardinality() {
+            return vals.length;
+        }
+
+        @Override
+        boolean contains(char v) {
+            return Arrays.binarySearch(vals, v) >= 0;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (char v : vals) {
+                action.accept(high | v);
+            }
+        }
+
+        @Override
+        Container and(Container that) {
+            char[] res = new char[vals.length];
+            int n = 0;
+            if (that instanceof ArrayContainer) {
+                char[] o = ((ArrayContainer) that).vals;
+                int i = 0, j = 0;
+                while (i < vals.length && j < o.length) {
+                    if (vals[i] < o[j]) {
+                        i++;
+                    } else if (vals[i] > o[j]) {
+                        j++;
+                    } else {
+                        res[n++] = vals[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (char v : vals) {
+                    if (that.contains(v)) {
+                        res[n++] = v;
+                    }
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(res, n));
+        }
+
+        @Override
+        Container or(Container that) {
+            Container res;
+            if (that instanceof ArrayContainer) {
+                char[] o = ((ArrayContainer) that).vals;
+                if (vals.length + o.length <= ARRAY_LIMIT) {
+                    char[] r = new char[vals.length + o.length];
+                    int i = 0, j = 0, n = 0;
+                    while (i < vals.length || j < o.length) {
+                        if (j == o.length || (i < vals.length && vals[i] < o[j])) {
+                            r[n++] = vals[i++];
+                        } else if (i == vals.length || vals[i] > o[j]) {
+                            r[n++] = o[j++];
+                        } else {
+                            r[n++] = vals[i];
+                            i++;
+                            j++;
+                        }
+                    }
+                    res = new ArrayContainer(Arrays.copyOf(r, n));
+                } else {
+                    long[] words = new long[1024];
+                    set(words, vals);
+                    set(words, o);
+                    res = Container.of(words);
+                }
+            } else {
+                res = that.or(this);
+            }
+            return res;
+        }
+
+        @Override
+        Container andNot(Container that) {
+            char[] res = new char[vals.length];
+            int n = 0;
+            for (char v : vals) {
+                if (!that.contains(v)) {
+                    res[n++] = v;
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(res, n));
+        }
+
+        private static void set(long[] words, char[] vals) {
+            for (char v : vals) {
+                words[v >>> 6] |= 1L << v;
+            }
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private final int card;
+
+        BitmapContainer(long[] words, int card) {
+            this.words = words;
+            this.card = card;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(char v) {
+            return (words[v >>> 6] & (1L << v)) != 0;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    action.accept(high | ((i << 6) + Long.numberOfTrailingZeros(w)));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        @Override
+        Container and(Container that) {
+            Container res;
+            if (that instanceof BitmapContainer) {
+                long[] o = ((BitmapContainer) that).words;
+                long[] r = new long[1024];
+                for (int i = 0; i < r.length; i++) {
+                    r[i] = words[i] & o[i];
+                }
+                res = Container.of(r);
+            } else {
+                res = that.and(this);
+            }
+            return res;
+        }
+
+        @Override
+        Container or(Container that) {
+            long[] r = words.clone();
+            if (that instanceof BitmapContainer) {
+                long[] o = ((BitmapContainer) that).words;
+                for (int i = 0; i < r.length; i++) {
+                    r[i] |= o[i];
+                }
+            } else {
+                for (char v : ((ArrayContainer) that).vals) {
+                    r[v >>> 6] |= 1L << v;
+                }
+            }
+            return Container.of(r);
+        }
+
+        @Override
+        Container andNot(Container that) {
+            long[] r = words.clone();
+            if (that instanceof BitmapContainer) {
+                long[] o = ((BitmapContainer) that).words;
+                for (int i = 0; i < r.length; i++) {
+                    r[i] &= ~o[i];
+                }
+            } else {
+                for (char v : ((ArrayContainer) that).vals) {
+                    r[v >>> 6] &= ~(1L << v);
+                }
+            }
+            return Container.of(r);
+        }
+    }
+}
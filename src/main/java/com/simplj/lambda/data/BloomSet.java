@@ -0,0 +1,255 @@
+package com.simplj.lambda.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Approximate membership set (blocked Bloom filter): {@link #contains(Object) contains} never answers <code>false</code> for an
+ * included element and answers <code>true</code> for an element never included with (about) the configured false positive
+ * probability. The elements themselves are not retained, hence the set takes a fixed number of bits per expected element regardless
+ * of the size of the elements (e.g. about 10 bits per element at 1% i.e. about 125 MB for 100M elements, 6.4 bits at 5% and 15.6 bits
+ * at 0.1%). The set is sized by the false positive probability of the blocked filter, which needs more bits than an unblocked filter
+ * (the lower the target, the larger the correction).<br>
+ * All the bits of an element lie within a single block of 512 bits (a cache line), hence {@link #include(Object) include} and
+ * {@link #contains(Object) contains} touch a single cache line. The elements are hashed to 64 bits (character by character for
+ * <code>CharSequence</code>s, from the <code>hashCode</code> for most other types, see {@link HyperLogLog}); the set is mutable and
+ * elements cannot be deleted.
+ * @param <E> Type of the elements
+ */
+public final class BloomSet<E> {
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+    private static final int PROBE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(BLOCK_BITS);
+    private static final int MAX_HASHES = 16;
+    private static final double LN2 = Math.log(2);
+
+    private final long[] bits;
+    private final int blocks;
+    private final int hashes;
+    private final double fpp;
+
+    private BloomSet(int blocks, int hashes, double fpp) {
+        this.bits = new long[blocks * BLOCK_LONGS];
+        this.blocks = blocks;
+        this.hashes = hashes;
+        this.fpp = fpp;
+    }
+
+    /**
+     * @param expected expected number of elements
+     * @param fpp target false positive probability (within <code>(0, 1)</code>) once `expected` elements are included
+     * @param <A> Type of the elements
+     * @return empty set sized for `expected` elements at the false positive probability `fpp`
+     */
+    public static <A> BloomSet<A> create(long expected, double fpp) {
+        if (expected < 0) {
+            throw new IllegalArgumentException("Expected number of elements cannot be negative: " + expected);
+        }
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("False positive probability must be within (0, 1): " + fpp);
+        }
+        // blocking skews the load of the blocks, hence the bits per element grow (from the optimal unblocked filter) until the
+        // false positive probability of the blocked filter meets the target; the lower the target the larger the correction
+        double bitsPerElem = Math.max(1, -Math.log(fpp) / (LN2 * LN2));
+        int hashes = bestHashes(bitsPerElem);
+        while (blockedFpp(bitsPerElem, hashes) > fpp) {
+            bitsPerElem *= 1.01;
+            hashes = bestHashes(bitsPerElem);
+        }
+        long totalBits = (long) Math.ceil(Math.max(1, expected) * bitsPerElem);
+        long blocks = (totalBits + BLOCK_BITS - 1) / BLOCK_BITS;
+        if (blocks > Integer.MAX_VALUE / BLOCK_LONGS) {
+            throw new IllegalArgumentException("Too many expected elements for the false positive probability: " + expected);
+        }
+        return new BloomSet<>((int) blocks, hashes, fpp);
+    }
+
+    /**
+     * @return number of hashes (within <code>[1, 16]</code>) minimizing the false positive probability at `bitsPerElem`
+     */
+    private static int bestHashes(double bitsPerElem) {
+        int best = 1;
+        for (int k = 2; k <= MAX_HASHES; k++) {
+            if (blockedFpp(bitsPerElem, k) < blockedFpp(bitsPerElem, best)) {
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * False positive probability of a blocked filter: the number of elements of a block follows a Poisson distribution (of mean
+     * <code>BLOCK_BITS / bitsPerElem</code>) and a block of <code>i</code> elements has the false positive probability of a
+     * Bloom filter of <code>BLOCK_BITS</code> bits holding <code>i</code> elements.
+     */
+    static double blockedFpp(double bitsPerElem, int hashes) {
+        double mean = BLOCK_BITS / bitsPerElem;
+        double p = Math.exp(-mean);
+        double res = 0;
+        int max = (int) (mean + 12 * Math.sqrt(mean) + 12);
+        for (int i = 0; i <= max; i++) {
+            if (i > 0) {
+                p *= mean / i;
+            }
+            res += p * Math.pow(1 - Math.pow(1 - 1.0 / BLOCK_BITS, (double) hashes * i), hashes);
+        }
+        return res;
+    }
+
+    /**
+     * Builds the set of the elements of `elems` (any jlx or java collection) in a single pass, sized for their number.
+     * @param elems elements to include
+     * @param fpp target false positive probability (within <code>(0, 1)</code>)
+     * @param <A> Type of the elements
+     * @return set of the elements of `elems`
+     */
+    public static <A> BloomSet<A> from(Iterable<A> elems, double fpp) {
+        long n = sizeOf(elems);
+        if (n < 0) {
+            List<A> buffered = new ArrayList<>();
+            elems.forEach(buffered::add);
+            elems = buffered;
+            n = buffered.size();
+        }
+        return BloomSet.<A>create(n, fpp).includeAll(elems);
+    }
+
+    /**
+     * Includes the element `e`.
+     * @param e element to include
+     * @return <code>current instance</code>
+     */
+    public BloomSet<E> include(E e) {
+        long h = Util.hash64(e);
+        int base = block(h);
+        for (int i = 0; i < hashes; i++) {
+            h = next(h);
+            int bit = (int) (h >>> PROBE_SHIFT);
+            bits[base + (bit >>> 6)] |= 1L << bit;
+        }
+        return this;
+    }
+
+    public BloomSet<E> includeAll(Iterable<? extends E> elems) {
+        for (E e : elems) {
+            include(e);
+        }
+        return this;
+    }
+
+    /**
+     * @param o element to look for
+     * @return <code>false</code> if `o` was definitely never included, <code>true</code> if it probably was
+     */
+    public boolean contains(Object o) {
+        long h = Util.hash64(o);
+        int base = block(h);
+        for (int i = 0; i < hashes; i++) {
+            h = next(h);
+            int bit = (int) (h >>> PROBE_SHIFT);
+            if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Union of the current set and `that` (a bitwise <i>or</i> of the bits of both).
+     * @param that set to unite with (of the same geometry i.e. created for the same expected size and false positive probability)
+     * @return new set containing the elements of both the sets
+     */
+    public BloomSet<E> union(BloomSet<? extends E> that) {
+        if (that.blocks != blocks || that.hashes != hashes) {
+            throw new IllegalArgumentException("Cannot unite Bloom sets of different sizes or number of hashes!");
+        }
+        BloomSet<E> res = new BloomSet<>(blocks, hashes, fpp);
+        for (int i = 0; i < bits.length; i++) {
+            res.bits[i] = bits[i] | that.bits[i];
+        }
+        return res;
+    }
+
+    /**
+     * @return estimated number of (distinct) elements included, from the fraction of the bits set
+     */
+    public long approximateSize() {
+        long set = 0;
+        for (long w : bits) {
+            set += Long.bitCount(w);
+        }
+        double m = (double) bits.length * Long.SIZE;
+        return set == bits.length * (long) Long.SIZE ? Long.MAX_VALUE : Math.round(-m / hashes * Math.log(1 - set / m));
+    }
+
+    /**
+     * @return number of bits of the set
+     */
+    public long bitSize() {
+        return (long) bits.length * Long.SIZE;
+    }
+
+    /**
+     * @return number of bits set per element
+     */
+    public int hashes() {
+        return hashes;
+    }
+
+    /**
+     * @return the target false positive probability the set was created for
+     */
+    public double fpp() {
+        return fpp;
+    }
+
+    public boolean isEmpty() {
+        for (long w : bits) {
+            if (w != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "BloomSet(bits=" + bitSize() + ", hashes=" + hashes + ", fpp=" + fpp + ")";
+    }
+
+    /**
+     * @return index of the first word of the block of the hash `h` (by the multiply-shift reduction of its high bits)
+     */
+    private int block(long h) {
+        return (int) (((Util.mix64(h) >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+    }
+
+    /**
+     * Next state of the probe sequence of a hash (a 64 bit linear congruential step). The bits within a block are taken from the high
+     * bits of the successive states, hence the probes of an element depend on all the 64 bits of its hash (deriving them from a few low
+     * bits of the hash would restrict the distinct bit patterns of a block and dominate the false positives at low targets).
+     */
+    private static long next(long h) {
+        return h * 0x5851F42D4C957F2DL + 0x14057B7EF767814FL;
+    }
+
+    /**
+     * @return number of elements of `elems` if known without iterating otherwise <code>-1</code>
+     */
+    private static long sizeOf(Iterable<?> elems) {
+        if (elems instanceof Collection) {
+            return ((Collection<?>) elems).size();
+        }
+        if (elems instanceof FList) {
+            return ((FList<?, ?>) elems).size();
+        }
+        if (elems instanceof FSet) {
+            return ((FSet<?, ?>) elems).size();
+        }
+        if (elems instanceof FArray) {
+            return ((FArray<?, ?>) elems).size();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,201 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Condition;
+
+import java.util.*;
+
+/**
+ * Bulk (set algebra) operations between jlx collections and arbitrary <code>Iterable</code>s. The strategy to test membership
+ * is picked from the sizes and the backing types involved:
+ * <ul>
+ *     <li>sorted merge when both sides are sorted sets ordered by the same comparator</li>
+ *     <li>direct probing when the side being probed already is a set or has an {@link Index index}</li>
+ *     <li>code bitmap when the side being probed is a dictionary-encoded list</li>
+ *     <li>linear scan when either side is tiny</li>
+ *     <li>hashed probing otherwise</li>
+ * </ul>
+ */
+final class BulkOps {
+    static final int LINEAR_LIMIT = 8;
+
+    private BulkOps() {
+    }
+
+    /**
+     * @param c elements to test the membership against
+     * @param <T> Type of the elements to test
+     * @return condition which is satisfied by the elements contained in `c`
+     */
+    static <T> Condition<T> membership(Iterable<?> c) {
+        Condition<T> res;
+        Iterable<?> src = unwrap(c);
+        Index<Object, ?> idx = identityIndex(src);
+        if (src instanceof Set) {
+            Set<?> s = (Set<?>) src;
+            res = s::contains;
+        } else if (idx != null) {
+            res = idx::contains;
+        } else if (src instanceof EncodedList) {
+            res = codes((EncodedList<?>) src);
+        } else {
+            Collection<?> col = collection(src);
+            if (col != null && col.size() <= LINEAR_LIMIT) {
+                res = col::contains;
+            } else {
+                Set<Object> s = new HashSet<>();
+                for (Object o : src) {
+                    s.add(o);
+                }
+                res = s::contains;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param source elements to look into
+     * @param c elements to look for
+     * @return <code>true</code> if `source` contains all the elements of `c` otherwise <code>false</code>
+     */
+    static boolean containsAll(Iterable<?> source, Iterable<?> c) {
+        Iterable<?> src = unwrap(source);
+        Iterable<?> that = unwrap(c);
+        if (src instanceof SortedSet && that instanceof SortedSet
+                && Objects.equals(((SortedSet<?>) src).comparator(), ((SortedSet<?>) that).comparator())) {
+            return mergeContainsAll((SortedSet<?>) src, (SortedSet<?>) that);
+        }
+        Collection<?> col = collection(that);
+        Condition<Object> m = col != null && col.size() <= LINEAR_LIMIT ? linear(source) : membership(source);
+        for (Object o : that) {
+            if (!m.evaluate(o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the first occurrence of each element of `c` from the `list` in a single pass.
+     * @param list list to remove the elements from
+     * @param c elements to remove (an element occurring <i>n</i> times removes <i>n</i> occurrences)
+     * @param <T> Type of the list elements
+     */
+    static <T> void deleteEach(List<T> list, Iterable<?> c) {
+        Map<Object, int[]> counts = new HashMap<>();
+        for (Object o : c) {
+            counts.computeIfAbsent(o, k -> new int[1])[0]++;
+        }
+        if (!counts.isEmpty()) {
+            list.removeIf(e -> {
+                int[] n = counts.get(e);
+                return n != null && n[0]-- > 0;
+            });
+        }
+    }
+
+    /**
+     * @param source elements already present
+     * @param c elements to add
+     * @param <T> Type of the elements
+     * @return distinct elements of `c` (in their order) which are not present in `source`
+     */
+    static <T> List<T> missing(Iterable<?> source, Iterable<? extends T> c) {
+        Condition<T> present = membership(source);
+        Set<T> seen = new HashSet<>();
+        List<T> res = new ArrayList<>();
+        for (T t : c) {
+            if (!present.evaluate(t) && seen.add(t)) {
+                res.add(t);
+            }
+        }
+        return res;
+    }
+
+    private static Condition<Object> linear(Iterable<?> source) {
+        Condition<Object> res;
+        if (source instanceof FList) {
+            FList<?, ?> l = Util.cast(source);
+            res = l::contains;
+        } else if (source instanceof FArray) {
+            FArray<Object, ?> a = Util.cast(source);
+            res = a::contains;
+        } else if (source instanceof FSet) {
+            FSet<?, ?> s = Util.cast(source);
+            res = s::contains;
+        } else if (source instanceof Collection) {
+            Collection<?> col = Util.cast(source);
+            res = col::contains;
+        } else {
+            res = membership(source);
+        }
+        return res;
+    }
+
+    private static boolean mergeContainsAll(SortedSet<?> source, SortedSet<?> c) {
+        Comparator<Object> cmp = source.comparator() == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(source.comparator());
+        Iterator<?> itr = source.iterator();
+        Object cur = null;
+        boolean has = false;
+        for (Object o : c) {
+            int r = -1;
+            while (r < 0) {
+                if (!has) {
+                    if (!itr.hasNext()) {
+                        return false;
+                    }
+                    cur = itr.next();
+                    has = true;
+                }
+                r = cmp.compare(cur, o);
+                if (r < 0) {
+                    has = false;
+                }
+            }
+            if (r > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> Condition<T> codes(EncodedList<?> l) {
+        EncodedList.Dictionary<?> d = l.dictionary();
+        EncodedList.Codes codes = l.codes();
+        BitSet present = new BitSet(d.size());
+        for (int i = 0, n = codes.size(); i < n; i++) {
+            present.set(codes.get(i));
+        }
+        return o -> {
+            int code = d.code(o);
+            return code >= 0 && present.get(code);
+        };
+    }
+
+    private static Iterable<?> unwrap(Iterable<?> c) {
+        return c instanceof FSet ? ((FSet<?, ?>) c).set() : c;
+    }
+
+    private static Index<Object, ?> identityIndex(Iterable<?> c) {
+        Index<?, ?> res = null;
+        if (c instanceof IList) {
+            res = ((IList<?>) c).identityIndex();
+        } else if (c instanceof IArray) {
+            res = ((IArray<?>) c).identityIndex();
+        }
+        return Util.cast(res);
+    }
+
+    private static Collection<?> collection(Iterable<?> c) {
+        Collection<?> res;
+        if (c instanceof Collection) {
+            res = (Collection<?>) c;
+        } else if (c instanceof FList) {
+            res = ((FList<?, ?>) c).list();
+        } else if (c instanceof FArray) {
+            res = Arrays.asList(((FArray<?, ?>) c).array());
+        } else {
+            res = null;
+        }
+        return res;
+    }
+}
@@ -0,0 +1,372 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.TriFunction;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Insertion ordered hash map with open addressing. The entries are kept in dense parallel arrays (in insertion order) and a separate
+ * table of <code>int</code> slots refers to them; collisions are resolved by Robin Hood linear probing (with backward shift deletion),
+ * which keeps the probe lengths short and predictable even under heavy load. There is no node object per entry and the iteration is
+ * a linear scan of the dense arrays.<br>
+ * It can be used as the backing map of the jlx maps, e.g. <code>MMap.unit(CompactMap::new)</code> or <code>IMap.unit(CompactMap::new)</code>.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class CompactMap<K, V> extends AbstractMap<K, V> {
+    private static final Object REMOVED = new Object();
+    private static final int MIN_CAPACITY = 8;
+    private Object[] keys;
+    private Object[] vals;
+    private int[] hashes;
+    private int used;
+    private int size;
+    private int[] slots;
+    private int mask;
+
+    public CompactMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public CompactMap(int expectedSize) {
+        int cap = Math.max(MIN_CAPACITY, expectedSize);
+        keys = new Object[cap];
+        vals = new Object[cap];
+        hashes = new int[cap];
+        slots = new int[tableSize(cap)];
+        mask = slots.length - 1;
+    }
+
+    public CompactMap(Map<? extends K, ? extends V> m) {
+        this(m.size());
+        putAll(m);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slot(key, hash(key)) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED && Objects.equals(vals[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        int s = slot(key, hash(key));
+        return s < 0 ? null : Util.cast(vals[slots[s] - 1]);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int h = hash(key);
+        int s = slot(key, h);
+        V res;
+        if (s >= 0) {
+            int i = slots[s] - 1;
+            res = Util.cast(vals[i]);
+            vals[i] = value;
+        } else {
+            if (used == keys.length) {
+                grow();
+            }
+            keys[used] = key;
+            vals[used] = value;
+            hashes[used] = h;
+            used++;
+            size++;
+            if (size > slots.length - (slots.length >>> 3)) {
+                rehash(slots.length << 1);
+            } else {
+                place(used, h);
+            }
+            res = null;
+        }
+        return res;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int s = slot(key, hash(key));
+        V res = null;
+        if (s >= 0) {
+            int i = slots[s] - 1;
+            res = Util.cast(vals[i]);
+            keys[i] = REMOVED;
+            vals[i] = null;
+            size--;
+            int next = (s + 1) & mask;
+            while (slots[next] != 0 && distance(next) > 0) {
+                slots[s] = slots[next];
+                s = next;
+                next = (next + 1) & mask;
+            }
+            slots[s] = 0;
+        }
+        return res;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, used, null);
+        Arrays.fill(vals, 0, used, null);
+        Arrays.fill(slots, 0);
+        used = 0;
+        size = 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED) {
+                action.accept(Util.cast(keys[i]), Util.cast(vals[i]));
+            }
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED) {
+                vals[i] = function.apply(Util.cast(keys[i]), Util.cast(vals[i]));
+            }
+        }
+    }
+
+    /**
+     * Folds the entries (in insertion order) by scanning the dense arrays.
+     */
+    <R> R fold(R origin, TriFunction<R, K, V, R> accumulator) {
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED) {
+                origin = accumulator.apply(origin, Util.cast(keys[i]), Util.cast(vals[i]));
+            }
+        }
+        return origin;
+    }
+
+    /**
+     * @return number of slots probed to find `key` (or to conclude it is absent)
+     */
+    int probes(Object key) {
+        int h = hash(key);
+        int s = h & mask;
+        int d = 0;
+        while (slots[s] != 0 && distance(s) >= d) {
+            d++;
+            if (hashes[slots[s] - 1] == h && Objects.equals(keys[slots[s] - 1], key)) {
+                break;
+            }
+            s = (s + 1) & mask;
+        }
+        return d;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Iterator<Map.Entry<K, V>>() {
+                    private int next = skip(0);
+                    private int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < used;
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        if (next >= used) {
+                            throw new NoSuchElementException();
+                        }
+                        last = next;
+                        next = skip(next + 1);
+                        return new Entry(last);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0 || keys[last] == REMOVED) {
+                            throw new IllegalStateException();
+                        }
+                        CompactMap.this.remove(keys[last]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+                Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+                int s = slot(e.getKey(), hash(e.getKey()));
+                return s >= 0 && Objects.equals(vals[slots[s] - 1], e.getValue());
+            }
+
+            @Override
+            public void clear() {
+                CompactMap.this.clear();
+            }
+        };
+    }
+
+    private int skip(int i) {
+        while (i < used && keys[i] == REMOVED) {
+            i++;
+        }
+        return i;
+    }
+
+    private int slot(Object key, int h) {
+        int s = h & mask;
+        int d = 0;
+        while (true) {
+            int e = slots[s];
+            if (e == 0 || distance(s) < d) {
+                return -1;
+            }
+            if (hashes[e - 1] == h && Objects.equals(keys[e - 1], key)) {
+                return s;
+            }
+            s = (s + 1) & mask;
+            d++;
+        }
+    }
+
+    /**
+     * Robin Hood insertion: an entry further from its home slot takes over the slot of an entry closer to its own.
+     */
+    private void place(int entry, int h) {
+        int s = h & mask;
+        int d = 0;
+        while (slots[s] != 0) {
+            int sd = distance(s);
+            if (sd < d) {
+                int t = slots[s];
+                slots[s] = entry;
+                entry = t;
+                d = sd;
+            }
+            s = (s + 1) & mask;
+            d++;
+        }
+        slots[s] = entry;
+    }
+
+    private int distance(int s) {
+        return (s - (hashes[slots[s] - 1] & mask)) & mask;
+    }
+
+    /**
+     * Makes room in the dense arrays by dropping the removed entries or (if there are not many) by growing them.
+     */
+    private void grow() {
+        if (size < used - (used >>> 2)) {
+            int n = 0;
+            for (int i = 0; i < used; i++) {
+                if (keys[i] != REMOVED) {
+                    keys[n] = keys[i];
+                    vals[n] = vals[i];
+                    hashes[n++] = hashes[i];
+                }
+            }
+            Arrays.fill(keys, n, used, null);
+            Arrays.fill(vals, n, used, null);
+            used = n;
+        } else {
+            int cap = keys.length + (keys.length >>> 1);
+            keys = Arrays.copyOf(keys, cap);
+            vals = Arrays.copyOf(vals, cap);
+            hashes = Arrays.copyOf(hashes, cap);
+        }
+        rehash(Math.max(slots.length, tableSize(keys.length)));
+    }
+
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        mask = tableSize - 1;
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED) {
+                place(i + 1, hashes[i]);
+            }
+        }
+    }
+
+    private static int tableSize(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity + (capacity >>> 2), MIN_CAPACITY) - 1) << 1;
+        return Math.max(n, MIN_CAPACITY);
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private final class Entry implements Map.Entry<K, V> {
+        private final int idx;
+
+        Entry(int idx) {
+            this.idx = idx;
+        }
+
+        @Override
+        public K getKey() {
+            return Util.cast(keys[idx]);
+        }
+
+        @Override
+        public V getValue() {
+            return Util.cast(vals[idx]);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V res = getValue();
+            vals[idx] = value;
+            return res;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.simplj.lambda.data;
+
+/**
+ * Mergeable frequency estimator (Count-Min sketch): a table of <code>d</code> rows of <code>w</code> counters where each element
+ * increments one counter per row (chosen by its 64 bit hash). The estimated frequency of an element is the minimum of its counters,
+ * which never under-estimates and over-estimates by at most <code>epsilon * total()</code> with probability <code>1 - delta</code>
+ * in a fixed space of <code>O(ln(1/delta) / epsilon)</code> counters.<br>
+ * Sketches of the same dimensions built independently can be {@link #merge(CountMinSketch) merged} (counter-wise sum).
+ * @see SpaceSaving
+ */
+public final class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final long[] table;
+    private long total;
+
+    private CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.table = new long[depth * width];
+    }
+
+    /**
+     * @param epsilon over-estimation bound relative to the {@link #total() total} count (within <code>(0, 1)</code>)
+     * @param delta probability of exceeding the bound (within <code>(0, 1)</code>)
+     * @return empty sketch dimensioned for the bounds
+     */
+    public static CountMinSketch create(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Epsilon and delta must be within (0, 1): " + epsilon + ", " + delta);
+        }
+        return new CountMinSketch((int) Math.ceil(Math.log(1 / delta)), (int) Math.ceil(Math.E / epsilon));
+    }
+
+    /**
+     * @param o element to count
+     * @return <code>current instance</code>
+     */
+    public CountMinSketch add(Object o) {
+        return add(o, 1);
+    }
+
+    /**
+     * @param o element to count
+     * @param count number of occurrences (non-negative)
+     * @return <code>current instance</code>
+     */
+    public CountMinSketch add(Object o, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative: " + count);
+        }
+        long h = Util.hash64(o);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < depth; i++) {
+            table[i * width + index(h1 + i * h2)] += count;
+        }
+        total += count;
+        return this;
+    }
+
+    public CountMinSketch addAll(Iterable<?> elems) {
+        for (Object o : elems) {
+            add(o);
+        }
+        return this;
+    }
+
+    /**
+     * @param o element to look up
+     * @return estimated number of occurrences of `o` (never less than the actual number)
+     */
+    public long estimate(Object o) {
+        long h = Util.hash64(o);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        long res = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            res = Math.min(res, table[i * width + index(h1 + i * h2)]);
+        }
+        return res;
+    }
+
+    /**
+     * Adds the counters of `that` to the current sketch (`that` remains unchanged).
+     * @param that sketch to merge (of the same dimensions)
+     * @return <code>current instance</code>
+     */
+    public CountMinSketch merge(CountMinSketch that) {
+        if (that.depth != depth || that.width != width) {
+            throw new IllegalArgumentException("Cannot merge sketches of different dimensions!");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += that.table[i];
+        }
+        total += that.total;
+        return this;
+    }
+
+    /**
+     * @return total number of occurrences counted
+     */
+    public long total() {
+        return total;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public String toString() {
+        return "CountMinSketch(depth=" + depth + ", width=" + width + ", total=" + total + ")";
+    }
+
+    private int index(int h) {
+        return (int) (((h & 0xFFFFFFFFL) * width) >>> 32);
+    }
+}
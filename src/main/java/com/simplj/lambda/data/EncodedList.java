@@ -0,0 +1,567 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Condition;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+import com.simplj.lambda.util.Lazy;
+
+import java.util.*;
+
+/**
+ * Dictionary-encoded <code>IList</code>. Every distinct element is stored once in a (shared) dictionary and the list only
+ * holds the codes of its elements which are packed in a <code>byte</code>, <code>char</code> or <code>int</code> array
+ * depending on the cardinality of the dictionary.<br>
+ * Lazy functions and conditions are applied to the dictionary i.e. once per <i>distinct</i> element rather than once per
+ * element, hence they are expected to be pure. Elements are decoded only when handed over to the caller.
+ * @param <E> Type of the list elements
+ */
+final class EncodedList<E> extends IList<E> {
+    private final Dictionary<E> dict;
+    private final Codes codes;
+    private final Codes src;
+    private final Producer<Recode<E>> plan;
+
+    private EncodedList(Dictionary<E> dict, Codes codes, Producer<List<?>> constructor) {
+        super(new View<>(dict, codes), constructor);
+        this.dict = dict;
+        this.codes = codes;
+        this.src = codes;
+        this.plan = () -> Recode.identity(dict);
+    }
+
+    private EncodedList(Codes src, Producer<Recode<E>> plan, Producer<List<?>> constructor) {
+        super(null, constructor);
+        this.dict = null;
+        this.codes = null;
+        this.src = src;
+        this.plan = plan;
+    }
+
+    static <E> EncodedList<E> encode(Iterable<? extends E> iter, Producer<List<?>> constructor) {
+        Dictionary.Builder<E> b = new Dictionary.Builder<>();
+        int[] c = new int[16];
+        int n = 0;
+        for (E e : iter) {
+            if (n == c.length) {
+                c = Arrays.copyOf(c, n << 1);
+            }
+            c[n++] = b.code(e);
+        }
+        Dictionary<E> d = b.build();
+        return new EncodedList<>(d, Codes.of(c, n, d.size()), constructor);
+    }
+
+    @Override
+    IList<E> instantiate(Producer<List<?>> constructor, List<E> listVal) {
+        return IList.of(listVal, constructor);
+    }
+
+    /**
+     * Applies the function `f` to every <i>distinct</i> element and re-encodes the result. Function application is <i>lazy</i>.
+     * @param f function to apply to each distinct element.
+     * @param <R> type returned by the function `f` application
+     * @return resultant dictionary-encoded list after applying `f` to all the list elements
+     */
+    @Override
+    public <R> IList<R> map(Function<E, R> f) {
+        Producer<Recode<E>> p = plan;
+        return new EncodedList<>(src, () -> p.produce().map(f), constructor);
+    }
+
+    /**
+     * Flattening does not preserve the encoding, hence the resultant list is a regular <code>IList</code> whose source is this
+     * encoded list. Function application is <i>lazy</i>.
+     */
+    @Override
+    public <R> IList<R> flatmap(Function<E, ? extends List<R>> f) {
+        Lazy<List<E>> decoded = Lazy.of(this::list);
+        List<E> view = new AbstractList<E>() {
+            @Override
+            public E get(int index) {
+                return decoded.get().get(index);
+            }
+
+            @Override
+            public int size() {
+                return decoded.get().size();
+            }
+        };
+        return IList.of(view, constructor).flatmap(f);
+    }
+
+    /**
+     * Evaluates the condition `c` once per <i>distinct</i> element and keeps the codes of the satisfying ones.
+     * Function application is <i>lazy</i>.
+     */
+    @Override
+    public IList<E> filter(Condition<E> c) {
+        Producer<Recode<E>> p = plan;
+        return new EncodedList<>(src, () -> p.produce().filter(c), constructor);
+    }
+
+    @Override
+    public IList<E> encoded() {
+        return this;
+    }
+
+    @Override
+    public MList<E> mutable() {
+        List<E> r = Util.cast(constructor.produce());
+        r.addAll(list());
+        return MList.of(r, constructor);
+    }
+
+    @Override
+    public Couple<IList<E>, IList<E>> split(Condition<E> c) {
+        EncodedList<E> a = encodedApplied();
+        Matcher<E> m = new Matcher<>(a.dict, c);
+        int n = a.codes.size();
+        int[] match = new int[n];
+        int[] rest = new int[n];
+        int x = 0, y = 0;
+        for (int i = 0; i < n; i++) {
+            int code = a.codes.get(i);
+            if (m.matches(code)) {
+                match[x++] = code;
+            } else {
+                rest[y++] = code;
+            }
+        }
+        return Tuple.of(compacted(a.dict, match, x, constructor), compacted(a.dict, rest, y, constructor));
+    }
+
+    @Override
+    public E find(Condition<E> c) {
+        EncodedList<E> a = encodedApplied();
+        Matcher<E> m = new Matcher<>(a.dict, c);
+        for (int i = 0, n = a.codes.size(); i < n; i++) {
+            int code = a.codes.get(i);
+            if (m.matches(code)) {
+                return a.dict.get(code);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? encodedApplied().list.indexOf(o) : idx.first(Util.cast(o));
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? encodedApplied().list.lastIndexOf(o) : idx.last(Util.cast(o));
+    }
+
+    @Override
+    public IList<E> append(E val) {
+        return append(Collections.singletonList(val));
+    }
+
+    @Override
+    public IList<E> append(Iterable<? extends E> c) {
+        EncodedList<E> a = encodedApplied();
+        Dictionary.Builder<E> b = a.dict.extend();
+        int n = a.codes.size();
+        int[] r = new int[n + 16];
+        for (int i = 0; i < n; i++) {
+            r[i] = a.codes.get(i);
+        }
+        for (E e : c) {
+            if (n == r.length) {
+                r = Arrays.copyOf(r, n << 1);
+            }
+            r[n++] = b.code(e);
+        }
+        Dictionary<E> d = b.build();
+        return new EncodedList<>(d, Codes.of(r, n, d.size()), constructor);
+    }
+
+    /**
+     * Ranks the distinct elements by the comparator `c` and then counting-sorts the codes, hence the sort is stable and
+     * linear in the size of the list.
+     */
+    @Override
+    public IList<E> sorted(Comparator<? super E> c) {
+        Comparator<? super E> cmp = c == null ? Util.<Comparator<? super E>>cast(Comparator.naturalOrder()) : c;
+        EncodedList<E> a = encodedApplied();
+        Dictionary<E> d = a.dict;
+        int card = d.size();
+        Integer[] order = new Integer[card];
+        for (int i = 0; i < card; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> cmp.compare(d.get(x), d.get(y)));
+        int[] rank = new int[card];
+        int r = 0;
+        for (int i = 0; i < card; i++) {
+            if (i > 0 && cmp.compare(d.get(order[i - 1]), d.get(order[i])) != 0) {
+                r++;
+            }
+            rank[order[i]] = r;
+        }
+        int n = a.codes.size();
+        int[] pos = new int[r + 2];
+        for (int i = 0; i < n; i++) {
+            pos[rank[a.codes.get(i)] + 1]++;
+        }
+        for (int i = 1; i < pos.length; i++) {
+            pos[i] += pos[i - 1];
+        }
+        int[] res = new int[n];
+        for (int i = 0; i < n; i++) {
+            int code = a.codes.get(i);
+            res[pos[rank[code]]++] = code;
+        }
+        return new EncodedList<>(d, Codes.of(res, n, card), constructor);
+    }
+
+    /**
+     * Same as {@link #sorted(Comparator) sorted} as the codes are sorted in linear time anyway.
+     */
+    @Override
+    public IList<E> sortedParallel(Comparator<? super E> c) {
+        return sorted(c);
+    }
+
+    @Override
+    public IList<E> preserve(Iterable<? extends E> c) {
+        return filter(BulkOps.membership(c)).applied();
+    }
+
+    @Override
+    public IList<E> deleteIf(Condition<? super E> c) {
+        return filter(e -> !c.evaluate(e)).applied();
+    }
+
+    @Override
+    IList<E> appliedList(boolean copy) {
+        IList<E> res;
+        if (copy) {
+            List<E> r = Util.cast(constructor.produce());
+            r.addAll(list());
+            res = IList.of(r, constructor);
+        } else if (isApplied()) {
+            res = this;
+        } else {
+            Recode<E> r = plan.produce();
+            int n = src.size();
+            int[] out = new int[n];
+            int x = 0;
+            for (int i = 0; i < n; i++) {
+                int code = r.table[src.get(i)];
+                if (code >= 0) {
+                    out[x++] = code;
+                }
+            }
+            res = compacted(r.dict, out, x, constructor);
+        }
+        return res;
+    }
+
+    /**
+     * Encodes the first `n` codes of `c` (of the dictionary `dict`) with a dictionary of only the values they refer to, hence the lazy
+     * functions and conditions applied later are never applied to the values filtered out.
+     */
+    private static <E> EncodedList<E> compacted(Dictionary<E> dict, int[] c, int n, Producer<List<?>> constructor) {
+        int[] remap = new int[dict.size()];
+        Arrays.fill(remap, -1);
+        Dictionary.Builder<E> b = new Dictionary.Builder<>();
+        for (int i = 0; i < n; i++) {
+            int code = remap[c[i]];
+            if (code < 0) {
+                code = b.code(dict.get(c[i]));
+                remap[c[i]] = code;
+            }
+            c[i] = code;
+        }
+        Dictionary<E> d = b.build();
+        return new EncodedList<>(d, Codes.of(c, n, d.size()), constructor);
+    }
+
+    Dictionary<E> dictionary() {
+        return encodedApplied().dict;
+    }
+
+    Codes codes() {
+        return encodedApplied().codes;
+    }
+
+    private EncodedList<E> encodedApplied() {
+        return Util.cast(applied());
+    }
+
+    /**
+     * Distinct values of an encoded list along with their codes.
+     * @param <E> Type of the values
+     */
+    static final class Dictionary<E> {
+        private final Object[] values;
+        private final Map<Object, Integer> codes;
+
+        private Dictionary(Object[] values, Map<Object, Integer> codes) {
+            this.values = values;
+            this.codes = codes;
+        }
+
+        E get(int code) {
+            return Util.cast(values[code]);
+        }
+
+        int code(Object o) {
+            Integer c = codes.get(o);
+            return c == null ? -1 : c;
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        Builder<E> extend() {
+            Builder<E> b = new Builder<>();
+            for (Object v : values) {
+                b.code(Util.cast(v));
+            }
+            return b;
+        }
+
+        static final class Builder<E> {
+            private final List<Object> values = new ArrayList<>();
+            private final Map<Object, Integer> codes = new HashMap<>();
+
+            int code(E e) {
+                Integer c = codes.get(e);
+                if (c == null) {
+                    c = values.size();
+                    codes.put(e, c);
+                    values.add(e);
+                }
+                return c;
+            }
+
+            Dictionary<E> build() {
+                return new Dictionary<>(values.toArray(), codes);
+            }
+        }
+    }
+
+    /**
+     * Codes of an encoded list packed as narrow as the cardinality of the dictionary allows.
+     */
+    abstract static class Codes {
+        abstract int get(int idx);
+        abstract int size();
+
+        static Codes of(int[] c, int n, int cardinality) {
+            Codes res;
+            if (cardinality <= 1 << 8) {
+                byte[] b = new byte[n];
+                for (int i = 0; i < n; i++) {
+                    b[i] = (byte) c[i];
+                }
+                res = new Bytes(b);
+            } else if (cardinality <= 1 << 16) {
+                char[] ch = new char[n];
+                for (int i = 0; i < n; i++) {
+                    ch[i] = (char) c[i];
+                }
+                res = new Chars(ch);
+            } else {
+                res = new Ints(Arrays.copyOf(c, n));
+            }
+            return res;
+        }
+
+        private static final class Bytes extends Codes {
+            private final byte[] codes;
+
+            Bytes(byte[] codes) {
+                this.codes = codes;
+            }
+
+            @Override
+            int get(int idx) {
+                return codes[idx] & 0xFF;
+            }
+
+            @Override
+            int size() {
+                return codes.length;
+            }
+        }
+
+        private static final class Chars extends Codes {
+            private final char[] codes;
+
+            Chars(char[] codes) {
+                this.codes = codes;
+            }
+
+            @Override
+            int get(int idx) {
+                return codes[idx];
+            }
+
+            @Override
+            int size() {
+                return codes.length;
+            }
+        }
+
+        private static final class Ints extends Codes {
+            private final int[] codes;
+
+            Ints(int[] codes) {
+                this.codes = codes;
+            }
+
+            @Override
+            int get(int idx) {
+                return codes[idx];
+            }
+
+            @Override
+            int size() {
+                return codes.length;
+            }
+        }
+    }
+
+    /**
+     * Pending transformation of an encoded list: the target dictionary and the target code of every source code
+     * (<code>-1</code> if the element is filtered out).
+     * @param <E> Type of the target values
+     */
+    private static final class Recode<E> {
+        private final Dictionary<E> dict;
+        private final int[] table;
+
+        private Recode(Dictionary<E> dict, int[] table) {
+            this.dict = dict;
+            this.table = table;
+        }
+
+        static <E> Recode<E> identity(Dictionary<E> dict) {
+            int[] t = new int[dict.size()];
+            for (int i = 0; i < t.length; i++) {
+                t[i] = i;
+            }
+            return new Recode<>(dict, t);
+        }
+
+        Recode<E> filter(Condition<E> c) {
+            Matcher<E> m = new Matcher<>(dict, c);
+            int[] t = new int[table.length];
+            for (int i = 0; i < t.length; i++) {
+                int code = table[i];
+                t[i] = code >= 0 && m.matches(code) ? code : -1;
+            }
+            return new Recode<>(dict, t);
+        }
+
+        <R> Recode<R> map(Function<E, R> f) {
+            Dictionary.Builder<R> b = new Dictionary.Builder<>();
+            int[] mapped = new int[dict.size()];
+            Arrays.fill(mapped, -1);
+            int[] t = new int[table.length];
+            for (int i = 0; i < t.length; i++) {
+                int code = table[i];
+                if (code < 0) {
+                    t[i] = -1;
+                } else {
+                    if (mapped[code] < 0) {
+                        mapped[code] = b.code(f.apply(dict.get(code)));
+                    }
+                    t[i] = mapped[code];
+                }
+            }
+            return new Recode<>(b.build(), t);
+        }
+    }
+
+    /**
+     * Evaluates a condition at most once per code.
+     * @param <E> Type of the values
+     */
+    private static final class Matcher<E> {
+        private final Dictionary<E> dict;
+        private final Condition<E> c;
+        private final byte[] memo;
+
+        Matcher(Dictionary<E> dict, Condition<E> c) {
+            this.dict = dict;
+            this.c = c;
+            this.memo = new byte[dict.size()];
+        }
+
+        boolean matches(int code) {
+            if (memo[code] == 0) {
+                memo[code] = c.evaluate(dict.get(code)) ? (byte) 1 : (byte) 2;
+            }
+            return memo[code] == 1;
+        }
+    }
+
+    private static final class View<E> extends AbstractList<E> implements RandomAccess {
+        private final Dictionary<E> dict;
+        private final Codes codes;
+
+        View(Dictionary<E> dict, Codes codes) {
+            this.dict = dict;
+            this.codes = codes;
+        }
+
+        @Override
+        public E get(int index) {
+            if (index < 0 || index >= codes.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + codes.size());
+            }
+            return dict.get(codes.get(index));
+        }
+
+        @Override
+        public int size() {
+            return codes.size();
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            int code = dict.code(o);
+            if (code >= 0) {
+                for (int i = 0, n = codes.size(); i < n; i++) {
+                    if (codes.get(i) == code) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            int code = dict.code(o);
+            if (code >= 0) {
+                for (int i = codes.size() - 1; i >= 0; i--) {
+                    if (codes.get(i) == code) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.simplj.lambda.data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * External merge sort for sources which do not fit in memory. The source is read in runs of (at most) {@link #runSize(int) runSize}
+ * elements; each run is sorted in memory and spilled to a temporary file by the {@link Serializer Serializer}, and the runs are merged
+ * back lazily by a k-way merge when the {@link Sorted Sorted} result is iterated. A source fitting in a single run is never spilled.<br>
+ * The sort is stable. Instances are immutable: the configuration methods return a new instance.
+ * <pre>
+ *     try (ExternalSort.Sorted&lt;String&gt; s = ExternalSort.of(ExternalSort.strings()).runSize(1_000_000).parallel(true).sort(lines)) {
+ *         s.forEach(...);
+ *     }
+ * </pre>
+ * @param <E> Type of the elements
+ */
+public final class ExternalSort<E> {
+    private static final int DEFAULT_RUN_SIZE = 1 << 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final Serializer<E> serializer;
+    private final Comparator<? super E> comparator;
+    private final int runSize;
+    private final File tempDir;
+    private final boolean parallel;
+
+    private ExternalSort(Serializer<E> serializer, Comparator<? super E> comparator, int runSize, File tempDir, boolean parallel) {
+        this.serializer = serializer;
+        this.comparator = comparator;
+        this.runSize = runSize;
+        this.tempDir = tempDir;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param serializer serializer of the spilled elements
+     * @param <A> Type of the elements (sorted by their natural order)
+     * @return external sort by the natural order of the elements
+     */
+    public static <A> ExternalSort<A> of(Serializer<A> serializer) {
+        return of(serializer, null);
+    }
+
+    public static <A> ExternalSort<A> of(Serializer<A> serializer, Comparator<? super A> comparator) {
+        return new ExternalSort<>(serializer, comparator, DEFAULT_RUN_SIZE, null, false);
+    }
+
+    /**
+     * @param maxElements memory budget expressed as the maximum number of elements held in memory by a run
+     * @return external sort spilling runs of (at most) `maxElements` elements
+     */
+    public ExternalSort<E> runSize(int maxElements) {
+        if (maxElements < 1) {
+            throw new IllegalArgumentException("Run size must be positive: " + maxElements);
+        }
+        return new ExternalSort<>(serializer, comparator, maxElements, tempDir, parallel);
+    }
+
+    /**
+     * @param dir directory of the spilled runs (the default temporary-file directory if <code>null</code>)
+     * @return external sort spilling runs into `dir`
+     */
+    public ExternalSort<E> tempDir(File dir) {
+        return new ExternalSort<>(serializer, comparator, runSize, dir, parallel);
+    }
+
+    /**
+     * Runs are sorted and spilled in parallel (on the pool described by {@link FList#foldParallel FList.foldParallel}) while the
+     * next run is being read. At most one run per worker is in flight, hence the memory budget is multiplied by the parallelism of the pool.
+     * @param parallel whether the runs are to be generated in parallel
+     * @return external sort generating the runs in parallel (or not)
+     */
+    public ExternalSort<E> parallel(boolean parallel) {
+        return new ExternalSort<>(serializer, comparator, runSize, tempDir, parallel);
+    }
+
+    /**
+     * Reads `src` completely and spills the sorted runs. The merge happens lazily when the result is iterated.
+     * @param src elements to sort
+     * @return sorted elements (to be {@link Sorted#close() closed} in order to delete the spilled runs)
+     * @throws UncheckedIOException if a run cannot be spilled
+     */
+    public Sorted<E> sort(Iterable<E> src) {
+        Comparator<Object> cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+        ForkJoinPool pool = Parallel.pool();
+        Deque<ForkJoinTask<File>> pending = new ArrayDeque<>();
+        List<File> runs = new ArrayList<>();
+        long size = 0;
+        Object[] buf = new Object[Math.min(runSize, 1024)];
+        int n = 0;
+        try {
+            for (E e : src) {
+                if (n == runSize) {
+                    Object[] run = buf;
+                    if (parallel) {
+                        if (pending.size() >= pool.getParallelism()) {
+                            runs.add(pending.poll().join());
+                        }
+                        pending.add(pool.submit(() -> spill(run, run.length, cmp)));
+                    } else {
+                        runs.add(spill(run, n, cmp));
+                    }
+                    buf = new Object[Math.min(runSize, 1024)];
+                    n = 0;
+                }
+                if (n == buf.length) {
+                    buf = Arrays.copyOf(buf, (int) Math.min(runSize, (long) n << 1));
+                }
+                buf[n++] = e;
+                size++;
+            }
+            while (!pending.isEmpty()) {
+                runs.add(pending.poll().join());
+            }
+            if (!runs.isEmpty() && n > 0) {
+                runs.add(spill(buf, n, cmp));
+            }
+        } catch (RuntimeException | Error x) {
+            pending.forEach(t -> t.cancel(false));
+            pending.forEach(t -> {
+                try {
+                    runs.add(t.join());
+                } catch (RuntimeException ignored) {
+                    // the failure is reported by `x`
+                }
+            });
+            runs.forEach(File::delete);
+            throw x;
+        }
+        if (runs.isEmpty()) {
+            Object[] last = Arrays.copyOf(buf, n);
+            Arrays.sort(last, cmp);
+            return new Sorted<>(serializer, cmp, Collections.emptyList(), last, size);
+        }
+        return new Sorted<>(serializer, cmp, runs, null, size);
+    }
+
+    /**
+     * Same as {@link #sort(Iterable) sort} except that the sorted elements are collected into a list (which is expected to fit in
+     * memory) and the spilled runs are deleted afterwards.
+     * @param src elements to sort
+     * @return sorted elements
+     */
+    public IList<E> sorted(Iterable<E> src) {
+        try (Sorted<E> s = sort(src)) {
+            return s.list();
+        }
+    }
+
+    private File spill(Object[] run, int n, Comparator<Object> cmp) {
+        if (parallel) {
+            Arrays.parallelSort(run, 0, n, cmp);
+        } else {
+            Arrays.sort(run, 0, n, cmp);
+        }
+        File f = null;
+        try {
+            f = File.createTempFile("jlx-sort-", ".run", tempDir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), BUFFER_SIZE))) {
+                out.writeInt(n);
+                for (int i = 0; i < n; i++) {
+                    serializer.write(out, Util.cast(run[i]));
+                }
+            }
+            return f;
+        } catch (IOException x) {
+            if (f != null) {
+                f.delete();
+            }
+            throw new UncheckedIOException("Failed to spill a sorted run", x);
+        }
+    }
+
+    /**
+     * Writes elements to and reads them back from the spilled runs.
+     * @param <T> Type of the elements
+     */
+    public interface Serializer<T> {
+        void write(DataOutput out, T elem) throws IOException;
+        T read(DataInput in) throws IOException;
+    }
+
+    public static Serializer<String> strings() {
+        return new Serializer<String>() {
+            @Override
+            public void write(DataOutput out, String elem) throws IOException {
+                byte[] b = elem.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(b.length);
+                out.write(b);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                byte[] b = new byte[in.readInt()];
+                in.readFully(b);
+                return new String(b, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    public static Serializer<Long> longs() {
+        return new Serializer<Long>() {
+            @Override
+            public void write(DataOutput out, Long elem) throws IOException {
+                out.writeLong(elem);
+            }
+
+            @Override
+            public Long read(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+
+    public static Serializer<Integer> integers() {
+        return new Serializer<Integer>() {
+            @Override
+            public void write(DataOutput out, Integer elem) throws IOException {
+                out.writeInt(elem);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    /**
+     * @param <T> Type of the elements
+     * @return serializer writing the elements by the java serialization (convenient but slow and bulky)
+     */
+    public static <T extends Serializable> Serializer<T> serializable() {
+        return new Serializer<T>() {
+            @Override
+            public void write(DataOutput out, T elem) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream o = new ObjectOutputStream(bytes)) {
+                    o.writeObject(elem);
+                }
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+
+            @Override
+            public T read(DataInput in) throws IOException {
+                byte[] b = new byte[in.readInt()];
+                in.readFully(b);
+                try (ObjectInputStream o = new ObjectInputStream(new ByteArrayInputStream(b))) {
+                    return Util.cast(o.readObject());
+                } catch (ClassNotFoundException x) {
+                    throw new IOException(x);
+                }
+            }
+        };
+    }
+
+    /**
+     * Result of an external sort. Iteration merges the spilled runs lazily (each iteration re-reads them) and it can be repeated until
+     * the result is {@link #close() closed}, which deletes the spilled runs.
+     * @param <E> Type of the elements
+     */
+    public static final class Sorted<E> implements Iterable<E>, AutoCloseable {
+        private final Serializer<E> serializer;
+        private final Comparator<Object> cmp;
+        private final List<File> runs;
+        private final Object[] mem;
+        private final long size;
+        private final List<Closeable> open = new ArrayList<>();
+        private boolean closed;
+
+        private Sorted(Serializer<E> serializer, Comparator<Object> cmp, List<File> runs, Object[] mem, long size) {
+            this.serializer = serializer;
+            this.cmp = cmp;
+            this.runs = runs;
+            this.mem = mem;
+            this.size = size;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        /**
+         * @return number of runs spilled to the disk
+         */
+        public int runs() {
+            return runs.size();
+        }
+
+        /**
+         * @return sorted elements collected into a list (which is expected to fit in memory)
+         */
+        public IList<E> list() {
+            List<E> res = new ArrayList<>((int) Math.min(size, Integer.MAX_VALUE - 8));
+            forEach(res::add);
+            return IList.of(res, ArrayList::new);
+        }
+
+        /**
+         * @throws UncheckedIOException if a spilled run cannot be read
+         * @throws IllegalStateException if the result is closed
+         */
+        @Override
+        public synchronized Iterator<E> iterator() {
+            if (closed) {
+                throw new IllegalStateException("Sorted result is closed!");
+            }
+            if (mem != null) {
+                return Util.<List<E>>cast(Arrays.asList(mem)).iterator();
+            }
+            MHeap<Cursor> heap = MHeap.unit((a, b) -> {
+                int c = cmp.compare(a.head, b.head);
+                return c == 0 ? Integer.compare(a.run, b.run) : c;
+            });
+            for (int i = 0; i < runs.size(); i++) {
+                Cursor c = open(runs.get(i), i);
+                if (c.advance()) {
+                    heap.push(c);
+                }
+            }
+            return new Iterator<E>() {
+                @Override
+                public boolean hasNext() {
+                    return !heap.isEmpty();
+                }
+
+                @Override
+                public E next() {
+                    Cursor c = heap.peek();
+                    if (c == null) {
+                        throw new NoSuchElementException();
+                    }
+                    E res = Util.cast(c.head);
+                    if (c.advance()) {
+                        heap.replaceTop(c);
+                    } else {
+                        heap.pop();
+                    }
+                    return res;
+                }
+            };
+        }
+
+        /**
+         * Closes the readers of the runs (if any) and deletes the spilled runs.
+         */
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                for (Closeable c : open) {
+                    try {
+                        c.close();
+                    } catch (IOException ignored) {
+                        // the run is deleted anyway
+                    }
+                }
+                open.clear();
+                runs.forEach(File::delete);
+            }
+        }
+
+        private Cursor open(File f, int run) {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), BUFFER_SIZE));
+                open.add(in);
+                return new Cursor(in, run);
+            } catch (IOException x) {
+                throw new UncheckedIOException("Failed to open a sorted run", x);
+            }
+        }
+
+        private final class Cursor {
+            private final DataInputStream in;
+            private final int run;
+            private int remaining = -1;
+            private Object head;
+
+            Cursor(DataInputStream in, int run) {
+                this.in = in;
+                this.run = run;
+            }
+
+            boolean advance() {
+                try {
+                    if (remaining < 0) {
+                        remaining = in.readInt();
+                    }
+                    if (remaining == 0) {
+                        head = null;
+                        in.close();
+                        synchronized (Sorted.this) {
+                            open.remove(in);
+                        }
+                        return false;
+                    }
+                    remaining--;
+                    head = serializer.read(in);
+                    return true;
+                } catch (IOException x) {
+                    throw new UncheckedIOException("Failed to read a sorted run", x);
+                }
+            }
+        }
+    }
+}
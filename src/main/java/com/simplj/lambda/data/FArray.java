@@ -2,6 +2,9 @@ package com.simplj.lambda.data;
 
 import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Condition;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.IndexedAccumulator;
+import com.simplj.lambda.function.IndexedConsumer;
 import com.simplj.lambda.tuples.Couple;
 import com.simplj.lambda.tuples.Tuple;
 
@@ -18,6 +21,13 @@ abstract class FArray<E, A extends FArray<E, A>> implements Iterable<E> {
 
     abstract A unit(E[] arr);
 
+    /**
+     * @return source elements of the current array along with its pending lazy functions (if any)
+     */
+    Parallel.Source<E> source() {
+        return new Parallel.Source<>(array(), null);
+    }
+
     public abstract A set(int idx, E val);
 
     public abstract E get(int idx);
@@ -67,16 +77,44 @@ abstract class FArray<E, A extends FArray<E, A>> implements Iterable<E> {
     @SafeVarargs
     @SuppressWarnings("varargs")
     public final boolean containsAll(E...elems) {
-        Set<E> set = new HashSet<>();
-        Collections.addAll(set, elems);
+        return BulkOps.containsAll(this, Arrays.asList(elems));
+    }
+
+    public boolean hasAll(Iterable<? extends E> c) {
+        return BulkOps.containsAll(this, c);
+    }
+
+    /**
+     * @param c elements to unite with
+     * @return array with the elements of the current array followed by the distinct elements of `c` which are not present in the current array
+     */
+    public A union(Iterable<? extends E> c) {
         E[] arr = array();
-        for (E e : arr) {
-            set.remove(e);
-            if (set.isEmpty()) {
-                return true;
-            }
+        List<E> extra = BulkOps.missing(this, c);
+        E[] res = Arrays.copyOf(arr, arr.length + extra.size());
+        int i = arr.length;
+        for (E e : extra) {
+            res[i++] = e;
         }
-        return false;
+        return unit(res);
+    }
+
+    /**
+     * Function application is <i>lazy</i>.
+     * @param c elements to intersect with
+     * @return array with the elements of the current array which are present in `c`
+     */
+    public A intersect(Iterable<? extends E> c) {
+        return filter(BulkOps.membership(c));
+    }
+
+    /**
+     * Function application is <i>lazy</i>.
+     * @param c elements to subtract
+     * @return array with the elements of the current array which are not present in `c`
+     */
+    public A minus(Iterable<? extends E> c) {
+        return filterOut(BulkOps.membership(c));
     }
 
     public int indexOf(E elem) {
@@ -109,6 +147,17 @@ abstract class FArray<E, A extends FArray<E, A>> implements Iterable<E> {
         return toList().toArray(arr);
     }
 
+    /**
+     * Performs the `action` for each element of the {@link #applied() applied} array along with its unboxed index.
+     * @param action action to perform on each element and its index
+     */
+    public void forEachIndexed(IndexedConsumer<E> action) {
+        E[] arr = array();
+        for (int i = 0; i < arr.length; i++) {
+            action.consume(i, arr[i]);
+        }
+    }
+
     public E find(Condition<E> c) {
         return Util.find(array(), c);
     }
@@ -125,6 +174,54 @@ abstract class FArray<E, A extends FArray<E, A>> implements Iterable<E> {
         return none(c.negate());
     }
 
+    /**
+     * Sorts a copy of the elements (stable) by the natural order of the keys computed by `keyF`. Each key is computed exactly once and
+     * cached along with its element; integral keys (<code>int</code>, <code>long</code>, <code>short</code>, <code>byte</code> or
+     * <code>char</code>) are sorted by a radix sort in linear time.
+     * @param keyF function computing the sort key of each element
+     * @param <K> Type of the keys
+     * @return array sorted by the keys
+     */
+    public <K extends Comparable<? super K>> A sortedBy(Function<E, K> keyF) {
+        return sortedBy(keyF, null);
+    }
+
+    /**
+     * Sorts a copy of the elements (stable) by the keys computed by `keyF` and ordered by the comparator `c`. Each key is computed exactly once.
+     * @param keyF function computing the sort key of each element
+     * @param c comparator ordering the keys (or <code>null</code> for their natural order)
+     * @param <K> Type of the keys
+     * @return array sorted by the keys
+     */
+    public <K> A sortedBy(Function<E, K> keyF, Comparator<? super K> c) {
+        E[] arr = array();
+        return unit(Util.cast(Arrays.copyOf(Sorting.sortBy(arr, keyF, c), arr.length, arr.getClass())));
+    }
+
+    /**
+     * Selects the `k` greatest elements by a bounded heap in <code>O(n log k)</code> instead of sorting the whole array.
+     * Pending lazy functions are applied on the fly.
+     * @param k number of elements to select
+     * @param c comparator ordering the elements (or <code>null</code> for their natural order)
+     * @return (at most) `k` greatest elements in descending order
+     */
+    public A topK(int k, Comparator<? super E> c) {
+        return bottomK(k, Collections.reverseOrder(c));
+    }
+
+    /**
+     * Selects the `k` smallest elements by a bounded heap in <code>O(n log k)</code> instead of sorting the whole array.
+     * Pending lazy functions are applied on the fly.
+     * @param k number of elements to select
+     * @param c comparator ordering the elements (or <code>null</code> for their natural order)
+     * @return (at most) `k` smallest elements in ascending order
+     */
+    public A bottomK(int k, Comparator<? super E> c) {
+        Parallel.Source<E> src = source();
+        Object[] res = Sorting.smallest(src, k, c);
+        return unit(Util.cast(src.stage == null ? Arrays.copyOf(res, res.length, src.elems.getClass()) : res));
+    }
+
     public <R> R foldl(R identity, BiFunction<R, E, R> accumulator) {
         E[] arr = array();
         for (E e : arr) {
@@ -133,6 +230,21 @@ abstract class FArray<E, A extends FArray<E, A>> implements Iterable<E> {
         return identity;
     }
 
+    /**
+     * Left fold where the `accumulator` also receives the unboxed index of each element.
+     * @param identity initial value of the fold
+     * @param accumulator accumulates each element along with its index into the result
+     * @param <R> Type of the result
+     * @return the accumulated result
+     */
+    public <R> R foldIndexed(R identity, IndexedAccumulator<R, E> accumulator) {
+        E[] arr = array();
+        for (int i = 0; i < arr.length; i++) {
+            identity = accumulator.apply(identity, i, arr[i]);
+        }
+        return identity;
+    }
+
     public <R> R foldr(R origin, BiFunction<E, R, R> accumulator) {
         E[] arr = array();
         int idx = arr.length - 1;
@@ -155,6 +267,132 @@ abstract class FArray<E, A extends FArray<E, A>> implements Iterable<E> {
         return res;
     }
 
+    /**
+     * Folds contiguous chunks of the array in parallel (as does {@link FList#foldParallel(Object, BiFunction, BiFunction) FList.foldParallel})
+     * and combines the partial results tree-wise. Pending lazy functions are fused into the fold of each chunk instead of being applied upfront.
+     * @param identity initial value of the fold of each chunk (expected to be an identity of `combiner`)
+     * @param accumulator accumulates each element into a partial result
+     * @param combiner combines two adjacent partial results (expected to be associative)
+     * @param <R> Type of the result
+     * @return the accumulated result
+     */
+    public <R> R foldParallel(R identity, BiFunction<R, E, R> accumulator, BiFunction<R, R, R> combiner) {
+        return Parallel.fold(source(), identity, accumulator, combiner);
+    }
+
+    /**
+     * Reduces the elements by the associative operation `op` in parallel (see {@link #foldParallel(Object, BiFunction, BiFunction) foldParallel}).
+     * @param op associative operation
+     * @return the reduced result or <code>null</code> if the array is empty
+     */
+    public E reduceParallel(BiFunction<E, E, E> op) {
+        return Parallel.reduce(source(), op);
+    }
+
+    /**
+     * Builds a {@link QuantileSketch QuantileSketch} (of the default accuracy) of the values computed by `f` in a single pass.
+     * @param f function computing the (numeric) value of each element
+     * @return sketch of the values of the elements
+     */
+    public QuantileSketch sketch(Function<E, ? extends Number> f) {
+        QuantileSketch res = QuantileSketch.create();
+        for (E t : array()) {
+            res.update(f.apply(t).doubleValue());
+        }
+        return res;
+    }
+
+    /**
+     * Builds a sketch (see {@link #sketch(Function) sketch}) of each chunk of the elements in parallel and merges the sketches.
+     * @param f function computing the (numeric) value of each element
+     * @return sketch of the values of the elements
+     */
+    public QuantileSketch sketchParallel(Function<E, ? extends Number> f) {
+        QuantileSketch res = Parallel.fold(source(), null, (s, t) -> (s == null ? QuantileSketch.create() : s).update(f.apply(t).doubleValue()),
+                (a, b) -> a == null ? b : b == null ? a : a.merge(b));
+        return res == null ? QuantileSketch.create() : res;
+    }
+
+    /**
+     * Approximates the quantiles of the values computed by `f` in a single pass and bounded memory, e.g.
+     * <code>quantiles(Latency::millis, 0.5, 0.95, 0.99)</code>.
+     * @param f function computing the (numeric) value of each element
+     * @param qs ranks (within <code>[0, 1]</code>) of the quantiles
+     * @return (approximate) values of the ranks `qs` (or <code>NaN</code>s if empty)
+     * @see QuantileSketch
+     */
+    public double[] quantiles(Function<E, ? extends Number> f, double... qs) {
+        return sketch(f).quantiles(qs);
+    }
+
+    /**
+     * Estimates the number of distinct elements by a {@link HyperLogLog HyperLogLog} (about 0.8% error in 16 KB) in a single pass.
+     * Pending lazy functions are applied to each element on the fly, i.e. the elements are not materialized.
+     * @return estimated number of distinct elements
+     */
+    public long countDistinctApprox() {
+        HyperLogLog res = HyperLogLog.create();
+        source().forEach(res::add);
+        return res.estimate();
+    }
+
+    /**
+     * Estimates the number of distinct elements by merging the {@link HyperLogLog HyperLogLog}s of the chunks built in parallel.
+     * @return estimated number of distinct elements
+     */
+    public long countDistinctApproxParallel() {
+        HyperLogLog res = Parallel.fold(source(), null, (h, t) -> (h == null ? HyperLogLog.create() : h).add(t),
+                (a, b) -> a == null ? b : b == null ? a : a.merge(b));
+        return res == null ? 0 : res.estimate();
+    }
+
+    /**
+     * Tracks the most frequent elements by a {@link SpaceSaving SpaceSaving} sketch in a single pass (without materializing the
+     * pending lazy functions), e.g. <code>heavyHitters(100).top(10)</code>.
+     * @param capacity maximum number of elements tracked
+     * @return heavy hitters sketch of the elements
+     */
+    public SpaceSaving<E> heavyHitters(int capacity) {
+        SpaceSaving<E> res = SpaceSaving.create(capacity);
+        source().forEach(res::add);
+        return res;
+    }
+
+    /**
+     * Tracks the most frequent elements by merging the {@link SpaceSaving SpaceSaving} sketches of the chunks built in parallel.
+     * @param capacity maximum number of elements tracked
+     * @return heavy hitters sketch of the elements
+     */
+    public SpaceSaving<E> heavyHittersParallel(int capacity) {
+        SpaceSaving<E> res = Parallel.fold(source(), null, (s, t) -> (s == null ? SpaceSaving.<E>create(capacity) : s).add(t),
+                (a, b) -> a == null ? b : b == null ? a : a.merge(b));
+        return res == null ? SpaceSaving.create(capacity) : res;
+    }
+
+    /**
+     * Scans the elements by the associative operation `op` in parallel (see {@link Parallel#prefix(Object[], BiFunction) prefix}).
+     * @param op associative operation
+     * @return new array where each element is the (inclusive) prefix of the elements up to its index under `op`
+     */
+    public A scanParallel(BiFunction<E, E, E> op) {
+        E[] res = Arrays.copyOf(array(), array().length);
+        Parallel.prefix(res, op);
+        return unit(res);
+    }
+
+    /**
+     * @return successive accumulations of the elements (starting with `identity` itself)
+     */
+    <R> Object[] scanned(R identity, BiFunction<R, E, R> op) {
+        E[] arr = array();
+        Object[] res = new Object[arr.length + 1];
+        res[0] = identity;
+        for (int i = 0; i < arr.length; i++) {
+            res[i + 1] = identity = op.apply(identity, arr[i]);
+        }
+        return res;
+    }
+
     public E reduceR(BiFunction<E, E, E> accumulator) {
         E res = null;
         E[] arr = array();
@@ -2,6 +2,9 @@ package com.simplj.lambda.data;
 
 import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Condition;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.IndexedAccumulator;
+import com.simplj.lambda.function.IndexedConsumer;
 import com.simplj.lambda.function.Producer;
 import com.simplj.lambda.tuples.Couple;
 import com.simplj.lambda.tuples.Tuple;
@@ -122,7 +125,7 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
         return list().contains(o);
     }
     public boolean containsAll(Collection<?> c) {
-        return list().containsAll(c);
+        return BulkOps.containsAll(this, c);
     }
     public Object[] toArray() {
         return list().toArray();
@@ -132,13 +135,7 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
     }
 
     public boolean hasAll(Iterable<? extends T> c) {
-        List<T> l = list();
-        for (T e : c) {
-            if (!l.contains(e)) {
-                return false;
-            }
-        }
-        return true;
+        return BulkOps.containsAll(this, c);
     }
 
     public abstract L append(T val);
@@ -159,6 +156,34 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
 
     public abstract L preserve(Iterable<? extends T> c);
 
+    /**
+     * Appends the distinct elements of `c` which are not present in the current list.
+     * @param c elements to unite with
+     * @return list with the elements of the current list followed by the missing elements of `c`
+     */
+    public L union(Iterable<? extends T> c) {
+        return append(BulkOps.missing(this, c));
+    }
+
+    /**
+     * Preserves only the elements which are present in `c`.
+     * @param c elements to intersect with
+     * @return list with the elements of the current list which are present in `c`
+     * @see #preserve(Iterable)
+     */
+    public L intersect(Iterable<? extends T> c) {
+        return preserve(c);
+    }
+
+    /**
+     * Deletes all the occurrences of the elements which are present in `c` (unlike {@link #delete(Iterable)} which deletes one occurrence per element of `c`).
+     * @param c elements to subtract
+     * @return list with the elements of the current list which are not present in `c`
+     */
+    public L minus(Iterable<? extends T> c) {
+        return deleteIf(BulkOps.membership(c));
+    }
+
     public L empty() {
         return instantiate(constructor, Collections.emptyList());
     }
@@ -293,6 +318,58 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
         return list().subList(fromIndex, toIndex);
     }
     public abstract L sorted(Comparator<? super T> c);
+
+    /**
+     * Same as {@link #sorted(Comparator) sorted} except that the elements are sorted by a parallel merge sort (<code>Arrays.parallelSort</code>).
+     * @param c comparator to sort by (or <code>null</code> for the natural order)
+     * @return sorted list
+     */
+    public abstract L sortedParallel(Comparator<? super T> c);
+
+    /**
+     * Sorts the elements (stable) by the natural order of the keys computed by `keyF`. Each key is computed exactly once and cached
+     * along with its element; integral keys (<code>int</code>, <code>long</code>, <code>short</code>, <code>byte</code> or
+     * <code>char</code>) are sorted by a radix sort in linear time.
+     * @param keyF function computing the sort key of each element
+     * @param <K> Type of the keys
+     * @return list sorted by the keys
+     */
+    public <K extends Comparable<? super K>> L sortedBy(Function<T, K> keyF) {
+        return sortedBy(keyF, null);
+    }
+
+    /**
+     * Sorts the elements (stable) by the keys computed by `keyF` and ordered by the comparator `c`. Each key is computed exactly once.
+     * @param keyF function computing the sort key of each element
+     * @param c comparator ordering the keys (or <code>null</code> for their natural order)
+     * @param <K> Type of the keys
+     * @return list sorted by the keys
+     */
+    public abstract <K> L sortedBy(Function<T, K> keyF, Comparator<? super K> c);
+
+    /**
+     * Selects the `k` greatest elements by a bounded heap in <code>O(n log k)</code> instead of sorting the whole list.
+     * Pending lazy functions are applied on the fly.
+     * @param k number of elements to select
+     * @param c comparator ordering the elements (or <code>null</code> for their natural order)
+     * @return (at most) `k` greatest elements in descending order
+     */
+    public L topK(int k, Comparator<? super T> c) {
+        return bottomK(k, Collections.reverseOrder(c));
+    }
+
+    /**
+     * Selects the `k` smallest elements by a bounded heap in <code>O(n log k)</code> instead of sorting the whole list.
+     * Pending lazy functions are applied on the fly.
+     * @param k number of elements to select
+     * @param c comparator ordering the elements (or <code>null</code> for their natural order)
+     * @return (at most) `k` smallest elements in ascending order
+     */
+    public L bottomK(int k, Comparator<? super T> c) {
+        List<T> r = Util.cast(constructor.produce());
+        r.addAll(Util.cast(Arrays.asList(Sorting.smallest(source(), k, c))));
+        return instantiate(constructor, r);
+    }
     public abstract L replacingAll(UnaryOperator<T> operator);
     public abstract L deleteIf(Condition<? super T> filter);
 
@@ -308,6 +385,17 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
         list().forEach(action);
     }
 
+    /**
+     * Performs the `action` for each element of the {@link #applied() applied} list along with its unboxed index.
+     * @param action action to perform on each element and its index
+     */
+    public void forEachIndexed(IndexedConsumer<T> action) {
+        int i = 0;
+        for (T t : list()) {
+            action.consume(i++, t);
+        }
+    }
+
     public T find(Condition<T> c) {
         return Util.find(list(), c);
     }
@@ -332,6 +420,21 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
         return identity;
     }
 
+    /**
+     * Left fold where the `accumulator` also receives the unboxed index of each element.
+     * @param identity initial value of the fold
+     * @param accumulator accumulates each element along with its index into the result
+     * @param <R> Type of the result
+     * @return the accumulated result
+     */
+    public <R> R foldIndexed(R identity, IndexedAccumulator<R, T> accumulator) {
+        int i = 0;
+        for (T t : list()) {
+            identity = accumulator.apply(identity, i++, t);
+        }
+        return identity;
+    }
+
     public <R> R foldr(R origin, BiFunction<T, R, R> accumulator) {
         List<T> l = list();
         int idx = l.size() - 1;
@@ -354,6 +457,133 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
         return res;
     }
 
+    /**
+     * Folds contiguous chunks of the list in parallel (on the <code>ForkJoinPool</code> the caller runs in or else the common pool) and
+     * combines the partial results tree-wise. Pending lazy functions are fused into the fold of each chunk instead of being applied upfront.
+     * @param identity initial value of the fold of each chunk (expected to be an identity of `combiner`)
+     * @param accumulator accumulates each element into a partial result
+     * @param combiner combines two adjacent partial results (expected to be associative)
+     * @param <R> Type of the result
+     * @return the accumulated result
+     */
+    public <R> R foldParallel(R identity, BiFunction<R, T, R> accumulator, BiFunction<R, R, R> combiner) {
+        return Parallel.fold(source(), identity, accumulator, combiner);
+    }
+
+    /**
+     * Reduces the elements by the associative operation `op` in parallel (see {@link #foldParallel(Object, BiFunction, BiFunction) foldParallel}).
+     * @param op associative operation
+     * @return the reduced result or <code>null</code> if the list is empty
+     */
+    public T reduceParallel(BiFunction<T, T, T> op) {
+        return Parallel.reduce(source(), op);
+    }
+
+    /**
+     * Builds a {@link QuantileSketch QuantileSketch} (of the default accuracy) of the values computed by `f` in a single pass.
+     * @param f function computing the (numeric) value of each element
+     * @return sketch of the values of the elements
+     */
+    public QuantileSketch sketch(Function<T, ? extends Number> f) {
+        QuantileSketch res = QuantileSketch.create();
+        for (T t : list()) {
+            res.update(f.apply(t).doubleValue());
+        }
+        return res;
+    }
+
+    /**
+     * Builds a sketch (see {@link #sketch(Function) sketch}) of each chunk of the elements in parallel and merges the sketches.
+     * @param f function computing the (numeric) value of each element
+     * @return sketch of the values of the elements
+     */
+    public QuantileSketch sketchParallel(Function<T, ? extends Number> f) {
+        QuantileSketch res = Parallel.fold(source(), null, (s, t) -> (s == null ? QuantileSketch.create() : s).update(f.apply(t).doubleValue()),
+                (a, b) -> a == null ? b : b == null ? a : a.merge(b));
+        return res == null ? QuantileSketch.create() : res;
+    }
+
+    /**
+     * Approximates the quantiles of the values computed by `f` in a single pass and bounded memory, e.g.
+     * <code>quantiles(Latency::millis, 0.5, 0.95, 0.99)</code>.
+     * @param f function computing the (numeric) value of each element
+     * @param qs ranks (within <code>[0, 1]</code>) of the quantiles
+     * @return (approximate) values of the ranks `qs` (or <code>NaN</code>s if empty)
+     * @see QuantileSketch
+     */
+    public double[] quantiles(Function<T, ? extends Number> f, double... qs) {
+        return sketch(f).quantiles(qs);
+    }
+
+    /**
+     * Estimates the number of distinct elements by a {@link HyperLogLog HyperLogLog} (about 0.8% error in 16 KB) in a single pass.
+     * Pending lazy functions are applied to each element on the fly, i.e. the elements are not materialized.
+     * @return estimated number of distinct elements
+     */
+    public long countDistinctApprox() {
+        HyperLogLog res = HyperLogLog.create();
+        source().forEach(res::add);
+        return res.estimate();
+    }
+
+    /**
+     * Estimates the number of distinct elements by merging the {@link HyperLogLog HyperLogLog}s of the chunks built in parallel.
+     * @return estimated number of distinct elements
+     */
+    public long countDistinctApproxParallel() {
+        HyperLogLog res = Parallel.fold(source(), null, (h, t) -> (h == null ? HyperLogLog.create() : h).add(t),
+                (a, b) -> a == null ? b : b == null ? a : a.merge(b));
+        return res == null ? 0 : res.estimate();
+    }
+
+    /**
+     * Tracks the most frequent elements by a {@link SpaceSaving SpaceSaving} sketch in a single pass (without materializing the
+     * pending lazy functions), e.g. <code>heavyHitters(100).top(10)</code>.
+     * @param capacity maximum number of elements tracked
+     * @return heavy hitters sketch of the elements
+     */
+    public SpaceSaving<T> heavyHitters(int capacity) {
+        SpaceSaving<T> res = SpaceSaving.create(capacity);
+        source().forEach(res::add);
+        return res;
+    }
+
+    /**
+     * Tracks the most frequent elements by merging the {@link SpaceSaving SpaceSaving} sketches of the chunks built in parallel.
+     * @param capacity maximum number of elements tracked
+     * @return heavy hitters sketch of the elements
+     */
+    public SpaceSaving<T> heavyHittersParallel(int capacity) {
+        SpaceSaving<T> res = Parallel.fold(source(), null, (s, t) -> (s == null ? SpaceSaving.<T>create(capacity) : s).add(t),
+                (a, b) -> a == null ? b : b == null ? a : a.merge(b));
+        return res == null ? SpaceSaving.create(capacity) : res;
+    }
+
+    /**
+     * Scans the elements by the associative operation `op` in parallel (see {@link Parallel#prefix(Object[], BiFunction) prefix}).
+     * @param op associative operation
+     * @return new list where each element is the (inclusive) prefix of the elements up to its index under `op`
+     */
+    public L scanParallel(BiFunction<T, T, T> op) {
+        Object[] arr = list().toArray();
+        Parallel.prefix(arr, op);
+        List<T> r = Util.cast(constructor.produce());
+        r.addAll(Util.cast(Arrays.asList(arr)));
+        return instantiate(constructor, r);
+    }
+
+    /**
+     * @return successive accumulations of the elements (starting with `identity` itself) in a new list of the constructor
+     */
+    <R> List<R> scanned(R identity, BiFunction<R, T, R> op) {
+        List<R> res = Util.cast(constructor.produce());
+        res.add(identity);
+        for (T t : list()) {
+            res.add(identity = op.apply(identity, t));
+        }
+        return res;
+    }
+
     public T reduceR(BiFunction<T, T, T> accumulator) {
         T res = null;
         List<T> l = list();
@@ -369,6 +599,66 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
         return res;
     }
 
+    /**
+     * Groups the elements of the {@link #applied() applied} list by the key computed by `keyF` in a single pass. The keys (and the
+     * elements of a key) keep their order in the list.
+     * @param keyF function computing the key of each element
+     * @param <K> Type of the keys
+     * @return multimap from each key to the elements having it
+     */
+    public <K> IMultiMap<K, T> groupBy(Function<T, K> keyF) {
+        return Grouping.groupBy(list(), keyF);
+    }
+
+    /**
+     * Groups the elements by the key computed by `keyF` and aggregates the elements of each key by `aggregator` in a single pass.
+     * @param keyF function computing the key of each element
+     * @param aggregator aggregates the elements of each key
+     * @param <K> Type of the keys
+     * @param <R> Type of the aggregated result of each key
+     * @return map from each key (ordered by its first occurrence) to the aggregated result of its elements
+     */
+    public <K, R> IMap<K, R> groupBy(Function<T, K> keyF, Aggregator<T, ?, R> aggregator) {
+        return Grouping.groupBy(list(), keyF, aggregator);
+    }
+
+    /**
+     * Counts the elements per key (computed by `keyF`) with primitive counters in a single pass.
+     * @param keyF function computing the key of each element
+     * @param <K> Type of the keys
+     * @return map from each key (ordered by its first occurrence) to the number of elements having it
+     */
+    public <K> IMap<K, Integer> countBy(Function<T, K> keyF) {
+        return Grouping.countBy(list(), keyF);
+    }
+
+    /**
+     * Parallel variant of {@link #groupBy(Function) groupBy} which computes the keys of contiguous chunks of the list in parallel
+     * (see {@link #foldParallel(Object, BiFunction, BiFunction) foldParallel}) and merges them in order, hence the result is the same as
+     * the sequential one. `keyF` is expected to be pure.
+     */
+    public <K> IMultiMap<K, T> groupByParallel(Function<T, K> keyF) {
+        return Grouping.groupByParallel(list().toArray(), keyF);
+    }
+
+    /**
+     * Parallel variant of {@link #groupBy(Function, Aggregator) groupBy} which aggregates contiguous chunks of the list into partial
+     * accumulators in parallel and {@link Aggregator#combine(Object, Object) combines} them in order.
+     * @see #foldParallel(Object, BiFunction, BiFunction)
+     */
+    public <K, R> IMap<K, R> groupByParallel(Function<T, K> keyF, Aggregator<T, ?, R> aggregator) {
+        return Grouping.groupByParallel(list().toArray(), keyF, aggregator);
+    }
+
+    /**
+     * Parallel variant of {@link #countBy(Function) countBy} which counts contiguous chunks of the list in
+     * parallel and adds up the partial counters.
+     * @see #foldParallel(Object, BiFunction, BiFunction)
+     */
+    public <K> IMap<K, Integer> countByParallel(Function<T, K> keyF) {
+        return Grouping.countByParallel(list().toArray(), keyF);
+    }
+
     @Override
     public String toString() {
         return isApplied() ? list().toString() : "[?]";
@@ -388,6 +678,13 @@ abstract class FList<T, L extends FList<T, L>> implements Iterable<T> {
         return list().equals(obj);
     }
 
+    /**
+     * @return source elements of the current list along with its pending lazy functions (if any)
+     */
+    Parallel.Source<T> source() {
+        return new Parallel.Source<>(list().toArray(), null);
+    }
+
     public L copy() {
         List<T> r = Util.cast(constructor.produce());
         r.addAll(list());
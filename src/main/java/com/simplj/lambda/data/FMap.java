@@ -71,6 +71,43 @@ abstract class FMap<K, V, M extends FMap<K, V, M>> implements Iterable<Map.Entry
         }
         return Tuple.of(instantiate(constructor, match), instantiate(constructor, rest));
     }
+    /**
+     * Parallel {@link #split(BiFunction) split}: the entries are partitioned into contiguous chunks which are split into per-chunk maps
+     * concurrently (see {@link #foldParallel(Object, TriFunction, BiFunction) foldParallel}); the per-chunk maps are then merged in the
+     * order of the chunks.
+     * @param c condition based on which the elements will be segregated
+     * @return <code>Couple</code> of maps with satisfying elements in {@link Couple#first() first} and <i>not</i> satisfying elements in {@link Couple#second() second}
+     */
+    public Couple<M, M> splitParallel(BiFunction<K, V, Boolean> c) {
+        Object[] entries = map().entrySet().toArray();
+        List<Couple<Map<K, V>, Map<K, V>>> parts = Parallel.map(entries.length, (from, to) -> {
+            Map<K, V> match = Util.cast(constructor.produce());
+            Map<K, V> rest = Util.cast(constructor.produce());
+            for (int i = from; i < to; i++) {
+                Map.Entry<K, V> e = Util.cast(entries[i]);
+                (c.apply(e.getKey(), e.getValue()) ? match : rest).put(e.getKey(), e.getValue());
+            }
+            return Tuple.of(match, rest);
+        });
+        Map<K, V> match = parts.get(0).first();
+        Map<K, V> rest = parts.get(0).second();
+        for (int i = 1; i < parts.size(); i++) {
+            match.putAll(parts.get(i).first());
+            rest.putAll(parts.get(i).second());
+        }
+        return Tuple.of(instantiate(constructor, match), instantiate(constructor, rest));
+    }
+
+    /**
+     * Applies all the lazy functions (if any) to the entries in parallel: the source entries are partitioned into contiguous chunks
+     * which are materialized into per-chunk maps concurrently and then merged in the order of the chunks (hence the same entry wins
+     * on key collisions as with {@link #applied() applied}).
+     * @return map with all the lazy functions (if any) applied
+     */
+    public M appliedParallel() {
+        return applied();
+    }
+
     public int size() {
         return map().size();
     }
@@ -118,6 +155,30 @@ abstract class FMap<K, V, M extends FMap<K, V, M>> implements Iterable<Map.Entry
     }
 
     public abstract M replacingAll(java.util.function.BiFunction<? super K, ? super V, ? extends V> function);
+    /**
+     * Parallel {@link #replacingAll(java.util.function.BiFunction) replacingAll}: the new values are computed by `function` for
+     * contiguous chunks of the entries concurrently and then stored. Maps not backed by a (hash) <code>Map</code> replace sequentially.
+     * @param function function computing the new value of each entry
+     * @return map with the replaced values
+     */
+    public M replacingAllParallel(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        return replacingAll(function);
+    }
+
+    /**
+     * @return new values computed by `function` for `entries` (in parallel)
+     */
+    static <K, V> Object[] replacements(Object[] entries, java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        Object[] res = new Object[entries.length];
+        Parallel.map(entries.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Map.Entry<K, V> e = Util.cast(entries[i]);
+                res[i] = function.apply(e.getKey(), e.getValue());
+            }
+            return null;
+        });
+        return res;
+    }
     public V computeIfAbsent(K key, java.util.function.Function<? super K, ? extends V> mappingFunction) {
         return map().computeIfAbsent(key, mappingFunction);
     }
@@ -178,12 +239,28 @@ abstract class FMap<K, V, M extends FMap<K, V, M>> implements Iterable<Map.Entry
 
     public <R> R fold(R origin, TriFunction<R, K, V, R> accumulator) {
         Map<K, V> map = map();
+        if (map instanceof CompactMap) {
+            return ((CompactMap<K, V>) map).fold(origin, accumulator);
+        }
         for (Map.Entry<K, V> e : map.entrySet()) {
             origin = accumulator.apply(origin, e.getKey(), e.getValue());
         }
         return origin;
     }
 
+    /**
+     * Folds contiguous chunks of the entries in parallel and combines the partial results tree-wise (see {@link FList#foldParallel(Object, BiFunction, BiFunction) foldParallel}).
+     * @param identity initial value of the fold of each chunk (expected to be an identity of `combiner`)
+     * @param accumulator accumulates each entry into a partial result
+     * @param combiner combines two adjacent partial results (expected to be associative)
+     * @param <R> Type of the result
+     * @return the accumulated result
+     */
+    public <R> R foldParallel(R identity, TriFunction<R, K, V, R> accumulator, BiFunction<R, R, R> combiner) {
+        Parallel.Source<Map.Entry<K, V>> src = new Parallel.Source<>(map().entrySet().toArray(), null);
+        return Parallel.fold(src, identity, (r, e) -> accumulator.apply(r, e.getKey(), e.getValue()), combiner);
+    }
+
     public Couple<K, V> reduce(TriFunction<Couple<K, V>, K, V, Couple<K, V>> accumulator) {
         Couple<K, V> res = null;
         Map<K, V> map = map();
@@ -73,7 +73,7 @@ abstract class FSet<T, S extends FSet<T, S>> implements Iterable<T> {
         return set().contains(o);
     }
     public boolean containsAll(Collection<?> c) {
-        return set().containsAll(c);
+        return BulkOps.containsAll(set(), c);
     }
     public Object[] toArray() {
         return set().toArray();
@@ -83,13 +83,7 @@ abstract class FSet<T, S extends FSet<T, S>> implements Iterable<T> {
     }
 
     public boolean hasAll(Iterable<? extends T> c) {
-        Set<T> s = set();
-        for (T e : c) {
-            if (!s.contains(e)) {
-                return false;
-            }
-        }
-        return true;
+        return BulkOps.containsAll(set(), c);
     }
 
     public abstract S include(T val);
@@ -102,6 +96,18 @@ abstract class FSet<T, S extends FSet<T, S>> implements Iterable<T> {
 
     public abstract S preserve(Iterable<? extends T> c);
 
+    public S union(Iterable<? extends T> c) {
+        return include(c);
+    }
+
+    public S intersect(Iterable<? extends T> c) {
+        return preserve(c);
+    }
+
+    public S minus(Iterable<? extends T> c) {
+        return delete(c);
+    }
+
     public abstract S empty();
 
     public abstract S deleteIf(Condition<? super T> c);
@@ -0,0 +1,158 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single pass hash grouping of elements. Keys are assigned dense ordinals by a {@link KeyTable KeyTable} and the groups (accumulators,
+ * counters or the values of an {@link IMultiMap IMultiMap}) are kept in arrays indexed by those ordinals, hence there is no map lookup
+ * other than the key table itself per element.<br>
+ * The parallel variants group contiguous chunks of the elements independently (see {@link Parallel Parallel}) and merge the partial
+ * groups in the order of their chunks, hence the keys of the result are ordered by their first occurrence just like the sequential ones.
+ */
+final class Grouping {
+    private Grouping() {
+    }
+
+    static <T, K> IMultiMap<K, T> groupBy(Iterable<T> src, Function<T, K> keyF) {
+        IMultiMap.Builder<K, T> b = IMultiMap.builder();
+        for (T t : src) {
+            b.put(keyF.apply(t), t);
+        }
+        return b.build();
+    }
+
+    static <T, K> IMultiMap<K, T> groupByParallel(Object[] arr, Function<T, K> keyF) {
+        List<Couple<KeyTable, int[]>> parts = Parallel.map(arr.length, (from, to) -> {
+            KeyTable keys = new KeyTable();
+            int[] keyOf = new int[to - from];
+            for (int i = from; i < to; i++) {
+                keyOf[i - from] = keys.add(keyF.apply(Util.cast(arr[i])));
+            }
+            return Tuple.of(keys, keyOf);
+        });
+        KeyTable keys = parts.get(0).first();
+        int[] keyOf = parts.get(0).second();
+        if (parts.size() > 1) {
+            keys = new KeyTable();
+            keyOf = new int[arr.length];
+            int off = 0;
+            for (Couple<KeyTable, int[]> p : parts) {
+                int[] remap = remap(p.first(), keys);
+                for (int k : p.second()) {
+                    keyOf[off++] = remap[k];
+                }
+            }
+        }
+        return IMultiMap.grouped(keys, keyOf, arr, arr.length);
+    }
+
+    static <T, K, A, R> IMap<K, R> groupBy(Iterable<T> src, Function<T, K> keyF, Aggregator<T, A, R> aggregator) {
+        Couple<KeyTable, Object[]> res = aggregate(src, keyF, aggregator);
+        return finish(res.first(), res.second(), aggregator);
+    }
+
+    static <T, K, A, R> IMap<K, R> groupByParallel(Object[] arr, Function<T, K> keyF, Aggregator<T, A, R> aggregator) {
+        List<Couple<KeyTable, Object[]>> parts = Parallel.map(arr.length, (from, to) -> aggregate(Arrays.asList(arr).subList(from, to), keyF, aggregator));
+        KeyTable keys = parts.get(0).first();
+        Object[] accs = parts.get(0).second();
+        for (int i = 1; i < parts.size(); i++) {
+            Couple<KeyTable, Object[]> p = parts.get(i);
+            int n = keys.size();
+            int[] remap = remap(p.first(), keys);
+            accs = grow(accs, keys.size());
+            for (int j = 0; j < remap.length; j++) {
+                int k = remap[j];
+                accs[k] = k < n ? aggregator.combine(Util.cast(accs[k]), Util.cast(p.second()[j])) : p.second()[j];
+            }
+        }
+        return finish(keys, accs, aggregator);
+    }
+
+    static <T, K> IMap<K, Integer> countBy(Iterable<T> src, Function<T, K> keyF) {
+        Couple<KeyTable, int[]> res = count(src, keyF);
+        return counts(res.first(), res.second());
+    }
+
+    static <T, K> IMap<K, Integer> countByParallel(Object[] arr, Function<T, K> keyF) {
+        List<Couple<KeyTable, int[]>> parts = Parallel.map(arr.length, (from, to) -> count(Arrays.asList(arr).subList(from, to), keyF));
+        KeyTable keys = parts.get(0).first();
+        int[] counts = parts.get(0).second();
+        for (int i = 1; i < parts.size(); i++) {
+            Couple<KeyTable, int[]> p = parts.get(i);
+            int[] remap = remap(p.first(), keys);
+            if (counts.length < keys.size()) {
+                counts = Arrays.copyOf(counts, keys.size());
+            }
+            for (int j = 0; j < remap.length; j++) {
+                counts[remap[j]] += p.second()[j];
+            }
+        }
+        return counts(keys, counts);
+    }
+
+    private static <T, K, A> Couple<KeyTable, Object[]> aggregate(Iterable<?> src, Function<T, K> keyF, Aggregator<T, A, ?> aggregator) {
+        KeyTable keys = new KeyTable();
+        Object[] accs = new Object[8];
+        for (Object o : src) {
+            T t = Util.cast(o);
+            int n = keys.size();
+            int k = keys.add(keyF.apply(t));
+            if (k == n) {
+                accs = grow(accs, n + 1);
+                accs[k] = aggregator.init();
+            }
+            accs[k] = aggregator.accumulate(Util.cast(accs[k]), t);
+        }
+        return Tuple.of(keys, accs);
+    }
+
+    private static <T, K> Couple<KeyTable, int[]> count(Iterable<?> src, Function<T, K> keyF) {
+        KeyTable keys = new KeyTable();
+        int[] counts = new int[8];
+        for (Object o : src) {
+            int k = keys.add(keyF.apply(Util.cast(o)));
+            if (k == counts.length) {
+                counts = Arrays.copyOf(counts, k << 1);
+            }
+            counts[k]++;
+        }
+        return Tuple.of(keys, counts);
+    }
+
+    /**
+     * Adds the keys of `part` to `keys`
+     * @return ordinals (in `keys`) of the keys of `part` indexed by their ordinals in `part`
+     */
+    private static int[] remap(KeyTable part, KeyTable keys) {
+        int[] res = new int[part.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = keys.add(part.key(i));
+        }
+        return res;
+    }
+
+    private static Object[] grow(Object[] arr, int size) {
+        return size <= arr.length ? arr : Arrays.copyOf(arr, Math.max(size, arr.length << 1));
+    }
+
+    private static <K, A, R> IMap<K, R> finish(KeyTable keys, Object[] accs, Aggregator<?, A, R> aggregator) {
+        CompactMap<K, R> res = new CompactMap<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            res.put(Util.cast(keys.key(i)), aggregator.finish(Util.cast(accs[i])));
+        }
+        return IMap.of(res, CompactMap::new);
+    }
+
+    private static <K> IMap<K, Integer> counts(KeyTable keys, int[] counts) {
+        CompactMap<K, Integer> res = new CompactMap<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            res.put(Util.cast(keys.key(i)), counts[i]);
+        }
+        return IMap.of(res, CompactMap::new);
+    }
+}
@@ -0,0 +1,336 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+
+/**
+ * Immutable <code>Map</code> over a version of a persistent hash array mapped trie (HAMT). Each level of the trie consumes 5 bits of
+ * the hash of the keys and keeps only the occupied branches (indexed by a 32 bit bitmap); keys of the same hash share a collision node.
+ * Updates ({@link #plus(Object, Object) plus}, {@link #minus(Object) minus}) copy only the path to the updated key, i.e.
+ * <code>O(log<sub>32</sub> n)</code> nodes, and return a new version sharing all the other nodes with the current one.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+final class HashTrieMap<K, V> extends AbstractMap<K, V> {
+    private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(null, 0);
+    private static final Object NULL_KEY = new Object();
+    private static final Object NOT_FOUND = new Object();
+
+    private final Node root;
+    private final int size;
+    private Set<Map.Entry<K, V>> entries;
+
+    private HashTrieMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static <K, V> HashTrieMap<K, V> empty() {
+        return Util.cast(EMPTY);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    @Override
+    public V get(Object key) {
+        Object v = find(key);
+        return v == NOT_FOUND ? null : Util.cast(v);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        Object v = find(key);
+        return v == NOT_FOUND ? defaultValue : Util.cast(v);
+    }
+
+    /**
+     * @return new version mapping `key` to `val` (or the current version if it already does)
+     */
+    HashTrieMap<K, V> plus(K key, V val) {
+        Object k = mask(key);
+        boolean[] added = new boolean[1];
+        Node r = (root == null ? BitmapNode.EMPTY : root).put(0, hash(k), k, val, added);
+        return r == root ? this : new HashTrieMap<>(r, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @return new version without `key` (or the current version if it does not contain `key`)
+     */
+    HashTrieMap<K, V> minus(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Object k = mask(key);
+        Node r = root.remove(0, hash(k), k);
+        return r == root ? this : r == null ? empty() : new HashTrieMap<>(r, size - 1);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entries == null) {
+            entries = new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Itr<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entries;
+    }
+
+    private Object find(Object key) {
+        Object k = mask(key);
+        return root == null ? NOT_FOUND : root.find(0, hash(k), k);
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static int hash(Object k) {
+        int h = k.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A node keeps its entries in an array of pairs: a key followed by its value or, for a branch of a bitmap node, <code>null</code>
+     * followed by the child node.
+     */
+    private abstract static class Node {
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node put(int shift, int hash, Object key, Object val, boolean[] added);
+
+        /**
+         * @return node without `key` (the current node if absent) or <code>null</code> if empty
+         */
+        abstract Node remove(int shift, int hash, Object key);
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+        private final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + 5, hash, key);
+            }
+            return k.equals(key) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object val, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            int i = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            if ((bitmap & bit) == 0) {
+                Object[] arr = new Object[array.length + 2];
+                System.arraycopy(array, 0, arr, 0, i);
+                arr[i] = key;
+                arr[i + 1] = val;
+                System.arraycopy(array, i, arr, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, arr);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).put(shift + 5, hash, key, val, added);
+                return child == v ? this : with(i + 1, child);
+            }
+            if (k.equals(key)) {
+                return v == val ? this : with(i + 1, val);
+            }
+            added[0] = true;
+            Node child = pair(shift + 5, k, v, hash, key, val);
+            Object[] arr = array.clone();
+            arr[i] = null;
+            arr[i + 1] = child;
+            return new BitmapNode(bitmap, arr);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            Object k = array[i];
+            if (k == null) {
+                Node child = ((Node) array[i + 1]).remove(shift + 5, hash, key);
+                return child == array[i + 1] ? this : child != null ? with(i + 1, child) : without(bit, i);
+            }
+            return k.equals(key) ? without(bit, i) : this;
+        }
+
+        private BitmapNode with(int i, Object o) {
+            Object[] arr = array.clone();
+            arr[i] = o;
+            return new BitmapNode(bitmap, arr);
+        }
+
+        private BitmapNode without(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] arr = new Object[array.length - 2];
+            System.arraycopy(array, 0, arr, 0, i);
+            System.arraycopy(array, i + 2, arr, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, arr);
+        }
+
+        private static Node pair(int shift, Object k1, Object v1, int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[]{k1, v1, k2, v2});
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(shift, h1, k1, v1, added).put(shift, h2, k2, v2, added);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        private final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object val, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(1 << ((this.hash >>> shift) & 31), new Object[]{null, this}).put(shift, hash, key, val, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == val) {
+                    return this;
+                }
+                Object[] arr = array.clone();
+                arr[i + 1] = val;
+                return new CollisionNode(hash, arr);
+            }
+            Object[] arr = Arrays.copyOf(array, array.length + 2);
+            arr[array.length] = key;
+            arr[array.length + 1] = val;
+            added[0] = true;
+            return new CollisionNode(hash, arr);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] arr = new Object[array.length - 2];
+            System.arraycopy(array, 0, arr, 0, i);
+            System.arraycopy(array, i + 2, arr, i, array.length - i - 2);
+            return new CollisionNode(hash, arr);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Depth first iteration over the pairs of the nodes (by a stack of the arrays being visited along with the positions in them).
+     */
+    private static final class Itr<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] arrays = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Map.Entry<K, V> next;
+
+        Itr(Node root) {
+            if (root != null) {
+                push(root.array);
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> res = next;
+            advance();
+            return res;
+        }
+
+        private void push(Object[] array) {
+            arrays[++depth] = array;
+            positions[depth] = 0;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0 && next == null) {
+                Object[] arr = arrays[depth];
+                int i = positions[depth];
+                if (i == arr.length) {
+                    arrays[depth--] = null;
+                } else {
+                    positions[depth] = i + 2;
+                    if (arr[i] == null) {
+                        push(((Node) arr[i + 1]).array);
+                    } else {
+                        next = new AbstractMap.SimpleImmutableEntry<>(arr[i] == NULL_KEY ? null : Util.cast(arr[i]), Util.cast(arr[i + 1]));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.simplj.lambda.data;
+
+/**
+ * Mergeable distinct count estimator (HyperLogLog). Each element is hashed to 64 bits; the first
+ * <code>p</code> bits select one of the <code>2<sup>p</sup></code> registers which retains the longest run of leading zeros of the
+ * remaining bits. The estimate has a relative standard error of about <code>1.04/sqrt(2<sup>p</sup>)</code> (0.8% for the default
+ * <code>p = 14</code>, in 16 KB) regardless of the number of elements; small cardinalities are estimated by linear counting.<br>
+ * The hash uses all the bits of <code>CharSequence</code>s, <code>Long</code>s, <code>Double</code>s, <code>UUID</code>s and the boxed
+ * types of at most 32 bits, whereas any other type is hashed from its 32 bit <code>hashCode</code>: distinct elements of such types
+ * collide once their number approaches 2<sup>32</sup>, which under-estimates cardinalities from about 10<sup>8</sup>.<br>
+ * Estimators of the same precision built independently (e.g. over the chunks of a parallel computation) can be
+ * {@link #merge(HyperLogLog) merged} into the estimator of the union of their elements.
+ */
+public final class HyperLogLog {
+    private static final int DEFAULT_P = 14;
+
+    private final int p;
+    private final byte[] registers;
+
+    private HyperLogLog(int p) {
+        this.p = p;
+        this.registers = new byte[1 << p];
+    }
+
+    /**
+     * @return empty estimator of the default precision (<code>p = 14</code>)
+     */
+    public static HyperLogLog create() {
+        return create(DEFAULT_P);
+    }
+
+    /**
+     * @param p precision i.e. <code>log<sub>2</sub></code> of the number of registers (within <code>[4, 18]</code>)
+     * @return empty estimator of precision `p`
+     */
+    public static HyperLogLog create(int p) {
+        if (p < 4 || p > 18) {
+            throw new IllegalArgumentException("Precision must be within [4, 18]: " + p);
+        }
+        return new HyperLogLog(p);
+    }
+
+    /**
+     * @param o element to add
+     * @return <code>current instance</code>
+     */
+    public HyperLogLog add(Object o) {
+        long h = Util.hash64(o);
+        int idx = (int) (h >>> (64 - p));
+        byte rho = (byte) (Long.numberOfLeadingZeros((h << p) | (1L << (p - 1))) + 1);
+        if (rho > registers[idx]) {
+            registers[idx] = rho;
+        }
+        return this;
+    }
+
+    public HyperLogLog addAll(Iterable<?> elems) {
+        for (Object o : elems) {
+            add(o);
+        }
+        return this;
+    }
+
+    /**
+     * Merges the registers of `that` into the current estimator (`that` remains unchanged).
+     * @param that estimator to merge (of the same precision)
+     * @return <code>current instance</code>
+     */
+    public HyperLogLog merge(HyperLogLog that) {
+        if (that.p != p) {
+            throw new IllegalArgumentException("Cannot merge estimators of different precisions (" + p + " and " + that.p + ")!");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (that.registers[i] > registers[i]) {
+                registers[i] = that.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return estimated number of distinct elements added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double e = alpha * m * m / sum;
+        if (e <= 2.5 * m && zeros > 0) {
+            e = m * Math.log((double) m / zeros);
+        }
+        return Math.round(e);
+    }
+
+    public int precision() {
+        return p;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog(p=" + p + ", estimate=" + estimate() + ")";
+    }
+}
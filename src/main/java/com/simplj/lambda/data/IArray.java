@@ -1,18 +1,23 @@
 package com.simplj.lambda.data;
 
+import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Condition;
 import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.IndexedFunction;
 import com.simplj.lambda.tuples.Couple;
 import com.simplj.lambda.tuples.Tuple;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
 
 import static com.simplj.lambda.util.Expr.let;
 
 public abstract class IArray<E> extends FArray<E, IArray<E>> {
     final E[] arr;
+    private volatile Index.Cache<E> indexes;
 
-    private IArray(E[] arr) {
+    IArray(E[] arr) {
         super();
         this.arr = arr;
     }
@@ -98,7 +103,7 @@ public abstract class IArray<E> extends FArray<E, IArray<E>> {
         return applied().arr[idx];
     }
 
-    public final MArray<E> mutable() {
+    public MArray<E> mutable() {
         return MArray.of(array());
     }
 
@@ -111,8 +116,142 @@ public abstract class IArray<E> extends FArray<E, IArray<E>> {
 
     public abstract <R> IArray<R> flatmap(Function<E, ? extends R[]> f);
 
+    /**
+     * Left scan: successive {@link #foldl(Object, BiFunction) foldl} accumulations of the elements, e.g. running totals.
+     * @param identity initial value of the accumulation
+     * @param op accumulates each element into the preceding accumulation
+     * @param <R> Type of the accumulations
+     * @return array of `identity` followed by the accumulation up to each element (i.e. one more than the elements)
+     */
+    public <R> IArray<R> scanl(R identity, BiFunction<R, E, R> op) {
+        return of(Util.<R[]>cast(scanned(identity, op)));
+    }
+
+    /**
+     * Sorts a copy of the {@link #applied() applied} elements by their natural order.
+     * @return sorted array answering searches by binary search
+     * @see #sorted(Comparator)
+     */
+    public SortedIArray<E> sorted() {
+        return sorted(null);
+    }
+
+    /**
+     * Sorts a copy of the {@link #applied() applied} elements (stable) by the comparator `c`. The resultant array answers
+     * <code>contains</code>, <code>indexOf</code>, <code>rank</code>, <code>range</code>, <code>floor</code> and <code>ceiling</code>
+     * by binary search.
+     * @param c comparator to sort by
+     * @return sorted array
+     */
+    public SortedIArray<E> sorted(Comparator<? super E> c) {
+        return SortedIArray.of(array().clone(), c);
+    }
+
+    /**
+     * Same as {@link #sorted(Comparator) sorted} except that the copy is sorted by a parallel merge sort (<code>Arrays.parallelSort</code>).
+     * @param c comparator to sort by (or <code>null</code> for the natural order)
+     * @return sorted array
+     */
+    public SortedIArray<E> sortedParallel(Comparator<? super E> c) {
+        E[] arr = array().clone();
+        Arrays.parallelSort(arr, c);
+        return SortedIArray.ofSorted(arr, c);
+    }
+
     public IArray<Couple<Integer, E>> indexed() {
-        return foldl(Tuple.of(0, IArray.<Couple<Integer, E>>of(arr.length)), (c, v) -> Tuple.of(c.first() + 1, c.second().set(c.first(), Tuple.of(c.first(), v)))).second();
+        return mapIndexed(Tuple::of);
+    }
+
+    /**
+     * Applies the function `f` to all the elements in the array along with their unboxed index. Function application is <i>eager</i>
+     * @param f function to apply to each element and its index.
+     * @param <R> type returned by the function `f` application
+     * @return resultant array after applying `f` to all the array elements
+     */
+    public <R> IArray<R> mapIndexed(IndexedFunction<E, R> f) {
+        E[] a = array();
+        R[] r = Util.cast(new Object[a.length]);
+        for (int i = 0; i < a.length; i++) {
+            r[i] = f.apply(i, a[i]);
+        }
+        return of(r);
+    }
+
+    /**
+     * Evaluates the condition `c` against the {@link #applied() applied} elements into a compressed {@link Selection} of positions.
+     * Selections of the same instance can be combined with each other (and/or/not) and only the final selection needs to be materialized.
+     * @param c condition to evaluate against each element
+     * @return selection of the positions of the elements which satisfy `c`
+     */
+    public Selection<E> select(Condition<E> c) {
+        return selection().where(c);
+    }
+
+    /**
+     * @return selection of all the positions of the {@link #applied() applied} array
+     * @see #select(Condition)
+     */
+    public Selection<E> selection() {
+        return Selection.all(this, Arrays.asList(array()));
+    }
+
+    /**
+     * Builds (once) a hash index of (a copy of) the {@link #applied() applied} elements keyed by `f`. The index is cached in the current
+     * instance, hence subsequent calls with the same function instance return the same index in <code>O(1)</code>. The cache is keyed
+     * by the identity of `f` and bounded (see {@link Index}), hence `f` is expected to be a stable instance rather than a new
+     * (capturing) lambda per call.
+     * @param f function producing the key of each element
+     * @param <K> Type of the keys
+     * @return hash index of the elements keyed by `f`
+     */
+    public <K> Index<K, E> indexBy(Function<E, K> f) {
+        return indexes().get(f, () -> array().clone());
+    }
+
+    /**
+     * Builds (once) a hash index of the {@link #applied() applied} elements themselves. Once built, {@link #contains(Object) contains},
+     * {@link #indexOf(Object) indexOf} and {@link #lastIndexOf(Object) lastIndexOf} are answered by the index in <code>O(1)</code>.
+     * @return hash index of the elements
+     */
+    public Index<E, E> index() {
+        return indexBy(Util.cast(Index.Cache.IDENTITY));
+    }
+
+    @Override
+    public boolean contains(E elem) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? super.contains(elem) : idx.contains(elem);
+    }
+
+    @Override
+    public int indexOf(E elem) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? super.indexOf(elem) : idx.first(elem);
+    }
+
+    @Override
+    public int lastIndexOf(E elem) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? super.lastIndexOf(elem) : idx.last(elem);
+    }
+
+    final Index<E, E> identityIndex() {
+        Index.Cache<E> c = indexes;
+        return c == null ? null : c.identity();
+    }
+
+    private Index.Cache<E> indexes() {
+        Index.Cache<E> c = indexes;
+        if (c == null) {
+            synchronized (this) {
+                c = indexes;
+                if (c == null) {
+                    c = new Index.Cache<>();
+                    indexes = c;
+                }
+            }
+        }
+        return c;
     }
 
     /**
@@ -158,6 +297,11 @@ public abstract class IArray<E> extends FArray<E, IArray<E>> {
             return new ArrayFunctor<>(src, filter(func, c), null);
         }
 
+        @Override
+        Parallel.Source<T> source() {
+            return isApplied() ? super.source() : new Parallel.Source<>(src, func);
+        }
+
         public final ArrayFunctor<T, T> appliedArray(boolean copy) {
             ArrayFunctor<T, T> res;
             if (arr == null) {
@@ -0,0 +1,211 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Condition;
+
+import java.util.*;
+
+/**
+ * Immutable (persistent) priority queue backed by a leftist heap. {@link #peek() peek} takes <code>O(1)</code> while
+ * {@link #push(Object) push}, {@link #pop() pop} and {@link #meld(IHeap) meld} take <code>O(log n)</code> in the worst case
+ * (these bounds do not rely on amortization hence hold even when an older version is reused). An update copies only the right spine of
+ * the heap and shares the rest with the current instance.<br>
+ * Iteration visits the elements in their priority order (smallest first).
+ * @param <E> Type of the elements
+ */
+public final class IHeap<E> implements Iterable<E> {
+    private final Comparator<? super E> comparator;
+    private final Comparator<Object> cmp;
+    private final Node<E> root;
+
+    private IHeap(Comparator<? super E> comparator, Node<E> root) {
+        this.comparator = comparator;
+        this.cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+        this.root = root;
+    }
+
+    /**
+     * @param <A> Type of the elements (ordered by their natural order)
+     * @return empty heap ordered by the natural order of the elements
+     */
+    public static <A> IHeap<A> unit() {
+        return unit(null);
+    }
+
+    public static <A> IHeap<A> unit(Comparator<? super A> comparator) {
+        return new IHeap<>(comparator, null);
+    }
+
+    @SafeVarargs
+    public static <A> IHeap<A> of(A...elems) {
+        return from(Arrays.asList(elems), null);
+    }
+
+    public static <A> IHeap<A> from(Iterable<A> elems) {
+        return from(elems, null);
+    }
+
+    /**
+     * Builds the heap in <code>O(n)</code> by melding the singleton heaps pairwise.
+     * @param elems elements of the resultant heap
+     * @param comparator comparator ordering the elements (or <code>null</code> for their natural order)
+     * @param <A> Type of the elements
+     * @return heap containing `elems`
+     */
+    public static <A> IHeap<A> from(Iterable<A> elems, Comparator<? super A> comparator) {
+        Comparator<Object> cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+        ArrayDeque<Node<A>> queue = new ArrayDeque<>();
+        for (A e : elems) {
+            queue.add(new Node<>(e, null, null));
+        }
+        while (queue.size() > 1) {
+            queue.add(meld(queue.poll(), queue.poll(), cmp));
+        }
+        return new IHeap<>(comparator, queue.poll());
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return mutable copy of the current heap
+     */
+    public MHeap<E> mutable() {
+        return MHeap.from(this, comparator);
+    }
+
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * @return smallest element or <code>null</code> if the heap is empty
+     */
+    public E peek() {
+        return root == null ? null : root.elem;
+    }
+
+    /**
+     * @return heap without the smallest element (or the current instance if it is empty)
+     */
+    public IHeap<E> pop() {
+        return root == null ? this : new IHeap<>(comparator, meld(root.left, root.right, cmp));
+    }
+
+    public IHeap<E> push(E elem) {
+        return new IHeap<>(comparator, meld(root, new Node<>(elem, null, null), cmp));
+    }
+
+    public IHeap<E> pushAll(Iterable<E> elems) {
+        return meld(from(elems, comparator));
+    }
+
+    /**
+     * Merges the current heap with `that`. Both heaps are expected to be ordered by the same comparator.
+     * @param that heap to merge with
+     * @return heap containing the elements of both the heaps
+     */
+    public IHeap<E> meld(IHeap<E> that) {
+        return new IHeap<>(comparator, meld(root, that.root, cmp));
+    }
+
+    /**
+     * @param n number of elements to take
+     * @return (at most) `n` smallest elements in their priority order
+     */
+    public IList<E> take(int n) {
+        List<E> res = new ArrayList<>(Math.min(Math.max(n, 0), size()));
+        Iterator<E> itr = iterator();
+        while (res.size() < n && itr.hasNext()) {
+            res.add(itr.next());
+        }
+        return IList.of(res, ArrayList::new);
+    }
+
+    /**
+     * Removes the elements (from the top of the heap) while they satisfy the condition `c`.
+     * @param c condition to evaluate against the top elements
+     * @return heap without the top elements satisfying `c`
+     */
+    public IHeap<E> dropWhile(Condition<E> c) {
+        Node<E> n = root;
+        while (n != null && c.evaluate(n.elem)) {
+            n = meld(n.left, n.right, cmp);
+        }
+        return n == root ? this : new IHeap<>(comparator, n);
+    }
+
+    /**
+     * @return all the elements in their priority order
+     */
+    public IList<E> list() {
+        return take(size());
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Node<E> n = root;
+
+            @Override
+            public boolean hasNext() {
+                return n != null;
+            }
+
+            @Override
+            public E next() {
+                if (n == null) {
+                    throw new NoSuchElementException();
+                }
+                E res = n.elem;
+                n = meld(n.left, n.right, cmp);
+                return res;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return list().toString();
+    }
+
+    private static <E> Node<E> meld(Node<E> a, Node<E> b, Comparator<? super E> cmp) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (cmp.compare(b.elem, a.elem) < 0) {
+            Node<E> t = a;
+            a = b;
+            b = t;
+        }
+        return new Node<>(a.elem, a.left, meld(a.right, b, cmp));
+    }
+
+    private static final class Node<E> {
+        private final E elem;
+        private final Node<E> left;
+        private final Node<E> right;
+        private final int rank;
+        private final int size;
+
+        /**
+         * Keeps the leftist property by placing the child with the shorter right spine on the right.
+         */
+        Node(E elem, Node<E> a, Node<E> b) {
+            int ra = a == null ? 0 : a.rank;
+            int rb = b == null ? 0 : b.rank;
+            this.elem = elem;
+            this.left = ra >= rb ? a : b;
+            this.right = ra >= rb ? b : a;
+            this.rank = Math.min(ra, rb) + 1;
+            this.size = 1 + (a == null ? 0 : a.size) + (b == null ? 0 : b.size);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.simplj.lambda.data;
 
+import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Condition;
 import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.IndexedFunction;
 import com.simplj.lambda.function.Producer;
 import com.simplj.lambda.tuples.Couple;
 import com.simplj.lambda.tuples.Tuple;
@@ -12,6 +14,7 @@ import java.util.function.UnaryOperator;
 public abstract class IList<E> extends FList<E, IList<E>> {
     private static final IList<?> NONE = IList.unit(Collections::emptyList);
     final List<E> list;
+    private volatile Index.Cache<E> indexes;
 
     IList(List<E> list, Producer<List<?>> constructor) {
         super(constructor);
@@ -49,6 +52,18 @@ public abstract class IList<E> extends FList<E, IList<E>> {
         return of(list, LinkedList::new);
     }
 
+    /**
+     * Creates a dictionary-encoded list from the elements of `iter`. Every distinct element is stored once and the list only keeps
+     * small integer codes, which suits lists with a low number of distinct elements (low cardinality).<br>
+     * Lazy functions and conditions applied to such list are evaluated once per <i>distinct</i> element, hence they are expected to be pure.
+     * @param iter source of the elements
+     * @param <E> Type of the list elements
+     * @return dictionary-encoded list containing the elements of `iter`
+     */
+    public static <E> IList<E> encoded(Iterable<E> iter) {
+        return EncodedList.encode(iter, LinkedList::new);
+    }
+
     /* ------------------- START: Lazy methods ------------------- */
     /**
      * Applies the function `f` of type <i>(T -&gt; R)</i> to all the elements in the list and returns the resultant applied(). Function application is <i>lazy</i><br>
@@ -73,10 +88,19 @@ public abstract class IList<E> extends FList<E, IList<E>> {
     public abstract <R> IList<R> flatmap(Function<E, ? extends List<R>> f);
     /* ------------------- END: Lazy methods ------------------- */
 
-    public final MList<E> mutable() {
+    public MList<E> mutable() {
         return MList.of(list());
     }
 
+    /**
+     * Function application is <i>eager</i> i.e. it applies all the lazy functions (if any) before encoding the elements
+     * @return dictionary-encoded list containing the elements of the current list
+     * @see #encoded(Iterable)
+     */
+    public IList<E> encoded() {
+        return EncodedList.encode(list(), constructor);
+    }
+
     @Override
     public final List<E> list() {
         return applied().list;
@@ -92,7 +116,190 @@ public abstract class IList<E> extends FList<E, IList<E>> {
     }
 
     public IList<Couple<Integer, E>> indexed() {
-        return foldl(Tuple.of(0, IList.<Couple<Integer, E>>unit(constructor)), (c, v) -> Tuple.of(c.first() + 1, c.second().append(Tuple.of(c.first(), v)))).second();
+        return mapIndexed(Tuple::of);
+    }
+
+    /**
+     * Applies the function `f` to all the elements in the list along with their unboxed index. Function application is <i>eager</i>
+     * @param f function to apply to each element and its index.
+     * @param <R> type returned by the function `f` application
+     * @return resultant list after applying `f` to all the list elements
+     */
+    public <R> IList<R> mapIndexed(IndexedFunction<E, R> f) {
+        List<R> r = Util.cast(constructor.produce());
+        int i = 0;
+        for (E e : list()) {
+            r.add(f.apply(i++, e));
+        }
+        return of(r, constructor);
+    }
+
+    /**
+     * Evaluates the condition `c` against the {@link #applied() applied} elements into a compressed {@link Selection} of positions.
+     * Selections of the same instance can be combined with each other (and/or/not) and only the final selection needs to be materialized.
+     * @param c condition to evaluate against each element
+     * @return selection of the positions of the elements which satisfy `c`
+     */
+    public Selection<E> select(Condition<E> c) {
+        return selection().where(c);
+    }
+
+    /**
+     * @return selection of all the positions of the {@link #applied() applied} list
+     * @see #select(Condition)
+     */
+    public Selection<E> selection() {
+        return Selection.all(this, elements());
+    }
+
+    /**
+     * Builds (once) a hash index of (a copy of) the {@link #applied() applied} elements keyed by `f`. The index is cached in the current
+     * instance, hence subsequent calls with the same function instance return the same index in <code>O(1)</code>. The cache is keyed
+     * by the identity of `f` and bounded (see {@link Index}), hence `f` is expected to be a stable instance rather than a new
+     * (capturing) lambda per call.
+     * @param f function producing the key of each element
+     * @param <K> Type of the keys
+     * @return hash index of the elements keyed by `f`
+     */
+    public <K> Index<K, E> indexBy(Function<E, K> f) {
+        return indexes().get(f, () -> elements().toArray());
+    }
+
+    /**
+     * Builds (once) a hash index of the {@link #applied() applied} elements themselves. Once built, {@link #contains(Object) contains},
+     * {@link #indexOf(Object) indexOf} and {@link #lastIndexOf(Object) lastIndexOf} are answered by the index in <code>O(1)</code>.
+     * @return hash index of the elements
+     */
+    public Index<E, E> index() {
+        return indexBy(Util.cast(Index.Cache.IDENTITY));
+    }
+
+    /**
+     * Inner equi-join of the elements with the ones of `other`: each element is combined with every element of `other` having an
+     * equal key (as per <code>equals</code>). The keys are computed once per element; when the keys of both sides are already in
+     * ascending order the inputs are merged, otherwise `other` is grouped by its keys (build) and each element looks up its group (probe).
+     * The result retains the order of the elements, each followed by its matches in the order of `other`.
+     * @param other elements to join with
+     * @param leftKey function producing the join key of each element
+     * @param rightKey function producing the join key of each element of `other`
+     * @param combiner function combining a pair of matching elements
+     * @param <U> Type of the elements of `other`
+     * @param <K> Type of the join keys
+     * @param <R> Type of the combined elements
+     * @return combined matching pairs
+     */
+    public <U, K, R> IList<R> join(Iterable<U> other, Function<E, K> leftKey, Function<U, K> rightKey, BiFunction<E, U, R> combiner) {
+        return joined(Join.join(list().toArray(), other, leftKey, rightKey, combiner, false, false));
+    }
+
+    /**
+     * Left outer equi-join of the elements with the ones of `other`. Same as {@link #join(Iterable, Function, Function, BiFunction) join}
+     * except that an element without any match is retained, combined with <code>null</code>.
+     * @param other elements to join with
+     * @param leftKey function producing the join key of each element
+     * @param rightKey function producing the join key of each element of `other`
+     * @param combiner function combining a pair of matching elements (or an element with <code>null</code>)
+     * @param <U> Type of the elements of `other`
+     * @param <K> Type of the join keys
+     * @param <R> Type of the combined elements
+     * @return combined pairs
+     */
+    public <U, K, R> IList<R> leftJoin(Iterable<U> other, Function<E, K> leftKey, Function<U, K> rightKey, BiFunction<E, U, R> combiner) {
+        return joined(Join.join(list().toArray(), other, leftKey, rightKey, combiner, true, false));
+    }
+
+    /**
+     * Parallel (hash) {@link #join(Iterable, Function, Function, BiFunction) join}: `other` is grouped by its keys once and the elements
+     * are partitioned into chunks probing the groups concurrently. The result is the same as the one of the sequential join.
+     * @param other elements to join with
+     * @param leftKey function producing the join key of each element
+     * @param rightKey function producing the join key of each element of `other`
+     * @param combiner function combining a pair of matching elements
+     * @param <U> Type of the elements of `other`
+     * @param <K> Type of the join keys
+     * @param <R> Type of the combined elements
+     * @return combined matching pairs
+     */
+    public <U, K, R> IList<R> joinParallel(Iterable<U> other, Function<E, K> leftKey, Function<U, K> rightKey, BiFunction<E, U, R> combiner) {
+        return joined(Join.join(list().toArray(), other, leftKey, rightKey, combiner, false, true));
+    }
+
+    /**
+     * Semi-join: retains the elements (once each) having a key equal to the key of any element of `other`.
+     * @param other elements to match with
+     * @param leftKey function producing the join key of each element
+     * @param rightKey function producing the join key of each element of `other`
+     * @param <U> Type of the elements of `other`
+     * @param <K> Type of the join keys
+     * @return elements having a match in `other`
+     */
+    public <U, K> IList<E> semiJoin(Iterable<U> other, Function<E, K> leftKey, Function<U, K> rightKey) {
+        return joined(Join.semi(list().toArray(), other, leftKey, rightKey, false));
+    }
+
+    /**
+     * Anti-join: retains the elements not having a key equal to the key of any element of `other`.
+     * @param other elements to match with
+     * @param leftKey function producing the join key of each element
+     * @param rightKey function producing the join key of each element of `other`
+     * @param <U> Type of the elements of `other`
+     * @param <K> Type of the join keys
+     * @return elements not having any match in `other`
+     */
+    public <U, K> IList<E> antiJoin(Iterable<U> other, Function<E, K> leftKey, Function<U, K> rightKey) {
+        return joined(Join.semi(list().toArray(), other, leftKey, rightKey, true));
+    }
+
+    private <R> IList<R> joined(List<R> res) {
+        List<R> r = Util.cast(constructor.produce());
+        r.addAll(res);
+        return of(r, constructor);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? super.contains(o) : idx.contains(Util.cast(o));
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? super.indexOf(o) : idx.first(Util.cast(o));
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        Index<E, E> idx = identityIndex();
+        return idx == null ? super.lastIndexOf(o) : idx.last(Util.cast(o));
+    }
+
+    final Index<E, E> identityIndex() {
+        Index.Cache<E> c = indexes;
+        return c == null ? null : c.identity();
+    }
+
+    /**
+     * Not cached, as the applied list of an instance created over an existing list (see {@link #of(List)}) may be shared with its creator.
+     * @return random access view of the applied elements (the list itself if it already provides random access, a copy otherwise)
+     */
+    final List<E> elements() {
+        List<E> l = list();
+        return l instanceof RandomAccess ? l : Arrays.asList(Util.<E[]>cast(l.toArray()));
+    }
+
+    private Index.Cache<E> indexes() {
+        Index.Cache<E> c = indexes;
+        if (c == null) {
+            synchronized (this) {
+                c = indexes;
+                if (c == null) {
+                    c = new Index.Cache<>();
+                    indexes = c;
+                }
+            }
+        }
+        return c;
     }
 
     @Override
@@ -153,20 +360,15 @@ public abstract class IList<E> extends FList<E, IList<E>> {
     @Override
     public IList<E> delete(Iterable<? extends E> c) {
         IList<E> res = appliedList(true);
-        for (E e : c) {
-            res.list.remove(e);
-        }
+        BulkOps.deleteEach(res.list, c);
         return res;
     }
 
     @Override
     public IList<E> preserve(Iterable<? extends E> c) {
         IList<E> res = appliedList(true);
-        for (E e : c) {
-            if (!res.list.contains(e)) {
-                res.list.remove(e);
-            }
-        }
+        Condition<E> m = BulkOps.membership(c);
+        res.list.removeIf(e -> !m.evaluate(e));
         return res;
     }
 
@@ -177,6 +379,33 @@ public abstract class IList<E> extends FList<E, IList<E>> {
         return res;
     }
 
+    @Override
+    public <K> IList<E> sortedBy(Function<E, K> keyF, Comparator<? super K> c) {
+        List<E> r = Util.cast(constructor.produce());
+        r.addAll(Util.cast(Arrays.asList(Sorting.sortBy(list().toArray(), keyF, c))));
+        return instantiate(constructor, r);
+    }
+
+    /**
+     * Left scan: successive {@link #foldl(Object, BiFunction) foldl} accumulations of the elements, e.g. running totals.
+     * @param identity initial value of the accumulation
+     * @param op accumulates each element into the preceding accumulation
+     * @param <R> Type of the accumulations
+     * @return list of `identity` followed by the accumulation up to each element (i.e. one more than the elements)
+     */
+    public <R> IList<R> scanl(R identity, BiFunction<R, E, R> op) {
+        return of(scanned(identity, op), constructor);
+    }
+
+    @Override
+    public IList<E> sortedParallel(Comparator<? super E> c) {
+        Object[] arr = list().toArray();
+        Arrays.parallelSort(arr, Util.<Comparator<Object>>cast(c));
+        List<E> r = Util.cast(constructor.produce());
+        r.addAll(Util.cast(Arrays.asList(arr)));
+        return instantiate(constructor, r);
+    }
+
     @Override
     public IList<E> replacingAll(UnaryOperator<E> operator) {
         IList<E> res = appliedList(true);
@@ -223,6 +452,11 @@ public abstract class IList<E> extends FList<E, IList<E>> {
             return new ListFunctor<>(src, constructor, filter(func, c), null);
         }
 
+        @Override
+        Parallel.Source<T> source() {
+            return isApplied() ? super.source() : new Parallel.Source<>(src.toArray(), func);
+        }
+
         public final ListFunctor<T, T> appliedList(boolean copy) {
             ListFunctor<T, T> res;
             if (list == null) {
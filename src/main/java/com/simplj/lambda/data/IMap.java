@@ -4,6 +4,7 @@ import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Function;
 import com.simplj.lambda.function.Producer;
 import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
 import com.simplj.lambda.tuples.Tuple2;
 
 import java.util.*;
@@ -43,7 +44,35 @@ public abstract class IMap<K, V> extends FMap<K, V, IMap<K, V>> {
         return new MapFunctor<>(map, constructor, LinkedPair::new, map);
     }
 
-    public final MMap<K, V> mutable() {
+    /**
+     * @param <B> Type of the values
+     * @return empty map of <code>String</code> keys backed by a trie
+     * @see ITrieMap
+     */
+    public static <B> ITrieMap<B> trie() {
+        return trie(Collections.emptyMap());
+    }
+
+    @SafeVarargs
+    public static <B> ITrieMap<B> trie(Couple<String, B>...elems) {
+        Map<String, B> m = new TreeMap<>();
+        for (Couple<String, B> c : elems) {
+            m.put(c.first(), c.second());
+        }
+        return trie(m);
+    }
+
+    /**
+     * @param map entries of the resultant map
+     * @param <B> Type of the values
+     * @return map of <code>String</code> keys backed by a trie, answering prefix queries in time proportional to the length of the key
+     * @see ITrieMap
+     */
+    public static <B> ITrieMap<B> trie(Map<String, B> map) {
+        return ITrieMap.build(map);
+    }
+
+    public MMap<K, V> mutable() {
         return MMap.of(map());
     }
 
@@ -153,6 +182,42 @@ public abstract class IMap<K, V> extends FMap<K, V, IMap<K, V>> {
         return unit(constructor);
     }
 
+    /**
+     * Inner join on the keys: pairs the value of each key of the current map with the value of the same key in `that`.
+     * Each key is probed once into the (hash) map of `that`.
+     * @param that map to join with
+     * @param <U> Type of the values of `that`
+     * @return map of the common keys to the pairs of their values (in the order of the current map for ordered constructors)
+     */
+    public <U> IMap<K, Couple<V, U>> join(IMap<K, U> that) {
+        return joined(that, false);
+    }
+
+    /**
+     * Left outer join on the keys: pairs the value of each key of the current map with the value of the same key in `that`
+     * or <code>null</code> if absent in `that`.
+     * @param that map to join with
+     * @param <U> Type of the values of `that`
+     * @return map of all the keys of the current map to the pairs of their values
+     */
+    public <U> IMap<K, Couple<V, U>> leftJoin(IMap<K, U> that) {
+        return joined(that, true);
+    }
+
+    private <U> IMap<K, Couple<V, U>> joined(IMap<K, U> that, boolean outer) {
+        Map<K, Couple<V, U>> res = Util.cast(constructor.produce());
+        Map<K, U> other = that.map();
+        for (Map.Entry<K, V> e : map().entrySet()) {
+            U u = other.get(e.getKey());
+            if (u != null || other.containsKey(e.getKey())) {
+                res.put(e.getKey(), Tuple.of(e.getValue(), u));
+            } else if (outer) {
+                res.put(e.getKey(), Tuple.of(e.getValue(), null));
+            }
+        }
+        return of(res, constructor);
+    }
+
     @Override
     public IMap<K, V> replacingAll(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
         IMap<K, V> res = appliedMap(true);
@@ -160,6 +225,17 @@ public abstract class IMap<K, V> extends FMap<K, V, IMap<K, V>> {
         return res;
     }
 
+    @Override
+    public IMap<K, V> replacingAllParallel(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        Object[] entries = map().entrySet().toArray();
+        Object[] vals = replacements(entries, function);
+        Map<K, V> r = Util.cast(constructor.produce());
+        for (int i = 0; i < entries.length; i++) {
+            r.put(Util.<Map.Entry<K, V>>cast(entries[i]).getKey(), Util.cast(vals[i]));
+        }
+        return instantiate(constructor, r);
+    }
+
     @Override
     public void forEach(Consumer<? super Map.Entry<K, V>> action) {
         super.forEach(action);
@@ -220,6 +296,15 @@ public abstract class IMap<K, V> extends FMap<K, V, IMap<K, V>> {
             return new MapFunctor<>(src, constructor, filter(func, c), null);
         }
 
+        @Override
+        public IMap<A, B> appliedParallel() {
+            if (map != null) {
+                return this;
+            }
+            Map<A, B> r = applyParallel(src, func, constructor);
+            return new MapFunctor<>(r, constructor, LinkedPair::new, r);
+        }
+
         public final MapFunctor<A, B, A, B> appliedMap(boolean copy) {
             MapFunctor<A, B, A, B> res;
             if (map == null) {
@@ -0,0 +1,464 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Condition;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+
+import java.util.*;
+
+/**
+ * Immutable multimap i.e. a map from a key to one or more values. Instead of a collection per key, all the values are kept in a single
+ * shared array, grouped by their keys, and each key only refers to its run of values through an offset table; keys are looked up through
+ * a <code>KeyTable</code>. Keys (and the values of a key) are kept in their insertion order.<br>
+ * Instances are created with a {@link Builder Builder} (see {@link #builder() builder()}) which groups the values in <code>O(n)</code>.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class IMultiMap<K, V> implements Iterable<Couple<K, V>> {
+    private static final IMultiMap<?, ?> NONE = new IMultiMap<>(new Runs(new KeyTable(), new int[1], new Object[0]), null);
+    private final Producer<Runs> pending;
+    private volatile Runs runs;
+
+    private IMultiMap(Runs runs, Producer<Runs> pending) {
+        this.runs = runs;
+        this.pending = pending;
+    }
+
+    public static <A, B> IMultiMap<A, B> unit() {
+        return Util.cast(NONE);
+    }
+
+    @SafeVarargs
+    public static <A, B> IMultiMap<A, B> of(Couple<A, B>...elems) {
+        Builder<A, B> b = builder(elems.length);
+        for (Couple<A, B> c : elems) {
+            b.put(c.first(), c.second());
+        }
+        return b.build();
+    }
+
+    public static <A, B> IMultiMap<A, B> of(Map<A, ? extends Iterable<B>> map) {
+        Builder<A, B> b = builder(map.size());
+        for (Map.Entry<A, ? extends Iterable<B>> e : map.entrySet()) {
+            b.putAll(e.getKey(), e.getValue());
+        }
+        return b.build();
+    }
+
+    public static <A, B> Builder<A, B> builder() {
+        return new Builder<>(8);
+    }
+
+    public static <A, B> Builder<A, B> builder(int expectedSize) {
+        return new Builder<>(expectedSize);
+    }
+
+    /**
+     * @return mutable copy of the current multimap
+     */
+    public MMultiMap<K, V> mutable() {
+        Runs r = runs();
+        MMultiMap<K, V> res = new MMultiMap<>();
+        for (int i = 0; i < r.keys.size(); i++) {
+            res.putRun(Util.cast(r.keys.key(i)), r.values, r.offsets[i], r.offsets[i + 1]);
+        }
+        return res;
+    }
+
+    /* ------------------- START: Lazy methods ------------------- */
+    /**
+     * Applies the function `f` to all the values. The keys and the offset table are shared with the current instance.<br>
+     * Function application is <i>lazy</i> which means calling this api has no effect until a <i>eager</i> api is called.
+     * @param f function to apply to each value
+     * @param <R> Type of the resultant values
+     * @return resultant multimap after applying `f` to all the values
+     */
+    public <R> IMultiMap<K, R> mapV(Function<V, R> f) {
+        return new IMultiMap<>(null, () -> {
+            Runs r = runs();
+            Object[] values = new Object[r.values.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = f.apply(Util.cast(r.values[i]));
+            }
+            return new Runs(r.keys, r.offsets, values);
+        });
+    }
+
+    /**
+     * Retains the key-value pairs which satisfy the condition `c`; keys left without any value are removed.<br>
+     * Function application is <i>lazy</i> which means calling this api has no effect until a <i>eager</i> api is called.
+     * @param c condition to evaluate against each key-value pair
+     * @return multimap containing the key-value pairs which satisfy `c`
+     */
+    public IMultiMap<K, V> filter(BiFunction<K, V, Boolean> c) {
+        return new IMultiMap<>(null, () -> {
+            Runs r = runs();
+            Builder<K, V> b = builder(r.keys.size());
+            for (int i = 0; i < r.keys.size(); i++) {
+                K k = Util.cast(r.keys.key(i));
+                for (int j = r.offsets[i]; j < r.offsets[i + 1]; j++) {
+                    V v = Util.cast(r.values[j]);
+                    if (c.apply(k, v)) {
+                        b.put(k, v);
+                    }
+                }
+            }
+            return b.build().runs();
+        });
+    }
+    public IMultiMap<K, V> filterByKey(Condition<K> c) {
+        return filter((k, v) -> c.evaluate(k));
+    }
+    public IMultiMap<K, V> filterByValue(Condition<V> c) {
+        return filter((k, v) -> c.evaluate(v));
+    }
+    /* ------------------- END: Lazy methods ------------------- */
+
+    public boolean isApplied() {
+        return runs != null;
+    }
+
+    /**
+     * Function application is <i>eager</i> i.e. it applies all the lazy functions (if any) to the key-value pairs
+     * @return <code>current instance</code> with all the lazy functions (if any) applied
+     */
+    public IMultiMap<K, V> applied() {
+        runs();
+        return this;
+    }
+
+    /**
+     * @param key key to look for
+     * @return unmodifiable view of the values of `key` (empty if `key` is absent)
+     */
+    public IList<V> get(K key) {
+        Runs r = runs();
+        int i = r.keys.ordinal(key);
+        return i < 0 ? IList.none() : IList.of(new Run<>(r.values, r.offsets[i], r.offsets[i + 1]), ArrayList::new);
+    }
+
+    public int count(K key) {
+        Runs r = runs();
+        int i = r.keys.ordinal(key);
+        return i < 0 ? 0 : r.offsets[i + 1] - r.offsets[i];
+    }
+
+    public boolean containsKey(K key) {
+        return runs().keys.ordinal(key) >= 0;
+    }
+
+    public boolean containsEntry(K key, V value) {
+        Runs r = runs();
+        int i = r.keys.ordinal(key);
+        if (i >= 0) {
+            for (int j = r.offsets[i]; j < r.offsets[i + 1]; j++) {
+                if (Objects.equals(r.values[j], value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return total number of values (across all the keys)
+     */
+    public int size() {
+        return runs().values.length;
+    }
+
+    public int keyCount() {
+        return runs().keys.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return unmodifiable view of the keys (in their insertion order)
+     */
+    public Set<K> keySet() {
+        Runs r = runs();
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new Iterator<K>() {
+                    private int i;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < r.keys.size();
+                    }
+
+                    @Override
+                    public K next() {
+                        if (i >= r.keys.size()) {
+                            throw new NoSuchElementException();
+                        }
+                        return Util.cast(r.keys.key(i++));
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return r.keys.ordinal(o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return r.keys.size();
+            }
+        };
+    }
+
+    /**
+     * @return unmodifiable view of all the values (grouped by their keys)
+     */
+    public IList<V> values() {
+        Runs r = runs();
+        return IList.of(new Run<>(r.values, 0, r.values.length), ArrayList::new);
+    }
+
+    /**
+     * @return map from each key to the view of its values
+     */
+    public IMap<K, IList<V>> asMap() {
+        Runs r = runs();
+        Map<K, IList<V>> res = new LinkedHashMap<>();
+        for (int i = 0; i < r.keys.size(); i++) {
+            res.put(Util.cast(r.keys.key(i)), IList.of(new Run<>(r.values, r.offsets[i], r.offsets[i + 1]), ArrayList::new));
+        }
+        return IMap.of(res, LinkedHashMap::new);
+    }
+
+    public void forEach(java.util.function.BiConsumer<? super K, ? super V> action) {
+        Runs r = runs();
+        for (int i = 0; i < r.keys.size(); i++) {
+            K k = Util.cast(r.keys.key(i));
+            for (int j = r.offsets[i]; j < r.offsets[i + 1]; j++) {
+                action.accept(k, Util.cast(r.values[j]));
+            }
+        }
+    }
+
+    /**
+     * @return new multimap with `val` appended to the values of `key`
+     */
+    public IMultiMap<K, V> include(K key, V val) {
+        return include(key, Collections.singletonList(val));
+    }
+
+    public IMultiMap<K, V> include(K key, Iterable<? extends V> vals) {
+        Builder<K, V> b = copy(-1);
+        b.putAll(key, vals);
+        return b.build();
+    }
+
+    /**
+     * @return new multimap without `key` (and its values)
+     */
+    public IMultiMap<K, V> delete(K key) {
+        int i = runs().keys.ordinal(key);
+        return i < 0 ? this : copy(i).build();
+    }
+
+    @Override
+    public Iterator<Couple<K, V>> iterator() {
+        Runs r = runs();
+        return new Iterator<Couple<K, V>>() {
+            private int k;
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < r.values.length;
+            }
+
+            @Override
+            public Couple<K, V> next() {
+                if (i >= r.values.length) {
+                    throw new NoSuchElementException();
+                }
+                while (r.offsets[k + 1] <= i) {
+                    k++;
+                }
+                return Tuple.of(Util.cast(r.keys.key(k)), Util.cast(r.values[i++]));
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return isApplied() ? asMap().toString() : "(?=[?])";
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IMultiMap && asMap().equals(((IMultiMap<?, ?>) obj).asMap());
+    }
+
+    private Builder<K, V> copy(int skip) {
+        Runs r = runs();
+        Builder<K, V> b = builder(r.values.length + 1);
+        for (int i = 0; i < r.keys.size(); i++) {
+            if (i != skip) {
+                b.putRun(r.keys.key(i), r.values, r.offsets[i], r.offsets[i + 1]);
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Groups the first `size` values of `vals` (by a counting sort over the key ordinals)
+     * @param keys keys of the resultant multimap (owned by the resultant multimap afterwards)
+     * @param keyOf key ordinal of each value
+     * @param vals values to group
+     * @param size number of values
+     */
+    static <A, B> IMultiMap<A, B> grouped(KeyTable keys, int[] keyOf, Object[] vals, int size) {
+        int n = keys.size();
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[keyOf[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] pos = Arrays.copyOf(offsets, n);
+        Object[] values = new Object[size];
+        for (int i = 0; i < size; i++) {
+            values[pos[keyOf[i]]++] = vals[i];
+        }
+        return new IMultiMap<>(new Runs(keys, offsets, values), null);
+    }
+
+    Runs runs() {
+        Runs r = runs;
+        if (r == null) {
+            r = pending.produce();
+            runs = r;
+        }
+        return r;
+    }
+
+    static final class Runs {
+        final KeyTable keys;
+        final int[] offsets;
+        final Object[] values;
+
+        Runs(KeyTable keys, int[] offsets, Object[] values) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.values = values;
+        }
+    }
+
+    static final class Run<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] values;
+        private final int from;
+        private final int to;
+
+        Run(Object[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public E get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return Util.cast(values[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Collects key-value pairs and groups them (by a counting sort over the key ordinals) into an <code>IMultiMap</code>.
+     * The builder is emptied by {@link #build() build()} and can be reused afterwards.
+     * @param <K> Type of the keys
+     * @param <V> Type of the values
+     */
+    public static final class Builder<K, V> {
+        private KeyTable keys;
+        private int[] keyOf;
+        private Object[] vals;
+        private int size;
+
+        private Builder(int expectedSize) {
+            init(expectedSize);
+        }
+
+        public Builder<K, V> put(K key, V val) {
+            add(keys.add(key), val);
+            return this;
+        }
+
+        public Builder<K, V> putAll(K key, Iterable<? extends V> vals) {
+            Iterator<? extends V> itr = vals.iterator();
+            if (itr.hasNext()) {
+                int k = keys.add(key);
+                while (itr.hasNext()) {
+                    add(k, itr.next());
+                }
+            }
+            return this;
+        }
+
+        public Builder<K, V> putAll(IMultiMap<K, V> that) {
+            that.forEach(this::put);
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public IMultiMap<K, V> build() {
+            IMultiMap<K, V> res = grouped(keys, keyOf, vals, size);
+            init(8);
+            return res;
+        }
+
+        void putRun(Object key, Object[] values, int from, int to) {
+            if (from < to) {
+                int k = keys.add(key);
+                for (int i = from; i < to; i++) {
+                    add(k, values[i]);
+                }
+            }
+        }
+
+        private void add(int k, Object val) {
+            if (size == vals.length) {
+                keyOf = Arrays.copyOf(keyOf, size << 1);
+                vals = Arrays.copyOf(vals, size << 1);
+            }
+            keyOf[size] = k;
+            vals[size++] = val;
+        }
+
+        private void init(int expectedSize) {
+            int cap = Math.max(8, expectedSize);
+            keys = new KeyTable(cap);
+            keyOf = new int[cap];
+            vals = new Object[cap];
+            size = 0;
+        }
+    }
+}
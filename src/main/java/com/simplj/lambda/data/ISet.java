@@ -130,11 +130,8 @@ public abstract class ISet<E> extends FSet<E, ISet<E>> {
     @Override
     public ISet<E> preserve(Iterable<? extends E> c) {
         ISet<E> res = appliedSet(true);
-        for (E e : c) {
-            if (!res.set.contains(e)) {
-                res.set.remove(e);
-            }
-        }
+        Condition<E> m = BulkOps.membership(c);
+        res.set.removeIf(e -> !m.evaluate(e));
         return res;
     }
 
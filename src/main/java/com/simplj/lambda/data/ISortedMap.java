@@ -0,0 +1,277 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
+import com.simplj.lambda.tuples.Couple;
+
+import java.util.*;
+
+/**
+ * Immutable map sorted by its keys and backed by a persistent B-tree. Lookups, updates and navigation ({@link #floor(Object) floor},
+ * {@link #ceiling(Object) ceiling}, {@link #range(Object, Object) range} etc.) take <code>O(log n)</code>; an update copies only
+ * the path to the affected node and shares the rest of the tree with the current instance.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class ISortedMap<K, V> extends FMap<K, V, ISortedMap<K, V>> {
+    private final Comparator<? super K> comparator;
+    private final Producer<BTreeMap<K, V>> pending;
+    private volatile BTreeMap<K, V> tree;
+
+    private ISortedMap(Comparator<? super K> comparator, BTreeMap<K, V> tree, Producer<BTreeMap<K, V>> pending) {
+        super(() -> new TreeMap<>(comparator));
+        this.comparator = comparator;
+        this.tree = tree;
+        this.pending = pending;
+    }
+
+    /**
+     * @param <A> Type of the keys (sorted by their natural order)
+     * @param <B> Type of the values
+     * @return empty map sorted by the natural order of the keys
+     */
+    public static <A, B> ISortedMap<A, B> unit() {
+        return unit(null);
+    }
+
+    public static <A, B> ISortedMap<A, B> unit(Comparator<? super A> comparator) {
+        return of(BTreeMap.empty(comparator));
+    }
+
+    @SafeVarargs
+    public static <A, B> ISortedMap<A, B> of(Couple<A, B>...elems) {
+        Map<A, B> m = new TreeMap<>();
+        for (Couple<A, B> c : elems) {
+            m.put(c.first(), c.second());
+        }
+        return of(m);
+    }
+
+    /**
+     * @param map entries of the resultant map
+     * @param <A> Type of the keys
+     * @param <B> Type of the values
+     * @return map sorted by the comparator of `map` if it is a <code>SortedMap</code> otherwise by the natural order of the keys
+     */
+    public static <A, B> ISortedMap<A, B> of(Map<A, B> map) {
+        return of(map, map instanceof SortedMap ? Util.cast(((SortedMap<A, B>) map).comparator()) : null);
+    }
+
+    public static <A, B> ISortedMap<A, B> of(Map<A, B> map, Comparator<? super A> comparator) {
+        return of(BTreeMap.of(map, comparator));
+    }
+
+    static <A, B> ISortedMap<A, B> of(BTreeMap<A, B> tree) {
+        return new ISortedMap<>(tree.comparator(), tree, null);
+    }
+
+    @Override
+    ISortedMap<K, V> instantiate(Producer<Map<?, ?>> constructor, Map<K, V> mapVal) {
+        return of(mapVal, comparator);
+    }
+
+    /**
+     * @return mutable map sharing the tree of the current instance (created in constant time)
+     */
+    public MSortedMap<K, V> mutable() {
+        return MSortedMap.of(tree().unbounded());
+    }
+
+    /**
+     * Function application is <i>eager</i> i.e. it applies all the lazy functions (if any) to map elements
+     * @return unmodifiable <code>SortedMap</code> view of the current instance
+     */
+    @Override
+    public SortedMap<K, V> map() {
+        return tree();
+    }
+
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    /* ------------------- START: Lazy methods ------------------- */
+    @Override
+    public ISortedMap<K, V> filter(BiFunction<K, V, Boolean> c) {
+        return new ISortedMap<>(comparator, null, () -> tree().filter(c));
+    }
+
+    /**
+     * Applies the function `f` to all the values in the map. As the keys are left untouched, the resultant map keeps the order of the current map.
+     * Function application is <i>lazy</i>.
+     * @param f function to apply to each value.
+     * @param <R> Type of the resultant values
+     * @return resultant map after applying `f` to all the values
+     */
+    public <R> ISortedMap<K, R> mapV(Function<V, R> f) {
+        return new ISortedMap<>(comparator, null, () -> tree().mapV(f));
+    }
+    /* ------------------- END: Lazy methods ------------------- */
+
+    @Override
+    public boolean isApplied() {
+        return tree != null;
+    }
+
+    @Override
+    public ISortedMap<K, V> applied() {
+        tree();
+        return this;
+    }
+
+    /* ------------------- START: Navigation ------------------- */
+    /**
+     * @param key key to look for
+     * @return entry with the greatest key lesser than or equal to `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> floor(K key) {
+        return tree().floor(key);
+    }
+
+    /**
+     * @param key key to look for
+     * @return entry with the greatest key strictly lesser than `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> lower(K key) {
+        return tree().lower(key);
+    }
+
+    /**
+     * @param key key to look for
+     * @return entry with the least key greater than or equal to `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> ceiling(K key) {
+        return tree().ceiling(key);
+    }
+
+    /**
+     * @param key key to look for
+     * @return entry with the least key strictly greater than `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> higher(K key) {
+        return tree().higher(key);
+    }
+
+    /**
+     * @return entry with the least key or <code>null</code> if the map is empty
+     */
+    public Couple<K, V> first() {
+        return tree().first();
+    }
+
+    /**
+     * @return entry with the greatest key or <code>null</code> if the map is empty
+     */
+    public Couple<K, V> last() {
+        return tree().last();
+    }
+
+    /**
+     * Returns the entries whose keys lie between `from` and `to` (both inclusive) in constant time. The resultant map shares the tree
+     * of the current instance and is iterated lazily; including a key outside the range throws <code>IllegalArgumentException</code>.
+     * @param from lower bound of the keys (inclusive)
+     * @param to upper bound of the keys (inclusive)
+     * @return view of the entries whose keys lie within the range
+     */
+    public ISortedMap<K, V> range(K from, K to) {
+        return range(from, true, to, true);
+    }
+
+    public ISortedMap<K, V> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return of(tree().sub(BTree.Range.of(from, fromInclusive, to, toInclusive)));
+    }
+
+    /**
+     * @param to upper bound of the keys (exclusive)
+     * @return view of the entries whose keys are strictly lesser than `to`
+     * @see #range(Object, Object)
+     */
+    public ISortedMap<K, V> headMap(K to) {
+        return headMap(to, false);
+    }
+
+    public ISortedMap<K, V> headMap(K to, boolean inclusive) {
+        return of(tree().sub(BTree.Range.below(to, inclusive)));
+    }
+
+    /**
+     * @param from lower bound of the keys (inclusive)
+     * @return view of the entries whose keys are greater than or equal to `from`
+     * @see #range(Object, Object)
+     */
+    public ISortedMap<K, V> tailMap(K from) {
+        return tailMap(from, true);
+    }
+
+    public ISortedMap<K, V> tailMap(K from, boolean inclusive) {
+        return of(tree().sub(BTree.Range.above(from, inclusive)));
+    }
+    /* ------------------- END: Navigation ------------------- */
+
+    @Override
+    public ISortedMap<K, V> include(K key, V val) {
+        return with(tree().putting(key, val));
+    }
+
+    @Override
+    public ISortedMap<K, V> includeIfAbsent(K key, V val) {
+        BTreeMap<K, V> t = tree();
+        return t.containsKey(key) ? this : with(t.putting(key, val));
+    }
+
+    @Override
+    public ISortedMap<K, V> include(Map<K, V> that) {
+        BTreeMap<K, V> t = tree();
+        for (Map.Entry<K, V> e : that.entrySet()) {
+            t = t.putting(e.getKey(), e.getValue());
+        }
+        return with(t);
+    }
+
+    @Override
+    public ISortedMap<K, V> delete(K key) {
+        return with(tree().removing(key));
+    }
+
+    @Override
+    public ISortedMap<K, V> delete(K key, V value) {
+        BTreeMap<K, V> t = tree();
+        return t.containsKey(key) && Objects.equals(t.get(key), value) ? with(t.removing(key)) : this;
+    }
+
+    @Override
+    public ISortedMap<K, V> replacing(K key, V value) {
+        BTreeMap<K, V> t = tree();
+        return t.containsKey(key) ? with(t.putting(key, value)) : this;
+    }
+
+    @Override
+    public ISortedMap<K, V> replacing(K key, V oldValue, V newValue) {
+        BTreeMap<K, V> t = tree();
+        return t.containsKey(key) && Objects.equals(t.get(key), oldValue) ? with(t.putting(key, newValue)) : this;
+    }
+
+    @Override
+    public ISortedMap<K, V> empty() {
+        return unit(comparator);
+    }
+
+    @Override
+    public ISortedMap<K, V> replacingAll(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        return of(tree().remap(function));
+    }
+
+    BTreeMap<K, V> tree() {
+        BTreeMap<K, V> t = tree;
+        if (t == null) {
+            t = pending.produce();
+            tree = t;
+        }
+        return t;
+    }
+
+    private ISortedMap<K, V> with(BTreeMap<K, V> t) {
+        return t == tree ? this : of(t);
+    }
+}
@@ -0,0 +1,260 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Condition;
+import com.simplj.lambda.function.Producer;
+import com.simplj.lambda.tuples.Couple;
+
+import java.util.*;
+
+/**
+ * Immutable set sorted by its elements and backed by a persistent B-tree. Lookups, updates and navigation ({@link #floor(Object) floor},
+ * {@link #ceiling(Object) ceiling}, {@link #range(Object, Object) range} etc.) take <code>O(log n)</code>; an update copies only
+ * the path to the affected node and shares the rest of the tree with the current instance.
+ * @param <E> Type of the elements
+ */
+public final class ISortedSet<E> extends FSet<E, ISortedSet<E>> {
+    private final Comparator<? super E> comparator;
+    private final Producer<BTreeMap<E, E>> pending;
+    private volatile BTreeMap<E, E> tree;
+
+    private ISortedSet(Comparator<? super E> comparator, BTreeMap<E, E> tree, Producer<BTreeMap<E, E>> pending) {
+        super(() -> new TreeSet<>(comparator));
+        this.comparator = comparator;
+        this.tree = tree;
+        this.pending = pending;
+    }
+
+    /**
+     * @param <A> Type of the elements (sorted by their natural order)
+     * @return empty set sorted by the natural order of the elements
+     */
+    public static <A> ISortedSet<A> unit() {
+        return unit(null);
+    }
+
+    public static <A> ISortedSet<A> unit(Comparator<? super A> comparator) {
+        return of(BTreeMap.<A, A>empty(comparator));
+    }
+
+    @SafeVarargs
+    public static <A> ISortedSet<A> of(A...elems) {
+        return of(Arrays.asList(elems), null);
+    }
+
+    /**
+     * @param set elements of the resultant set
+     * @param <A> Type of the elements
+     * @return set sorted by the comparator of `set` if it is a <code>SortedSet</code> otherwise by the natural order of the elements
+     */
+    public static <A> ISortedSet<A> of(Set<A> set) {
+        return of(set, set instanceof SortedSet ? Util.cast(((SortedSet<A>) set).comparator()) : null);
+    }
+
+    public static <A> ISortedSet<A> of(Iterable<A> elems, Comparator<? super A> comparator) {
+        return of(BTreeSet.of(elems, comparator).tree);
+    }
+
+    public static <E> ISortedSet<E> from(Iterable<E> iter) {
+        return of(iter, null);
+    }
+
+    static <A> ISortedSet<A> of(BTreeMap<A, A> tree) {
+        return new ISortedSet<>(tree.comparator(), tree, null);
+    }
+
+    @Override
+    ISortedSet<E> instantiate(Producer<Set<?>> constructor, Set<E> setVal) {
+        return of(setVal, comparator);
+    }
+
+    /**
+     * @return mutable set sharing the tree of the current instance (created in constant time)
+     */
+    public MSortedSet<E> mutable() {
+        return MSortedSet.of(tree().unbounded());
+    }
+
+    /**
+     * Function application is <i>eager</i> i.e. it applies all the lazy functions (if any) to set elements
+     * @return unmodifiable <code>SortedSet</code> view of the current instance
+     */
+    @Override
+    public SortedSet<E> set() {
+        return new BTreeSet<>(tree());
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /* ------------------- START: Lazy methods ------------------- */
+    @Override
+    public ISortedSet<E> filter(Condition<E> c) {
+        return new ISortedSet<>(comparator, null, () -> tree().filter((k, v) -> c.evaluate(k)));
+    }
+    /* ------------------- END: Lazy methods ------------------- */
+
+    @Override
+    public boolean isApplied() {
+        return tree != null;
+    }
+
+    @Override
+    public ISortedSet<E> applied() {
+        tree();
+        return this;
+    }
+
+    /* ------------------- START: Navigation ------------------- */
+    /**
+     * @param e element to look for
+     * @return greatest element lesser than or equal to `e` or <code>null</code> if there is no such element
+     */
+    public E floor(E e) {
+        return key(tree().floor(e));
+    }
+
+    /**
+     * @param e element to look for
+     * @return greatest element strictly lesser than `e` or <code>null</code> if there is no such element
+     */
+    public E lower(E e) {
+        return key(tree().lower(e));
+    }
+
+    /**
+     * @param e element to look for
+     * @return least element greater than or equal to `e` or <code>null</code> if there is no such element
+     */
+    public E ceiling(E e) {
+        return key(tree().ceiling(e));
+    }
+
+    /**
+     * @param e element to look for
+     * @return least element strictly greater than `e` or <code>null</code> if there is no such element
+     */
+    public E higher(E e) {
+        return key(tree().higher(e));
+    }
+
+    /**
+     * @return least element or <code>null</code> if the set is empty
+     */
+    public E first() {
+        return key(tree().first());
+    }
+
+    /**
+     * @return greatest element or <code>null</code> if the set is empty
+     */
+    public E last() {
+        return key(tree().last());
+    }
+
+    /**
+     * Returns the elements which lie between `from` and `to` (both inclusive) in constant time. The resultant set shares the tree
+     * of the current instance and is iterated lazily; including an element outside the range throws <code>IllegalArgumentException</code>.
+     * @param from lower bound of the elements (inclusive)
+     * @param to upper bound of the elements (inclusive)
+     * @return view of the elements which lie within the range
+     */
+    public ISortedSet<E> range(E from, E to) {
+        return range(from, true, to, true);
+    }
+
+    public ISortedSet<E> range(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return of(tree().sub(BTree.Range.of(from, fromInclusive, to, toInclusive)));
+    }
+
+    /**
+     * @param to upper bound of the elements (exclusive)
+     * @return view of the elements which are strictly lesser than `to`
+     * @see #range(Object, Object)
+     */
+    public ISortedSet<E> headSet(E to) {
+        return headSet(to, false);
+    }
+
+    public ISortedSet<E> headSet(E to, boolean inclusive) {
+        return of(tree().sub(BTree.Range.below(to, inclusive)));
+    }
+
+    /**
+     * @param from lower bound of the elements (inclusive)
+     * @return view of the elements which are greater than or equal to `from`
+     * @see #range(Object, Object)
+     */
+    public ISortedSet<E> tailSet(E from) {
+        return tailSet(from, true);
+    }
+
+    public ISortedSet<E> tailSet(E from, boolean inclusive) {
+        return of(tree().sub(BTree.Range.above(from, inclusive)));
+    }
+    /* ------------------- END: Navigation ------------------- */
+
+    @Override
+    public ISortedSet<E> include(E val) {
+        BTreeMap<E, E> t = tree();
+        return t.containsKey(val) ? this : with(t.putting(val, val));
+    }
+
+    @Override
+    public ISortedSet<E> include(Iterable<? extends E> c) {
+        BTreeMap<E, E> t = tree();
+        for (E e : c) {
+            if (!t.containsKey(e)) {
+                t = t.putting(e, e);
+            }
+        }
+        return with(t);
+    }
+
+    @Override
+    public ISortedSet<E> delete(E val) {
+        return with(tree().removing(val));
+    }
+
+    @Override
+    public ISortedSet<E> delete(Iterable<? extends E> c) {
+        BTreeMap<E, E> t = tree();
+        for (E e : c) {
+            t = t.removing(e);
+        }
+        return with(t);
+    }
+
+    @Override
+    public ISortedSet<E> preserve(Iterable<? extends E> c) {
+        Condition<E> m = BulkOps.membership(c);
+        return of(tree().filter((k, v) -> m.evaluate(k)));
+    }
+
+    @Override
+    public ISortedSet<E> empty() {
+        return unit(comparator);
+    }
+
+    @Override
+    public ISortedSet<E> deleteIf(Condition<? super E> c) {
+        return of(tree().filter((k, v) -> !c.evaluate(k)));
+    }
+
+    BTreeMap<E, E> tree() {
+        BTreeMap<E, E> t = tree;
+        if (t == null) {
+            t = pending.produce();
+            tree = t;
+        }
+        return t;
+    }
+
+    private ISortedSet<E> with(BTreeMap<E, E> t) {
+        return t == tree ? this : of(t);
+    }
+
+    private static <E> E key(Couple<E, E> c) {
+        return c == null ? null : c.first();
+    }
+}
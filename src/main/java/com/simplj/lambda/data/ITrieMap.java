@@ -0,0 +1,306 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+import com.simplj.lambda.tuples.Tuple2;
+
+import java.util.*;
+
+/**
+ * Immutable map of <code>String</code> keys backed by a persistent compressed (radix) trie. Besides the regular lookups, prefix queries
+ * ({@link #prefixMatch(String) prefixMatch}, {@link #keysWithPrefix(String) keysWithPrefix} and {@link #longestPrefix(String) longestPrefix})
+ * take time proportional to the length of the given key (plus the size of the result) instead of scanning the whole map.<br>
+ * Updates copy only the nodes along the path of the key and share the rest of the trie with the current instance. The entries are
+ * iterated in lexicographic order of the keys.
+ * @param <V> Type of the values
+ */
+public final class ITrieMap<V> extends IMap<String, V> {
+    private final Trie.Node root;
+    private final Producer<Trie.Node> pending;
+
+    private ITrieMap(Trie.Node root, Producer<Trie.Node> pending) {
+        super(root == null ? null : new View<>(root), TreeMap::new);
+        this.root = root;
+        this.pending = pending;
+    }
+
+    static <A> ITrieMap<A> build(Map<String, A> map) {
+        SortedMap<String, A> sorted = map instanceof SortedMap && ((SortedMap<String, A>) map).comparator() == null ? (SortedMap<String, A>) map : new TreeMap<>(map);
+        String[] keys = new String[sorted.size()];
+        Object[] vals = new Object[keys.length];
+        int n = 0;
+        for (Map.Entry<String, A> e : sorted.entrySet()) {
+            keys[n] = e.getKey();
+            vals[n++] = e.getValue();
+        }
+        return new ITrieMap<>(Trie.build(keys, vals, n), null);
+    }
+
+    @Override
+    IMap<String, V> instantiate(Producer<Map<?, ?>> constructor, Map<String, V> mapVal) {
+        return build(mapVal);
+    }
+
+    @Override
+    public MMap<String, V> mutable() {
+        return MMap.of(new TreeMap<>(map()), TreeMap::new);
+    }
+
+    /* ------------------- START: Lazy methods ------------------- */
+    @Override
+    public <A, B> IMap<A, B> map(BiFunction<String, V, Tuple2<A, B>> f) {
+        return deferred().map(f);
+    }
+
+    @Override
+    public <R> IMap<R, V> mapK(Function<String, R> f) {
+        return deferred().mapK(f);
+    }
+
+    /**
+     * Applies the function `f` to all the values in the map. As the keys are left untouched, the resultant map is a trie as well.
+     * Function application is <i>lazy</i>.
+     * @param f function to apply to each value.
+     * @param <R> Type of the resultant values
+     * @return resultant map after applying `f` to all the values
+     */
+    @Override
+    public <R> ITrieMap<R> mapV(Function<V, R> f) {
+        return new ITrieMap<>(null, () -> rebuild((k, v) -> true, f));
+    }
+
+    @Override
+    public <A, B> IMap<A, B> flatmap(BiFunction<String, V, ? extends Map<A, B>> f) {
+        return deferred().flatmap(f);
+    }
+
+    @Override
+    public <R> IMap<R, V> flatmapK(Function<String, ? extends Set<R>> f) {
+        return deferred().flatmapK(f);
+    }
+
+    @Override
+    public ITrieMap<V> filter(BiFunction<String, V, Boolean> c) {
+        return new ITrieMap<>(null, () -> rebuild(c, Function.id()));
+    }
+    /* ------------------- END: Lazy methods ------------------- */
+
+    @Override
+    public <E> ISet<E> merge(BiFunction<String, V, E> f) {
+        Set<E> res = new HashSet<>();
+        forEach((k, v) -> res.add(f.apply(k, v)));
+        return ISet.of(res);
+    }
+
+    @Override
+    public <E> ISet<E> flatMerge(BiFunction<String, V, ? extends Collection<E>> f) {
+        Set<E> res = new HashSet<>();
+        forEach((k, v) -> res.addAll(f.apply(k, v)));
+        return ISet.of(res);
+    }
+
+    /* ------------------- START: Prefix queries ------------------- */
+    /**
+     * Returns the entries whose keys start with `prefix` in <code>O(|prefix|)</code>; the resultant map shares the nodes of the current instance.
+     * @param prefix prefix of the keys to look for
+     * @return map of the entries whose keys start with `prefix`
+     */
+    public ITrieMap<V> prefixMatch(String prefix) {
+        Trie.Node n = Trie.subtree(node(), prefix);
+        Trie.Node r;
+        if (n == null) {
+            r = Trie.EMPTY;
+        } else if (n.label.isEmpty()) {
+            r = n;
+        } else {
+            r = new Trie.Node("", false, null, new char[] {n.label.charAt(0)}, new Trie.Node[] {n});
+        }
+        return new ITrieMap<>(r, null);
+    }
+
+    /**
+     * @param prefix prefix of the keys to look for
+     * @return keys starting with `prefix` in lexicographic order
+     */
+    public IList<String> keysWithPrefix(String prefix) {
+        Trie.Node n = Trie.subtree(node(), prefix);
+        List<String> res = new ArrayList<>(n == null ? 0 : n.size);
+        if (n != null) {
+            Trie.Cursor c = new Trie.Cursor(n, "");
+            while (c.hasNext()) {
+                c.next();
+                res.add(c.key());
+            }
+        }
+        return IList.of(res, ArrayList::new);
+    }
+
+    /**
+     * Looks for the longest key which is a prefix of `s` (e.g. the most specific route matching a path) in <code>O(|s|)</code>.
+     * @param s string to match the keys against
+     * @return entry with the longest key which is a prefix of `s` or <code>null</code> if there is no such key
+     */
+    public Couple<String, V> longestPrefix(String s) {
+        int[] len = new int[1];
+        Trie.Node n = Trie.longestPrefix(node(), s, len);
+        return n == null ? null : Tuple.of(s.substring(0, len[0]), Util.cast(n.value));
+    }
+    /* ------------------- END: Prefix queries ------------------- */
+
+    @Override
+    public ITrieMap<V> include(String key, V val) {
+        return with(Trie.put(node(), key, 0, val));
+    }
+
+    @Override
+    public ITrieMap<V> includeIfAbsent(String key, V val) {
+        return containsKey(key) ? current() : include(key, val);
+    }
+
+    @Override
+    public ITrieMap<V> include(Map<String, V> that) {
+        Trie.Node r = node();
+        for (Map.Entry<String, V> e : that.entrySet()) {
+            r = Trie.put(r, e.getKey(), 0, e.getValue());
+        }
+        return with(r);
+    }
+
+    @Override
+    public ITrieMap<V> delete(String key) {
+        return with(Trie.remove(node(), key, 0));
+    }
+
+    @Override
+    public ITrieMap<V> delete(String key, V value) {
+        return containsKey(key) && Objects.equals(get(key), value) ? delete(key) : current();
+    }
+
+    @Override
+    public ITrieMap<V> replacing(String key, V value) {
+        return containsKey(key) ? include(key, value) : current();
+    }
+
+    @Override
+    public ITrieMap<V> replacing(String key, V oldValue, V newValue) {
+        return containsKey(key) && Objects.equals(get(key), oldValue) ? include(key, newValue) : current();
+    }
+
+    @Override
+    public ITrieMap<V> empty() {
+        return new ITrieMap<>(Trie.EMPTY, null);
+    }
+
+    @Override
+    public ITrieMap<V> replacingAll(java.util.function.BiFunction<? super String, ? super V, ? extends V> function) {
+        return new ITrieMap<>(rebuild((k, v) -> true, function), null);
+    }
+
+    @Override
+    public ITrieMap<V> replacingAllParallel(java.util.function.BiFunction<? super String, ? super V, ? extends V> function) {
+        return replacingAll(function);
+    }
+
+    @Override
+    ITrieMap<V> appliedMap(boolean copy) {
+        return root == null ? new ITrieMap<>(pending.produce(), null) : this;
+    }
+
+    private Trie.Node node() {
+        return current().root;
+    }
+
+    private ITrieMap<V> current() {
+        return Util.cast(applied());
+    }
+
+    private ITrieMap<V> with(Trie.Node r) {
+        ITrieMap<V> cur = current();
+        return r == cur.root ? cur : new ITrieMap<>(r, null);
+    }
+
+    private IMap<String, V> deferred() {
+        return IMap.of(new AbstractMap<String, V>() {
+            @Override
+            public Set<Map.Entry<String, V>> entrySet() {
+                return map().entrySet();
+            }
+        });
+    }
+
+    private <R> Trie.Node rebuild(BiFunction<String, V, Boolean> c, java.util.function.BiFunction<? super String, ? super V, ? extends R> f) {
+        Trie.Node r = node();
+        String[] keys = new String[r.size];
+        Object[] vals = new Object[keys.length];
+        int n = 0;
+        Trie.Cursor cur = new Trie.Cursor(r, "");
+        while (cur.hasNext()) {
+            V v = Util.cast(cur.next().value);
+            String k = cur.key();
+            if (c.apply(k, v)) {
+                keys[n] = k;
+                vals[n++] = f.apply(k, v);
+            }
+        }
+        return Trie.build(keys, vals, n);
+    }
+
+    private <R> Trie.Node rebuild(BiFunction<String, V, Boolean> c, Function<V, R> f) {
+        return rebuild(c, (k, v) -> f.apply(v));
+    }
+
+    private static final class View<V> extends AbstractMap<String, V> {
+        private final Trie.Node root;
+
+        View(Trie.Node root) {
+            this.root = root;
+        }
+
+        @Override
+        public int size() {
+            return root.size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Trie.Node n = key instanceof String ? Trie.find(root, (String) key) : null;
+            return n != null && n.hasValue;
+        }
+
+        @Override
+        public V get(Object key) {
+            Trie.Node n = key instanceof String ? Trie.find(root, (String) key) : null;
+            return n != null && n.hasValue ? Util.cast(n.value) : null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, V>> entrySet() {
+            return new AbstractSet<Map.Entry<String, V>>() {
+                @Override
+                public Iterator<Map.Entry<String, V>> iterator() {
+                    Trie.Cursor c = new Trie.Cursor(root, "");
+                    return new Iterator<Map.Entry<String, V>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return c.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, V> next() {
+                            Trie.Node n = c.next();
+                            return new AbstractMap.SimpleImmutableEntry<>(c.key(), Util.cast(n.value));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return root.size;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hash index over the elements of an immutable list or array. Keeps the positions of all the elements having the same key,
+ * hence first, last and all the matching positions of a key are answered in <code>O(1)</code>.<br>
+ * An index reflects the elements at the time it was built. Indexes built through {@link IList#indexBy(Function)} and
+ * {@link IArray#indexBy(Function)} are cached in and reused for the lifetime of the respective immutable instance, keyed by the
+ * identity of the key function: at most {@value Cache#MAX_CACHED} of them (besides the one of the elements themselves) are
+ * cached per instance, the further ones are built on every call.
+ * @param <K> Type of the keys
+ * @param <E> Type of the indexed elements
+ */
+public final class Index<K, E> {
+    private static final int[] NONE = new int[0];
+    private final Object[] elems;
+    private final Map<K, int[]> positions;
+
+    private Index(Object[] elems, Map<K, int[]> positions) {
+        this.elems = elems;
+        this.positions = positions;
+    }
+
+    static <K, E> Index<K, E> of(Object[] elems, Function<? super E, K> f) {
+        Object[] keys = new Object[elems.length];
+        Map<K, int[]> counts = new HashMap<>();
+        for (int i = 0; i < elems.length; i++) {
+            K k = f.apply(Util.cast(elems[i]));
+            keys[i] = k;
+            int[] c = counts.get(k);
+            if (c == null) {
+                counts.put(k, new int[] {1});
+            } else {
+                c[0]++;
+            }
+        }
+        Map<K, int[]> positions = new HashMap<>(counts.size() * 4 / 3 + 1);
+        for (int i = 0; i < keys.length; i++) {
+            K k = Util.cast(keys[i]);
+            int[] p = positions.get(k);
+            if (p == null) {
+                int[] c = counts.get(k);
+                p = new int[c[0]];
+                c[0] = 0;
+                positions.put(k, p);
+            }
+            p[counts.get(k)[0]++] = i;
+        }
+        return new Index<>(elems, positions);
+    }
+
+    /**
+     * @return number of distinct keys in the index
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    public boolean contains(K key) {
+        return positions.containsKey(key);
+    }
+
+    /**
+     * @param key key to look up
+     * @return number of elements having the `key`
+     */
+    public int count(K key) {
+        return positions.getOrDefault(key, NONE).length;
+    }
+
+    /**
+     * @param key key to look up
+     * @return position of the first element having the `key` or <code>-1</code> if there is no such element
+     */
+    public int first(K key) {
+        int[] p = positions.get(key);
+        return p == null ? -1 : p[0];
+    }
+
+    /**
+     * @param key key to look up
+     * @return position of the last element having the `key` or <code>-1</code> if there is no such element
+     */
+    public int last(K key) {
+        int[] p = positions.get(key);
+        return p == null ? -1 : p[p.length - 1];
+    }
+
+    /**
+     * @param key key to look up
+     * @return positions (in ascending order) of all the elements having the `key`
+     */
+    public int[] positions(K key) {
+        return positions.getOrDefault(key, NONE).clone();
+    }
+
+    /**
+     * @param key key to look up
+     * @return the first element having the `key` or <code>null</code> if there is no such element
+     */
+    public E get(K key) {
+        int[] p = positions.get(key);
+        return p == null ? null : Util.cast(elems[p[0]]);
+    }
+
+    /**
+     * @param key key to look up
+     * @return all the elements (in their original order) having the `key`
+     */
+    public IList<E> all(K key) {
+        int[] p = positions.getOrDefault(key, NONE);
+        List<E> res = new ArrayList<>(p.length);
+        for (int i : p) {
+            res.add(Util.cast(elems[i]));
+        }
+        return IList.of(res, ArrayList::new);
+    }
+
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(positions.keySet());
+    }
+
+    @Override
+    public String toString() {
+        return "Index" + keys();
+    }
+
+    /**
+     * Indexes of an immutable instance keyed by the (identity of the) key function they were built with. The number of cached indexes
+     * is bounded as each new key function instance (e.g. a capturing lambda) would otherwise add an index retained for the lifetime
+     * of the instance.
+     * @param <E> Type of the indexed elements
+     */
+    static final class Cache<E> {
+        static final Function<Object, Object> IDENTITY = x -> x;
+        static final int MAX_CACHED = 16;
+        private final Map<Object, Index<?, E>> indexes = new ConcurrentHashMap<>();
+
+        <K> Index<K, E> get(Function<? super E, K> f, Producer<Object[]> elems) {
+            Index<?, E> idx = indexes.get(f);
+            if (idx == null) {
+                if (f != IDENTITY && indexes.size() - (indexes.containsKey(IDENTITY) ? 1 : 0) >= MAX_CACHED) {
+                    return Index.of(elems.produce(), f);
+                }
+                idx = indexes.computeIfAbsent(f, x -> Index.of(elems.produce(), f));
+            }
+            return Util.cast(idx);
+        }
+
+        Index<E, E> identity() {
+            return Util.cast(indexes.get(IDENTITY));
+        }
+    }
+}
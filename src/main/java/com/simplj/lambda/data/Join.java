@@ -0,0 +1,159 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Function;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Equi-joins between two sequences of elements. The join keys of both sides are computed once and the strategy is picked from them:
+ * <ul>
+ *     <li>merge join when the keys of both sides are instances of the same class and already in ascending (natural) order</li>
+ *     <li>build/probe hash join otherwise: the right side is grouped by its keys (see {@link IMultiMap IMultiMap}) and each left
+ *     element probes the groups; the parallel variant partitions the left side into chunks probing the shared groups</li>
+ * </ul>
+ * All the strategies produce the same result: the left elements in their order, each followed by its matches (keys equal as per
+ * <code>equals</code>) in the order of the right side. The merge join only uses <code>compareTo</code> to align the sides.
+ */
+final class Join {
+    private Join() {
+    }
+
+    /**
+     * @param outer whether an unmatched left element is to be combined with <code>null</code> (left join) or dropped (inner join)
+     */
+    static <T, U, K, R> List<R> join(Object[] left, Iterable<U> other, Function<T, K> leftKey, Function<U, K> rightKey,
+                                     BiFunction<T, U, R> combiner, boolean outer, boolean parallel) {
+        Object[] right = elements(other);
+        Object[] lk = keys(left, leftKey);
+        Object[] rk = keys(right, rightKey);
+        List<R> res;
+        if (!parallel && ascending(lk) && ascending(rk) && sameClass(lk, rk)) {
+            res = merge(left, lk, right, rk, combiner, outer);
+        } else {
+            IMultiMap.Runs groups = build(right, rk);
+            if (parallel) {
+                res = new ArrayList<>(left.length);
+                for (List<R> part : Parallel.map(left.length, (from, to) -> probe(left, lk, from, to, groups, combiner, outer))) {
+                    res.addAll(part);
+                }
+            } else {
+                res = probe(left, lk, 0, left.length, groups, combiner, outer);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param anti whether the left elements without (instead of with) a match are to be retained
+     * @return left elements (once each) having a match in the right side (or not having any if `anti`)
+     */
+    static <T, U, K> List<T> semi(Object[] left, Iterable<U> right, Function<T, K> leftKey, Function<U, K> rightKey, boolean anti) {
+        KeyTable keys = new KeyTable();
+        for (U u : right) {
+            keys.add(rightKey.apply(u));
+        }
+        List<T> res = new ArrayList<>();
+        for (Object o : left) {
+            T t = Util.cast(o);
+            if ((keys.ordinal(leftKey.apply(t)) >= 0) != anti) {
+                res.add(t);
+            }
+        }
+        return res;
+    }
+
+    private static Object[] elements(Iterable<?> iter) {
+        if (iter instanceof FList) {
+            return ((FList<?, ?>) iter).list().toArray();
+        }
+        if (iter instanceof Collection) {
+            return ((Collection<?>) iter).toArray();
+        }
+        List<Object> res = new ArrayList<>();
+        iter.forEach(res::add);
+        return res.toArray();
+    }
+
+    private static <E> Object[] keys(Object[] elems, Function<E, ?> keyF) {
+        Object[] res = new Object[elems.length];
+        for (int i = 0; i < elems.length; i++) {
+            res[i] = keyF.apply(Util.cast(elems[i]));
+        }
+        return res;
+    }
+
+    /**
+     * @return <code>true</code> if `keys` are non-null instances of a single <code>Comparable</code> class in ascending order
+     */
+    private static boolean ascending(Object[] keys) {
+        if (keys.length > 0 && !(keys[0] instanceof Comparable)) {
+            return false;
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] == null || keys[i].getClass() != keys[0].getClass() || compare(keys[i - 1], keys[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameClass(Object[] lk, Object[] rk) {
+        return lk.length == 0 || rk.length == 0 || lk[0].getClass() == rk[0].getClass();
+    }
+
+    private static int compare(Object a, Object b) {
+        return Util.<Comparable<Object>>cast(a).compareTo(b);
+    }
+
+    private static IMultiMap.Runs build(Object[] right, Object[] rk) {
+        KeyTable keys = new KeyTable();
+        int[] keyOf = new int[rk.length];
+        for (int i = 0; i < rk.length; i++) {
+            keyOf[i] = keys.add(rk[i]);
+        }
+        return IMultiMap.grouped(keys, keyOf, right, right.length).runs();
+    }
+
+    private static <T, U, R> List<R> probe(Object[] left, Object[] lk, int from, int to, IMultiMap.Runs groups,
+                                           BiFunction<T, U, R> combiner, boolean outer) {
+        List<R> res = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            T t = Util.cast(left[i]);
+            int k = groups.keys.ordinal(lk[i]);
+            if (k >= 0) {
+                for (int j = groups.offsets[k]; j < groups.offsets[k + 1]; j++) {
+                    res.add(combiner.apply(t, Util.cast(groups.values[j])));
+                }
+            } else if (outer) {
+                res.add(combiner.apply(t, null));
+            }
+        }
+        return res;
+    }
+
+    private static <T, U, R> List<R> merge(Object[] left, Object[] lk, Object[] right, Object[] rk, BiFunction<T, U, R> combiner, boolean outer) {
+        List<R> res = new ArrayList<>(left.length);
+        int j = 0;
+        for (int i = 0; i < left.length; i++) {
+            T t = Util.cast(left[i]);
+            while (j < right.length && compare(rk[j], lk[i]) < 0) {
+                j++;
+            }
+            boolean matched = false;
+            for (int e = j; e < right.length && compare(rk[e], lk[i]) == 0; e++) {
+                if (Objects.equals(rk[e], lk[i])) {
+                    res.add(combiner.apply(t, Util.cast(right[e])));
+                    matched = true;
+                }
+            }
+            if (!matched && outer) {
+                res.add(combiner.apply(t, null));
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,98 @@
+package com.simplj.lambda.data;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Growable table assigning dense ordinals (in first-insertion order) to distinct keys. The keys are kept in an array and looked up
+ * through an <code>int</code> table with linear probing, hence there is no boxed value or entry object per key. Keys cannot be removed.
+ */
+final class KeyTable {
+    private Object[] keys;
+    private int[] hashes;
+    private int size;
+    private int[] slots;
+    private int mask;
+
+    KeyTable() {
+        this(8);
+    }
+
+    KeyTable(int expectedSize) {
+        int cap = Math.max(8, expectedSize);
+        keys = new Object[cap];
+        hashes = new int[cap];
+        slots = new int[Integer.highestOneBit(cap + (cap >>> 1)) << 1];
+        mask = slots.length - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Object key(int ordinal) {
+        return keys[ordinal];
+    }
+
+    /**
+     * @return keys in the order of their ordinals
+     */
+    Object[] keys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * @return ordinal of `key` or <code>-1</code> if it is absent
+     */
+    int ordinal(Object key) {
+        int h = hash(key);
+        int s = h & mask;
+        int e;
+        while ((e = slots[s]) != 0) {
+            if (hashes[e - 1] == h && Objects.equals(keys[e - 1], key)) {
+                return e - 1;
+            }
+            s = (s + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return ordinal of `key`, assigning the next one if it is absent
+     */
+    int add(Object key) {
+        int h = hash(key);
+        int s = h & mask;
+        int e;
+        while ((e = slots[s]) != 0) {
+            if (hashes[e - 1] == h && Objects.equals(keys[e - 1], key)) {
+                return e - 1;
+            }
+            s = (s + 1) & mask;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            hashes = Arrays.copyOf(hashes, size << 1);
+        }
+        keys[size] = key;
+        hashes[size] = h;
+        slots[s] = ++size;
+        if (size > (slots.length >>> 1) + (slots.length >>> 2)) {
+            slots = new int[slots.length << 1];
+            mask = slots.length - 1;
+            for (int i = 0; i < size; i++) {
+                int p = hashes[i] & mask;
+                while (slots[p] != 0) {
+                    p = (p + 1) & mask;
+                }
+                slots[p] = i + 1;
+            }
+        }
+        return size - 1;
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,10 +1,14 @@
 package com.simplj.lambda.data;
 
+import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Condition;
 import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.IndexedFunction;
 import com.simplj.lambda.tuples.Couple;
 import com.simplj.lambda.tuples.Tuple;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
 
 import static com.simplj.lambda.util.Expr.let;
@@ -99,8 +103,11 @@ public abstract class MArray<E> extends FArray<E, MArray<E>> {
         return arr[idx];
     }
 
+    /**
+     * @return immutable array of a copy of the current elements (not affected by the later updates of the current array)
+     */
     public final IArray<E> immutable() {
-        return IArray.of(array());
+        return IArray.of(array().clone());
     }
 
     @Override
@@ -113,8 +120,91 @@ public abstract class MArray<E> extends FArray<E, MArray<E>> {
 
     public abstract <R> MArray<R> flatmap(Function<E, ? extends R[]> f);
 
+    /**
+     * Sorts the array in place (stable).
+     * @param c comparator to sort by (or <code>null</code> for the natural order)
+     * @return <code>current instance</code>
+     */
+    public MArray<E> sort(Comparator<? super E> c) {
+        Arrays.sort(array(), c);
+        return this;
+    }
+
+    /**
+     * Sorts the array in place (stable) by the keys computed by `keyF` (see {@link #sortedBy(Function, Comparator) sortedBy}).
+     * @param keyF function computing the sort key of each element
+     * @param c comparator ordering the keys (or <code>null</code> for their natural order)
+     * @param <K> Type of the keys
+     * @return <code>current instance</code>
+     */
+    public <K> MArray<E> sortBy(Function<E, K> keyF, Comparator<? super K> c) {
+        E[] arr = array();
+        System.arraycopy(Sorting.sortBy(arr, keyF, c), 0, arr, 0, arr.length);
+        return this;
+    }
+
+    /**
+     * Sorts the array in place by a parallel merge sort (<code>Arrays.parallelSort</code>).
+     * @param c comparator to sort by (or <code>null</code> for the natural order)
+     * @return <code>current instance</code>
+     */
+    public MArray<E> sortParallel(Comparator<? super E> c) {
+        Arrays.parallelSort(array(), c);
+        return this;
+    }
+
+    /**
+     * Left scan: successive {@link #foldl(Object, BiFunction) foldl} accumulations of the elements, e.g. running totals.
+     * @param identity initial value of the accumulation
+     * @param op accumulates each element into the preceding accumulation
+     * @param <R> Type of the accumulations
+     * @return new array of `identity` followed by the accumulation up to each element (i.e. one more than the elements)
+     */
+    public <R> MArray<R> scanl(R identity, BiFunction<R, E, R> op) {
+        return of(Util.<R[]>cast(scanned(identity, op)));
+    }
+
+    /**
+     * Replaces each element in place by the (inclusive) prefix of the elements up to it under `op`.
+     * @param op operation accumulating each element into the preceding prefix
+     * @return <code>current instance</code>
+     */
+    public MArray<E> prefix(BiFunction<E, E, E> op) {
+        E[] arr = array();
+        for (int i = 1; i < arr.length; i++) {
+            arr[i] = op.apply(arr[i - 1], arr[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Replaces each element in place by the (inclusive) prefix of the elements up to it under the associative operation `op`,
+     * computed in parallel (see {@link #scanParallel(BiFunction) scanParallel}).
+     * @param op associative operation
+     * @return <code>current instance</code>
+     */
+    public MArray<E> prefixParallel(BiFunction<E, E, E> op) {
+        Parallel.prefix(array(), op);
+        return this;
+    }
+
     public MArray<Couple<Integer, E>> indexed() {
-        return foldl(Tuple.of(0, MArray.<Couple<Integer, E>>of(arr.length)), (c, v) -> Tuple.of(c.first() + 1, c.second().set(c.first(), Tuple.of(c.first(), v)))).second();
+        return mapIndexed(Tuple::of);
+    }
+
+    /**
+     * Applies the function `f` to all the elements in the array along with their unboxed index. Function application is <i>eager</i>
+     * @param f function to apply to each element and its index.
+     * @param <R> type returned by the function `f` application
+     * @return resultant array after applying `f` to all the array elements
+     */
+    public <R> MArray<R> mapIndexed(IndexedFunction<E, R> f) {
+        E[] a = array();
+        R[] r = Util.cast(new Object[a.length]);
+        for (int i = 0; i < a.length; i++) {
+            r[i] = f.apply(i, a[i]);
+        }
+        return of(r);
     }
 
     /**
@@ -167,6 +257,11 @@ public abstract class MArray<E> extends FArray<E, MArray<E>> {
             return new ArrayFunctor<>(src, filter(func, c), null);
         }
 
+        @Override
+        Parallel.Source<T> source() {
+            return isApplied() ? super.source() : new Parallel.Source<>(src, func);
+        }
+
         public final ArrayFunctor<T, T> appliedArray() {
             ArrayFunctor<T, T> res;
             if (arr == null) {
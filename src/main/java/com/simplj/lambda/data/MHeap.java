@@ -0,0 +1,224 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+
+/**
+ * Mutable priority queue backed by an array binary heap. {@link #peek() peek} takes <code>O(1)</code>, {@link #push(Object) push}
+ * and {@link #pop() pop} take <code>O(log n)</code> and bulk construction (as well as {@link #meld(MHeap) meld}) takes
+ * <code>O(n)</code> by heapifying the array bottom-up.<br>
+ * Unlike the iteration of {@link IHeap IHeap}, the iteration of this heap visits the elements in the (unspecified) array order.
+ * @param <E> Type of the elements
+ */
+public final class MHeap<E> implements Iterable<E> {
+    private final Comparator<? super E> comparator;
+    private final Comparator<Object> cmp;
+    private Object[] arr;
+    private int size;
+
+    private MHeap(Comparator<? super E> comparator, Object[] arr, int size) {
+        this.comparator = comparator;
+        this.cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+        this.arr = arr;
+        this.size = size;
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, arr[i]);
+        }
+    }
+
+    /**
+     * @param <A> Type of the elements (ordered by their natural order)
+     * @return empty heap ordered by the natural order of the elements
+     */
+    public static <A> MHeap<A> unit() {
+        return unit(null);
+    }
+
+    public static <A> MHeap<A> unit(Comparator<? super A> comparator) {
+        return new MHeap<>(comparator, new Object[8], 0);
+    }
+
+    @SafeVarargs
+    public static <A> MHeap<A> of(A...elems) {
+        return new MHeap<>(null, Arrays.copyOf(elems, Math.max(elems.length, 8), Object[].class), elems.length);
+    }
+
+    public static <A> MHeap<A> from(Iterable<A> elems) {
+        return from(elems, null);
+    }
+
+    public static <A> MHeap<A> from(Iterable<A> elems, Comparator<? super A> comparator) {
+        Object[] arr = elems instanceof Collection ? ((Collection<A>) elems).toArray() : toArray(elems);
+        int n = arr.length;
+        return new MHeap<>(comparator, n < 8 ? Arrays.copyOf(arr, 8) : arr, n);
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return immutable copy of the current heap
+     */
+    public IHeap<E> immutable() {
+        return IHeap.from(this, comparator);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return smallest element or <code>null</code> if the heap is empty
+     */
+    public E peek() {
+        return size == 0 ? null : Util.cast(arr[0]);
+    }
+
+    /**
+     * Removes the smallest element
+     * @return removed element or <code>null</code> if the heap is empty
+     */
+    public E pop() {
+        if (size == 0) {
+            return null;
+        }
+        E res = Util.cast(arr[0]);
+        Object last = arr[--size];
+        arr[size] = null;
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return res;
+    }
+
+    /**
+     * Replaces the smallest element with `elem` (cheaper than a <code>pop</code> followed by a <code>push</code>)
+     * @return replaced element or <code>null</code> if the heap was empty (in which case `elem` is pushed)
+     */
+    public E replaceTop(E elem) {
+        if (size == 0) {
+            push(elem);
+            return null;
+        }
+        E res = Util.cast(arr[0]);
+        siftDown(0, elem);
+        return res;
+    }
+
+    public MHeap<E> push(E elem) {
+        if (size == arr.length) {
+            arr = Arrays.copyOf(arr, size + (size >>> 1));
+        }
+        int i = size++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (cmp.compare(elem, arr[p]) >= 0) {
+                break;
+            }
+            arr[i] = arr[p];
+            i = p;
+        }
+        arr[i] = elem;
+        return this;
+    }
+
+    public MHeap<E> pushAll(Iterable<E> elems) {
+        for (E e : elems) {
+            push(e);
+        }
+        return this;
+    }
+
+    /**
+     * Moves all the elements of `that` into the current heap (emptying `that`) and re-heapifies in <code>O(n + m)</code>.
+     * Both heaps are expected to be ordered by the same comparator.
+     * @param that heap to move the elements from (other than the current heap)
+     * @return <code>current instance</code>
+     */
+    public MHeap<E> meld(MHeap<E> that) {
+        if (that == this) {
+            throw new IllegalArgumentException("Cannot meld a heap with itself!");
+        }
+        if (that.size > 0) {
+            if (size + that.size > arr.length) {
+                arr = Arrays.copyOf(arr, size + that.size);
+            }
+            System.arraycopy(that.arr, 0, arr, size, that.size);
+            size += that.size;
+            that.clear();
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i, arr[i]);
+            }
+        }
+        return this;
+    }
+
+    public void clear() {
+        Arrays.fill(arr, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Removes (at most) `n` smallest elements
+     * @param n number of elements to remove
+     * @return removed elements in their priority order
+     */
+    public IList<E> drain(int n) {
+        List<E> res = new ArrayList<>(Math.min(Math.max(n, 0), size));
+        while (res.size() < n && size > 0) {
+            res.add(pop());
+        }
+        return IList.of(res, ArrayList::new);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public E next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return Util.cast(arr[i++]);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(arr, size));
+    }
+
+    private void siftDown(int i, Object elem) {
+        int half = size >>> 1;
+        while (i < half) {
+            int c = (i << 1) + 1;
+            if (c + 1 < size && cmp.compare(arr[c + 1], arr[c]) < 0) {
+                c++;
+            }
+            if (cmp.compare(elem, arr[c]) <= 0) {
+                break;
+            }
+            arr[i] = arr[c];
+            i = c;
+        }
+        arr[i] = elem;
+    }
+
+    private static Object[] toArray(Iterable<?> elems) {
+        List<Object> l = new ArrayList<>();
+        elems.forEach(l::add);
+        return l.toArray();
+    }
+}
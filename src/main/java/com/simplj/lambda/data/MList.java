@@ -1,7 +1,9 @@
 package com.simplj.lambda.data;
 
+import com.simplj.lambda.function.BiFunction;
 import com.simplj.lambda.function.Condition;
 import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.IndexedFunction;
 import com.simplj.lambda.function.Producer;
 import com.simplj.lambda.tuples.Couple;
 import com.simplj.lambda.tuples.Tuple;
@@ -46,6 +48,29 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
         return new ListFunctor<>(list, constructor, LinkedUnit::new, list);
     }
 
+    /**
+     * Thread safe append-only list backed by an {@link AppendList AppendList} (as are the lists derived from it by the lazy functions):
+     * {@link #add(Object) add} is wait-free, the iteration (and the eager apis) visit the elements published when they began and
+     * {@link #snapshot() snapshot} takes <code>O(1)</code>. The operations that replace or remove elements throw <code>UnsupportedOperationException</code>.
+     * @param <E> Type of the elements
+     * @return empty concurrent append-only list
+     */
+    public static <E> MList<E> concurrent() {
+        return unit(AppendList::new);
+    }
+
+    /**
+     * Thread safe list backed by a {@link VersionedList VersionedList} (as are the lists derived from it by the lazy functions): every
+     * update installs a new version of a persistent vector by a CAS (the writers never block; appending and replacing copy only
+     * <code>O(log n)</code> nodes), the iteration (and the eager apis) visit the version current when they began and
+     * {@link #snapshot() snapshot} (as well as {@link #immutable() immutable}) takes <code>O(1)</code>.
+     * @param <E> Type of the elements
+     * @return empty versioned list
+     */
+    public static <E> MList<E> versioned() {
+        return unit(VersionedList::new);
+    }
+
     public static <E> MList<E> from(Iterable<E> iter) {
         List<E> list = new LinkedList<>();
         iter.forEach(list::add);
@@ -76,8 +101,30 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
     public abstract <R> MList<R> flatmap(Function<T, ? extends List<R>> f);
     /* ------------------- END: Lazy methods ------------------- */
 
+    /**
+     * @return immutable list of the current elements (same as {@link #snapshot() snapshot}, hence it never shares a list which the
+     * current list may still update)
+     */
     public IList<T> immutable() {
-        return IList.of(list());
+        return snapshot();
+    }
+
+    /**
+     * @return immutable list of the current elements, which is not affected by the later updates of the current list
+     * (<code>O(1)</code> if {@link #concurrent() concurrent} or {@link #versioned() versioned}, a copy otherwise). The lists derived
+     * from an <code>O(1)</code> snapshot are backed by <code>ArrayList</code>s rather than by the thread safe list of the current list.
+     */
+    public IList<T> snapshot() {
+        List<T> l = list();
+        if (l instanceof AppendList) {
+            return IList.of(((AppendList<T>) l).snapshot(), ArrayList::new);
+        }
+        if (l instanceof VersionedList) {
+            return IList.of(((VersionedList<T>) l).snapshot(), ArrayList::new);
+        }
+        List<T> r = Util.cast(constructor.produce());
+        r.addAll(l);
+        return IList.of(r, constructor);
     }
 
     @Override
@@ -98,7 +145,22 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
     }
 
     public MList<Couple<Integer, T>> indexed() {
-        return foldl(Tuple.of(0, MList.<Couple<Integer, T>>unit(constructor)), (c, v) -> Tuple.of(c.first() + 1, c.second().append(Tuple.of(c.first(), v)))).second();
+        return mapIndexed(Tuple::of);
+    }
+
+    /**
+     * Applies the function `f` to all the elements in the list along with their unboxed index. Function application is <i>eager</i>
+     * @param f function to apply to each element and its index.
+     * @param <R> type returned by the function `f` application
+     * @return resultant list after applying `f` to all the list elements
+     */
+    public <R> MList<R> mapIndexed(IndexedFunction<T, R> f) {
+        List<R> r = Util.cast(constructor.produce());
+        int i = 0;
+        for (T t : list()) {
+            r.add(f.apply(i++, t));
+        }
+        return of(r, constructor);
     }
 
     @Override
@@ -208,9 +270,7 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
     @Override
     public MList<T> delete(Iterable<? extends T> val) {
         apply();
-        for (T t : val) {
-            list.remove(t);
-        }
+        BulkOps.deleteEach(list, val);
         return this;
     }
 
@@ -223,11 +283,8 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
     @Override
     public MList<T> preserve(Iterable<? extends T> c) {
         apply();
-        for (T t : c) {
-            if (!list.contains(t)) {
-                list.remove(t);
-            }
-        }
+        Condition<T> m = BulkOps.membership(c);
+        list.removeIf(t -> !m.evaluate(t));
         return this;
     }
 
@@ -248,6 +305,71 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
         return this;
     }
 
+    /**
+     * Sorts the list in place (see {@link #sortedBy(Function, Comparator) sortedBy})
+     * @return <code>current instance</code>
+     */
+    @Override
+    public <K> MList<T> sortedBy(Function<T, K> keyF, Comparator<? super K> c) {
+        apply();
+        ListIterator<T> itr = list.listIterator();
+        for (Object e : Sorting.sortBy(list.toArray(), keyF, c)) {
+            itr.next();
+            itr.set(Util.cast(e));
+        }
+        return this;
+    }
+
+    /**
+     * Sorts the list in place by a parallel merge sort (<code>Arrays.parallelSort</code>).
+     * @param c comparator to sort by (or <code>null</code> for the natural order)
+     */
+    public void sortParallel(Comparator<? super T> c) {
+        apply();
+        Object[] arr = list.toArray();
+        Arrays.parallelSort(arr, Util.<Comparator<Object>>cast(c));
+        ListIterator<T> itr = list.listIterator();
+        for (Object e : arr) {
+            itr.next();
+            itr.set(Util.cast(e));
+        }
+    }
+
+    @Override
+    public MList<T> sortedParallel(Comparator<? super T> c) {
+        sortParallel(c);
+        return this;
+    }
+
+    /**
+     * Left scan: successive {@link #foldl(Object, BiFunction) foldl} accumulations of the elements, e.g. running totals.
+     * @param identity initial value of the accumulation
+     * @param op accumulates each element into the preceding accumulation
+     * @param <R> Type of the accumulations
+     * @return new list of `identity` followed by the accumulation up to each element (i.e. one more than the elements)
+     */
+    public <R> MList<R> scanl(R identity, BiFunction<R, T, R> op) {
+        return of(scanned(identity, op), constructor);
+    }
+
+    /**
+     * Scans the list in place by the associative operation `op` in parallel (see {@link #scanParallel(BiFunction) scanParallel}).
+     * @param op associative operation
+     * @return <code>current instance</code>
+     */
+    @Override
+    public MList<T> scanParallel(BiFunction<T, T, T> op) {
+        apply();
+        Object[] arr = list.toArray();
+        Parallel.prefix(arr, op);
+        ListIterator<T> itr = list.listIterator();
+        for (Object e : arr) {
+            itr.next();
+            itr.set(Util.cast(e));
+        }
+        return this;
+    }
+
     @Override
     public void replaceAll(UnaryOperator<T> operator) {
         apply();
@@ -270,9 +392,16 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
         return this;
     }
 
+    /**
+     * Applies the lazy functions (if any) at most once even under concurrent first access (double-checked on the volatile list).
+     */
     private void apply() {
-        if (!isApplied()) {
-            list = appliedList().list;
+        if (list == null) {
+            synchronized (this) {
+                if (list == null) {
+                    list = appliedList().list;
+                }
+            }
         }
     }
 
@@ -308,6 +437,11 @@ public abstract class MList<T> extends FList<T, MList<T>> implements List<T> {
             return new ListFunctor<>(src, constructor, filter(func, c), null);
         }
 
+        @Override
+        Parallel.Source<T> source() {
+            return isApplied() ? super.source() : new Parallel.Source<>(src.toArray(), func);
+        }
+
         final ListFunctor<T, T> appliedList() {
             ListFunctor<T, T> res;
             if (list == null) {
@@ -10,11 +10,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 public abstract class MMap<K, V> extends FMap<K, V, MMap<K, V>> implements Map<K, V> {
     private static final MMap<?, ?> NONE = MMap.unit(Collections::emptyMap);
-    Map<K, V> map;
+    volatile Map<K, V> map;
 
     private MMap(Map<K, V> map, Producer<Map<?, ?>> constructor) {
         super(constructor);
@@ -33,6 +34,38 @@ public abstract class MMap<K, V> extends FMap<K, V, MMap<K, V>> implements Map<K
         return of(Util.cast(constructor.produce()), constructor);
     }
 
+    /**
+     * Thread safe map backed by a <code>ConcurrentHashMap</code> (as are the maps derived from it by the lazy functions):
+     * <ul>
+     *     <li>{@link #putIfAbsent(Object, Object) putIfAbsent}, {@link #compute(Object, java.util.function.BiFunction) compute},
+     *     {@link #computeIfAbsent(Object, java.util.function.Function) computeIfAbsent} and {@link #merge(Object, Object, java.util.function.BiFunction) merge}
+     *     are atomic, with no global lock (contended updates only contend for their own bin)</li>
+     *     <li>{@link #fold(Object, com.simplj.lambda.function.TriFunction) fold}, {@link #find(BiFunction) find} and the iteration are
+     *     weakly consistent i.e. they never throw <code>ConcurrentModificationException</code> and reflect the entries at some point since they began</li>
+     *     <li>the lazy functions (if any) are applied exactly once even under concurrent first access</li>
+     * </ul>
+     * Like the <code>ConcurrentHashMap</code>, the map does not allow <code>null</code> keys or values.
+     * @param <A> Type of the keys
+     * @param <B> Type of the values
+     * @return empty concurrent map
+     */
+    public static <A, B> MMap<A, B> concurrent() {
+        return unit(ConcurrentHashMap::new);
+    }
+
+    /**
+     * Thread safe map backed by a {@link VersionedMap VersionedMap} (as are the maps derived from it by the lazy functions): every update
+     * installs a new version of a persistent hash trie by a CAS (the writers never block nor copy the map), the iteration (and the eager
+     * apis) visit the version current when they began and {@link #snapshot() snapshot} (as well as {@link #immutable() immutable})
+     * takes <code>O(1)</code>.
+     * @param <A> Type of the keys
+     * @param <B> Type of the values
+     * @return empty versioned map
+     */
+    public static <A, B> MMap<A, B> versioned() {
+        return unit(VersionedMap::new);
+    }
+
     @SafeVarargs
     public static <A, B> MMap<A, B> of(Couple<A, B>...elems) {
         return of(Util.asMap(elems));
@@ -46,8 +79,27 @@ public abstract class MMap<K, V> extends FMap<K, V, MMap<K, V>> implements Map<K
         return new MapFunctor<>(map, constructor, LinkedPair::new, map);
     }
 
+    /**
+     * @return immutable map of the current entries (same as {@link #snapshot() snapshot}, hence it never shares a map which the
+     * current map may still update)
+     */
     public final IMap<K, V> immutable() {
-        return IMap.of(map());
+        return snapshot();
+    }
+
+    /**
+     * @return immutable map of the current entries, which is not affected by the later updates of the current map
+     * (<code>O(1)</code> if {@link #versioned() versioned}, a copy otherwise). The maps derived from an <code>O(1)</code> snapshot are
+     * backed by <code>HashMap</code>s rather than by the thread safe map of the current map.
+     */
+    public final IMap<K, V> snapshot() {
+        Map<K, V> m = map();
+        if (m instanceof VersionedMap) {
+            return IMap.of(((VersionedMap<K, V>) m).snapshot(), HashMap::new);
+        }
+        Map<K, V> r = Util.cast(constructor.produce());
+        r.putAll(m);
+        return IMap.of(r, constructor);
     }
 
     /**
@@ -211,15 +263,53 @@ public abstract class MMap<K, V> extends FMap<K, V, MMap<K, V>> implements Map<K
         return this;
     }
 
+    /**
+     * Replaces the values in place by the ones computed by `function` for contiguous chunks of the entries in parallel.<br>
+     * The new values are written back through <code>Map.replace(key, oldValue, newValue)</code>; an entry updated concurrently in the
+     * meantime is recomputed from its current value (and left out if it has been removed), as done by <code>replaceAll</code>.
+     * @param function function computing the new value of each entry
+     */
+    public void replaceAllParallel(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        apply();
+        Object[] entries = map.entrySet().toArray();
+        Object[] vals = replacements(entries, function);
+        for (int i = 0; i < entries.length; i++) {
+            Entry<K, V> e = Util.cast(entries[i]);
+            K k = e.getKey();
+            V old = e.getValue();
+            V val = Util.cast(vals[i]);
+            while (!map.replace(k, old, val)) {
+                if (!map.containsKey(k)) {
+                    break;
+                }
+                old = map.get(k);
+                val = function.apply(k, old);
+            }
+        }
+    }
+
+    @Override
+    public MMap<K, V> replacingAllParallel(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        replaceAllParallel(function);
+        return this;
+    }
+
     @Override
     public void forEach(Consumer<? super Entry<K, V>> action) {
         apply();
         super.forEach(action);
     }
 
+    /**
+     * Applies the lazy functions (if any) at most once even under concurrent first access (double-checked on the volatile map).
+     */
     private void apply() {
-        if (!isApplied()) {
-            map = appliedMap().map;
+        if (map == null) {
+            synchronized (this) {
+                if (map == null) {
+                    map = appliedMap().map;
+                }
+            }
         }
     }
 
@@ -272,6 +362,18 @@ public abstract class MMap<K, V> extends FMap<K, V, MMap<K, V>> implements Map<K
             return new MapFunctor<>(src, constructor, flatmapK(func, f), null);
         }
 
+        @Override
+        public MMap<A, B> appliedParallel() {
+            if (map == null) {
+                synchronized (this) {
+                    if (map == null) {
+                        map = applyParallel(src, func, constructor);
+                    }
+                }
+            }
+            return this;
+        }
+
         final MapFunctor<A, B, A, B> appliedMap() {
             MapFunctor<A, B, A, B> res;
             if (map == null) {
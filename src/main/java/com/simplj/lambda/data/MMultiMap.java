@@ -0,0 +1,236 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+
+import java.util.*;
+
+/**
+ * Mutable multimap i.e. a map from a key to one or more values. The values of each key are kept in a growable array run (instead of a
+ * collection object per key) and the keys in a {@link CompactMap CompactMap}, hence the keys (and the values of a key) are kept in their
+ * insertion order.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class MMultiMap<K, V> {
+    private final CompactMap<K, Bucket> buckets;
+    private int size;
+
+    public MMultiMap() {
+        this.buckets = new CompactMap<>();
+    }
+
+    public MMultiMap(int expectedKeys) {
+        this.buckets = new CompactMap<>(expectedKeys);
+    }
+
+    /**
+     * @return immutable copy of the current multimap (built in <code>O(n)</code>)
+     */
+    public IMultiMap<K, V> immutable() {
+        IMultiMap.Builder<K, V> b = IMultiMap.builder(size);
+        buckets.forEach((k, r) -> b.putRun(k, r.vals, 0, r.size));
+        return b.build();
+    }
+
+    /**
+     * Appends `val` to the values of `key`
+     * @return <code>current instance</code>
+     */
+    public MMultiMap<K, V> put(K key, V val) {
+        bucket(key).add(val);
+        size++;
+        return this;
+    }
+
+    public MMultiMap<K, V> putAll(K key, Iterable<? extends V> vals) {
+        Iterator<? extends V> itr = vals.iterator();
+        if (itr.hasNext()) {
+            Bucket r = bucket(key);
+            while (itr.hasNext()) {
+                r.add(itr.next());
+                size++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Removes the first occurrence of `val` from the values of `key` (and `key` itself if no value is left)
+     * @return <code>true</code> if `val` was removed
+     */
+    public boolean remove(K key, V val) {
+        Bucket r = buckets.get(key);
+        if (r != null) {
+            for (int i = 0; i < r.size; i++) {
+                if (Objects.equals(r.vals[i], val)) {
+                    System.arraycopy(r.vals, i + 1, r.vals, i, r.size - i - 1);
+                    r.vals[--r.size] = null;
+                    size--;
+                    if (r.size == 0) {
+                        buckets.remove(key);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes `key` and all of its values
+     * @return removed values (empty if `key` was absent)
+     */
+    public IList<V> removeAll(K key) {
+        Bucket r = buckets.remove(key);
+        if (r == null) {
+            return IList.none();
+        }
+        size -= r.size;
+        return IList.of(new IMultiMap.Run<>(r.vals, 0, r.size), ArrayList::new);
+    }
+
+    /**
+     * Removes the key-value pairs which do not satisfy the condition `c` (and the keys left without any value).
+     * @return <code>current instance</code>
+     */
+    public MMultiMap<K, V> retain(BiFunction<K, V, Boolean> c) {
+        Iterator<Map.Entry<K, Bucket>> itr = buckets.entrySet().iterator();
+        while (itr.hasNext()) {
+            Map.Entry<K, Bucket> e = itr.next();
+            Bucket r = e.getValue();
+            int n = 0;
+            for (int i = 0; i < r.size; i++) {
+                if (c.apply(e.getKey(), Util.cast(r.vals[i]))) {
+                    r.vals[n++] = r.vals[i];
+                }
+            }
+            Arrays.fill(r.vals, n, r.size, null);
+            size -= r.size - n;
+            r.size = n;
+            if (n == 0) {
+                itr.remove();
+            }
+        }
+        return this;
+    }
+
+    public void clear() {
+        buckets.clear();
+        size = 0;
+    }
+
+    /**
+     * @param key key to look for
+     * @return unmodifiable (live) view of the values of `key` (empty if `key` is absent)
+     */
+    public List<V> get(K key) {
+        Bucket r = buckets.get(key);
+        return r == null ? Collections.emptyList() : r.view();
+    }
+
+    public int count(K key) {
+        Bucket r = buckets.get(key);
+        return r == null ? 0 : r.size;
+    }
+
+    public boolean containsKey(K key) {
+        return buckets.containsKey(key);
+    }
+
+    public boolean containsEntry(K key, V value) {
+        return get(key).contains(value);
+    }
+
+    /**
+     * @return total number of values (across all the keys)
+     */
+    public int size() {
+        return size;
+    }
+
+    public int keyCount() {
+        return buckets.size();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return unmodifiable (live) view of the keys
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(buckets.keySet());
+    }
+
+    public void forEach(java.util.function.BiConsumer<? super K, ? super V> action) {
+        buckets.forEach((k, r) -> {
+            for (int i = 0; i < r.size; i++) {
+                action.accept(k, Util.cast(r.vals[i]));
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return immutable().toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return immutable().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MMultiMap && immutable().equals(((MMultiMap<?, ?>) obj).immutable());
+    }
+
+    void putRun(K key, Object[] values, int from, int to) {
+        if (from < to) {
+            Bucket r = bucket(key);
+            for (int i = from; i < to; i++) {
+                r.add(values[i]);
+            }
+            size += to - from;
+        }
+    }
+
+    private Bucket bucket(K key) {
+        Bucket r = buckets.get(key);
+        if (r == null) {
+            r = new Bucket();
+            buckets.put(key, r);
+        }
+        return r;
+    }
+
+    private static final class Bucket {
+        private Object[] vals = new Object[2];
+        private int size;
+
+        void add(Object val) {
+            if (size == vals.length) {
+                vals = Arrays.copyOf(vals, size + (size >>> 1) + 1);
+            }
+            vals[size++] = val;
+        }
+
+        <E> List<E> view() {
+            return new AbstractList<E>() {
+                @Override
+                public E get(int index) {
+                    if (index < 0 || index >= size) {
+                        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                    }
+                    return Util.cast(vals[index]);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
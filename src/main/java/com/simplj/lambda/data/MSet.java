@@ -165,11 +165,8 @@ public abstract class MSet<E> extends FSet<E, MSet<E>> implements Set<E> {
     @Override
     public MSet<E> preserve(Iterable<? extends E> c) {
         apply();
-        for (E e : c) {
-            if (!set.contains(e)) {
-                set.remove(e);
-            }
-        }
+        Condition<E> m = BulkOps.membership(c);
+        set.removeIf(e -> !m.evaluate(e));
         return this;
     }
 
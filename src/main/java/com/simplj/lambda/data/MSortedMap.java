@@ -0,0 +1,385 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.function.Producer;
+import com.simplj.lambda.tuples.Couple;
+
+import java.util.*;
+
+/**
+ * Mutable map sorted by its keys and backed by a persistent B-tree. Every modification replaces the underlying tree version,
+ * hence {@link #immutable()} and the range views ({@link #range(Object, Object) range}, {@link #headMap(Object) headMap} etc.)
+ * are snapshots created in constant time which are not affected by later modifications.<br>
+ * The views returned by {@link #keySet()}, {@link #values()} and {@link #entrySet()} are unmodifiable snapshots as well.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class MSortedMap<K, V> extends FMap<K, V, MSortedMap<K, V>> implements Map<K, V> {
+    private final Comparator<? super K> comparator;
+    private final Producer<BTreeMap<K, V>> pending;
+    private volatile BTreeMap<K, V> tree;
+
+    private MSortedMap(Comparator<? super K> comparator, BTreeMap<K, V> tree, Producer<BTreeMap<K, V>> pending) {
+        super(() -> new TreeMap<>(comparator));
+        this.comparator = comparator;
+        this.tree = tree;
+        this.pending = pending;
+    }
+
+    public static <A, B> MSortedMap<A, B> unit() {
+        return unit(null);
+    }
+
+    public static <A, B> MSortedMap<A, B> unit(Comparator<? super A> comparator) {
+        return of(BTreeMap.empty(comparator));
+    }
+
+    @SafeVarargs
+    public static <A, B> MSortedMap<A, B> of(Couple<A, B>...elems) {
+        Map<A, B> m = new TreeMap<>();
+        for (Couple<A, B> c : elems) {
+            m.put(c.first(), c.second());
+        }
+        return of(m);
+    }
+
+    /**
+     * @param map entries of the resultant map
+     * @param <A> Type of the keys
+     * @param <B> Type of the values
+     * @return map sorted by the comparator of `map` if it is a <code>SortedMap</code> otherwise by the natural order of the keys
+     */
+    public static <A, B> MSortedMap<A, B> of(Map<A, B> map) {
+        return of(map, map instanceof SortedMap ? Util.cast(((SortedMap<A, B>) map).comparator()) : null);
+    }
+
+    public static <A, B> MSortedMap<A, B> of(Map<A, B> map, Comparator<? super A> comparator) {
+        return of(BTreeMap.of(map, comparator));
+    }
+
+    static <A, B> MSortedMap<A, B> of(BTreeMap<A, B> tree) {
+        return new MSortedMap<>(tree.comparator(), tree, null);
+    }
+
+    @Override
+    MSortedMap<K, V> instantiate(Producer<Map<?, ?>> constructor, Map<K, V> mapVal) {
+        return of(mapVal, comparator);
+    }
+
+    /**
+     * @return immutable snapshot of the current state (created in constant time)
+     */
+    public ISortedMap<K, V> immutable() {
+        return ISortedMap.of(tree());
+    }
+
+    /**
+     * @return immutable snapshot of the current state (same as {@link #immutable()}, for parity with {@link MMap#snapshot()})
+     */
+    public ISortedMap<K, V> snapshot() {
+        return immutable();
+    }
+
+    /**
+     * Function application is <i>eager</i> i.e. it applies all the lazy functions (if any) to map elements
+     * @return unmodifiable <code>SortedMap</code> snapshot of the current state
+     */
+    @Override
+    public SortedMap<K, V> map() {
+        return tree();
+    }
+
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    /* ------------------- START: Lazy methods ------------------- */
+    @Override
+    public MSortedMap<K, V> filter(BiFunction<K, V, Boolean> c) {
+        return new MSortedMap<>(comparator, null, () -> tree().filter(c));
+    }
+
+    /**
+     * Applies the function `f` to all the values in the map. As the keys are left untouched, the resultant map keeps the order of the current map.
+     * Function application is <i>lazy</i>.
+     * @param f function to apply to each value.
+     * @param <R> Type of the resultant values
+     * @return resultant map after applying `f` to all the values
+     */
+    public <R> MSortedMap<K, R> mapV(Function<V, R> f) {
+        return new MSortedMap<>(comparator, null, () -> tree().mapV(f));
+    }
+    /* ------------------- END: Lazy methods ------------------- */
+
+    @Override
+    public boolean isApplied() {
+        return tree != null;
+    }
+
+    @Override
+    public MSortedMap<K, V> applied() {
+        tree();
+        return this;
+    }
+
+    /* ------------------- START: Navigation ------------------- */
+    /**
+     * @param key key to look for
+     * @return entry with the greatest key lesser than or equal to `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> floor(K key) {
+        return tree().floor(key);
+    }
+
+    /**
+     * @param key key to look for
+     * @return entry with the greatest key strictly lesser than `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> lower(K key) {
+        return tree().lower(key);
+    }
+
+    /**
+     * @param key key to look for
+     * @return entry with the least key greater than or equal to `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> ceiling(K key) {
+        return tree().ceiling(key);
+    }
+
+    /**
+     * @param key key to look for
+     * @return entry with the least key strictly greater than `key` or <code>null</code> if there is no such key
+     */
+    public Couple<K, V> higher(K key) {
+        return tree().higher(key);
+    }
+
+    /**
+     * @return entry with the least key or <code>null</code> if the map is empty
+     */
+    public Couple<K, V> first() {
+        return tree().first();
+    }
+
+    /**
+     * @return entry with the greatest key or <code>null</code> if the map is empty
+     */
+    public Couple<K, V> last() {
+        return tree().last();
+    }
+
+    /**
+     * @param from lower bound of the keys (inclusive)
+     * @param to upper bound of the keys (inclusive)
+     * @return immutable snapshot of the entries whose keys lie within the range
+     * @see ISortedMap#range(Object, Object)
+     */
+    public ISortedMap<K, V> range(K from, K to) {
+        return immutable().range(from, to);
+    }
+
+    public ISortedMap<K, V> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return immutable().range(from, fromInclusive, to, toInclusive);
+    }
+
+    public ISortedMap<K, V> headMap(K to) {
+        return immutable().headMap(to);
+    }
+
+    public ISortedMap<K, V> headMap(K to, boolean inclusive) {
+        return immutable().headMap(to, inclusive);
+    }
+
+    public ISortedMap<K, V> tailMap(K from) {
+        return immutable().tailMap(from);
+    }
+
+    public ISortedMap<K, V> tailMap(K from, boolean inclusive) {
+        return immutable().tailMap(from, inclusive);
+    }
+    /* ------------------- END: Navigation ------------------- */
+
+    @Override
+    public V put(K key, V value) {
+        BTreeMap<K, V> t = tree();
+        V res = t.get(key);
+        tree = t.putting(key, value);
+        return res;
+    }
+
+    @Override
+    public MSortedMap<K, V> include(K key, V val) {
+        put(key, val);
+        return this;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        V res = get(key);
+        if (res == null) {
+            put(key, value);
+        }
+        return res;
+    }
+
+    @Override
+    public MSortedMap<K, V> includeIfAbsent(K key, V val) {
+        putIfAbsent(key, val);
+        return this;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        BTreeMap<K, V> t = tree();
+        for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
+            t = t.putting(e.getKey(), e.getValue());
+        }
+        tree = t;
+    }
+
+    @Override
+    public MSortedMap<K, V> include(Map<K, V> that) {
+        putAll(that);
+        return this;
+    }
+
+    @Override
+    public V remove(Object key) {
+        BTreeMap<K, V> t = tree();
+        V res = t.get(key);
+        tree = t.removing(key);
+        return res;
+    }
+
+    @Override
+    public MSortedMap<K, V> delete(K key) {
+        remove(key);
+        return this;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        BTreeMap<K, V> t = tree();
+        boolean res = t.containsKey(key) && Objects.equals(t.get(key), value);
+        if (res) {
+            tree = t.removing(key);
+        }
+        return res;
+    }
+
+    @Override
+    public MSortedMap<K, V> delete(K key, V value) {
+        remove(key, value);
+        return this;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return containsKey(key) ? put(key, value) : null;
+    }
+
+    @Override
+    public MSortedMap<K, V> replacing(K key, V value) {
+        replace(key, value);
+        return this;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        BTreeMap<K, V> t = tree();
+        boolean res = t.containsKey(key) && Objects.equals(t.get(key), oldValue);
+        if (res) {
+            tree = t.putting(key, newValue);
+        }
+        return res;
+    }
+
+    @Override
+    public MSortedMap<K, V> replacing(K key, V oldValue, V newValue) {
+        replace(key, oldValue, newValue);
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        tree = BTreeMap.empty(comparator);
+    }
+
+    @Override
+    public MSortedMap<K, V> empty() {
+        clear();
+        return this;
+    }
+
+    @Override
+    public void replaceAll(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        tree = tree().remap(function);
+    }
+
+    @Override
+    public MSortedMap<K, V> replacingAll(java.util.function.BiFunction<? super K, ? super V, ? extends V> function) {
+        replaceAll(function);
+        return this;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, java.util.function.Function<? super K, ? extends V> mappingFunction) {
+        V res = get(key);
+        if (res == null) {
+            res = mappingFunction.apply(key);
+            if (res != null) {
+                put(key, res);
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public V computeIfPresent(K key, java.util.function.BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V old = get(key);
+        V res = null;
+        if (old != null) {
+            res = remappingFunction.apply(key, old);
+            if (res == null) {
+                remove(key);
+            } else {
+                put(key, res);
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public V compute(K key, java.util.function.BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V res = remappingFunction.apply(key, get(key));
+        if (res == null) {
+            remove(key);
+        } else {
+            put(key, res);
+        }
+        return res;
+    }
+
+    @Override
+    public V merge(K key, V value, java.util.function.BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        V old = get(key);
+        V res = old == null ? value : remappingFunction.apply(old, value);
+        if (res == null) {
+            remove(key);
+        } else {
+            put(key, res);
+        }
+        return res;
+    }
+
+    BTreeMap<K, V> tree() {
+        BTreeMap<K, V> t = tree;
+        if (t == null) {
+            t = pending.produce();
+            tree = t;
+        }
+        return t;
+    }
+}
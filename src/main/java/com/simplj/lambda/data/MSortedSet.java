@@ -0,0 +1,303 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Condition;
+import com.simplj.lambda.function.Producer;
+import com.simplj.lambda.tuples.Couple;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Mutable set sorted by its elements and backed by a persistent B-tree. Every modification replaces the underlying tree version,
+ * hence {@link #immutable()} and the range views ({@link #range(Object, Object) range}, {@link #headSet(Object) headSet} etc.)
+ * are snapshots created in constant time which are not affected by later modifications.
+ * @param <E> Type of the elements
+ */
+public final class MSortedSet<E> extends FSet<E, MSortedSet<E>> implements Set<E> {
+    private final Comparator<? super E> comparator;
+    private final Producer<BTreeMap<E, E>> pending;
+    private volatile BTreeMap<E, E> tree;
+
+    private MSortedSet(Comparator<? super E> comparator, BTreeMap<E, E> tree, Producer<BTreeMap<E, E>> pending) {
+        super(() -> new TreeSet<>(comparator));
+        this.comparator = comparator;
+        this.tree = tree;
+        this.pending = pending;
+    }
+
+    public static <A> MSortedSet<A> unit() {
+        return unit(null);
+    }
+
+    public static <A> MSortedSet<A> unit(Comparator<? super A> comparator) {
+        return of(BTreeMap.<A, A>empty(comparator));
+    }
+
+    @SafeVarargs
+    public static <A> MSortedSet<A> of(A...elems) {
+        return of(Arrays.asList(elems), null);
+    }
+
+    /**
+     * @param set elements of the resultant set
+     * @param <A> Type of the elements
+     * @return set sorted by the comparator of `set` if it is a <code>SortedSet</code> otherwise by the natural order of the elements
+     */
+    public static <A> MSortedSet<A> of(Set<A> set) {
+        return of(set, set instanceof SortedSet ? Util.cast(((SortedSet<A>) set).comparator()) : null);
+    }
+
+    public static <A> MSortedSet<A> of(Iterable<A> elems, Comparator<? super A> comparator) {
+        return of(BTreeSet.of(elems, comparator).tree);
+    }
+
+    public static <E> MSortedSet<E> from(Iterable<E> iter) {
+        return of(iter, null);
+    }
+
+    static <A> MSortedSet<A> of(BTreeMap<A, A> tree) {
+        return new MSortedSet<>(tree.comparator(), tree, null);
+    }
+
+    @Override
+    MSortedSet<E> instantiate(Producer<Set<?>> constructor, Set<E> setVal) {
+        return of(setVal, comparator);
+    }
+
+    /**
+     * @return immutable snapshot of the current state (created in constant time)
+     */
+    public ISortedSet<E> immutable() {
+        return ISortedSet.of(tree());
+    }
+
+    /**
+     * Function application is <i>eager</i> i.e. it applies all the lazy functions (if any) to set elements
+     * @return unmodifiable <code>SortedSet</code> snapshot of the current state
+     */
+    @Override
+    public SortedSet<E> set() {
+        return new BTreeSet<>(tree());
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /* ------------------- START: Lazy methods ------------------- */
+    @Override
+    public MSortedSet<E> filter(Condition<E> c) {
+        return new MSortedSet<>(comparator, null, () -> tree().filter((k, v) -> c.evaluate(k)));
+    }
+    /* ------------------- END: Lazy methods ------------------- */
+
+    @Override
+    public boolean isApplied() {
+        return tree != null;
+    }
+
+    @Override
+    public MSortedSet<E> applied() {
+        tree();
+        return this;
+    }
+
+    /* ------------------- START: Navigation ------------------- */
+    /**
+     * @param e element to look for
+     * @return greatest element lesser than or equal to `e` or <code>null</code> if there is no such element
+     */
+    public E floor(E e) {
+        return key(tree().floor(e));
+    }
+
+    /**
+     * @param e element to look for
+     * @return greatest element strictly lesser than `e` or <code>null</code> if there is no such element
+     */
+    public E lower(E e) {
+        return key(tree().lower(e));
+    }
+
+    /**
+     * @param e element to look for
+     * @return least element greater than or equal to `e` or <code>null</code> if there is no such element
+     */
+    public E ceiling(E e) {
+        return key(tree().ceiling(e));
+    }
+
+    /**
+     * @param e element to look for
+     * @return least element strictly greater than `e` or <code>null</code> if there is no such element
+     */
+    public E higher(E e) {
+        return key(tree().higher(e));
+    }
+
+    /**
+     * @return least element or <code>null</code> if the set is empty
+     */
+    public E first() {
+        return key(tree().first());
+    }
+
+    /**
+     * @return greatest element or <code>null</code> if the set is empty
+     */
+    public E last() {
+        return key(tree().last());
+    }
+
+    /**
+     * @param from lower bound of the elements (inclusive)
+     * @param to upper bound of the elements (inclusive)
+     * @return immutable snapshot of the elements which lie within the range
+     * @see ISortedSet#range(Object, Object)
+     */
+    public ISortedSet<E> range(E from, E to) {
+        return immutable().range(from, to);
+    }
+
+    public ISortedSet<E> range(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return immutable().range(from, fromInclusive, to, toInclusive);
+    }
+
+    public ISortedSet<E> headSet(E to) {
+        return immutable().headSet(to);
+    }
+
+    public ISortedSet<E> headSet(E to, boolean inclusive) {
+        return immutable().headSet(to, inclusive);
+    }
+
+    public ISortedSet<E> tailSet(E from) {
+        return immutable().tailSet(from);
+    }
+
+    public ISortedSet<E> tailSet(E from, boolean inclusive) {
+        return immutable().tailSet(from, inclusive);
+    }
+    /* ------------------- END: Navigation ------------------- */
+
+    @Override
+    public boolean add(E t) {
+        BTreeMap<E, E> tr = tree();
+        boolean res = !tr.containsKey(t);
+        if (res) {
+            tree = tr.putting(t, t);
+        }
+        return res;
+    }
+
+    @Override
+    public MSortedSet<E> include(E val) {
+        add(val);
+        return this;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        int size = size();
+        include(c);
+        return size != size();
+    }
+
+    @Override
+    public MSortedSet<E> include(Iterable<? extends E> c) {
+        BTreeMap<E, E> t = tree();
+        for (E e : c) {
+            if (!t.containsKey(e)) {
+                t = t.putting(e, e);
+            }
+        }
+        tree = t;
+        return this;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        BTreeMap<E, E> t = tree();
+        BTreeMap<E, E> r = t.removing(o);
+        tree = r;
+        return r != t;
+    }
+
+    @Override
+    public MSortedSet<E> delete(E val) {
+        remove(val);
+        return this;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        BTreeMap<E, E> t = tree();
+        BTreeMap<E, E> r = t;
+        for (Object o : c) {
+            r = r.removing(o);
+        }
+        tree = r;
+        return r != t;
+    }
+
+    @Override
+    public MSortedSet<E> delete(Iterable<? extends E> c) {
+        BTreeMap<E, E> t = tree();
+        for (E e : c) {
+            t = t.removing(e);
+        }
+        tree = t;
+        return this;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        int size = size();
+        preserve(Util.cast(c));
+        return size != size();
+    }
+
+    @Override
+    public MSortedSet<E> preserve(Iterable<? extends E> c) {
+        Condition<E> m = BulkOps.membership(c);
+        tree = tree().filter((k, v) -> m.evaluate(k));
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        tree = BTreeMap.empty(comparator);
+    }
+
+    @Override
+    public MSortedSet<E> empty() {
+        clear();
+        return this;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        int size = size();
+        tree = tree().filter((k, v) -> !filter.test(k));
+        return size != size();
+    }
+
+    @Override
+    public MSortedSet<E> deleteIf(Condition<? super E> c) {
+        removeIf(c::evaluate);
+        return this;
+    }
+
+    BTreeMap<E, E> tree() {
+        BTreeMap<E, E> t = tree;
+        if (t == null) {
+            t = pending.produce();
+            tree = t;
+        }
+        return t;
+    }
+
+    private static <E> E key(Couple<E, E> c) {
+        return c == null ? null : c.first();
+    }
+}
@@ -0,0 +1,185 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Function;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Splits an index range into contiguous chunks (one per worker of the <code>ForkJoinPool</code> at most) and evaluates them in
+ * parallel. The pool is the one the caller is running in (if any) otherwise the common pool, hence (like the parallel streams) the
+ * parallelism can be controlled by calling from within a custom pool. The partial results are returned in the order of their chunks
+ * so that they can be combined deterministically.
+ */
+final class Parallel {
+    static final int MIN_CHUNK = 4096;
+    private static final Object NONE = new Object();
+
+    private Parallel() {
+    }
+
+    /**
+     * @param n size of the index range
+     * @return number of chunks the range <code>[0, n)</code> is split into
+     */
+    static int chunks(int n) {
+        return Math.max(1, Math.min(pool().getParallelism(), n / MIN_CHUNK));
+    }
+
+    /**
+     * Applies `task` to each chunk <code>[from, to)</code> of the range <code>[0, n)</code>. The last chunk is evaluated in the calling thread.
+     * @param n size of the index range
+     * @param task function of the chunk bounds (<code>from</code> inclusive, <code>to</code> exclusive)
+     * @param <R> Type of the partial result
+     * @return partial results in the order of their chunks
+     */
+    static <R> List<R> map(int n, BiFunction<Integer, Integer, R> task) {
+        int p = chunks(n);
+        List<R> res = new ArrayList<>(p);
+        if (p == 1) {
+            res.add(task.apply(0, n));
+        } else {
+            ForkJoinPool pool = pool();
+            List<ForkJoinTask<R>> tasks = new ArrayList<>(p - 1);
+            for (int i = 0; i < p - 1; i++) {
+                int from = bound(n, p, i);
+                int to = bound(n, p, i + 1);
+                tasks.add(pool.submit(() -> task.apply(from, to)));
+            }
+            R last = task.apply(bound(n, p, p - 1), n);
+            for (ForkJoinTask<R> t : tasks) {
+                res.add(t.join());
+            }
+            res.add(last);
+        }
+        return res;
+    }
+
+    /**
+     * Folds each chunk of `src` (starting from `identity`) in parallel and combines the partial results tree-wise. The pending lazy
+     * stage of `src` (if any) is applied to the source elements within the chunks i.e. no intermediate collection is materialized.
+     * @param src elements to fold
+     * @param identity initial value of the fold of each chunk (expected to be an identity of `combiner`)
+     * @param accumulator accumulates an element into the partial result
+     * @param combiner combines two adjacent partial results (expected to be associative)
+     * @param <T> Type of the elements
+     * @param <R> Type of the result
+     * @return the accumulated result
+     */
+    static <T, R> R fold(Source<T> src, R identity, BiFunction<R, T, R> accumulator, BiFunction<R, R, R> combiner) {
+        Object[] elems = src.elems;
+        Function<Object, LinkedUnit<T>> stage = src.stage;
+        List<R> parts = map(elems.length, (from, to) -> {
+            R r = identity;
+            for (int i = from; i < to; i++) {
+                if (stage == null) {
+                    r = accumulator.apply(r, Util.cast(elems[i]));
+                } else {
+                    for (LinkedUnit.Node<T> n = stage.apply(elems[i]).head(); n != null; n = n.next()) {
+                        r = accumulator.apply(r, n.val());
+                    }
+                }
+            }
+            return r;
+        });
+        while (parts.size() > 1) {
+            List<R> next = new ArrayList<>((parts.size() + 1) >>> 1);
+            for (int i = 0; i < parts.size(); i += 2) {
+                next.add(i + 1 < parts.size() ? combiner.apply(parts.get(i), parts.get(i + 1)) : parts.get(i));
+            }
+            parts = next;
+        }
+        return parts.get(0);
+    }
+
+    /**
+     * @param src elements to reduce
+     * @param op associative operation
+     * @param <T> Type of the elements
+     * @return elements of `src` reduced by `op` or <code>null</code> if there is no element
+     */
+    static <T> T reduce(Source<T> src, BiFunction<T, T, T> op) {
+        Object res = fold(src, NONE, (a, t) -> a == NONE ? t : op.apply(Util.cast(a), t),
+                (a, b) -> a == NONE ? b : b == NONE ? a : op.apply(Util.cast(a), Util.cast(b)));
+        return res == NONE ? null : Util.cast(res);
+    }
+
+    /**
+     * Replaces each element of `arr` by the (inclusive) prefix of the elements up to it under the associative operation `op`, by the
+     * two-pass blocked algorithm: each chunk is scanned locally in parallel, the carries of the chunks are computed from the totals of
+     * their preceding chunks and then folded (in parallel) into the elements of their chunks.
+     * @param arr elements to scan in place
+     * @param op associative operation
+     * @param <T> Type of the elements
+     */
+    static <T> void prefix(Object[] arr, BiFunction<T, T, T> op) {
+        List<int[]> bounds = map(arr.length, (from, to) -> {
+            for (int i = from + 1; i < to; i++) {
+                arr[i] = op.apply(Util.cast(arr[i - 1]), Util.cast(arr[i]));
+            }
+            return new int[]{from, to};
+        });
+        if (bounds.size() > 1) {
+            Object[] carries = new Object[bounds.size()];
+            int[] starts = new int[bounds.size()];
+            carries[0] = arr[bounds.get(0)[1] - 1];
+            for (int c = 1; c < carries.length; c++) {
+                int[] b = bounds.get(c);
+                starts[c] = b[0];
+                carries[c] = b[0] < b[1] ? op.apply(Util.cast(carries[c - 1]), Util.cast(arr[b[1] - 1])) : carries[c - 1];
+            }
+            map(arr.length, (from, to) -> {
+                int c = Arrays.binarySearch(starts, from);
+                if (c > 0) {
+                    T carry = Util.cast(carries[c - 1]);
+                    for (int i = from; i < to; i++) {
+                        arr[i] = op.apply(carry, Util.cast(arr[i]));
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    static ForkJoinPool pool() {
+        return ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+    }
+
+    private static int bound(int n, int p, int i) {
+        return (int) ((long) n * i / p);
+    }
+
+    /**
+     * Elements of a (possibly unapplied) jlx collection i.e. its source elements along with the pending lazy stage
+     * (<code>null</code> if the collection is applied) turning each source element into zero or more elements.
+     */
+    static final class Source<T> {
+        final Object[] elems;
+        final Function<Object, LinkedUnit<T>> stage;
+
+        Source(Object[] elems, Function<?, LinkedUnit<T>> stage) {
+            this.elems = elems;
+            this.stage = Util.cast(stage);
+        }
+
+        /**
+         * Applies `action` to each element (applying the pending lazy stage on the fly).
+         */
+        void forEach(Consumer<? super T> action) {
+            for (Object o : elems) {
+                if (stage == null) {
+                    action.accept(Util.cast(o));
+                } else {
+                    for (LinkedUnit.Node<T> n = stage.apply(o).head(); n != null; n = n.next()) {
+                        action.accept(n.val());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+
+/**
+ * Immutable <code>List</code> over a version of a persistent vector: a 32-way trie of the elements (indexed by the 5 bit digits of
+ * their positions) with the last (at most 32) elements kept in a separate tail. {@link #get(int) get} takes
+ * <code>O(log<sub>32</sub> n)</code>; {@link #plus(Object) plus}, {@link #with(int, Object) with} and {@link #minusLast() minusLast}
+ * copy only the path to the updated position and return a new version sharing all the other nodes with the current one.
+ * @param <E> Type of the elements
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int SHIFT = 5;
+    private static final int WIDTH = 1 << SHIFT;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, SHIFT, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    static <E> PersistentVector<E> empty() {
+        return Util.cast(EMPTY);
+    }
+
+    static <E> PersistentVector<E> from(Iterable<? extends E> elems) {
+        PersistentVector<E> res = empty();
+        for (E e : elems) {
+            res = res.plus(e);
+        }
+        return res;
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return Util.cast(leaf(index)[index & MASK]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates leaf by leaf (one descent of the trie per 32 elements).
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int cursor;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public E next() {
+                if (cursor >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((cursor & MASK) == 0 || leaf == null) {
+                    leaf = leaf(cursor);
+                }
+                return Util.cast(leaf[cursor++ & MASK]);
+            }
+        };
+    }
+
+    /**
+     * @return new version with `e` appended
+     */
+    PersistentVector<E> plus(E e) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] t = Arrays.copyOf(tail, tail.length + 1);
+            t[tail.length] = e;
+            return new PersistentVector<>(size + 1, shift, root, t);
+        }
+        Object[] r;
+        int s = shift;
+        if ((size >>> SHIFT) > (1 << shift)) {
+            r = new Object[WIDTH];
+            r[0] = root;
+            r[1] = path(shift, tail);
+            s += SHIFT;
+        } else {
+            r = pushTail(shift, root);
+        }
+        return new PersistentVector<>(size + 1, s, r, new Object[]{e});
+    }
+
+    /**
+     * @return new version with `e` at `index`
+     */
+    PersistentVector<E> with(int index, E e) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index >= tailOffset()) {
+            Object[] t = tail.clone();
+            t[index & MASK] = e;
+            return new PersistentVector<>(size, shift, root, t);
+        }
+        return new PersistentVector<>(size, shift, with(shift, root, index, e), tail);
+    }
+
+    /**
+     * @return new version without the last element
+     */
+    PersistentVector<E> minusLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("List is empty!");
+        }
+        if (size == 1) {
+            return empty();
+        }
+        if (size - tailOffset() > 1) {
+            return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+        Object[] t = leaf(size - 2);
+        Object[] r = popTail(shift, root);
+        int s = shift;
+        if (r == null) {
+            r = EMPTY_NODE;
+        } else if (shift > SHIFT && r[1] == null) {
+            r = (Object[]) r[0];
+            s -= SHIFT;
+        }
+        return new PersistentVector<>(size - 1, s, r, t);
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> SHIFT) << SHIFT;
+    }
+
+    private Object[] leaf(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= SHIFT) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent) {
+        int i = ((size - 1) >>> level) & MASK;
+        Object[] res = parent.clone();
+        if (level == SHIFT) {
+            res[i] = tail;
+        } else {
+            Object[] child = (Object[]) parent[i];
+            res[i] = child != null ? pushTail(level - SHIFT, child) : path(level - SHIFT, tail);
+        }
+        return res;
+    }
+
+    private static Object[] path(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] res = new Object[WIDTH];
+        res[0] = path(level - SHIFT, node);
+        return res;
+    }
+
+    private static Object[] with(int level, Object[] node, int index, Object e) {
+        Object[] res = node.clone();
+        if (level == 0) {
+            res[index & MASK] = e;
+        } else {
+            int i = (index >>> level) & MASK;
+            res[i] = with(level - SHIFT, (Object[]) node[i], index, e);
+        }
+        return res;
+    }
+
+    private Object[] popTail(int level, Object[] node) {
+        int i = ((size - 2) >>> level) & MASK;
+        if (level > SHIFT) {
+            Object[] child = popTail(level - SHIFT, (Object[]) node[i]);
+            if (child == null && i == 0) {
+                return null;
+            }
+            Object[] res = node.clone();
+            res[i] = child;
+            return res;
+        }
+        if (i == 0) {
+            return null;
+        }
+        Object[] res = node.clone();
+        res[i] = null;
+        return res;
+    }
+}
@@ -0,0 +1,285 @@
+package com.simplj.lambda.data;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mergeable streaming quantile sketch (KLL). The values are kept in a hierarchy of compactors where a value of level <code>h</code>
+ * stands for <code>2<sup>h</sup></code> values of the stream; a level exceeding its capacity is sorted and every other value of it
+ * (starting at a random offset) is promoted to the next level. The capacities shrink geometrically (by <code>2/3</code>) from the top
+ * level down, hence the sketch retains <code>O(k)</code> values regardless of the number of values added, while the rank error of a
+ * quantile stays within about <code>1.7/k</code> (about 1% for the default <code>k = 200</code>).<br>
+ * Sketches of the same `k` built independently (e.g. over the chunks of a parallel computation) can be {@link #merge(QuantileSketch) merged}
+ * with the same guarantee as a single sketch of all the values. The minimum and maximum values are tracked exactly.
+ */
+public final class QuantileSketch {
+    private static final int DEFAULT_K = 200;
+    private static final double DECAY = 2.0 / 3;
+
+    private final int k;
+    private double[][] levels;
+    private int[] sizes;
+    private int height;
+    private int retained;
+    private int capacity;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    private QuantileSketch(int k) {
+        this.k = k;
+        this.levels = new double[][]{new double[k]};
+        this.sizes = new int[1];
+        this.height = 1;
+        this.capacity = capacity(0);
+    }
+
+    /**
+     * @return empty sketch of the default accuracy parameter (<code>k = 200</code>)
+     */
+    public static QuantileSketch create() {
+        return create(DEFAULT_K);
+    }
+
+    /**
+     * @param k accuracy parameter (the rank error is about <code>1.7/k</code>)
+     * @return empty sketch of the accuracy parameter `k`
+     */
+    public static QuantileSketch create(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8!");
+        }
+        return new QuantileSketch(k);
+    }
+
+    /**
+     * Adds the value `x` to the sketch (<code>NaN</code> is ignored).
+     * @param x value to add
+     * @return <code>current instance</code>
+     */
+    public QuantileSketch update(double x) {
+        if (!Double.isNaN(x)) {
+            if (count++ == 0) {
+                min = max = x;
+            } else if (x < min) {
+                min = x;
+            } else if (x > max) {
+                max = x;
+            }
+            append(0, x);
+            compress();
+        }
+        return this;
+    }
+
+    /**
+     * Merges the values of `that` into the current sketch (`that` remains unchanged). The levels of `that` are read as they were when
+     * the merge began, hence a sketch can be merged into itself (doubling the weight of its values).
+     * @param that sketch to merge (of the same accuracy parameter)
+     * @return <code>current instance</code>
+     */
+    public QuantileSketch merge(QuantileSketch that) {
+        if (that.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches of different k (" + k + " and " + that.k + ")!");
+        }
+        if (that.count > 0) {
+            min = count == 0 ? that.min : Math.min(min, that.min);
+            max = count == 0 ? that.max : Math.max(max, that.max);
+            count += that.count;
+            int height = that.height;
+            int[] sizes = that.sizes.clone();
+            double[][] levels = that.levels.clone();
+            for (int h = 0; h < height; h++) {
+                for (int i = 0; i < sizes[h]; i++) {
+                    append(h, levels[h][i]);
+                }
+            }
+            compress();
+        }
+        return this;
+    }
+
+    /**
+     * @return number of values added to the sketch (including the ones of the merged sketches)
+     */
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return number of values retained by the sketch
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * @return smallest value added or <code>NaN</code> if empty
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * @return largest value added or <code>NaN</code> if empty
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * @param q rank (within <code>[0, 1]</code>) of the quantile, e.g. <code>0.99</code> for the 99th percentile
+     * @return (approximate) value of rank `q` or <code>NaN</code> if empty
+     */
+    public double quantile(double q) {
+        return quantiles(q)[0];
+    }
+
+    /**
+     * Computes several quantiles at once (sorting the retained values once).
+     * @param qs ranks (within <code>[0, 1]</code>) of the quantiles
+     * @return (approximate) values of the ranks `qs` (or <code>NaN</code>s if empty)
+     */
+    public double[] quantiles(double... qs) {
+        double[] res = new double[qs.length];
+        for (double q : qs) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("Quantile rank must be within [0, 1]: " + q);
+            }
+        }
+        if (count == 0) {
+            Arrays.fill(res, Double.NaN);
+        } else {
+            double[] vals = new double[retained];
+            long[] weights = new long[retained];
+            sortedView(vals, weights);
+            for (int i = 0; i < qs.length; i++) {
+                res[i] = qs[i] == 0 ? min : qs[i] == 1 ? max : select(vals, weights, (long) Math.ceil(qs[i] * count));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param x value to rank
+     * @return (approximate) fraction of the values added that are less than or equal to `x` or <code>NaN</code> if empty
+     */
+    public double rank(double x) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long w = 0;
+        for (int h = 0; h < height; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= x) {
+                    w += 1L << h;
+                }
+            }
+        }
+        return (double) w / count;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch(k=" + k + ", count=" + count + ", retained=" + retained + ")";
+    }
+
+    private static double select(double[] vals, long[] weights, long rank) {
+        long cum = 0;
+        for (int i = 0; i < vals.length; i++) {
+            cum += weights[i];
+            if (cum >= rank) {
+                return vals[i];
+            }
+        }
+        return vals[vals.length - 1];
+    }
+
+    /**
+     * Fills `vals` with the retained values in ascending order and `weights` with their weights.
+     */
+    private void sortedView(double[] vals, long[] weights) {
+        Integer[] order = new Integer[retained];
+        int n = 0;
+        for (int h = 0; h < height; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                vals[n] = levels[h][i];
+                weights[n] = 1L << h;
+                order[n] = n++;
+            }
+        }
+        double[] v = vals.clone();
+        long[] w = weights.clone();
+        Arrays.sort(order, (a, b) -> Double.compare(v[a], v[b]));
+        for (int i = 0; i < n; i++) {
+            vals[i] = v[order[i]];
+            weights[i] = w[order[i]];
+        }
+    }
+
+    private void append(int h, double x) {
+        while (h >= height) {
+            grow();
+        }
+        if (sizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], levels[h].length << 1);
+        }
+        levels[h][sizes[h]++] = x;
+        retained++;
+    }
+
+    private void grow() {
+        if (height == levels.length) {
+            levels = Arrays.copyOf(levels, height << 1);
+            sizes = Arrays.copyOf(sizes, height << 1);
+        }
+        levels[height] = new double[capacity(0)];
+        height++;
+        capacity = 0;
+        for (int h = 0; h < height; h++) {
+            capacity += capacity(h);
+        }
+    }
+
+    /**
+     * @return capacity of the level `h` (given the current height)
+     */
+    private int capacity(int h) {
+        return Math.max(2, (int) Math.ceil(k * Math.pow(DECAY, height - h - 1)));
+    }
+
+    /**
+     * Compacts the lowest level exceeding its capacity while the sketch retains more values than its total capacity.
+     */
+    private void compress() {
+        while (retained > capacity) {
+            int h = 0;
+            while (sizes[h] < capacity(h)) {
+                h++;
+            }
+            compact(h);
+        }
+    }
+
+    private void compact(int h) {
+        if (h + 1 == height) {
+            grow();
+        }
+        double[] level = levels[h];
+        int n = sizes[h];
+        Arrays.sort(level, 0, n);
+        int pairs = n & ~1;
+        for (int i = ThreadLocalRandom.current().nextInt(2); i < pairs; i += 2) {
+            append(h + 1, level[i]);
+        }
+        retained -= pairs;
+        if (n > pairs) {
+            level[0] = level[n - 1];
+        }
+        sizes[h] = n - pairs;
+    }
+}
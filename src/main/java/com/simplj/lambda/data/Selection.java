@@ -0,0 +1,165 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Condition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selection of positions of an immutable list or array kept as a compressed bitmap. Conditions are evaluated once into a
+ * selection and selections over the same source are combined by set operations; elements are copied only when the final
+ * selection is materialized through {@link #list()} or {@link #array()}.
+ * @param <E> Type of the source elements
+ */
+public final class Selection<E> {
+    private final Object source;
+    private final List<E> elems;
+    private final Bitmap bits;
+
+    private Selection(Object source, List<E> elems, Bitmap bits) {
+        this.source = source;
+        this.elems = elems;
+        this.bits = bits;
+    }
+
+    static <E> Selection<E> all(Object source, List<E> elems) {
+        return new Selection<>(source, elems, Bitmap.range(elems.size()));
+    }
+
+    static <E> Selection<E> none(Object source, List<E> elems) {
+        return new Selection<>(source, elems, Bitmap.EMPTY);
+    }
+
+    /**
+     * Evaluates the condition `c` against every element of the source.
+     * @param c condition to evaluate against each element
+     * @return selection of the positions of the source elements which satisfy `c`
+     */
+    public Selection<E> where(Condition<E> c) {
+        Bitmap.Builder b = new Bitmap.Builder();
+        for (int i = 0, n = elems.size(); i < n; i++) {
+            if (c.evaluate(elems.get(i))) {
+                b.add(i);
+            }
+        }
+        return with(b.build());
+    }
+
+    /**
+     * Narrows the selection to the elements which also satisfy `c`. The condition is evaluated only against the selected elements.
+     * @param c condition to evaluate against each selected element
+     * @return selection of the selected positions whose elements satisfy `c`
+     */
+    public Selection<E> and(Condition<E> c) {
+        Bitmap.Builder b = new Bitmap.Builder();
+        bits.forEach(i -> {
+            if (c.evaluate(elems.get(i))) {
+                b.add(i);
+            }
+        });
+        return with(b.build());
+    }
+
+    /**
+     * Widens the selection with the elements which satisfy `c`. The condition is evaluated only against the elements which are not selected.
+     * @param c condition to evaluate against each element which is not selected
+     * @return selection of the selected positions and the positions whose elements satisfy `c`
+     */
+    public Selection<E> or(Condition<E> c) {
+        Bitmap.Builder b = new Bitmap.Builder();
+        for (int i = 0, n = elems.size(); i < n; i++) {
+            if (!bits.contains(i) && c.evaluate(elems.get(i))) {
+                b.add(i);
+            }
+        }
+        return with(bits.or(b.build()));
+    }
+
+    public Selection<E> and(Selection<E> that) {
+        return with(bits.and(compatible(that).bits));
+    }
+
+    public Selection<E> or(Selection<E> that) {
+        return with(bits.or(compatible(that).bits));
+    }
+
+    public Selection<E> andNot(Selection<E> that) {
+        return with(bits.andNot(compatible(that).bits));
+    }
+
+    public Selection<E> not() {
+        return with(Bitmap.range(elems.size()).andNot(bits));
+    }
+
+    /**
+     * @return number of selected elements
+     */
+    public int count() {
+        return bits.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    public boolean contains(int position) {
+        return bits.contains(position);
+    }
+
+    /**
+     * @return selected positions in ascending order
+     */
+    public int[] positions() {
+        return bits.toArray();
+    }
+
+    /**
+     * Materializes the selection.
+     * @return list of the selected elements in their source order
+     */
+    public IList<E> list() {
+        List<E> res = new ArrayList<>(count());
+        bits.forEach(i -> res.add(elems.get(i)));
+        return IList.of(res, ArrayList::new);
+    }
+
+    /**
+     * Materializes the selection.
+     * @return array of the selected elements in their source order
+     */
+    public IArray<E> array() {
+        E[] res = Util.cast(new Object[count()]);
+        int[] idx = new int[1];
+        bits.forEach(i -> res[idx[0]++] = elems.get(i));
+        return IArray.of(res);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Selection)) return false;
+        Selection<?> that = (Selection<?>) obj;
+        return source == that.source && bits.equals(that.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return bits.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Selection(" + count() + " of " + elems.size() + ")";
+    }
+
+    private Selection<E> with(Bitmap b) {
+        return new Selection<>(source, elems, b);
+    }
+
+    private Selection<E> compatible(Selection<E> that) {
+        if (source != that.source) {
+            throw new IllegalArgumentException("Selections of different sources cannot be combined!");
+        }
+        return that;
+    }
+}
@@ -83,6 +83,81 @@ public class SlidingWindow<T> implements Iterable<T> {
         return res;
     }
 
+    /**
+     * Exact quantile of the (numeric) elements of the window, selected in linear time without sorting the window.
+     * @param q rank (within <code>[0, 1]</code>) of the quantile, e.g. <code>0.95</code> for the 95th percentile
+     * @return value of rank `q` (the smallest element having at least <code>q * size()</code> elements less than or equal to it)
+     * @throws ClassCastException if the elements are not <code>Number</code>s
+     * @see #quantile(double, Function)
+     */
+    public double quantile(double q) {
+        return quantile(q, t -> (Number) t);
+    }
+
+    /**
+     * Exact quantile of the values computed by `f` for the elements of the window, selected in linear time without sorting the window.
+     * @param q rank (within <code>[0, 1]</code>) of the quantile
+     * @param f function computing the (numeric) value of each element
+     * @return value of rank `q` or throws `IndexOutOfBoundsException` if empty
+     */
+    public double quantile(double q, Function<T, ? extends Number> f) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile rank must be within [0, 1]: " + q);
+        }
+        if (window.isEmpty()) {
+            throw new IndexOutOfBoundsException("Window is empty!");
+        }
+        double[] vals = new double[window.size()];
+        int i = 0;
+        for (T t : window) {
+            vals[i++] = f.apply(t).doubleValue();
+        }
+        return select(vals, Math.max(0, (int) Math.ceil(q * vals.length) - 1));
+    }
+
+    /**
+     * Quickselect (Hoare partitioning around the median of three).
+     * @return `n`-th smallest (0 based) value of `vals`
+     */
+    private static double select(double[] vals, int n) {
+        int lo = 0;
+        int hi = vals.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double pivot = Math.max(Math.min(vals[lo], vals[hi]), Math.min(Math.max(vals[lo], vals[hi]), vals[mid]));
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (vals[i] < pivot) {
+                    i++;
+                }
+                while (vals[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double t = vals[i];
+                    vals[i++] = vals[j];
+                    vals[j--] = t;
+                }
+            }
+            if (n <= j) {
+                hi = j;
+            } else if (n >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+        return vals[n];
+    }
+
+    /**
+     * @return estimated number of distinct elements in the window (see {@link HyperLogLog HyperLogLog})
+     */
+    public long countDistinctApprox() {
+        return HyperLogLog.create().addAll(window).estimate();
+    }
+
     public <R> SlidingWindow<R> map(Function<T, R> f) {
         SlidingWindow<R> res = new SlidingWindow<>(limit);
         for (T t : window) {
@@ -0,0 +1,308 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.BiFunction;
+import com.simplj.lambda.function.Condition;
+import com.simplj.lambda.function.Function;
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Immutable array whose elements are kept sorted by a <code>Comparator</code>. Membership, positions, ranks and ranges are answered
+ * by binary search in <code>O(log n)</code> and elements are considered equal when the comparator says so.<br>
+ * {@link #filter(Condition) filter} keeps the order (hence the result stays sorted) whereas {@link #map(Function) map} and
+ * {@link #flatmap(Function) flatmap} drop the sorted guarantee and result in a plain {@link IArray}.
+ * @param <E> Type of the elements
+ */
+public final class SortedIArray<E> extends IArray<E> {
+    private final Comparator<? super E> comparator;
+    private final Comparator<Object> cmp;
+    private final IArray<E> pending;
+    private final Eytzinger layout;
+
+    private SortedIArray(E[] arr, Comparator<? super E> comparator, IArray<E> pending, Eytzinger layout) {
+        super(arr);
+        this.comparator = comparator;
+        this.cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+        this.pending = pending;
+        this.layout = layout;
+    }
+
+    /**
+     * @param arr elements to sort (the array is sorted in place)
+     * @param comparator comparator to sort by or <code>null</code> for the natural order
+     * @param <A> Type of the elements
+     * @return sorted array wrapping `arr`
+     */
+    static <A> SortedIArray<A> of(A[] arr, Comparator<? super A> comparator) {
+        Arrays.sort(arr, comparator);
+        return ofSorted(arr, comparator);
+    }
+
+    /**
+     * @param arr elements already sorted by `comparator`
+     * @param comparator comparator `arr` is sorted by or <code>null</code> for the natural order
+     * @param <A> Type of the elements
+     * @return sorted array wrapping `arr`
+     */
+    static <A> SortedIArray<A> ofSorted(A[] arr, Comparator<? super A> comparator) {
+        return new SortedIArray<>(arr, comparator, null, null);
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * The operations building their results through this method (e.g. {@link #topK(int, Comparator) topK},
+     * {@link #sortedBy(Function) sortedBy} or {@link #scanParallel(BiFunction) scanParallel}) do not keep the order in general, hence
+     * the result is a plain {@link IArray}.
+     */
+    @Override
+    IArray<E> unit(E[] arr) {
+        return IArray.of(arr);
+    }
+
+    @Override
+    public <T> IArray<T> map(Function<E, T> f) {
+        return base().map(f);
+    }
+
+    @Override
+    public <R> IArray<R> flatmap(Function<E, ? extends R[]> f) {
+        return base().flatmap(f);
+    }
+
+    /**
+     * Function application is <i>lazy</i> and the resultant array stays sorted.
+     * @param c condition to evaluate against each element
+     * @return sorted array containing the elements which satisfy `c`
+     */
+    @Override
+    public SortedIArray<E> filter(Condition<E> c) {
+        return new SortedIArray<>(null, comparator, base().filter(c), null);
+    }
+
+    /**
+     * Both the arrays keep the order, hence they are {@link SortedIArray}s.
+     */
+    @Override
+    public Couple<IArray<E>, IArray<E>> split(Condition<E> c) {
+        Couple<IArray<E>, IArray<E>> res = IArray.of(array()).split(c);
+        return Tuple.of(ofSorted(res.first().array(), comparator), ofSorted(res.second().array(), comparator));
+    }
+
+    @Override
+    public SortedIArray<E> appliedArray(boolean copy) {
+        SortedIArray<E> res;
+        if (arr == null) {
+            res = new SortedIArray<>(pending.appliedArray(true).arr, comparator, null, null);
+        } else if (copy) {
+            res = new SortedIArray<>(arr.clone(), comparator, null, null);
+        } else {
+            res = this;
+        }
+        return res;
+    }
+
+    /**
+     * Setting an arbitrary value at an arbitrary position does not keep the order, hence the result is a plain (copied) {@link IArray}.
+     */
+    @Override
+    public IArray<E> set(int idx, E val) {
+        E[] a = array().clone();
+        a[idx] = val;
+        return IArray.of(a);
+    }
+
+    @Override
+    public MArray<E> mutable() {
+        return MArray.of(array().clone());
+    }
+
+    @Override
+    public SortedIArray<E> sorted(Comparator<? super E> comparator) {
+        return comparator == this.comparator ? appliedArray(false) : super.sorted(comparator);
+    }
+
+    @Override
+    public SortedIArray<E> sortedParallel(Comparator<? super E> comparator) {
+        return comparator == this.comparator ? appliedArray(false) : super.sortedParallel(comparator);
+    }
+
+    @Override
+    public SortedIArray<E> union(Iterable<? extends E> c) {
+        return of(IArray.of(array()).union(c).array(), comparator);
+    }
+
+    /**
+     * Builds (once) an Eytzinger (breadth-first) layout of the elements. Binary searches over this layout touch memory in a
+     * cache-friendly manner which pays off for large arrays queried many times.
+     * @return sorted array with the same elements answering the searches through the Eytzinger layout
+     */
+    public SortedIArray<E> eytzinger() {
+        SortedIArray<E> a = appliedArray(false);
+        return a.layout != null ? a : new SortedIArray<>(a.arr, comparator, null, new Eytzinger(a.arr));
+    }
+
+    @Override
+    public boolean contains(E elem) {
+        return indexOf(elem) >= 0;
+    }
+
+    /**
+     * @param elem element to look for
+     * @return position of the first element equal (as per the comparator) to `elem` or <code>-1</code> if there is no such element
+     */
+    @Override
+    public int indexOf(E elem) {
+        SortedIArray<E> a = appliedArray(false);
+        int i = a.bound(elem, false);
+        return i < a.arr.length && cmp.compare(a.arr[i], elem) == 0 ? i : -1;
+    }
+
+    /**
+     * @param elem element to look for
+     * @return position of the last element equal (as per the comparator) to `elem` or <code>-1</code> if there is no such element
+     */
+    @Override
+    public int lastIndexOf(E elem) {
+        SortedIArray<E> a = appliedArray(false);
+        int i = a.bound(elem, true) - 1;
+        return i >= 0 && cmp.compare(a.arr[i], elem) == 0 ? i : -1;
+    }
+
+    /**
+     * @param elem element to rank
+     * @return number of elements strictly lesser than `elem`
+     */
+    public int rank(E elem) {
+        return appliedArray(false).bound(elem, false);
+    }
+
+    /**
+     * @param elem element to count
+     * @return number of elements equal (as per the comparator) to `elem`
+     */
+    public int count(E elem) {
+        SortedIArray<E> a = appliedArray(false);
+        return a.bound(elem, true) - a.bound(elem, false);
+    }
+
+    /**
+     * @param from lower bound (inclusive)
+     * @param to upper bound (inclusive)
+     * @return sorted array of the elements lying between `from` and `to`
+     */
+    public SortedIArray<E> range(E from, E to) {
+        SortedIArray<E> a = appliedArray(false);
+        int lo = a.bound(from, false);
+        int hi = Math.max(lo, a.bound(to, true));
+        return ofSorted(Arrays.copyOfRange(a.arr, lo, hi), comparator);
+    }
+
+    /**
+     * @param elem element to look for
+     * @return greatest element lesser than or equal to `elem` or <code>null</code> if there is no such element
+     */
+    public E floor(E elem) {
+        SortedIArray<E> a = appliedArray(false);
+        return a.at(a.bound(elem, true) - 1);
+    }
+
+    /**
+     * @param elem element to look for
+     * @return greatest element strictly lesser than `elem` or <code>null</code> if there is no such element
+     */
+    public E lower(E elem) {
+        SortedIArray<E> a = appliedArray(false);
+        return a.at(a.bound(elem, false) - 1);
+    }
+
+    /**
+     * @param elem element to look for
+     * @return least element greater than or equal to `elem` or <code>null</code> if there is no such element
+     */
+    public E ceiling(E elem) {
+        SortedIArray<E> a = appliedArray(false);
+        return a.at(a.bound(elem, false));
+    }
+
+    /**
+     * @param elem element to look for
+     * @return least element strictly greater than `elem` or <code>null</code> if there is no such element
+     */
+    public E higher(E elem) {
+        SortedIArray<E> a = appliedArray(false);
+        return a.at(a.bound(elem, true));
+    }
+
+    private IArray<E> base() {
+        return arr == null ? pending : IArray.of(arr);
+    }
+
+    private E at(int i) {
+        return i < 0 || i >= arr.length ? null : arr[i];
+    }
+
+    /**
+     * Must be called on an applied instance.
+     * @param upper <code>false</code> for the position of the first element not lesser than `x`, <code>true</code> for the position
+     *              of the first element greater than `x`
+     */
+    private int bound(Object x, boolean upper) {
+        return layout == null ? search(x, upper) : layout.bound(x, upper, cmp);
+    }
+
+    private int search(Object x, boolean upper) {
+        int lo = 0;
+        int hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int r = cmp.compare(arr[mid], x);
+            if (r < 0 || (upper && r == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Elements in breadth-first order of the implicit binary search tree (1-based) along with their positions in the sorted array.
+     */
+    private static final class Eytzinger {
+        private final Object[] elems;
+        private final int[] positions;
+
+        Eytzinger(Object[] sorted) {
+            elems = new Object[sorted.length + 1];
+            positions = new int[sorted.length + 1];
+            fill(sorted, 0, 1);
+        }
+
+        private int fill(Object[] sorted, int i, int k) {
+            if (k < elems.length) {
+                i = fill(sorted, i, k << 1);
+                elems[k] = sorted[i];
+                positions[k] = i++;
+                i = fill(sorted, i, (k << 1) + 1);
+            }
+            return i;
+        }
+
+        int bound(Object x, boolean upper, Comparator<Object> cmp) {
+            int n = elems.length - 1;
+            int k = 1;
+            while (k <= n) {
+                int r = cmp.compare(elems[k], x);
+                k = (k << 1) + (r < 0 || (upper && r == 0) ? 1 : 0);
+            }
+            k >>= Integer.numberOfTrailingZeros(~k) + 1;
+            return k == 0 ? n : positions[k];
+        }
+    }
+}
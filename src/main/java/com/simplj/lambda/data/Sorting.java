@@ -0,0 +1,183 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Function;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorting and partial sorting routines shared by the jlx lists and arrays.
+ */
+final class Sorting {
+    private static final int RADIX_THRESHOLD = 64;
+
+    private Sorting() {
+    }
+
+    /**
+     * Stable sort of `elems` by the keys computed by `keyF`, which is applied exactly once per element (decorate-sort-undecorate).
+     * When the keys are ordered by their natural order and all of them are integral (<code>Integer</code>, <code>Long</code>,
+     * <code>Short</code>, <code>Byte</code> or <code>Character</code> of a single class) the elements are sorted by a LSD radix sort
+     * in linear time, otherwise by a merge sort comparing the cached keys.
+     * @param elems elements to sort
+     * @param keyF function computing the sort key of each element
+     * @param comparator comparator ordering the keys (or <code>null</code> for their natural order)
+     * @param <T> Type of the elements
+     * @param <K> Type of the keys
+     * @return sorted elements
+     */
+    static <T, K> Object[] sortBy(Object[] elems, Function<T, K> keyF, Comparator<? super K> comparator) {
+        int n = elems.length;
+        Object[] keys = new Object[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = keyF.apply(Util.cast(elems[i]));
+        }
+        long[] integral = comparator == null && n >= RADIX_THRESHOLD ? integral(keys) : null;
+        Object[] res = new Object[n];
+        if (integral != null) {
+            int[] order = radix(integral);
+            for (int i = 0; i < n; i++) {
+                res[i] = elems[order[i]];
+            }
+        } else {
+            Comparator<Object> cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> cmp.compare(keys[a], keys[b]));
+            for (int i = 0; i < n; i++) {
+                res[i] = elems[order[i]];
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return keys as <code>long</code>s (with the sign bit flipped so that they are ordered as unsigned values) or
+     * <code>null</code> if any key is not integral or the keys are of different classes
+     */
+    private static long[] integral(Object[] keys) {
+        Class<?> type = keys[0] == null ? null : keys[0].getClass();
+        if (type != Integer.class && type != Long.class && type != Short.class && type != Byte.class && type != Character.class) {
+            return null;
+        }
+        long[] res = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Object k = keys[i];
+            if (k == null || k.getClass() != type) {
+                return null;
+            }
+            res[i] = (type == Character.class ? (Character) k : ((Number) k).longValue()) ^ Long.MIN_VALUE;
+        }
+        return res;
+    }
+
+    /**
+     * Stable LSD radix sort (a byte per pass) of the positions of `keys`; passes in which all the keys share the same byte are skipped.
+     * @return positions of `keys` in the sorted order
+     */
+    private static int[] radix(long[] keys) {
+        int n = keys.length;
+        int[] order = new int[n];
+        int[] tmp = new int[n];
+        long[] k = keys;
+        long[] kTmp = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] count = new int[257];
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i++) {
+                count[(int) ((k[i] >>> shift) & 0xFF) + 1]++;
+            }
+            if (count[(int) ((k[0] >>> shift) & 0xFF) + 1] == n) {
+                continue;
+            }
+            for (int i = 0; i < 256; i++) {
+                count[i + 1] += count[i];
+            }
+            for (int i = 0; i < n; i++) {
+                int p = count[(int) ((k[i] >>> shift) & 0xFF)]++;
+                tmp[p] = order[i];
+                kTmp[p] = k[i];
+            }
+            int[] t = order;
+            order = tmp;
+            tmp = t;
+            long[] kt = k;
+            k = kTmp;
+            kTmp = kt;
+        }
+        return order;
+    }
+
+    /**
+     * Selects the `k` smallest elements with a bounded (max) heap of size `k` in <code>O(n log k)</code>. The pending lazy stage of
+     * `src` (if any) is applied on the fly, hence only the selected elements are retained.
+     * @param src elements to select from
+     * @param k number of elements to select
+     * @param comparator comparator ordering the elements (or <code>null</code> for their natural order)
+     * @param <T> Type of the elements
+     * @return (at most) `k` smallest elements in ascending order
+     */
+    static <T> Object[] smallest(Parallel.Source<T> src, int k, Comparator<? super T> comparator) {
+        Comparator<Object> cmp = comparator == null ? Util.cast(Comparator.naturalOrder()) : Util.cast(comparator);
+        Object[] heap = new Object[Math.max(0, Math.min(k, 1 << 16))];
+        int size = 0;
+        if (k > 0) {
+            for (Object o : src.elems) {
+                if (src.stage == null) {
+                    size = offer(heap = grow(heap, size, k), size, k, o, cmp);
+                } else {
+                    for (LinkedUnit.Node<T> n = src.stage.apply(o).head(); n != null; n = n.next()) {
+                        size = offer(heap = grow(heap, size, k), size, k, n.val(), cmp);
+                    }
+                }
+            }
+        }
+        Object[] res = Arrays.copyOf(heap, size);
+        Arrays.sort(res, cmp);
+        return res;
+    }
+
+    private static Object[] grow(Object[] heap, int size, int k) {
+        return size < heap.length || size == k ? heap : Arrays.copyOf(heap, (int) Math.min(k, (long) heap.length << 1));
+    }
+
+    /**
+     * Offers `e` to the max-heap `heap` bounded by `k`
+     * @return resultant size of the heap
+     */
+    private static int offer(Object[] heap, int size, int k, Object e, Comparator<Object> cmp) {
+        if (size < k) {
+            int i = size++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (cmp.compare(e, heap[p]) <= 0) {
+                    break;
+                }
+                heap[i] = heap[p];
+                i = p;
+            }
+            heap[i] = e;
+        } else if (cmp.compare(e, heap[0]) < 0) {
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int c = (i << 1) + 1;
+                if (c + 1 < size && cmp.compare(heap[c + 1], heap[c]) > 0) {
+                    c++;
+                }
+                if (cmp.compare(e, heap[c]) >= 0) {
+                    break;
+                }
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = e;
+        }
+        return size;
+    }
+}
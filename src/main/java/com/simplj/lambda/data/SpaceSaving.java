@@ -0,0 +1,227 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+
+import java.util.*;
+
+/**
+ * Mergeable heavy hitters (top-K) sketch (Space-Saving). At most <code>capacity</code> elements are tracked, each with a counter;
+ * an untracked element replaces the tracked element of the least count and inherits (and increments) its count. The counters are kept
+ * in a min-heap, hence each {@link #add(Object) add} takes <code>O(log capacity)</code>. The count of a tracked element over-estimates
+ * its frequency by at most its {@link #error(Object) error} (and by at most <code>total() / capacity</code>), hence every element
+ * more frequent than <code>total() / capacity</code> is guaranteed to be tracked.
+ * @param <E> Type of the elements
+ * @see CountMinSketch
+ */
+public final class SpaceSaving<E> {
+    private final int capacity;
+    private final Map<E, Counter<E>> counters;
+    private Counter<E>[] heap;
+    private int size;
+    private long total;
+
+    private SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+        this.heap = Util.cast(new Counter<?>[Math.min(capacity, 16)]);
+    }
+
+    /**
+     * @param capacity maximum number of elements tracked
+     * @param <A> Type of the elements
+     * @return empty sketch tracking at most `capacity` elements
+     */
+    public static <A> SpaceSaving<A> create(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        return new SpaceSaving<>(capacity);
+    }
+
+    public SpaceSaving<E> add(E e) {
+        return add(e, 1);
+    }
+
+    /**
+     * @param e element to count
+     * @param count number of occurrences (positive)
+     * @return <code>current instance</code>
+     */
+    public SpaceSaving<E> add(E e, long count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be positive: " + count);
+        }
+        total += count;
+        Counter<E> c = counters.get(e);
+        if (c != null) {
+            c.count += count;
+            siftDown(c.pos);
+        } else if (size < capacity) {
+            c = new Counter<>(e, count, 0);
+            counters.put(e, c);
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, Math.min(capacity, size << 1));
+            }
+            heap[size] = c;
+            c.pos = size++;
+            siftUp(c.pos);
+        } else {
+            c = heap[0];
+            counters.remove(c.elem);
+            c.elem = e;
+            c.error = c.count;
+            c.count += count;
+            counters.put(e, c);
+            siftDown(0);
+        }
+        return this;
+    }
+
+    public SpaceSaving<E> addAll(Iterable<? extends E> elems) {
+        for (E e : elems) {
+            add(e);
+        }
+        return this;
+    }
+
+    /**
+     * Merges `that` into the current sketch: an element untracked by either sketch is assumed to have occurred (at most) as many times
+     * as the least count of that sketch (if full) and the `capacity` elements of the greatest combined counts are retained.
+     * @param that sketch to merge (`that` remains unchanged)
+     * @return <code>current instance</code>
+     */
+    public SpaceSaving<E> merge(SpaceSaving<? extends E> that) {
+        long minA = size < capacity ? 0 : heap[0].count;
+        long minB = that.size < that.capacity ? 0 : that.heap[0].count;
+        Map<E, Counter<E>> all = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Counter<E> c = heap[i];
+            Counter<? extends E> o = that.counters.get(c.elem);
+            all.put(c.elem, o == null ? new Counter<>(c.elem, c.count + minB, c.error + minB)
+                    : new Counter<>(c.elem, c.count + o.count, c.error + o.error));
+        }
+        for (int i = 0; i < that.size; i++) {
+            Counter<? extends E> o = that.heap[i];
+            if (!all.containsKey(o.elem)) {
+                all.put(o.elem, new Counter<E>(o.elem, o.count + minA, o.error + minA));
+            }
+        }
+        List<Counter<E>> sorted = new ArrayList<>(all.values());
+        sorted.sort((a, b) -> Long.compare(b.count, a.count));
+        counters.clear();
+        size = 0;
+        heap = Util.cast(new Counter<?>[Math.min(capacity, Math.max(16, sorted.size()))]);
+        for (Counter<E> c : sorted.subList(0, Math.min(capacity, sorted.size()))) {
+            counters.put(c.elem, c);
+            heap[size] = c;
+            c.pos = size++;
+            siftUp(c.pos);
+        }
+        total += that.total;
+        return this;
+    }
+
+    /**
+     * @param k number of elements
+     * @return (at most) `k` tracked elements of the greatest counts along with their counts, in descending order of the counts
+     */
+    public IList<Couple<E, Long>> top(int k) {
+        Counter<E>[] arr = Arrays.copyOf(heap, size);
+        Arrays.sort(arr, (a, b) -> Long.compare(b.count, a.count));
+        List<Couple<E, Long>> res = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < k && i < arr.length; i++) {
+            res.add(Tuple.of(arr[i].elem, arr[i].count));
+        }
+        return IList.of(res, ArrayList::new);
+    }
+
+    /**
+     * @param e element to look up
+     * @return estimated (over-estimated) count of `e` if tracked, otherwise the least count if the sketch is full (else <code>0</code>)
+     */
+    public long count(E e) {
+        Counter<E> c = counters.get(e);
+        return c != null ? c.count : size < capacity ? 0 : heap[0].count;
+    }
+
+    /**
+     * @param e element to look up
+     * @return maximum over-estimation of the count of `e`
+     */
+    public long error(E e) {
+        Counter<E> c = counters.get(e);
+        return c != null ? c.error : count(e);
+    }
+
+    /**
+     * @return total number of occurrences counted
+     */
+    public long total() {
+        return total;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of elements tracked
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "SpaceSaving(capacity=" + capacity + ", total=" + total + ", top=" + top(Math.min(size, 10)) + ")";
+    }
+
+    private void siftUp(int i) {
+        Counter<E> c = heap[i];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (heap[p].count <= c.count) {
+                break;
+            }
+            place(heap[p], i);
+            i = p;
+        }
+        place(c, i);
+    }
+
+    private void siftDown(int i) {
+        Counter<E> c = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (c.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(c, i);
+    }
+
+    private void place(Counter<E> c, int i) {
+        heap[i] = c;
+        c.pos = i;
+    }
+
+    private static final class Counter<T> {
+        private T elem;
+        private long count;
+        private long error;
+        private int pos;
+
+        private Counter(T elem, long count, long error) {
+            this.elem = elem;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
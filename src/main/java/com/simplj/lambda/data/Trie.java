@@ -0,0 +1,307 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+
+/**
+ * Persistent compressed (radix) trie over <code>String</code> keys. Every edge is labelled by a (non-empty) string and the children
+ * of a node are kept sorted by the first character of their labels, hence a lookup takes <code>O(|key| log σ)</code> and the keys
+ * are iterated in lexicographic order. Updates copy only the nodes along the path of the key and share the rest of the trie.
+ */
+final class Trie {
+    static final Node EMPTY = new Node("", false, null, new char[0], new Node[0]);
+
+    private Trie() {
+    }
+
+    static final class Node {
+        final String label;
+        final boolean hasValue;
+        final Object value;
+        final char[] firsts;
+        final Node[] kids;
+        final int size;
+
+        Node(String label, boolean hasValue, Object value, char[] firsts, Node[] kids) {
+            this.label = label;
+            this.hasValue = hasValue;
+            this.value = value;
+            this.firsts = firsts;
+            this.kids = kids;
+            int s = hasValue ? 1 : 0;
+            for (Node k : kids) {
+                s += k.size;
+            }
+            this.size = s;
+        }
+
+        Node relabel(String l) {
+            return new Node(l, hasValue, value, firsts, kids);
+        }
+
+        int kid(char c) {
+            return Arrays.binarySearch(firsts, c);
+        }
+    }
+
+    /**
+     * @return node holding `key` (which may or may not have a value) or <code>null</code> if no key passes through `key`
+     */
+    static Node find(Node root, String key) {
+        Node n = root;
+        int i = 0;
+        while (i < key.length()) {
+            int k = n.kid(key.charAt(i));
+            if (k < 0) {
+                return null;
+            }
+            n = n.kids[k];
+            if (!key.startsWith(n.label, i)) {
+                return null;
+            }
+            i += n.label.length();
+        }
+        return n;
+    }
+
+    static Node put(Node n, String key, int i, Object val) {
+        if (i == key.length()) {
+            return n.hasValue && n.value == val ? n : new Node(n.label, true, val, n.firsts, n.kids);
+        }
+        char c = key.charAt(i);
+        int k = n.kid(c);
+        if (k < 0) {
+            int p = -(k + 1);
+            Node leaf = new Node(key.substring(i), true, val, EMPTY.firsts, EMPTY.kids);
+            return new Node(n.label, n.hasValue, n.value, insertAt(n.firsts, p, c), insertAt(n.kids, p, leaf));
+        }
+        Node kid = n.kids[k];
+        int l = common(kid.label, key, i);
+        Node res;
+        if (l == kid.label.length()) {
+            res = put(kid, key, i + l, val);
+        } else {
+            Node rest = kid.relabel(kid.label.substring(l));
+            Node split = new Node(kid.label.substring(0, l), false, null, new char[] {rest.label.charAt(0)}, new Node[] {rest});
+            res = put(split, key, i + l, val);
+        }
+        return res == kid ? n : new Node(n.label, n.hasValue, n.value, n.firsts, replaceAt(n.kids, k, res));
+    }
+
+    /**
+     * @return node without `key` (compressed if needed), <code>null</code> if the node becomes empty or `n` itself if `key` is absent
+     */
+    static Node remove(Node n, String key, int i) {
+        Node res;
+        if (i == key.length()) {
+            res = n.hasValue ? compress(n.label, false, null, n.firsts, n.kids) : n;
+        } else {
+            int k = n.kid(key.charAt(i));
+            Node kid = k < 0 ? null : n.kids[k];
+            if (kid == null || !key.startsWith(kid.label, i)) {
+                res = n;
+            } else {
+                Node r = remove(kid, key, i + kid.label.length());
+                if (r == kid) {
+                    res = n;
+                } else if (r == null) {
+                    res = compress(n.label, n.hasValue, n.value, removeAt(n.firsts, k), removeAt(n.kids, k));
+                } else {
+                    res = new Node(n.label, n.hasValue, n.value, n.firsts, replaceAt(n.kids, k, r));
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return the subtree of all the keys starting with `prefix` re-rooted so that its root label is the whole path to it, or
+     * <code>null</code> if there is no such key
+     */
+    static Node subtree(Node root, String prefix) {
+        Node n = root;
+        int i = 0;
+        StringBuilder path = new StringBuilder();
+        while (i < prefix.length()) {
+            int k = n.kid(prefix.charAt(i));
+            if (k < 0) {
+                return null;
+            }
+            n = n.kids[k];
+            int l = common(n.label, prefix, i);
+            if (i + l < prefix.length() && l < n.label.length()) {
+                return null;
+            }
+            path.append(n.label);
+            i += n.label.length();
+        }
+        return n.relabel(path.toString());
+    }
+
+    /**
+     * @return length of the longest key which is a prefix of `s` or <code>-1</code> if there is no such key, along with its node
+     */
+    static Node longestPrefix(Node root, String s, int[] len) {
+        Node n = root;
+        Node res = n.hasValue ? n : null;
+        len[0] = res == null ? -1 : 0;
+        int i = 0;
+        while (i < s.length()) {
+            int k = n.kid(s.charAt(i));
+            if (k < 0) {
+                break;
+            }
+            n = n.kids[k];
+            if (!s.startsWith(n.label, i)) {
+                break;
+            }
+            i += n.label.length();
+            if (n.hasValue) {
+                res = n;
+                len[0] = i;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Builds a trie out of keys sorted in ascending order (and without duplicates) in <code>O(total length of the keys)</code>.
+     */
+    static Node build(String[] keys, Object[] vals, int n) {
+        return n == 0 ? EMPTY : build(keys, vals, 0, n, 0, "");
+    }
+
+    private static Node build(String[] keys, Object[] vals, int from, int to, int depth, String label) {
+        boolean hasValue = keys[from].length() == depth;
+        Object value = hasValue ? vals[from] : null;
+        int i = hasValue ? from + 1 : from;
+        List<Node> kids = new ArrayList<>();
+        while (i < to) {
+            char c = keys[i].charAt(depth);
+            int j = i + 1;
+            while (j < to && keys[j].charAt(depth) == c) {
+                j++;
+            }
+            int l = depth + 1;
+            while (l < keys[i].length() && l < keys[j - 1].length() && keys[i].charAt(l) == keys[j - 1].charAt(l)) {
+                l++;
+            }
+            kids.add(build(keys, vals, i, j, l, keys[i].substring(depth, l)));
+            i = j;
+        }
+        char[] firsts = new char[kids.size()];
+        for (int k = 0; k < firsts.length; k++) {
+            firsts[k] = kids.get(k).label.charAt(0);
+        }
+        return new Node(label, hasValue, value, firsts, kids.toArray(EMPTY.kids));
+    }
+
+    /**
+     * Lazy pre-order (i.e. lexicographic) iterator over the nodes holding values; {@link #key()} returns the key of the node last returned.
+     */
+    static final class Cursor implements Iterator<Node> {
+        private final Deque<Node> nodes = new ArrayDeque<>();
+        private final Deque<String> paths = new ArrayDeque<>();
+        private Node next;
+        private String nextKey;
+        private String key;
+
+        Cursor(Node root, String base) {
+            nodes.push(root);
+            paths.push(base);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Node next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Node res = next;
+            key = nextKey;
+            advance();
+            return res;
+        }
+
+        String key() {
+            return key;
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !nodes.isEmpty()) {
+                Node n = nodes.pop();
+                String p = paths.pop() + n.label;
+                for (int i = n.kids.length - 1; i >= 0; i--) {
+                    nodes.push(n.kids[i]);
+                    paths.push(p);
+                }
+                if (n.hasValue) {
+                    next = n;
+                    nextKey = p;
+                }
+            }
+        }
+    }
+
+    private static Node compress(String label, boolean hasValue, Object value, char[] firsts, Node[] kids) {
+        Node res;
+        if (!hasValue && kids.length == 1 && !label.isEmpty()) {
+            res = kids[0].relabel(label + kids[0].label);
+        } else if (!hasValue && kids.length == 0 && !label.isEmpty()) {
+            res = null;
+        } else {
+            res = new Node(label, hasValue, value, firsts, kids);
+        }
+        return res;
+    }
+
+    private static int common(String label, String key, int from) {
+        int n = Math.min(label.length(), key.length() - from);
+        int l = 0;
+        while (l < n && label.charAt(l) == key.charAt(from + l)) {
+            l++;
+        }
+        return l;
+    }
+
+    private static char[] insertAt(char[] arr, int i, char v) {
+        char[] res = new char[arr.length + 1];
+        System.arraycopy(arr, 0, res, 0, i);
+        res[i] = v;
+        System.arraycopy(arr, i, res, i + 1, arr.length - i);
+        return res;
+    }
+
+    private static char[] removeAt(char[] arr, int i) {
+        char[] res = new char[arr.length - 1];
+        System.arraycopy(arr, 0, res, 0, i);
+        System.arraycopy(arr, i + 1, res, i, arr.length - i - 1);
+        return res;
+    }
+
+    private static Node[] insertAt(Node[] arr, int i, Node v) {
+        Node[] res = new Node[arr.length + 1];
+        System.arraycopy(arr, 0, res, 0, i);
+        res[i] = v;
+        System.arraycopy(arr, i, res, i + 1, arr.length - i);
+        return res;
+    }
+
+    private static Node[] removeAt(Node[] arr, int i) {
+        Node[] res = new Node[arr.length - 1];
+        System.arraycopy(arr, 0, res, 0, i);
+        System.arraycopy(arr, i + 1, res, i, arr.length - i - 1);
+        return res;
+    }
+
+    private static Node[] replaceAt(Node[] arr, int i, Node v) {
+        Node[] res = arr.clone();
+        res[i] = v;
+        return res;
+    }
+}
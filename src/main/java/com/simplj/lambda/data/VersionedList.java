@@ -0,0 +1,197 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread safe list over the versions of a persistent vector. Every update builds the next version and installs it by a CAS on the
+ * current version, retrying if another update won the race; hence the writers never block each other nor the readers.
+ * {@link #add(Object) add}, {@link #set(int, Object) set} and the removal of the last element copy only the
+ * <code>O(log<sub>32</sub> n)</code> nodes on the path to the updated position, whereas inserting or removing elsewhere rebuilds the
+ * version in <code>O(n)</code>.<br>
+ * A version is never modified once installed: the iteration visits the version current when it began (it is never affected by the
+ * later updates and does not support <code>remove</code>) and {@link #snapshot() snapshot} takes <code>O(1)</code>. The bulk updates
+ * ({@link #addAll(Collection) addAll}, {@link #removeIf(Predicate) removeIf}, {@link #replaceAll(UnaryOperator) replaceAll}, ...)
+ * are installed as a single version, i.e. atomically.<br>
+ * It can be used as the backing list of the jlx lists, e.g. <code>MList.unit(VersionedList::new)</code> (see {@link MList#versioned() MList.versioned}).
+ * @param <E> Type of the elements
+ */
+public final class VersionedList<E> extends AbstractList<E> implements RandomAccess {
+    private final AtomicReference<PersistentVector<E>> current = new AtomicReference<>(PersistentVector.empty());
+
+    public VersionedList() {
+    }
+
+    public VersionedList(Collection<? extends E> c) {
+        addAll(c);
+    }
+
+    /**
+     * @return unmodifiable list of the elements of the current version (not affected by the later updates)
+     */
+    public List<E> snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public E get(int index) {
+        return current.get().get(index);
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return current.get().iterator();
+    }
+
+    @Override
+    public boolean add(E e) {
+        PersistentVector<E> cur;
+        do {
+            cur = current.get();
+        } while (!current.compareAndSet(cur, cur.plus(e)));
+        return true;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        PersistentVector<E> cur;
+        do {
+            cur = current.get();
+        } while (!current.compareAndSet(cur, cur.with(index, element)));
+        return cur.get(index);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        PersistentVector<E> cur;
+        PersistentVector<E> next;
+        do {
+            cur = current.get();
+            if (index < 0 || index > cur.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + cur.size());
+            }
+            if (index == cur.size()) {
+                next = cur.plus(element);
+            } else {
+                List<E> l = new ArrayList<>(cur);
+                l.add(index, element);
+                next = PersistentVector.from(l);
+            }
+        } while (!current.compareAndSet(cur, next));
+    }
+
+    @Override
+    public E remove(int index) {
+        PersistentVector<E> cur;
+        PersistentVector<E> next;
+        do {
+            cur = current.get();
+            if (index < 0 || index >= cur.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + cur.size());
+            }
+            if (index == cur.size() - 1) {
+                next = cur.minusLast();
+            } else {
+                List<E> l = new ArrayList<>(cur);
+                l.remove(index);
+                next = PersistentVector.from(l);
+            }
+        } while (!current.compareAndSet(cur, next));
+        return cur.get(index);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        PersistentVector<E> cur;
+        PersistentVector<E> next;
+        do {
+            cur = current.get();
+            List<E> l = new ArrayList<>(cur);
+            if (!l.remove(o)) {
+                return false;
+            }
+            next = PersistentVector.from(l);
+        } while (!current.compareAndSet(cur, next));
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        PersistentVector<E> cur;
+        PersistentVector<E> next;
+        do {
+            cur = current.get();
+            next = cur;
+            for (E e : c) {
+                next = next.plus(e);
+            }
+        } while (!current.compareAndSet(cur, next));
+        return !c.isEmpty();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        PersistentVector<E> cur;
+        PersistentVector<E> next;
+        do {
+            cur = current.get();
+            next = PersistentVector.empty();
+            for (E e : cur) {
+                if (!filter.test(e)) {
+                    next = next.plus(e);
+                }
+            }
+            if (next.size() == cur.size()) {
+                return false;
+            }
+        } while (!current.compareAndSet(cur, next));
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return removeIf(e -> !c.contains(e));
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<E> operator) {
+        PersistentVector<E> cur;
+        PersistentVector<E> next;
+        do {
+            cur = current.get();
+            next = PersistentVector.empty();
+            for (E e : cur) {
+                next = next.plus(operator.apply(e));
+            }
+        } while (!current.compareAndSet(cur, next));
+    }
+
+    @Override
+    public void sort(Comparator<? super E> c) {
+        PersistentVector<E> cur;
+        PersistentVector<E> next;
+        do {
+            cur = current.get();
+            List<E> l = new ArrayList<>(cur);
+            l.sort(c);
+            next = PersistentVector.from(l);
+        } while (!current.compareAndSet(cur, next));
+    }
+
+    @Override
+    public void clear() {
+        current.set(PersistentVector.empty());
+    }
+}
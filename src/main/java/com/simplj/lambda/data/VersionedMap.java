@@ -0,0 +1,218 @@
+package com.simplj.lambda.data;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Thread safe hash map over the versions of a persistent hash trie. Every update builds the next version (copying only the
+ * <code>O(log<sub>32</sub> n)</code> nodes on the path to the updated key) and installs it by a CAS on the current version, retrying
+ * if another update won the race; hence the writers never block each other nor the readers.<br>
+ * A version is never modified once installed: the lookups read the current version, the iteration visits the version current when it
+ * began (it is never affected by the later updates) and {@link #snapshot() snapshot} takes <code>O(1)</code>. The bulk updates
+ * ({@link #putAll(Map) putAll}, {@link #replaceAll(BiFunction) replaceAll}) are installed as a single version, i.e. atomically.<br>
+ * It can be used as the backing map of the jlx maps, e.g. <code>MMap.unit(VersionedMap::new)</code> (see {@link MMap#versioned() MMap.versioned}).
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class VersionedMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private final AtomicReference<HashTrieMap<K, V>> current = new AtomicReference<>(HashTrieMap.empty());
+    private Set<Map.Entry<K, V>> entries;
+
+    public VersionedMap() {
+    }
+
+    public VersionedMap(Map<? extends K, ? extends V> m) {
+        putAll(m);
+    }
+
+    /**
+     * @return unmodifiable map of the entries of the current version (not affected by the later updates)
+     */
+    public Map<K, V> snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return current.get().containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        return current.get().get(key);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return current.get().getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        HashTrieMap<K, V> cur;
+        do {
+            cur = current.get();
+        } while (!install(cur, cur.plus(key, value)));
+        return cur.get(key);
+    }
+
+    @Override
+    public V remove(Object key) {
+        HashTrieMap<K, V> cur;
+        do {
+            cur = current.get();
+        } while (!install(cur, cur.minus(key)));
+        return cur.get(key);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        HashTrieMap<K, V> cur;
+        do {
+            cur = current.get();
+            if (cur.containsKey(key)) {
+                return cur.get(key);
+            }
+        } while (!install(cur, cur.plus(key, value)));
+        return null;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        HashTrieMap<K, V> cur;
+        do {
+            cur = current.get();
+            if (!cur.containsKey(key) || !Objects.equals(cur.get(key), value)) {
+                return false;
+            }
+        } while (!install(cur, cur.minus(key)));
+        return true;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        HashTrieMap<K, V> cur;
+        do {
+            cur = current.get();
+            if (!cur.containsKey(key) || !Objects.equals(cur.get(key), oldValue)) {
+                return false;
+            }
+        } while (!install(cur, cur.plus(key, newValue)));
+        return true;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        HashTrieMap<K, V> cur;
+        do {
+            cur = current.get();
+            if (!cur.containsKey(key)) {
+                return null;
+            }
+        } while (!install(cur, cur.plus(key, value)));
+        return cur.get(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        HashTrieMap<K, V> cur;
+        HashTrieMap<K, V> next;
+        do {
+            cur = current.get();
+            next = cur;
+            for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
+                next = next.plus(e.getKey(), e.getValue());
+            }
+        } while (!install(cur, next));
+    }
+
+    /**
+     * Replaces all the values atomically. Like the other updates, `function` may be re-applied (to the newer version) if a concurrent
+     * update is installed in the meantime.
+     */
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        HashTrieMap<K, V> cur;
+        HashTrieMap<K, V> next;
+        do {
+            cur = current.get();
+            next = cur;
+            for (Map.Entry<K, V> e : cur.entrySet()) {
+                next = next.plus(e.getKey(), function.apply(e.getKey(), e.getValue()));
+            }
+        } while (!install(cur, next));
+    }
+
+    @Override
+    public void clear() {
+        current.set(HashTrieMap.empty());
+    }
+
+    /**
+     * The iteration visits the entries of the version current when it began; {@link Map.Entry#setValue(Object) setValue} and
+     * {@link Iterator#remove() remove} update the current version.
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entries == null) {
+            entries = new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    Iterator<Map.Entry<K, V>> itr = current.get().entrySet().iterator();
+                    return new Iterator<Map.Entry<K, V>>() {
+                        private Map.Entry<K, V> last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return itr.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            Map.Entry<K, V> e = itr.next();
+                            last = e;
+                            return new AbstractMap.SimpleEntry<K, V>(e) {
+                                @Override
+                                public V setValue(V value) {
+                                    put(getKey(), value);
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last == null) {
+                                throw new IllegalStateException();
+                            }
+                            VersionedMap.this.remove(last.getKey());
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return VersionedMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    VersionedMap.this.clear();
+                }
+            };
+        }
+        return entries;
+    }
+
+    private boolean install(HashTrieMap<K, V> cur, HashTrieMap<K, V> next) {
+        return next == cur || current.compareAndSet(cur, next);
+    }
+}
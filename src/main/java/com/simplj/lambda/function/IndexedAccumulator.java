@@ -0,0 +1,15 @@
+package com.simplj.lambda.function;
+
+/**
+ * Accumulates an element along with its (unboxed) index into a result. Used for index aware folds.
+ * @param <R> Type of the accumulated result
+ * @param <A> Type of the element
+ */
+@FunctionalInterface
+public interface IndexedAccumulator<R, A> {
+    R apply(R acc, int idx, A inp);
+
+    static <T, R> IndexedAccumulator<R, T> of(IndexedAccumulator<R, T> f) {
+        return f;
+    }
+}
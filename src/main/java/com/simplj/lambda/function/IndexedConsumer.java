@@ -0,0 +1,14 @@
+package com.simplj.lambda.function;
+
+/**
+ * Consumes an element along with its (unboxed) index.
+ * @param <A> Type of the element
+ */
+@FunctionalInterface
+public interface IndexedConsumer<A> {
+    void consume(int idx, A inp);
+
+    static <T> IndexedConsumer<T> of(IndexedConsumer<T> f) {
+        return f;
+    }
+}
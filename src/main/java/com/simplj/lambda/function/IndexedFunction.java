@@ -0,0 +1,19 @@
+package com.simplj.lambda.function;
+
+/**
+ * Applies a function to an element along with its (unboxed) index.
+ * @param <A> Type of the element
+ * @param <R> Type of the result
+ */
+@FunctionalInterface
+public interface IndexedFunction<A, R> {
+    R apply(int idx, A inp);
+
+    default <T> IndexedFunction<A, T> andThen(Function<R, T> after) {
+        return (i, a) -> after.apply(apply(i, a));
+    }
+
+    static <T, R> IndexedFunction<T, R> of(IndexedFunction<T, R> f) {
+        return f;
+    }
+}
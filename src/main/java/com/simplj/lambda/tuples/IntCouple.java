@@ -0,0 +1,57 @@
+package com.simplj.lambda.tuples;
+
+import java.util.Objects;
+
+/**
+ * A couple whose first element is an unboxed <code>int</code> (such as an index) and the second element is of type `B`.
+ * @param <B> Type of the second element
+ */
+public final class IntCouple<B> {
+    private final int first;
+    private final B second;
+
+    IntCouple(int first, B second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public final int first() {
+        return first;
+    }
+
+    public final B second() {
+        return second;
+    }
+
+    public final IntCouple<B> modifyFirst(int newVal) {
+        return new IntCouple<>(newVal, second);
+    }
+
+    public final <V> IntCouple<V> modifySecond(V newVal) {
+        return new IntCouple<>(first, newVal);
+    }
+
+    public Couple<Integer, B> boxed() {
+        return Tuple.of(first, second);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        IntCouple<?> that = (IntCouple<?>) o;
+
+        return this.first == that.first && Objects.equals(this.second, that.second);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * first + (second == null ? 0 : second.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "(" + first + ", " + second + ')';
+    }
+}
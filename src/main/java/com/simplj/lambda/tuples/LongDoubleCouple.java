@@ -0,0 +1,54 @@
+package com.simplj.lambda.tuples;
+
+/**
+ * A couple of an unboxed <code>long</code> and an unboxed <code>double</code> (such as a timestamp and a measurement).
+ */
+public final class LongDoubleCouple {
+    private final long first;
+    private final double second;
+
+    LongDoubleCouple(long first, double second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public final long first() {
+        return first;
+    }
+
+    public final double second() {
+        return second;
+    }
+
+    public final LongDoubleCouple modifyFirst(long newVal) {
+        return new LongDoubleCouple(newVal, second);
+    }
+
+    public final LongDoubleCouple modifySecond(double newVal) {
+        return new LongDoubleCouple(first, newVal);
+    }
+
+    public Couple<Long, Double> boxed() {
+        return Tuple.of(first, second);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        LongDoubleCouple that = (LongDoubleCouple) o;
+
+        return this.first == that.first && Double.compare(this.second, that.second) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(first) + Double.hashCode(second);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + first + ", " + second + ')';
+    }
+}
@@ -1,6 +1,12 @@
 package com.simplj.lambda.tuples;
 
 public final class Tuple {
+    public static <B> IntCouple<B> ofInt(int first, B second) {
+        return new IntCouple<>(first, second);
+    }
+    public static LongDoubleCouple ofLongDouble(long first, double second) {
+        return new LongDoubleCouple(first, second);
+    }
     public static <A, B> Couple<A, B> of(A first, B second) {
         return new Couple<>(first, second);
     }
@@ -0,0 +1,94 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class TestAppendList {
+    @Test
+    public void testConcurrentAppends() throws Exception {
+        MList<Long> events = MList.concurrent();
+        int threads = 8;
+        int perThread = 20000;
+        CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        ExecutorService exec = Executors.newFixedThreadPool(threads + 1);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = (long) t << 32;
+            fs.add(exec.submit(() -> {
+                barrier.await();
+                for (int i = 0; i < perThread; i++) {
+                    events.add(base + i);
+                }
+                return null;
+            }));
+        }
+        Future<Integer> reader = exec.submit(() -> {
+            barrier.await();
+            int checks = 0;
+            while (events.size() < threads * perThread) {
+                IList<Long> snap = events.snapshot();
+                int n = snap.size();
+                int seen = 0;
+                for (Long e : snap) {
+                    assertNotNull(e);
+                    seen++;
+                }
+                assertEquals(n, seen);
+                checks++;
+            }
+            return checks;
+        });
+        for (Future<?> f : fs) {
+            f.get();
+        }
+        assertTrue(reader.get() >= 0);
+        exec.shutdown();
+
+        assertEquals(threads * perThread, events.size());
+        long[] next = new long[threads];
+        for (Long e : events) {
+            int t = (int) (e >>> 32);
+            assertEquals(next[t]++, e & 0xFFFFFFFFL);
+        }
+        assertEquals(threads * perThread, new HashSet<>(events.list()).size());
+    }
+
+    @Test
+    public void testSnapshotAndAppendOnly() {
+        MList<String> l = MList.concurrent();
+        l.add("a");
+        l.add(null);
+        IList<String> snap = l.snapshot();
+        l.add("c");
+        assertEquals(Arrays.asList("a", null), snap.list());
+        assertEquals(Arrays.asList("a", null, "c"), l.list());
+        assertEquals(Arrays.asList("A", "C"), l.filter(Objects::nonNull).map(String::toUpperCase).list());
+        assertTrue(l.filter(Objects::nonNull).list() instanceof AppendList);
+        assertEquals(Arrays.asList("a", null, "z"), snap.append("z").list());
+        assertEquals(2, snap.size());
+        try {
+            l.remove(0);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        AppendList<Integer> big = new AppendList<>();
+        for (int i = 0; i < 10000; i++) {
+            big.add(i);
+        }
+        assertEquals(Integer.valueOf(9999), big.get(9999));
+        assertEquals(Integer.valueOf(32), big.get(32));
+        try {
+            big.get(10000);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        MList<Integer> copy = MList.of(new ArrayList<>(Arrays.asList(1, 2)), ArrayList::new);
+        IList<Integer> s = copy.snapshot();
+        copy.add(3);
+        assertEquals(Arrays.asList(1, 2), s.list());
+    }
+}
@@ -0,0 +1,92 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestBloomSet {
+    @Test
+    public void testNoFalseNegativesAndFalsePositiveRate() {
+        int n = 200000;
+        BloomSet<String> set = BloomSet.create(n, 0.01);
+        for (int i = 0; i < n; i++) {
+            set.include("key-" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            assertTrue(set.contains("key-" + i));
+        }
+        int fp = 0;
+        for (int i = n; i < 3 * n; i++) {
+            if (set.contains("key-" + i)) {
+                fp++;
+            }
+        }
+        assertTrue("false positive rate " + fp / (2.0 * n), fp < 2 * n * 0.015);
+        assertTrue(set.bitSize() < n * 12L);
+        assertEquals(n, set.approximateSize(), n * 0.05);
+        assertEquals(6, set.hashes());
+
+        BloomSet<Long> longs = BloomSet.create(n, 0.05);
+        for (long i = 0; i < n; i++) {
+            longs.include(i << 32);
+        }
+        for (long i = 0; i < n; i++) {
+            assertTrue(longs.contains(i << 32));
+        }
+        int lfp = 0;
+        for (long i = n; i < 3 * n; i++) {
+            if (longs.contains(i << 32)) {
+                lfp++;
+            }
+        }
+        assertTrue("false positive rate " + lfp / (2.0 * n), lfp < 2 * n * 0.07);
+    }
+
+    @Test
+    public void testLowFalsePositiveRate() {
+        int n = 200000;
+        BloomSet<String> set = BloomSet.create(n, 0.001);
+        for (int i = 0; i < n; i++) {
+            set.include("key-" + i);
+        }
+        int fp = 0;
+        int probes = 2000000;
+        for (int i = 0; i < probes; i++) {
+            if (set.contains("other-" + i)) {
+                fp++;
+            }
+        }
+        assertTrue("false positive rate " + (double) fp / probes, fp < probes * 0.0012);
+        assertTrue(BloomSet.blockedFpp((double) set.bitSize() / n, set.hashes()) <= 0.001);
+    }
+
+    @Test
+    public void testFromAndUnion() {
+        IList<Integer> evens = IList.of(new ArrayList<>(Arrays.asList(0, 2, 4, 6, 8)), ArrayList::new).map(x -> x * 100);
+        BloomSet<Integer> a = BloomSet.from(evens, 0.001);
+        BloomSet<Integer> b = BloomSet.<Integer>create(5, 0.001).includeAll(Arrays.asList(100, 300, 500, 700, 900));
+        BloomSet<Integer> u = a.union(b);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(u.contains(i * 100));
+        }
+        assertFalse(a.contains(100) && a.contains(300) && a.contains(500));
+        assertTrue(BloomSet.from(ISet.of("x", "y"), 0.01).contains("y"));
+        Iterable<String> lazy = () -> Arrays.asList("p", "q").iterator();
+        assertTrue(BloomSet.from(lazy, 0.01).contains("q"));
+        assertTrue(BloomSet.create(100, 0.1).isEmpty());
+        try {
+            a.union(BloomSet.create(1000, 0.001));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().startsWith("Cannot unite"));
+        }
+        try {
+            BloomSet.create(10, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().startsWith("False positive probability"));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class TestBulkOps {
+    @Test
+    public void testListAlgebra() {
+        IList<Integer> list = IList.of(1, 2, 3, 2, 4, 5, 6, 7, 8, 9, 10);
+        assertTrue(list.hasAll(Arrays.asList(10, 9, 8, 7, 6, 5, 4, 3, 2, 1)));
+        assertFalse(list.hasAll(Arrays.asList(10, 9, 8, 7, 6, 5, 4, 3, 2, 11)));
+        assertTrue(list.containsAll(Arrays.asList(2, 4)));
+        assertEquals(Arrays.asList(1, 3, 2, 4, 5, 6, 7, 8, 9, 10), list.delete(Arrays.asList(2, 11)).list());
+        assertEquals(Arrays.asList(2, 2, 4), list.preserve(Arrays.asList(2, 4)).list());
+        assertEquals(Arrays.asList(2, 2, 4), list.intersect(IList.of(4, 2)).list());
+        assertEquals(Arrays.asList(1, 3, 5, 6, 7, 8, 9, 10), list.minus(ISet.of(2, 4)).list());
+        assertEquals(Arrays.asList(1, 2, 3, 2, 4, 5, 6, 7, 8, 9, 10, 11, 12), list.union(Arrays.asList(1, 11, 12, 11)).list());
+        assertEquals(Arrays.asList(1, 2), MList.of(1, 2, 3).preserve(Arrays.asList(1, 2)));
+    }
+
+    @Test
+    public void testEncodedAlgebra() {
+        IList<String> colors = IList.encoded(Arrays.asList("red", "green", "blue", "green"));
+        assertTrue(IList.of("green", "red").hasAll(colors.filter(s -> !s.equals("blue"))));
+        assertTrue(colors.hasAll(IList.encoded(Arrays.asList("blue", "red"))));
+        assertEquals(Arrays.asList("green", "green"), colors.preserve(Arrays.asList("green", "black")).list());
+    }
+
+    @Test
+    public void testSetAndArrayAlgebra() {
+        ISet<Integer> set = ISet.of(1, 2, 3);
+        assertEquals(Util.asSet(1, 2, 3, 4), set.union(Arrays.asList(3, 4)).set());
+        assertEquals(Util.asSet(2, 3), set.intersect(Arrays.asList(2, 3, 4)).set());
+        assertEquals(Util.asSet(1), set.minus(Arrays.asList(2, 3, 4)).set());
+        assertTrue(ISet.of(new TreeSet<>(Arrays.asList(1, 2, 3, 4))).hasAll(new TreeSet<>(Arrays.asList(2, 4))));
+        assertFalse(ISet.of(new TreeSet<>(Arrays.asList(1, 2, 3, 4))).hasAll(new TreeSet<>(Arrays.asList(2, 5))));
+
+        IArray<Integer> arr = IArray.of(1, 2, 3);
+        assertTrue(arr.containsAll());
+        assertTrue(arr.containsAll(3, 1));
+        assertFalse(arr.containsAll(3, 4));
+        assertArrayEquals(new Integer[] {1, 2, 3, 4}, arr.union(Arrays.asList(2, 4)).array());
+        assertArrayEquals(new Integer[] {2}, arr.intersect(Arrays.asList(2, 4)).array());
+        assertArrayEquals(new Integer[] {1, 3}, arr.minus(Arrays.asList(2, 4)).array());
+    }
+}
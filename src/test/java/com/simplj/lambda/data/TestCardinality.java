@@ -0,0 +1,105 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Couple;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TestCardinality {
+    @Test
+    public void testHyperLogLog() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 300000; i++) {
+            ids.add((i * 31) % 100000);
+        }
+        IList<Integer> list = IList.of(ids, ArrayList::new);
+        assertEquals(100000, list.countDistinctApprox(), 100000 * 0.03);
+        assertEquals(50000, list.filter(x -> x % 2 == 0).map(x -> "u" + x).countDistinctApprox(), 50000 * 0.03);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        long par = pool.submit(() -> list.map(x -> "u" + x).countDistinctApproxParallel()).get();
+        pool.shutdown();
+        assertEquals(100000, par, 100000 * 0.03);
+        assertEquals(list.map(x -> "u" + x).countDistinctApprox(), par);
+        assertEquals(3, IArray.of(1, 2, 3, 2, 1).countDistinctApprox());
+        assertEquals(0, IList.none().countDistinctApproxParallel());
+
+        HyperLogLog a = HyperLogLog.create(10).addAll(Arrays.asList("x", "y"));
+        HyperLogLog b = HyperLogLog.create(10).addAll(Arrays.asList("y", "z"));
+        assertEquals(3, a.merge(b).estimate());
+        try {
+            a.merge(HyperLogLog.create());
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().startsWith("Cannot merge"));
+        }
+        SlidingWindow<String> w = SlidingWindow.of(4);
+        for (String s : Arrays.asList("a", "b", "a", "c", "c", "c")) {
+            w.add(s);
+        }
+        assertEquals(2, w.countDistinctApprox());
+    }
+
+    @Test
+    public void testWideKeysDoNotCollideOnHashCode() {
+        HyperLogLog uuids = HyperLogLog.create();
+        HyperLogLog doubles = HyperLogLog.create();
+        for (long i = 1; i <= 20000; i++) {
+            UUID u = new UUID(i, i);
+            double d = Double.longBitsToDouble((i << 32) | i);
+            assertEquals(0, u.hashCode());
+            assertEquals(0, Double.hashCode(d));
+            uuids.add(u);
+            doubles.add(d);
+        }
+        assertEquals(20000, uuids.estimate(), 20000 * 0.03);
+        assertEquals(20000, doubles.estimate(), 20000 * 0.03);
+    }
+
+    @Test
+    public void testHeavyHittersAndCountMin() throws Exception {
+        Random r = new Random(46);
+        List<String> talkers = new ArrayList<>();
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int z = (int) Math.floor(Math.pow(r.nextDouble(), 3) * 5000);
+            String t = "h" + z;
+            talkers.add(t);
+            exact.merge(t, 1L, Long::sum);
+        }
+        List<String> top5 = exact.entrySet().stream().sorted((x, y) -> Long.compare(y.getValue(), x.getValue()))
+                .limit(5).map(Map.Entry::getKey).collect(Collectors.toList());
+
+        IList<String> list = IList.of(talkers, ArrayList::new);
+        SpaceSaving<String> seq = list.heavyHitters(200);
+        assertEquals(100000, seq.total());
+        assertEquals(200, seq.size());
+        assertEquals(top5, seq.top(5).map(Couple::first).list());
+        for (Couple<String, Long> c : seq.top(5)) {
+            assertTrue(c.second() >= exact.get(c.first()));
+            assertTrue(c.second() - seq.error(c.first()) <= exact.get(c.first()));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        SpaceSaving<String> par = pool.submit(() -> IArray.of(talkers.toArray(new String[0])).heavyHittersParallel(200)).get();
+        pool.shutdown();
+        assertEquals(100000, par.total());
+        assertEquals(new HashSet<>(top5), new HashSet<>(par.top(5).map(Couple::first).list()));
+
+        CountMinSketch cms = CountMinSketch.create(0.001, 0.01);
+        CountMinSketch other = CountMinSketch.create(0.001, 0.01);
+        for (int i = 0; i < talkers.size(); i++) {
+            (i % 2 == 0 ? cms : other).add(talkers.get(i));
+        }
+        cms.merge(other);
+        assertEquals(100000, cms.total());
+        for (Map.Entry<String, Long> e : exact.entrySet()) {
+            long est = cms.estimate(e.getKey());
+            assertTrue(est >= e.getValue());
+            assertTrue(est <= e.getValue() + 100000 * 0.001 * 3);
+        }
+        assertEquals(0, cms.estimate("never"), 300);
+    }
+}
@@ -0,0 +1,65 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestCompactMap {
+    @Test
+    public void testAgainstLinkedHashMap() {
+        Random r = new Random(5);
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        CompactMap<Integer, Integer> map = new CompactMap<>();
+        for (int i = 0; i < 50000; i++) {
+            Integer k = r.nextInt(2000) - 1000;
+            switch (r.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.remove(k), map.remove(k));
+                    break;
+                case 1:
+                    assertEquals(expected.get(k), map.get(k));
+                    break;
+                default:
+                    assertEquals(expected.put(k, i), map.put(k, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        map.put(null, -1);
+        assertEquals(Integer.valueOf(-1), map.get(null));
+        assertTrue(map.containsKey(null));
+        map.entrySet().removeIf(e -> e.getKey() == null || e.getKey() % 2 == 0);
+        expected.entrySet().removeIf(e -> e.getKey() % 2 == 0);
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void testProbeLengths() {
+        CompactMap<Integer, Integer> map = new CompactMap<>();
+        for (int i = 0; i < 100000; i++) {
+            map.put(i * 64, i);
+        }
+        int max = 0;
+        for (int i = 0; i < 100000; i++) {
+            max = Math.max(max, map.probes(i * 64));
+        }
+        assertTrue("max probe length: " + max, max < 64);
+    }
+
+    @Test
+    public void testAsBackingMap() {
+        MMap<String, Integer> m = MMap.unit(CompactMap::new);
+        m.put("c", 3);
+        m.put("a", 1);
+        m.put("b", 2);
+        assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<>(m.keySet()));
+        assertEquals(Integer.valueOf(6), m.fold(0, (acc, k, v) -> acc + v));
+        m.replaceAll((k, v) -> v * 10);
+        IMap<String, Integer> i = IMap.of(m.map(), CompactMap::new).filterByValue(v -> v > 10).include("d", 40);
+        assertEquals(Arrays.asList("c", "b", "d"), new ArrayList<>(i.keySet()));
+        assertEquals(Integer.valueOf(30), m.get("c"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestConcurrentMap {
+    @Test
+    public void testAtomicUpdates() throws Exception {
+        MMap<String, Integer> counts = MMap.concurrent();
+        assertTrue(counts.map() instanceof ConcurrentHashMap);
+        ExecutorService exec = Executors.newFixedThreadPool(8);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            fs.add(exec.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    counts.merge("k" + i % 10, 1, Integer::sum);
+                    counts.computeIfAbsent("first" + i % 3, k -> 0);
+                    counts.putIfAbsent("once", i);
+                    assertTrue(counts.fold(0, (r, k, v) -> r + 1) <= 14);
+                }
+            }));
+        }
+        for (Future<?> f : fs) {
+            f.get();
+        }
+        exec.shutdown();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(8000), counts.get("k" + i));
+        }
+        assertEquals(14, counts.size());
+        assertEquals(80000, (int) counts.filterByKey(k -> k.startsWith("k")).fold(0, (r, k, v) -> r + v));
+    }
+
+    @Test
+    public void testLazyApplicationOnce() throws Exception {
+        MMap<Integer, Integer> src = MMap.concurrent();
+        for (int i = 0; i < 1000; i++) {
+            src.put(i, i);
+        }
+        AtomicInteger calls = new AtomicInteger();
+        MMap<Integer, Integer> lazy = src.mapV(v -> {
+            calls.incrementAndGet();
+            return v * 2;
+        });
+        assertFalse(lazy.isApplied());
+        int threads = 8;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> fs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int key = t;
+            fs.add(exec.submit(() -> {
+                barrier.await();
+                lazy.merge(key, 1, Integer::sum);
+                return lazy.get(999);
+            }));
+        }
+        for (Future<Integer> f : fs) {
+            assertEquals(Integer.valueOf(1998), f.get());
+        }
+        exec.shutdown();
+        assertEquals(1000, calls.get());
+        for (int t = 0; t < threads; t++) {
+            assertEquals(Integer.valueOf(t * 2 + 1), lazy.get(t));
+        }
+        assertTrue(lazy.map() instanceof ConcurrentHashMap);
+    }
+}
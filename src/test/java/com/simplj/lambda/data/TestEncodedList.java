@@ -0,0 +1,77 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.TestUtil;
+import com.simplj.lambda.tuples.Couple;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestEncodedList {
+    private static final IList<String> COLORS = IList.encoded(Arrays.asList("red", "green", "red", "blue", "green", "red"));
+
+    @Test
+    public void testEncoded() {
+        assertEquals(6, COLORS.size());
+        assertEquals("blue", COLORS.get(3));
+        assertTrue(COLORS.contains("green"));
+        assertFalse(COLORS.contains("black"));
+        assertEquals(1, COLORS.indexOf("green"));
+        assertEquals(4, COLORS.lastIndexOf("green"));
+        assertEquals("[red, green, red, blue, green, red]", COLORS.toString());
+
+        TestUtil.testEqualsAndHashCode(COLORS, IList.of("red", "green", "red", "blue", "green", "red"));
+    }
+
+    @Test
+    public void testLazyFunctionsPerDistinctElement() {
+        AtomicInteger calls = new AtomicInteger();
+        IList<String> res = COLORS.filter(s -> {
+            calls.incrementAndGet();
+            return !s.equals("blue");
+        }).map(String::toUpperCase);
+        assertEquals(0, calls.get());
+        assertEquals(Arrays.asList("RED", "GREEN", "RED", "GREEN", "RED"), res.list());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testSplitAndFind() {
+        Couple<IList<String>, IList<String>> split = COLORS.split(s -> s.startsWith("r"));
+        assertEquals(Arrays.asList("red", "red", "red"), split.first().list());
+        assertEquals(Arrays.asList("green", "blue", "green"), split.second().list());
+        assertEquals("blue", COLORS.find(s -> s.startsWith("b")));
+        assertNull(COLORS.find(s -> s.startsWith("x")));
+    }
+
+    @Test
+    public void testSortedAndUpdates() {
+        assertEquals(Arrays.asList("blue", "green", "green", "red", "red", "red"), COLORS.sorted(Comparator.naturalOrder()).list());
+        assertEquals(Arrays.asList("red", "red", "red", "green", "blue", "green"), COLORS.sorted(Comparator.comparing(s -> s.startsWith("r") ? 0 : 1)).list());
+        assertEquals(7, COLORS.append("black").size());
+        assertEquals(6, COLORS.size());
+        assertEquals(Arrays.asList("green", "blue", "green"), COLORS.deleteIf("red"::equals).list());
+        assertEquals(Arrays.asList("r", "e", "d"), COLORS.take(1).flatmap(s -> Arrays.asList(s.split(""))).list());
+        assertEquals(7, COLORS.mutable().append("white").size());
+    }
+
+    @Test
+    public void testFilteredResultsDropDictionaryValues() {
+        IList<String> withNull = IList.encoded(Arrays.asList("ab", null, "c", "ab"));
+        assertEquals(Arrays.asList(2, 1, 2), withNull.deleteIf(Objects::isNull).map(String::length).list());
+        assertEquals(Arrays.asList(2, 1, 2), withNull.split(Objects::nonNull).first().map(String::length).list());
+        assertEquals(Arrays.asList(2, 2), withNull.filter(Objects::nonNull).applied().filter(s -> s.length() > 1).map(String::length).list());
+
+        AtomicInteger calls = new AtomicInteger();
+        IList<Integer> kept = IList.encoded(Arrays.asList(1, 2, 3, 1, 2, 3)).filter(x -> x < 3).applied();
+        assertEquals(Arrays.asList(10, 20, 10, 20), kept.map(x -> {
+            calls.incrementAndGet();
+            return x * 10;
+        }).list());
+        assertEquals(2, calls.get());
+    }
+}
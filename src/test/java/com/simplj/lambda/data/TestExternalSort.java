@@ -0,0 +1,101 @@
+package com.simplj.lambda.data;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestExternalSort {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSpilledRuns() throws Exception {
+        File dir = tmp.newFolder();
+        Random r = new Random(41);
+        List<String> src = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            src.add(Integer.toString(r.nextInt(1 << 20), 36));
+        }
+        List<String> expected = new ArrayList<>(src);
+        Collections.sort(expected);
+
+        ExternalSort<String> sort = ExternalSort.of(ExternalSort.strings()).runSize(1500).tempDir(dir);
+        try (ExternalSort.Sorted<String> s = sort.sort(IList.of(src, ArrayList::new).map(x -> x))) {
+            assertEquals(14, s.runs());
+            assertEquals(14, Objects.requireNonNull(dir.list()).length);
+            assertEquals(expected, s.list().list());
+            assertEquals(expected, s.list().list());
+        }
+        assertEquals(0, Objects.requireNonNull(dir.list()).length);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        IList<String> par = pool.submit(() -> sort.parallel(true).sorted(src)).get();
+        pool.shutdown();
+        assertEquals(expected, par.list());
+        assertEquals(0, Objects.requireNonNull(dir.list()).length);
+    }
+
+    @Test
+    public void testStabilityAndSmallSources() throws Exception {
+        File dir = tmp.newFolder();
+        List<Long> src = new ArrayList<>();
+        for (long i = 0; i < 5000; i++) {
+            src.add((i * 7919) % 5000 * 1000 + i % 3);
+        }
+        Comparator<Long> byThousands = Comparator.comparingLong(x -> x / 1000 % 10);
+        List<Long> expected = new ArrayList<>(src);
+        expected.sort(byThousands);
+        assertEquals(expected, ExternalSort.of(ExternalSort.longs(), byThousands).runSize(333).tempDir(dir).sorted(src).list());
+
+        try (ExternalSort.Sorted<Integer> s = ExternalSort.of(ExternalSort.<Integer>serializable()).tempDir(dir).sort(Arrays.asList(3, 1, 2))) {
+            assertEquals(0, s.runs());
+            assertEquals(Arrays.asList(1, 2, 3), s.list().list());
+        }
+        ExternalSort.Sorted<Integer> empty = ExternalSort.of(ExternalSort.integers()).sort(Collections.emptyList());
+        assertFalse(empty.iterator().hasNext());
+        empty.close();
+        try {
+            empty.iterator();
+            fail();
+        } catch (IllegalStateException expectedFailure) {
+            assertEquals("Sorted result is closed!", expectedFailure.getMessage());
+        }
+        assertEquals(0, Objects.requireNonNull(dir.list()).length);
+    }
+
+    @Test
+    public void testFailedFinalSpillDeletesRuns() throws Exception {
+        File dir = tmp.newFolder();
+        ExternalSort.Serializer<Integer> failing = new ExternalSort.Serializer<Integer>() {
+            @Override
+            public void write(DataOutput out, Integer elem) throws IOException {
+                if (elem == -1) {
+                    throw new IOException("disk full");
+                }
+                out.writeInt(elem);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+        List<Integer> src = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            src.add(i);
+        }
+        src.add(-1);
+        assertThrows(UncheckedIOException.class, () -> ExternalSort.of(failing).runSize(100).tempDir(dir).sort(src));
+        assertEquals(0, Objects.requireNonNull(dir.list()).length);
+    }
+}
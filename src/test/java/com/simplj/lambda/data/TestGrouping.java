@@ -0,0 +1,61 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TestGrouping {
+    @Test
+    public void testAgainstCollectors() throws Exception {
+        Random r = new Random(17);
+        List<Integer> src = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            src.add(r.nextInt(5000));
+        }
+        IList<Integer> l = IList.of(src, ArrayList::new);
+        Map<Integer, List<Integer>> groups = src.stream().collect(Collectors.groupingBy(x -> x % 997, LinkedHashMap::new, Collectors.toList()));
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        Map<Integer, Long> sums = new LinkedHashMap<>();
+        groups.forEach((k, v) -> {
+            counts.put(k, v.size());
+            sums.put(k, v.stream().mapToLong(Integer::longValue).sum());
+        });
+
+        IMultiMap<Integer, Integer> seq = l.groupBy(x -> x % 997);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        IMultiMap<Integer, Integer> par = pool.submit(() -> l.groupByParallel(x -> x % 997)).get();
+        assertEquals(groups, seq.asMap().mapV(IList::list).map());
+        assertEquals(seq, par);
+        assertEquals(new ArrayList<>(groups.keySet()), new ArrayList<>(par.keySet()));
+
+        assertEquals(counts, l.countBy(x -> x % 997).map());
+        IMap<Integer, Integer> parCounts = pool.submit(() -> l.countByParallel(x -> x % 997)).get();
+        assertEquals(counts, parCounts.map());
+        assertEquals(new ArrayList<>(counts.keySet()), new ArrayList<>(parCounts.keySet()));
+
+        assertEquals(sums, l.groupBy(x -> x % 997, Aggregator.summingLong(Integer::longValue)).map());
+        assertEquals(sums, pool.submit(() -> l.groupByParallel(x -> x % 997, Aggregator.summingLong(Integer::longValue))).get().map());
+        IMap<Integer, IList<Integer>> lists = pool.submit(() -> l.groupByParallel(x -> x % 997, Aggregator.toList())).get();
+        pool.shutdown();
+        assertEquals(groups, lists.mapV(IList::list).map());
+    }
+
+    @Test
+    public void testSmallAndEmpty() {
+        IList<String> l = IList.of("apple", "avocado", "banana", "blueberry", "cherry", null);
+        IMultiMap<Character, String> byFirst = l.filter(Objects::nonNull).groupBy(s -> s.charAt(0));
+        assertEquals(Arrays.asList('a', 'b', 'c'), new ArrayList<>(byFirst.keySet()));
+        assertEquals(Arrays.asList("banana", "blueberry"), byFirst.get('b').list());
+        assertEquals(Integer.valueOf(2), l.countBy(s -> s == null ? null : s.length() > 6).get(true));
+        assertEquals(Integer.valueOf(1), l.countBy(s -> s == null ? null : s.length() > 6).get(null));
+        assertEquals("apple|avocado", l.filter(Objects::nonNull)
+                .groupBy(s -> s.charAt(0), Aggregator.folding("", (a, s) -> a.isEmpty() ? s : a + "|" + s, (a, b) -> a + "|" + b)).get('a'));
+        assertEquals(Long.valueOf(8), MList.of("x", "y").append(l.list()).groupBy(s -> 0, Aggregator.counting()).get(0));
+        assertTrue(IList.<String>none().groupByParallel(String::length).isEmpty());
+        assertTrue(IList.<String>none().countByParallel(String::length).isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestHeap {
+    @Test
+    public void testAgainstPriorityQueue() {
+        Random r = new Random(13);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        IHeap<Integer> ih = IHeap.unit();
+        MHeap<Integer> mh = MHeap.unit();
+        for (int i = 0; i < 20000; i++) {
+            if (r.nextInt(3) == 0) {
+                Integer e = expected.poll();
+                assertEquals(e, ih.peek());
+                assertEquals(e, mh.pop());
+                ih = ih.pop();
+            } else {
+                int v = r.nextInt(1000);
+                expected.add(v);
+                ih = ih.push(v);
+                mh.push(v);
+            }
+            assertEquals(expected.size(), ih.size());
+            assertEquals(expected.size(), mh.size());
+            assertEquals(expected.peek(), mh.peek());
+        }
+        List<Integer> sorted = new ArrayList<>(expected);
+        Collections.sort(sorted);
+        assertEquals(sorted, ih.list().list());
+        assertEquals(sorted, mh.immutable().list().list());
+        assertEquals(sorted, ih.mutable().drain(Integer.MAX_VALUE).list());
+        assertEquals(sorted.subList(0, 10), ih.take(10).list());
+    }
+
+    @Test
+    public void testPersistenceAndMeld() {
+        IHeap<String> h = IHeap.from(Arrays.asList("d", "b", "f"), Comparator.reverseOrder());
+        IHeap<String> pushed = h.push("z");
+        assertEquals("f", h.peek());
+        assertEquals("z", pushed.peek());
+        assertEquals(Arrays.asList("f", "d", "b"), h.list().list());
+        IHeap<String> melded = pushed.meld(IHeap.from(Arrays.asList("a", "e"), Comparator.reverseOrder()));
+        assertEquals(Arrays.asList("z", "f", "e", "d", "b", "a"), melded.list().list());
+        assertEquals(Arrays.asList("d", "b", "a"), melded.dropWhile(s -> s.compareTo("d") > 0).list().list());
+        assertEquals(4, pushed.size());
+        assertEquals(Arrays.asList("f", "e", "d", "b", "a"), melded.pop().list().list());
+
+        MHeap<Integer> a = MHeap.of(5, 1, 9);
+        MHeap<Integer> b = MHeap.from(Arrays.asList(7, 3, 0, 8));
+        assertSame(a, a.meld(b));
+        assertTrue(b.isEmpty());
+        assertEquals(Integer.valueOf(0), a.replaceTop(4));
+        assertEquals(Arrays.asList(1, 3, 4, 5, 7, 8, 9), a.drain(10).list());
+        assertNull(a.pop());
+
+        MHeap<Integer> self = MHeap.of(2, 1, 3);
+        assertThrows(IllegalArgumentException.class, () -> self.meld(self));
+        assertEquals(3, self.size());
+        assertTrue(IHeap.unit().pop().isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.function.Function;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestIndex {
+    @Test
+    public void testListIndex() {
+        IList<String> words = IList.of("apple", "avocado", "banana", "blueberry", "cherry", "apricot");
+        Function<String, Character> initial = s -> s.charAt(0);
+        Index<Character, String> idx = words.indexBy(initial);
+        assertSame(idx, words.indexBy(initial));
+        assertEquals(3, idx.size());
+        assertEquals(3, idx.count('a'));
+        assertEquals(0, idx.first('a'));
+        assertEquals(5, idx.last('a'));
+        assertArrayEquals(new int[] {2, 3}, idx.positions('b'));
+        assertEquals("cherry", idx.get('c'));
+        assertEquals(Arrays.asList("apple", "avocado", "apricot"), idx.all('a').list());
+        assertFalse(idx.contains('z'));
+        assertEquals(-1, idx.first('z'));
+        assertNull(idx.get('z'));
+    }
+
+    @Test
+    public void testIdentityIndex() {
+        IArray<Integer> arr = IArray.of(5, 3, 5, 1).map(n -> n * 2);
+        assertSame(arr.index(), arr.index());
+        assertTrue(arr.contains(6));
+        assertFalse(arr.contains(5));
+        assertEquals(0, arr.indexOf(10));
+        assertEquals(2, arr.lastIndexOf(10));
+
+        IList<Integer> list = IList.of(1, 2, 1);
+        list.index();
+        assertEquals(2, list.lastIndexOf(1));
+        assertEquals(-1, list.indexOf(3));
+        assertTrue(list.hasAll(Arrays.asList(1, 2)));
+    }
+
+    @Test
+    public void testImmutableDoesNotShareMutableStorage() {
+        MList<Integer> ml = MList.of(new ArrayList<>(Arrays.asList(1, 2, 3)));
+        IList<Integer> il = ml.immutable();
+        il.index();
+        ml.add(4);
+        assertEquals(Arrays.asList(1, 2, 3), il.list());
+        assertFalse(il.contains(4));
+        assertEquals(-1, il.indexOf(4));
+
+        MArray<Integer> ma = MArray.of(3, 1, 2);
+        IArray<Integer> ia = ma.immutable();
+        ia.index();
+        ma.sort(null);
+        assertEquals(1, ia.indexOf(1));
+        assertEquals(Integer.valueOf(1), ia.array()[ia.indexOf(1)]);
+        assertEquals(Integer.valueOf(1), ma.array()[0]);
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        IList<Integer> list = IList.of(1, 2, 3);
+        for (int i = 0; i < 2 * Index.Cache.MAX_CACHED; i++) {
+            int d = i;
+            Index<Integer, Integer> idx = list.indexBy(n -> n + d);
+            assertEquals(0, idx.first(1 + d));
+        }
+        Function<Integer, Integer> f = n -> n;
+        assertNotSame(list.indexBy(f), list.indexBy(f));
+        list.index();
+        assertSame(list.index(), list.index());
+        assertEquals(2, list.indexOf(3));
+    }
+}
@@ -0,0 +1,79 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.IntCouple;
+import com.simplj.lambda.tuples.LongDoubleCouple;
+import com.simplj.lambda.tuples.Tuple;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestIndexed {
+    @Test
+    public void testListIndexed() {
+        IList<String> unapplied = IList.of(1, 2, 3, 4).filter(n -> n % 2 == 0).map(n -> "v" + n);
+        assertFalse(unapplied.isApplied());
+        assertEquals(Arrays.asList(Tuple.of(0, "v2"), Tuple.of(1, "v4")), unapplied.indexed().list());
+        assertEquals(Arrays.asList("0:v2", "1:v4"), unapplied.mapIndexed((i, s) -> i + ":" + s).list());
+
+        MList<Integer> ml = MList.of(5, 6, 7).map(n -> n * 10);
+        assertEquals(Arrays.asList(Tuple.of(0, 50), Tuple.of(1, 60), Tuple.of(2, 70)), ml.indexed().list());
+        assertEquals(Arrays.asList(50, 61, 72), ml.mapIndexed((i, n) -> n + i).list());
+        assertTrue(IList.<Integer>of().indexed().isEmpty());
+    }
+
+    @Test
+    public void testArrayIndexed() {
+        IArray<Integer> unapplied = IArray.of(1, 2, 3, 4).filter(n -> n > 2).map(n -> n * 10);
+        assertFalse(unapplied.isApplied());
+        assertArrayEquals(new Object[] {Tuple.of(0, 30), Tuple.of(1, 40)}, unapplied.indexed().array());
+        assertArrayEquals(new Object[] {30, 41}, unapplied.mapIndexed((i, n) -> n + i).array());
+
+        MArray<Integer> ma = MArray.of(3, 2, 1).map(n -> -n);
+        assertFalse(ma.isApplied());
+        assertArrayEquals(new Object[] {Tuple.of(0, -3), Tuple.of(1, -2), Tuple.of(2, -1)}, ma.indexed().array());
+        assertArrayEquals(new Object[] {"0=-3", "1=-2", "2=-1"}, ma.mapIndexed((i, n) -> i + "=" + n).array());
+    }
+
+    @Test
+    public void testForEachAndFoldIndexed() {
+        List<Couple<Integer, String>> seen = new ArrayList<>();
+        IList.of("a", "b", "c").map(String::toUpperCase).forEachIndexed((i, s) -> seen.add(Tuple.of(i, s)));
+        assertEquals(Arrays.asList(Tuple.of(0, "A"), Tuple.of(1, "B"), Tuple.of(2, "C")), seen);
+
+        int[] weighted = {0};
+        IArray.of(1, 2, 3).map(n -> n * 2).forEachIndexed((i, n) -> weighted[0] += i * n);
+        assertEquals(16, weighted[0]);
+
+        assertEquals(Integer.valueOf(1 + 2 * 2 + 3 * 3), MList.of(1, 2, 3).foldIndexed(0, (acc, i, n) -> acc + (i + 1) * n));
+        assertEquals("a0b1", MArray.of(new String[] {"a", "b"}).foldIndexed("", (acc, i, s) -> acc + s + i));
+        assertEquals("x", IArray.<String>of(0).foldIndexed("x", (acc, i, s) -> acc + s));
+    }
+
+    @Test
+    public void testPrimitiveCouples() {
+        IntCouple<String> ic = Tuple.ofInt(3, "c");
+        assertEquals(3, ic.first());
+        assertEquals("c", ic.second());
+        assertEquals(Tuple.ofInt(3, "c"), ic);
+        assertEquals(Tuple.ofInt(3, "c").hashCode(), ic.hashCode());
+        assertNotEquals(Tuple.ofInt(4, "c"), ic);
+        assertEquals(Tuple.ofInt(4, "c"), ic.modifyFirst(4));
+        assertEquals(Tuple.ofInt(3, 1.5), ic.modifySecond(1.5));
+        assertEquals(Tuple.of(3, "c"), ic.boxed());
+        assertEquals("(3, c)", ic.toString());
+
+        LongDoubleCouple ld = Tuple.ofLongDouble(10L, 0.5);
+        assertEquals(10L, ld.first());
+        assertEquals(0.5, ld.second(), 0);
+        assertEquals(Tuple.ofLongDouble(10L, 0.5), ld);
+        assertNotEquals(Tuple.ofLongDouble(10L, 0.25), ld);
+        assertEquals(Tuple.ofLongDouble(11L, 0.5), ld.modifyFirst(11L));
+        assertEquals(Tuple.ofLongDouble(10L, 2.0), ld.modifySecond(2.0));
+        assertEquals(Tuple.of(10L, 0.5), ld.boxed());
+    }
+}
@@ -0,0 +1,101 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestJoin {
+    @Test
+    public void testHashAndMergeJoinsAgree() throws Exception {
+        Random r = new Random(42);
+        List<int[]> orders = new ArrayList<>();
+        List<int[]> items = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            orders.add(new int[]{r.nextInt(3000), i});
+            items.add(new int[]{r.nextInt(4000), -i});
+        }
+        List<String> expected = nestedLoop(orders, items);
+        IList<int[]> left = IList.of(orders, ArrayList::new);
+        assertEquals(expected, left.join(items, a -> a[0], b -> b[0], TestJoin::pair).list());
+
+        orders.sort(Comparator.comparingInt(a -> a[0]));
+        items.sort(Comparator.comparingInt(a -> a[0]));
+        IList<int[]> sortedLeft = IList.of(orders, ArrayList::new);
+        List<String> sortedExpected = nestedLoop(orders, items);
+        assertEquals(sortedExpected, sortedLeft.join(IList.of(items), a -> a[0], b -> b[0], TestJoin::pair).list());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        IList<String> par = pool.submit(() -> sortedLeft.joinParallel(items, a -> a[0], b -> b[0], TestJoin::pair)).get();
+        pool.shutdown();
+        assertEquals(sortedExpected, par.list());
+    }
+
+    @Test
+    public void testOuterSemiAndAnti() {
+        IList<String> names = IList.of(new ArrayList<>(Arrays.asList("ann", "bob", "cy", "dee", "al")), ArrayList::new);
+        List<Integer> lengths = Arrays.asList(3, 2, 3, 7);
+        assertEquals(Arrays.asList("ann:3", "ann:3", "bob:3", "bob:3", "cy:2", "dee:3", "dee:3", "al:2"),
+                names.join(lengths, String::length, n -> n, (s, n) -> s + ":" + n).list());
+        assertEquals(Arrays.asList("ann:a", "bob:null", "cy:null", "dee:null", "al:a"),
+                names.leftJoin(Collections.singleton('a'), s -> s.charAt(0), c -> c, (s, c) -> s + ":" + c).list());
+        assertEquals(Arrays.asList("ann", "bob", "dee"), names.semiJoin(lengths, String::length, n -> n - 0).filter(s -> s.length() == 3).list());
+        assertEquals(Arrays.asList("cy", "al"), names.antiJoin(Arrays.asList(3, 7), String::length, n -> n).list());
+        assertEquals(Arrays.asList("x:null"), IList.of("x").leftJoin(Collections.<String>emptyList(), s -> s, s -> s, (a, b) -> a + ":" + b).list());
+        assertTrue(IList.<String>none().join(lengths, String::length, n -> n, (s, n) -> s).isEmpty());
+    }
+
+    @Test
+    public void testMapJoin() {
+        IMap<String, Integer> ages = IMap.<String, Integer>of(new LinkedHashMap<>(), LinkedHashMap::new).include("ann", 31).include("bob", 42).include("cy", 7);
+        IMap<String, String> cities = IMap.<String, String>of(new HashMap<>(), HashMap::new).include("bob", "Oslo").include("cy", null).include("dee", "Rome");
+        IMap<String, Couple<Integer, String>> inner = ages.join(cities);
+        assertEquals(Arrays.asList("bob", "cy"), new ArrayList<>(inner.map().keySet()));
+        assertEquals(Tuple.of(42, "Oslo"), inner.map().get("bob"));
+        assertEquals(Tuple.of(7, null), inner.map().get("cy"));
+        IMap<String, Couple<Integer, String>> left = ages.leftJoin(cities);
+        assertEquals(Arrays.asList("ann", "bob", "cy"), new ArrayList<>(left.map().keySet()));
+        assertEquals(Tuple.of(31, null), left.map().get("ann"));
+    }
+
+    private static String pair(int[] a, int[] b) {
+        return a[1] + "-" + b[1];
+    }
+
+    private static List<String> nestedLoop(List<int[]> left, List<int[]> right) {
+        Map<Integer, List<int[]>> byKey = new HashMap<>();
+        for (int[] b : right) {
+            byKey.computeIfAbsent(b[0], k -> new ArrayList<>()).add(b);
+        }
+        List<String> res = new ArrayList<>();
+        for (int[] a : left) {
+            for (int[] b : byKey.getOrDefault(a[0], Collections.emptyList())) {
+                res.add(pair(a, b));
+            }
+        }
+        return res;
+    }
+
+    @Test
+    public void testKeysMatchByEqualsRegardlessOfOrder() {
+        assertTrue(IList.of(1, 2, 3).join(Arrays.asList(1L, 2L), x -> (Number) x, y -> (Number) y, Tuple::of).isEmpty());
+        assertTrue(IList.of(3, 1, 2).join(Arrays.asList(2L, 1L), x -> (Number) x, y -> (Number) y, Tuple::of).isEmpty());
+
+        List<BigDecimal> right = Arrays.asList(new BigDecimal("1.00"), new BigDecimal("1.0"), new BigDecimal("2"));
+        List<BigDecimal> reversed = new ArrayList<>(right);
+        Collections.reverse(reversed);
+        IList<BigDecimal> sorted = IList.of(new BigDecimal("1.0"), new BigDecimal("2"), new BigDecimal("3"));
+        IList<BigDecimal> unsorted = IList.of(new BigDecimal("3"), new BigDecimal("1.0"), new BigDecimal("2"));
+        List<Couple<BigDecimal, BigDecimal>> expected = Arrays.asList(
+                Tuple.of(new BigDecimal("1.0"), new BigDecimal("1.0")), Tuple.of(new BigDecimal("2"), new BigDecimal("2")));
+        assertEquals(expected, sorted.join(right, x -> x, y -> y, Tuple::of).list());
+        assertEquals(expected, sorted.join(reversed, x -> x, y -> y, Tuple::of).list());
+        assertEquals(3, unsorted.leftJoin(right, x -> x, y -> y, Tuple::of).size());
+        assertEquals(Tuple.of(new BigDecimal("3"), null), sorted.leftJoin(right, x -> x, y -> y, Tuple::of).list().get(2));
+    }
+}
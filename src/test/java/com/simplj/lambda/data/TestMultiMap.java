@@ -0,0 +1,79 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Tuple;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestMultiMap {
+    @Test
+    public void testAgainstMapOfLists() {
+        Random r = new Random(9);
+        Map<Integer, List<Integer>> expected = new LinkedHashMap<>();
+        IMultiMap.Builder<Integer, Integer> b = IMultiMap.builder();
+        MMultiMap<Integer, Integer> m = new MMultiMap<>();
+        for (int i = 0; i < 20000; i++) {
+            Integer k = r.nextInt(3000);
+            expected.computeIfAbsent(k, x -> new ArrayList<>()).add(i);
+            b.put(k, i);
+            m.put(k, i);
+        }
+        IMultiMap<Integer, Integer> im = b.build();
+        assertEquals(0, b.size());
+        assertEquals(20000, im.size());
+        assertEquals(expected.size(), im.keyCount());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(im.keySet()));
+        for (Map.Entry<Integer, List<Integer>> e : expected.entrySet()) {
+            assertEquals(e.getValue(), im.get(e.getKey()).list());
+            assertEquals(e.getValue(), m.get(e.getKey()));
+            assertEquals(e.getValue().size(), im.count(e.getKey()));
+        }
+        assertTrue(im.get(-1).isEmpty());
+        assertEquals(expected, im.asMap().mapV(IList::list).map());
+        assertEquals(im, m.immutable());
+        assertEquals(m, im.mutable());
+        List<Integer> all = new ArrayList<>();
+        im.forEach((k, v) -> all.add(v));
+        assertEquals(all, im.values().list());
+        int n = 0;
+        for (com.simplj.lambda.tuples.Couple<Integer, Integer> c : im) {
+            assertEquals(all.get(n++), c.second());
+            assertTrue(expected.get(c.first()).contains(c.second()));
+        }
+        assertEquals(20000, n);
+    }
+
+    @Test
+    public void testLazyAndUpdates() {
+        IMultiMap<String, Integer> im = IMultiMap.of(Tuple.of("a", 1), Tuple.of("b", 2), Tuple.of("a", 3), Tuple.of(null, 4));
+        assertEquals(Arrays.asList(1, 3), im.get("a").list());
+        assertEquals(Collections.singletonList(4), im.get(null).list());
+        IMultiMap<String, Integer> odd = im.filterByValue(v -> v % 2 == 1).mapV(v -> v * 10);
+        assertFalse(odd.isApplied());
+        assertEquals(Util.asSet("a"), odd.keySet());
+        assertEquals(Arrays.asList(10, 30), odd.get("a").list());
+        assertTrue(odd.isApplied());
+        IMultiMap<String, Integer> updated = im.include("b", 5).delete(null).include("c", Arrays.asList(6, 7));
+        assertEquals(Arrays.asList(2, 5), updated.get("b").list());
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(updated.keySet()));
+        assertEquals(4, im.size());
+        assertTrue(im.containsEntry(null, 4));
+        assertFalse(updated.containsKey(null));
+
+        MMultiMap<String, Integer> m = updated.mutable();
+        List<Integer> b = m.get("b");
+        m.put("b", 8);
+        assertEquals(Arrays.asList(2, 5, 8), b);
+        assertTrue(m.remove("b", 5));
+        assertFalse(m.remove("b", 5));
+        assertEquals(Arrays.asList(1, 3), m.removeAll("a").list());
+        m.retain((k, v) -> v != 2);
+        assertEquals(Arrays.asList("b", "c"), new ArrayList<>(m.keySet()));
+        assertEquals(3, m.size());
+        m.retain((k, v) -> !k.equals("b"));
+        assertEquals(IMultiMap.of(Tuple.of("c", 6), Tuple.of("c", 7)), m.immutable());
+        assertEquals(Arrays.asList(2, 5), updated.get("b").list());
+    }
+}
@@ -0,0 +1,49 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestParallelFold {
+    @Test
+    public void testAgainstSequential() throws Exception {
+        Random r = new Random(21);
+        Integer[] src = new Integer[200000];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = r.nextInt(1000000);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        IArray<Integer> ia = IArray.of(src);
+        IList<Integer> il = IList.of(Arrays.asList(src), ArrayList::new);
+        MList<Integer> ml = MList.of(new LinkedList<>(Arrays.asList(src)));
+        MArray<Integer> ma = MArray.of(src.clone());
+
+        long sum = Arrays.stream(src).mapToLong(Integer::longValue).sum();
+        assertEquals(Long.valueOf(sum), pool.submit(() -> ia.foldParallel(0L, (a, x) -> a + x, Long::sum)).get());
+        assertEquals(Long.valueOf(sum), pool.submit(() -> il.foldParallel(0L, (a, x) -> a + x, Long::sum)).get());
+        assertEquals(Long.valueOf(sum), pool.submit(() -> ml.foldParallel(0L, (a, x) -> a + x, Long::sum)).get());
+        assertEquals(Long.valueOf(sum), pool.submit(() -> ma.foldParallel(0L, (a, x) -> a + x, Long::sum)).get());
+
+        IList<Integer> staged = il.filter(x -> x % 3 == 0).map(x -> x / 3).flatmap(x -> Arrays.asList(x, -x));
+        assertFalse(staged.isApplied());
+        assertEquals(staged.reduceL(Math::max), pool.submit(() -> staged.reduceParallel(Math::max)).get());
+        IArray<Integer> stagedArr = ia.filter(x -> x % 5 == 0).map(x -> x % 1000);
+        assertEquals(stagedArr.foldl(0L, (a, x) -> a + x), pool.submit(() -> stagedArr.foldParallel(0L, (a, x) -> a + x, Long::sum)).get());
+        MList<String> digits = MList.of(new LinkedList<>(Arrays.asList(src).subList(0, 5000))).map(x -> String.valueOf(x % 10));
+        assertEquals(digits.reduceL(String::concat), pool.submit(() -> digits.reduceParallel(String::concat)).get());
+        assertEquals(ma.map(x -> x % 7).reduceL(Math::min), pool.submit(() -> ma.map(x -> x % 7).reduceParallel(Math::min)).get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSmallAndEmpty() {
+        assertNull(IList.<Integer>none().reduceParallel(Integer::sum));
+        assertNull(IList.of(1, 2, 3).filter(x -> x > 3).reduceParallel(Integer::sum));
+        assertEquals(Integer.valueOf(6), IArray.of(1, 2, 3).reduceParallel(Integer::sum));
+        assertEquals("abc", MList.of("a", "b", "c").foldParallel("", String::concat, String::concat));
+        assertEquals(Integer.valueOf(0), MArray.of(new Integer[0]).foldParallel(0, Integer::sum, Integer::sum));
+    }
+}
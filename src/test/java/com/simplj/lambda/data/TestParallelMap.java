@@ -0,0 +1,101 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Couple;
+import com.simplj.lambda.tuples.Tuple;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TestParallelMap {
+    private static final int N = 50000;
+
+    @Test
+    public void testBulkOpsMatchSequential() throws Exception {
+        Map<Integer, Integer> src = new HashMap<>();
+        for (int i = 0; i < N; i++) {
+            src.put(i, i * 3);
+        }
+        IMap<Integer, Integer> im = IMap.of(src, HashMap::new);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            IMap<Integer, Integer> replaced = pool.submit(() -> im.replacingAllParallel((k, v) -> k + v)).get();
+            assertEquals(im.replacingAll((k, v) -> k + v), replaced);
+            assertEquals(Integer.valueOf(3), im.get(1));
+
+            long sum = pool.submit(() -> im.foldParallel(0L, (r, k, v) -> r + v, Long::sum)).get();
+            assertEquals(im.fold(0L, (r, k, v) -> r + v), Long.valueOf(sum));
+
+            Couple<IMap<Integer, Integer>, IMap<Integer, Integer>> split = pool.submit(() -> im.splitParallel((k, v) -> k % 3 == 0)).get();
+            assertEquals(im.split((k, v) -> k % 3 == 0), split);
+
+            IMap<String, Integer> lazy = im.filter((k, v) -> k % 2 == 0).map((k, v) -> Tuple.of("k" + k / 4, v));
+            IMap<String, Integer> par = pool.submit(lazy::appliedParallel).get();
+            assertTrue(par.isApplied());
+            assertEquals(lazy.applied(), par);
+
+            MMap<Integer, Integer> mm = MMap.of(new LinkedHashMap<>(src), LinkedHashMap::new);
+            MMap<Integer, Integer> lazyM = mm.filter((k, v) -> k % 5 == 0);
+            assertSame(lazyM, pool.submit(lazyM::appliedParallel).get());
+            assertEquals(N / 5, lazyM.size());
+            List<Integer> order = new ArrayList<>(lazyM.keySet());
+            for (int i = 0; i < order.size(); i++) {
+                assertEquals(Integer.valueOf(i * 5), order.get(i));
+            }
+            pool.submit(() -> mm.replaceAllParallel((k, v) -> -v)).get();
+            assertEquals(Integer.valueOf(-30), mm.get(10));
+            MMap<Integer, Integer> cm = MMap.of(new CompactMap<>(src), CompactMap::new);
+            assertSame(cm, pool.submit(() -> cm.replacingAllParallel((k, v) -> v * 2)).get());
+            assertEquals(Integer.valueOf(12), cm.get(2));
+        } finally {
+            pool.shutdown();
+        }
+        ITrieMap<Integer> trie = IMap.trie(Tuple.of("ab", 1), Tuple.of("ac", 2));
+        assertEquals(Integer.valueOf(20), trie.replacingAllParallel((k, v) -> v * 10).get("ac"));
+        assertEquals(Integer.valueOf(0), IMap.<Integer, Integer>unit().foldParallel(0, (r, k, v) -> r + v, Integer::sum));
+    }
+
+    @Test
+    public void testReplaceAllParallelWritesThroughTheMap() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MMap<TimeUnit, Integer> em = MMap.of(new EnumMap<>(TimeUnit.class), () -> new EnumMap<>(TimeUnit.class));
+            for (TimeUnit u : TimeUnit.values()) {
+                em.put(u, u.ordinal());
+            }
+            pool.submit(() -> em.replaceAllParallel((k, v) -> v * 10)).get();
+            assertEquals(Integer.valueOf(60), em.get(TimeUnit.DAYS));
+
+            MMap<String, Integer> ihm = MMap.of(new IdentityHashMap<>(), IdentityHashMap::new);
+            ihm.put("a", 1);
+            ihm.put("b", 2);
+            assertSame(ihm, pool.submit(() -> ihm.replacingAllParallel((k, v) -> -v)).get());
+            assertEquals(Integer.valueOf(-2), ihm.get("b"));
+
+            MMap<Integer, Integer> cm = MMap.concurrent();
+            for (int i = 0; i < N; i++) {
+                cm.put(i, 0);
+            }
+            int writes = 20000;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < writes; i++) {
+                    cm.merge(i % 10, 1, Integer::sum);
+                }
+            });
+            writer.start();
+            pool.submit(() -> cm.replaceAllParallel((k, v) -> v + 1)).get();
+            writer.join();
+            int total = 0;
+            for (int i = 0; i < 10; i++) {
+                total += cm.get(i);
+            }
+            assertEquals(writes + 10, total);
+            assertEquals(Integer.valueOf(1), cm.get(N - 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
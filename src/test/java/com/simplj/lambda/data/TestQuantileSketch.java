@@ -0,0 +1,101 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestQuantileSketch {
+    @Test
+    public void testRankErrorAndMemory() {
+        Random r = new Random(44);
+        int n = 1_000_000;
+        double[] data = new double[n];
+        QuantileSketch s = QuantileSketch.create();
+        for (int i = 0; i < n; i++) {
+            data[i] = Math.exp(r.nextGaussian());
+            s.update(data[i]);
+        }
+        double[] sorted = data.clone();
+        Arrays.sort(sorted);
+        assertEquals(n, s.count());
+        assertTrue(s.retained() < 1000);
+        assertEquals(sorted[0], s.quantile(0), 0);
+        assertEquals(sorted[n - 1], s.quantile(1), 0);
+        double[] qs = {0.01, 0.25, 0.5, 0.9, 0.95, 0.99};
+        double[] est = s.quantiles(qs);
+        for (int i = 0; i < qs.length; i++) {
+            int pos = Arrays.binarySearch(sorted, est[i]);
+            assertEquals(qs[i], (double) pos / n, 0.02);
+            assertEquals(qs[i], s.rank(est[i]), 0.02);
+        }
+        assertTrue(Double.isNaN(QuantileSketch.create().quantile(0.5)));
+    }
+
+    @Test
+    public void testMergeAndParallel() throws Exception {
+        List<Integer> vals = new ArrayList<>();
+        for (int i = 0; i < 200000; i++) {
+            vals.add((i * 7919) % 200000);
+        }
+        QuantileSketch a = QuantileSketch.create(100);
+        QuantileSketch b = QuantileSketch.create(100);
+        for (int i = 0; i < vals.size(); i++) {
+            (i % 3 == 0 ? a : b).update(vals.get(i));
+        }
+        a.merge(b);
+        assertEquals(200000, a.count());
+        assertEquals(100000, a.quantile(0.5), 200000 * 0.03);
+        try {
+            a.merge(QuantileSketch.create());
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().startsWith("Cannot merge"));
+        }
+        QuantileSketch self = QuantileSketch.create(100);
+        for (int i = 0; i < 100000; i++) {
+            self.update(i);
+        }
+        self.merge(self);
+        assertEquals(200000, self.count());
+        assertEquals(0, self.min(), 0);
+        assertEquals(99999, self.max(), 0);
+        assertEquals(50000, self.quantile(0.5), 100000 * 0.03);
+
+        IList<Integer> list = IList.of(vals, ArrayList::new);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        QuantileSketch par = pool.submit(() -> list.map(x -> x * 2).sketchParallel(x -> x)).get();
+        pool.shutdown();
+        assertEquals(200000, par.count());
+        assertEquals(0, par.min(), 0);
+        assertEquals(399998, par.max(), 0);
+        assertEquals(360000, par.quantile(0.9), 400000 * 0.02);
+        double[] q = IArray.of(vals.toArray(new Integer[0])).quantiles(x -> x, 0.5, 0.99);
+        assertEquals(100000, q[0], 200000 * 0.02);
+        assertEquals(198000, q[1], 200000 * 0.02);
+        assertTrue(IList.<Integer>none().sketchParallel(x -> x).isEmpty());
+    }
+
+    @Test
+    public void testSlidingWindowQuantile() {
+        SlidingWindow<Integer> w = SlidingWindow.of(100);
+        for (int i = 1; i <= 150; i++) {
+            w.add(i * 37 % 151);
+        }
+        List<Integer> sorted = new ArrayList<>(w.toList());
+        Collections.sort(sorted);
+        assertEquals(sorted.get(49), w.quantile(0.5), 0);
+        assertEquals(sorted.get(94), w.quantile(0.95), 0);
+        assertEquals(sorted.get(0), w.quantile(0), 0);
+        assertEquals(sorted.get(99), w.quantile(1), 0);
+        assertEquals(sorted.get(99) * 2, w.quantile(1, x -> x * 2), 0);
+        try {
+            SlidingWindow.of(3).quantile(0.5);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+            assertEquals("Window is empty!", expected.getMessage());
+        }
+    }
+}
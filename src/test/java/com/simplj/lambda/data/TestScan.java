@@ -0,0 +1,59 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestScan {
+    @Test
+    public void testScanl() {
+        assertEquals(Arrays.asList(0, 1, 3, 6, 10), IList.of(1, 2, 3, 4).scanl(0, Integer::sum).list());
+        assertEquals(Arrays.asList("", "a", "ab"), MList.of("a", "b").scanl("", String::concat).list());
+        assertEquals(Collections.singletonList(7L), IList.<Integer>of().scanl(7L, (a, e) -> a + e).list());
+        assertArrayEquals(new Object[]{1, 3, 3, 5}, IArray.of(3, 2, 5).scanl(1, Math::max).array());
+        assertArrayEquals(new Object[]{0, 2, 6}, MArray.of(1, 2).map(x -> x * 2).scanl(0, (a, e) -> a + e * 1).array());
+        assertArrayEquals(new Integer[]{4, 4, 9, 9}, MArray.of(4, 1, 9, 2).prefix(Math::max).array());
+    }
+
+    @Test
+    public void testParallelPrefix() throws Exception {
+        Random r = new Random(43);
+        int n = 50000;
+        Long[] src = new Long[n];
+        Long[] expected = new Long[n];
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            src[i] = (long) r.nextInt(1000) - 500;
+            expected[i] = sum += src[i];
+        }
+        List<Long> expectedList = Arrays.asList(expected);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        MArray<Long> ma = MArray.of(src.clone());
+        assertSame(ma, pool.submit(() -> ma.prefixParallel(Long::sum)).get());
+        assertArrayEquals(expected, ma.array());
+
+        IArray<Long> ia = IArray.of(src);
+        IArray<Long> scanned = pool.submit(() -> ia.scanParallel(Long::sum)).get();
+        assertArrayEquals(expected, scanned.array());
+        assertEquals(src[1], ia.get(1));
+
+        IList<Long> il = IList.of(new ArrayList<>(Arrays.asList(src)), ArrayList::new);
+        assertEquals(expectedList, pool.submit(() -> il.scanParallel(Long::sum)).get().list());
+        assertEquals(src[n - 1], il.list().get(n - 1));
+        MList<Long> ml = MList.of(new LinkedList<>(Arrays.asList(src)));
+        assertSame(ml, pool.submit(() -> ml.scanParallel(Long::sum)).get());
+        assertEquals(expectedList, ml.list());
+        pool.shutdown();
+
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 9000; i++) {
+            words.add(Character.toString((char) ('a' + i % 26)));
+        }
+        List<String> concat = IList.of(words, ArrayList::new).scanParallel(String::concat).list();
+        assertEquals(9000, concat.get(8999).length());
+        assertTrue(concat.get(8999).startsWith("abcdefghijklmnopqrstuvwxyzab"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import static org.junit.Assert.*;
+
+public class TestSelection {
+    @Test
+    public void testSelection() {
+        Integer[] nums = new Integer[200000];
+        for (int i = 0; i < nums.length; i++) {
+            nums[i] = i;
+        }
+        IArray<Integer> arr = IArray.of(nums);
+        Selection<Integer> even = arr.select(n -> n % 2 == 0);
+        Selection<Integer> small = arr.select(n -> n < 10);
+        assertEquals(100000, even.count());
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8), even.and(small).list().list());
+        assertEquals(100005, even.or(small).count());
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9), small.andNot(even).list().list());
+        assertEquals(199990, small.not().count());
+        assertEquals(even.and(small), even.and(n -> n < 10));
+        assertEquals(even.or(small), even.or(n -> n < 10));
+        assertArrayEquals(new Integer[] {199999}, arr.select(n -> n > 199998).array().array());
+        assertTrue(arr.select(n -> n < 0).isEmpty());
+    }
+
+    @Test
+    public void testListSelection() {
+        IList<String> list = IList.of("a", "bb", "ccc", "dd");
+        Selection<String> two = list.select(s -> s.length() == 2);
+        assertArrayEquals(new int[] {1, 3}, two.positions());
+        assertTrue(two.contains(3));
+        assertEquals(Arrays.asList("a", "ccc"), two.not().list().list());
+        assertThrows(IllegalArgumentException.class, () -> two.and(IList.of("a").select(s -> true)));
+    }
+
+    @Test
+    public void testSelectionOverSharedList() {
+        LinkedList<Integer> backing = new LinkedList<>(Arrays.asList(1, 2, 3));
+        IList<Integer> list = IList.of(backing);
+        assertEquals(Arrays.asList(2), list.select(n -> n % 2 == 0).list().list());
+        backing.add(4);
+        assertEquals(Arrays.asList(2, 4), list.select(n -> n % 2 == 0).list().list());
+        assertEquals(4, list.selection().count());
+
+        MList<Integer> ml = MList.of(1, 2, 3);
+        IList<Integer> il = ml.immutable();
+        assertEquals(3, il.selection().count());
+        ml.add(4);
+        assertEquals(3, il.selection().count());
+        assertEquals(Arrays.asList(2), il.select(n -> n % 2 == 0).list().list());
+    }
+}
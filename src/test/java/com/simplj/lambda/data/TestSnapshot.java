@@ -0,0 +1,208 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class TestSnapshot {
+    @Test
+    public void testVersionedMapAgainstHashMap() {
+        Random rnd = new Random(7);
+        VersionedMap<Object, Integer> vm = new VersionedMap<>();
+        Map<Object, Integer> ref = new HashMap<>();
+        List<Map<Object, Integer>> snaps = new ArrayList<>();
+        List<Map<Object, Integer>> refs = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            int r = rnd.nextInt(2000);
+            Object k = r == 0 ? null : r % 3 == 0 ? new Collider(r) : (Object) r;
+            int op = rnd.nextInt(10);
+            if (op < 6) {
+                assertEquals(ref.put(k, i), vm.put(k, i));
+            } else if (op < 9) {
+                assertEquals(ref.remove(k), vm.remove(k));
+            } else {
+                assertEquals(ref.putIfAbsent(k, -i), vm.putIfAbsent(k, -i));
+            }
+            assertEquals(ref.size(), vm.size());
+            if (i % 5000 == 0) {
+                snaps.add(vm.snapshot());
+                refs.add(new HashMap<>(ref));
+            }
+        }
+        assertEquals(ref, vm);
+        assertEquals(ref, new HashMap<>(vm));
+        for (int i = 0; i < snaps.size(); i++) {
+            assertEquals(refs.get(i), snaps.get(i));
+            assertEquals(refs.get(i).size(), snaps.get(i).entrySet().stream().count());
+        }
+        vm.replaceAll((k, v) -> v + 1);
+        ref.replaceAll((k, v) -> v + 1);
+        assertEquals(ref, vm);
+        vm.entrySet().removeIf(e -> e.getValue() % 2 == 0);
+        ref.entrySet().removeIf(e -> e.getValue() % 2 == 0);
+        assertEquals(ref, vm);
+    }
+
+    @Test
+    public void testPersistentVectorAgainstArrayList() {
+        Random rnd = new Random(11);
+        VersionedList<Integer> vl = new VersionedList<>();
+        List<Integer> ref = new ArrayList<>();
+        for (int i = 0; i < 40000; i++) {
+            vl.add(i);
+            ref.add(i);
+        }
+        List<Integer> full = vl.snapshot();
+        for (int i = 0; i < 2000; i++) {
+            int idx = rnd.nextInt(ref.size());
+            assertEquals(ref.set(idx, -i), vl.set(idx, -i));
+        }
+        assertEquals(ref, vl);
+        while (ref.size() > 900) {
+            assertEquals(ref.remove(ref.size() - 1), vl.remove(vl.size() - 1));
+        }
+        assertEquals(ref, vl);
+        vl.add(10, 99);
+        ref.add(10, 99);
+        assertEquals(ref.remove(500), vl.remove(500));
+        vl.removeIf(e -> e % 3 == 0);
+        ref.removeIf(e -> e % 3 == 0);
+        assertEquals(ref, vl);
+        vl.sort(Comparator.reverseOrder());
+        ref.sort(Comparator.reverseOrder());
+        assertEquals(ref, vl);
+        assertEquals(40000, full.size());
+        for (int i = 0; i < full.size(); i++) {
+            assertEquals(i, full.get(i).intValue());
+        }
+        while (!ref.isEmpty()) {
+            assertEquals(ref.remove(ref.size() - 1), vl.remove(vl.size() - 1));
+        }
+        assertTrue(vl.isEmpty());
+    }
+
+    @Test
+    public void testMMapSnapshot() {
+        MMap<String, Integer> m = MMap.versioned();
+        m.put("a", 1);
+        m.put("b", 2);
+        IMap<String, Integer> snap = m.snapshot();
+        m.put("c", 3);
+        m.remove("a");
+        assertEquals(2, snap.size());
+        assertEquals(Integer.valueOf(1), snap.get("a"));
+        assertFalse(snap.containsKey("c"));
+        assertEquals(Integer.valueOf(4), snap.include("d", 4).get("d"));
+        assertEquals(2, m.size());
+
+        IMap<String, Integer> lazy = m.mapV(v -> v * 10).snapshot();
+        assertEquals(Integer.valueOf(30), lazy.get("c"));
+        assertTrue(m.snapshot().mapV(v -> v + 1).map() instanceof HashMap);
+        assertTrue(m.mapV(v -> v + 1).map() instanceof VersionedMap);
+
+        MMap<String, Integer> plain = MMap.unit();
+        plain.put("x", 1);
+        IMap<String, Integer> copy = plain.snapshot();
+        IMap<String, Integer> imm = plain.immutable();
+        plain.put("y", 2);
+        assertEquals(1, copy.size());
+        assertEquals(1, imm.size());
+        MMap<String, Integer> conc = MMap.concurrent();
+        conc.put("x", 1);
+        IMap<String, Integer> concImm = conc.immutable();
+        conc.put("y", 2);
+        assertFalse(concImm.containsKey("y"));
+    }
+
+    @Test
+    public void testMListSnapshot() {
+        MList<Integer> l = MList.versioned();
+        l.addAll(Arrays.asList(1, 2, 3));
+        IList<Integer> snap = l.snapshot();
+        IList<Integer> imm = l.immutable();
+        l.set(0, 10);
+        l.add(4);
+        l.remove(1);
+        assertEquals(Arrays.asList(1, 2, 3), snap.list());
+        assertEquals(Arrays.asList(1, 2, 3), imm.list());
+        assertEquals(Arrays.asList(10, 3, 4), l.list());
+        assertEquals(Arrays.asList(20, 6, 8), l.map(e -> e * 2).snapshot().list());
+        assertTrue(l.snapshot().map(e -> e + 1).list() instanceof ArrayList);
+        assertTrue(l.map(e -> e + 1).list() instanceof VersionedList);
+        MList<Integer> appends = MList.concurrent();
+        appends.add(1);
+        assertTrue(appends.snapshot().map(e -> e + 1).list() instanceof ArrayList);
+
+        MList<Integer> plain = MList.unit();
+        plain.add(1);
+        IList<Integer> copy = plain.snapshot();
+        plain.add(2);
+        assertEquals(1, copy.size());
+    }
+
+    @Test
+    public void testConcurrentWritersWithSnapshots() throws Exception {
+        MMap<Integer, Integer> m = MMap.versioned();
+        int threads = 4;
+        int perThread = 5000;
+        CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        ExecutorService exec = Executors.newFixedThreadPool(threads + 1);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            fs.add(exec.submit(() -> {
+                barrier.await();
+                for (int i = 0; i < perThread; i++) {
+                    m.put(base + i, i);
+                    m.merge(-1, 1, Integer::sum);
+                }
+                return null;
+            }));
+        }
+        Future<Integer> reader = exec.submit(() -> {
+            barrier.await();
+            int checks = 0;
+            while (m.size() < threads * perThread + 1) {
+                IMap<Integer, Integer> snap = m.snapshot();
+                int n = snap.size();
+                assertEquals(n, snap.map().entrySet().stream().count());
+                Thread.yield();
+                assertEquals(n, snap.size());
+                checks++;
+            }
+            return checks;
+        });
+        for (Future<?> f : fs) {
+            f.get();
+        }
+        assertTrue(reader.get() >= 0);
+        exec.shutdown();
+
+        assertEquals(threads * perThread + 1, m.size());
+        assertEquals(Integer.valueOf(threads * perThread), m.get(-1));
+        for (int i = 0; i < threads * perThread; i++) {
+            assertEquals(Integer.valueOf(i % perThread), m.get(i));
+        }
+    }
+
+    private static final class Collider {
+        private final int id;
+
+        private Collider(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Collider && ((Collider) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id % 7;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestSortedBy {
+    @Test
+    public void testRadixAgainstStableSort() {
+        Random r = new Random(31);
+        List<long[]> src = new ArrayList<>();
+        for (int i = 0; i < 30000; i++) {
+            long k = r.nextInt(4) == 0 ? r.nextLong() : r.nextInt(2000) - 1000;
+            src.add(new long[]{k, i});
+        }
+        src.add(new long[]{Long.MIN_VALUE, -1});
+        src.add(new long[]{Long.MAX_VALUE, -2});
+        List<long[]> expected = new ArrayList<>(src);
+        expected.sort(Comparator.comparingLong(a -> a[0]));
+
+        AtomicInteger calls = new AtomicInteger();
+        IList<long[]> sorted = IList.of(src, ArrayList::new).sortedBy(a -> {
+            calls.incrementAndGet();
+            return a[0];
+        });
+        assertEquals(src.size(), calls.get());
+        assertSameOrder(expected, sorted.list());
+
+        List<long[]> byInt = new ArrayList<>(src);
+        byInt.sort(Comparator.comparingInt(a -> (int) a[0]));
+        assertSameOrder(byInt, IList.of(src, ArrayList::new).sortedBy(a -> (int) a[0]).list());
+        MArray<long[]> ma = MArray.of(src.toArray(new long[0][]));
+        assertSame(ma, ma.sortBy(a -> (short) a[0], null));
+        List<long[]> byShort = new ArrayList<>(src);
+        byShort.sort(Comparator.comparingInt(a -> (short) a[0]));
+        assertSameOrder(byShort, Arrays.asList(ma.array()));
+
+        List<long[]> desc = new ArrayList<>(src);
+        desc.sort(Comparator.comparingLong((long[] a) -> a[0]).reversed());
+        assertSameOrder(desc, Arrays.asList(IArray.of(src.toArray(new long[0][])).sortedBy(a -> a[0], Comparator.reverseOrder()).array()));
+    }
+
+    @Test
+    public void testNonIntegralKeys() {
+        MList<String> ml = MList.of(new ArrayList<>(Arrays.asList("pear", "fig", "apple", "kiwi", "date")));
+        assertSame(ml, ml.sortedBy(String::length));
+        assertEquals(Arrays.asList("fig", "pear", "kiwi", "date", "apple"), ml.list());
+        assertEquals(Arrays.asList("apple", "date", "fig", "kiwi", "pear"), ml.sortedBy(s -> s).list());
+        List<String> words = new ArrayList<>();
+        Random r = new Random(37);
+        for (int i = 0; i < 500; i++) {
+            words.add(Integer.toString(r.nextInt(100000), 36));
+        }
+        List<String> expected = new ArrayList<>(words);
+        expected.sort(Comparator.comparing(s -> s.charAt(s.length() - 1)));
+        assertEquals(expected, IList.of(words, ArrayList::new).sortedBy(s -> s.charAt(s.length() - 1)).list());
+        assertEquals(words.size(), IList.of(words).sortedBy(s -> (Comparable<?>) null, (a, b) -> 0).size());
+    }
+
+    private static void assertSameOrder(List<long[]> expected, List<long[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+}
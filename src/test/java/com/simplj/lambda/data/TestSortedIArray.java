@@ -0,0 +1,82 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Couple;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestSortedIArray {
+    @Test
+    public void testSearches() {
+        Random r = new Random(11);
+        for (int n : new int[] {0, 1, 2, 7, 8, 100, 1023, 1024, 1025}) {
+            Integer[] vals = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                vals[i] = r.nextInt(n / 2 + 1);
+            }
+            List<Integer> expected = new ArrayList<>(Arrays.asList(vals));
+            Collections.sort(expected);
+            SortedIArray<Integer> sorted = IArray.of(vals).sorted();
+            for (SortedIArray<Integer> a : Arrays.asList(sorted, sorted.eytzinger())) {
+                assertEquals(expected, a.toList());
+                for (int v = -1; v <= n / 2 + 2; v++) {
+                    int x = v;
+                    assertEquals(expected.indexOf(x), a.indexOf(x));
+                    assertEquals(expected.lastIndexOf(x), a.lastIndexOf(x));
+                    assertEquals(expected.contains(x), a.contains(x));
+                    assertEquals(count(expected, i -> i < x), a.rank(x));
+                    assertEquals(count(expected, i -> i == x), a.count(x));
+                    TreeSet<Integer> ts = new TreeSet<>(expected);
+                    assertEquals(ts.floor(x), a.floor(x));
+                    assertEquals(ts.lower(x), a.lower(x));
+                    assertEquals(ts.ceiling(x), a.ceiling(x));
+                    assertEquals(ts.higher(x), a.higher(x));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLaziness() {
+        SortedIArray<String> a = IArray.of(new String[] {"pear", "fig", "apple", "kiwi", "banana"}).sorted(Comparator.comparing(String::length));
+        assertEquals(Arrays.asList("fig", "pear", "kiwi", "apple", "banana"), a.toList());
+        SortedIArray<String> f = a.filter(s -> !s.startsWith("k"));
+        assertFalse(f.isApplied());
+        assertEquals(Arrays.asList("fig", "pear", "apple", "banana"), f.toList());
+        assertTrue(f.contains("xxxx"));
+        assertEquals(Arrays.asList("pear", "apple"), f.range("abcd", "abcde").toList());
+        IArray<Integer> lengths = a.map(String::length);
+        assertFalse(lengths instanceof SortedIArray);
+        assertEquals(Arrays.asList(3, 4, 4, 5, 6), lengths.toList());
+        assertEquals(Arrays.asList("fig", "pear", "kiwi", "plum", "apple", "banana"), a.union(Collections.singletonList("plum")).toList());
+        assertEquals("plum", a.set(0, "plum").get(0));
+        assertEquals("fig", a.get(0));
+    }
+
+    @Test
+    public void testUnorderedResultsArePlainArrays() {
+        SortedIArray<Integer> a = IArray.of(new Integer[] {5, 1, 4, 2, 3}).sorted();
+        List<IArray<Integer>> results = Arrays.asList(a.topK(3, null), a.sortedBy(x -> -x), a.scanParallel(Integer::sum));
+        for (IArray<Integer> res : results) {
+            assertFalse(res instanceof SortedIArray);
+            List<Integer> expected = res.toList();
+            for (int x = 0; x <= 16; x++) {
+                assertEquals(expected.contains(x), res.contains(x));
+                assertEquals(expected.indexOf(x), res.indexOf(x));
+            }
+        }
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), results.get(1).toList());
+
+        Couple<IArray<Integer>, IArray<Integer>> split = a.split(x -> x % 2 == 0);
+        assertTrue(split.first() instanceof SortedIArray && split.second() instanceof SortedIArray);
+        assertEquals(Arrays.asList(2, 4), split.first().toList());
+        assertEquals(1, split.second().indexOf(3));
+        assertEquals(Arrays.asList(2, 3, 4), a.range(2, 4).toList());
+    }
+
+    private static int count(List<Integer> l, java.util.function.Predicate<Integer> p) {
+        return (int) l.stream().filter(p).count();
+    }
+}
@@ -0,0 +1,160 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Tuple;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestSortedMap {
+    @Test
+    public void testAgainstTreeMap() {
+        Random r = new Random(7);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        ISortedMap<Integer, Integer> map = ISortedMap.unit();
+        for (int i = 0; i < 20000; i++) {
+            int k = r.nextInt(5000);
+            if (r.nextInt(3) == 0) {
+                expected.remove(k);
+                map = map.delete(k);
+            } else {
+                expected.put(k, i);
+                map = map.include(k, i);
+            }
+        }
+        assertValid(map.tree());
+        assertEquals(expected, map.map());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        for (int k = -1; k <= 5001; k += 7) {
+            assertEquals(expected.floorKey(k), key(map.floor(k)));
+            assertEquals(expected.lowerKey(k), key(map.lower(k)));
+            assertEquals(expected.ceilingKey(k), key(map.ceiling(k)));
+            assertEquals(expected.higherKey(k), key(map.higher(k)));
+            assertEquals(expected.headMap(k), map.headMap(k).map());
+            assertEquals(expected.tailMap(k, false), map.tailMap(k, false).map());
+            assertEquals(expected.subMap(k, true, k + 300, true), map.range(k, k + 300).map());
+            assertEquals(expected.subMap(k, true, k + 300, true).size(), map.range(k, k + 300).size());
+        }
+        while (!expected.isEmpty()) {
+            Integer k = expected.firstKey();
+            expected.remove(k);
+            map = map.delete(k);
+        }
+        assertTrue(map.isEmpty());
+        assertNull(map.first());
+    }
+
+    @Test
+    public void testStructuralSharing() {
+        ISortedMap<Integer, String> map = ISortedMap.unit();
+        for (int i = 0; i < 1000; i++) {
+            map = map.include(i, String.valueOf(i));
+        }
+        ISortedMap<Integer, String> updated = map.include(500, "x").delete(10);
+        assertEquals("500", map.get(500));
+        assertTrue(map.containsKey(10));
+        assertEquals("x", updated.get(500));
+        assertFalse(updated.containsKey(10));
+        assertEquals(999, updated.size());
+        assertValid(updated.tree());
+        assertSame(map, map.delete(5000));
+        for (int n = 0; n < 3000; n += 97) {
+            Map<Integer, Integer> m = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                m.put(i, i);
+            }
+            ISortedMap<Integer, Integer> built = ISortedMap.of(m);
+            assertValid(built.tree());
+            assertEquals(m, built.map());
+        }
+    }
+
+    @Test
+    public void testRangeViews() {
+        ISortedMap<Integer, String> map = ISortedMap.of(Tuple.of(1, "a"), Tuple.of(3, "c"), Tuple.of(5, "e"), Tuple.of(7, "g"), Tuple.of(9, "i"));
+        ISortedMap<Integer, String> range = map.range(3, 7);
+        assertEquals(Arrays.asList(3, 5, 7), new ArrayList<>(range.keySet()));
+        assertEquals(Tuple.of(7, "g"), range.floor(100));
+        assertEquals(Tuple.of(3, "c"), range.ceiling(-100));
+        assertNull(range.lower(3));
+        assertNull(range.get(9));
+        assertEquals(Arrays.asList(3, 4, 5, 7), new ArrayList<>(range.include(4, "d").keySet()));
+        try {
+            range.include(8, "h");
+            fail("Key out of range must not be included");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Key out of range: 8", e.getMessage());
+        }
+        assertEquals(Arrays.asList(3, 5), new ArrayList<>(range.range(0, 6).keySet()));
+        assertEquals(Arrays.asList(3, 5, 7), new ArrayList<>(range.mutable().include(8, "h").headMap(8).keySet()));
+    }
+
+    @Test
+    public void testLazyAndMutable() {
+        ISortedMap<String, Integer> map = ISortedMap.of(new HashMap<>(Util.asMap(Tuple.of("b", 2), Tuple.of("a", 1), Tuple.of("c", 3))), Comparator.reverseOrder());
+        ISortedMap<String, Integer> lazy = map.filterByValue(v -> v > 1).mapV(v -> v * 10);
+        assertFalse(lazy.isApplied());
+        assertEquals(Arrays.asList(30, 20), new ArrayList<>(lazy.values()));
+        assertTrue(lazy.isApplied());
+        MSortedMap<String, Integer> m = map.mutable();
+        m.put("d", 4);
+        m.merge("a", 5, Integer::sum);
+        ISortedMap<String, Integer> snapshot = m.immutable();
+        m.remove("d");
+        assertEquals(Arrays.asList("d", "c", "b", "a"), new ArrayList<>(snapshot.keySet()));
+        assertEquals(Integer.valueOf(6), m.get("a"));
+        assertEquals(3, map.size());
+        assertEquals(Tuple.of("c", 3), m.floor("bb"));
+    }
+
+    @Test
+    public void testSortedSet() {
+        ISortedSet<Integer> set = ISortedSet.of(5, 1, 4, 2, 3);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), new ArrayList<>(set.set()));
+        assertEquals(Integer.valueOf(3), set.floor(3));
+        assertEquals(Integer.valueOf(4), set.higher(3));
+        assertEquals(Util.asSet(2, 3), set.range(2, 3).set());
+        assertTrue(set.hasAll(new TreeSet<>(Arrays.asList(1, 5))));
+        assertEquals(Arrays.asList(1, 3, 5), new ArrayList<>(set.filter(i -> i % 2 == 1).set()));
+        assertEquals(Util.asSet(1, 2), set.preserve(Arrays.asList(1, 2, 9)).set());
+        MSortedSet<Integer> m = set.mutable();
+        assertTrue(m.add(0));
+        assertFalse(m.add(0));
+        assertTrue(m.removeIf(i -> i > 3));
+        assertEquals(Arrays.asList(0, 1, 2, 3), new ArrayList<>(m));
+        assertEquals(5, set.size());
+    }
+
+    private static <K> K key(com.simplj.lambda.tuples.Couple<K, ?> c) {
+        return c == null ? null : c.first();
+    }
+
+    private static void assertValid(BTreeMap<?, ?> tree) {
+        BTree.Node root = tree.root();
+        if (root != null) {
+            int depth = depth(root);
+            check(root, true, depth, 1);
+        }
+    }
+
+    private static int depth(BTree.Node n) {
+        return n.isLeaf() ? 1 : 1 + depth(n.kids[0]);
+    }
+
+    private static int check(BTree.Node n, boolean root, int depth, int level) {
+        assertTrue(n.keys.length <= 2 * BTree.ORDER - 1);
+        assertTrue(root || n.keys.length >= BTree.ORDER - 1);
+        int size = n.keys.length;
+        if (n.isLeaf()) {
+            assertEquals(depth, level);
+        } else {
+            assertEquals(n.keys.length + 1, n.kids.length);
+            for (BTree.Node k : n.kids) {
+                size += check(k, false, depth, level + 1);
+            }
+        }
+        assertEquals(size, n.size);
+        return size;
+    }
+}
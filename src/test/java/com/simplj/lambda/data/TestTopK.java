@@ -0,0 +1,53 @@
+package com.simplj.lambda.data;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TestTopK {
+    @Test
+    public void testAgainstFullSort() {
+        Random r = new Random(29);
+        List<Integer> src = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            src.add(r.nextInt(20000));
+        }
+        List<Integer> asc = new ArrayList<>(src);
+        Collections.sort(asc);
+        List<Integer> desc = new ArrayList<>(asc);
+        Collections.reverse(desc);
+        IList<Integer> il = IList.of(src, ArrayList::new);
+        IArray<Integer> ia = IArray.of(src.toArray(new Integer[0]));
+        for (int k : new int[]{0, 1, 7, 100, 50000, 60000}) {
+            int m = Math.min(k, src.size());
+            assertEquals(asc.subList(0, m), il.bottomK(k, null).list());
+            assertEquals(desc.subList(0, m), il.topK(k, null).list());
+            assertEquals(asc.subList(0, m), Arrays.asList(ia.bottomK(k, Comparator.naturalOrder()).array()));
+            assertEquals(desc.subList(0, m), Arrays.asList(ia.topK(k, Comparator.naturalOrder()).array()));
+        }
+        List<Integer> evens = src.stream().filter(x -> x % 2 == 0).map(x -> x / 2).sorted().collect(Collectors.toList());
+        assertEquals(evens.subList(0, 10), il.filter(x -> x % 2 == 0).map(x -> x / 2).bottomK(10, null).list());
+        assertEquals(asc, il.sortedParallel(null).list());
+        assertEquals(desc, il.sortedParallel(Comparator.reverseOrder()).list());
+        assertEquals(asc, Arrays.asList(ia.sortedParallel(null).array()));
+        assertTrue(ia.sortedParallel(null).contains(asc.get(100)));
+        assertEquals(src, il.list());
+    }
+
+    @Test
+    public void testInPlace() {
+        MArray<String> ma = MArray.of(new String[]{"pear", "fig", "apple", "kiwi"});
+        assertSame(ma, ma.sort(Comparator.comparingInt(String::length)));
+        assertEquals(Arrays.asList("fig", "pear", "kiwi", "apple"), Arrays.asList(ma.array()));
+        ma.sortParallel(null);
+        assertEquals(Arrays.asList("apple", "fig", "kiwi", "pear"), Arrays.asList(ma.array()));
+        MList<String> ml = MList.of(new LinkedList<>(Arrays.asList("b", "c", "a")));
+        assertSame(ml, ml.sortedParallel(null));
+        assertEquals(Arrays.asList("a", "b", "c"), ml.list());
+        assertEquals(Arrays.asList("c", "b"), ml.topK(2, null).list());
+        assertEquals(Arrays.asList(1, 1, 2), IList.encoded(Arrays.asList(2, 1, 3, 1)).sortedParallel(null).take(3).list());
+    }
+}
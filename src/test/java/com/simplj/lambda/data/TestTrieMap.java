@@ -0,0 +1,69 @@
+package com.simplj.lambda.data;
+
+import com.simplj.lambda.tuples.Tuple;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TestTrieMap {
+    @Test
+    public void testAgainstTreeMap() {
+        Random r = new Random(3);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        ITrieMap<Integer> trie = IMap.trie();
+        for (int i = 0; i < 5000; i++) {
+            String k = word(r);
+            if (r.nextInt(3) == 0) {
+                expected.remove(k);
+                trie = trie.delete(k);
+            } else {
+                expected.put(k, i);
+                trie = trie.include(k, i);
+            }
+        }
+        assertEquals(expected, trie.map());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(trie.keySet()));
+        assertEquals(expected, IMap.trie(expected).map());
+        for (String p : Arrays.asList("", "a", "ab", "abc", "ba", "cab", "zzz")) {
+            List<String> keys = expected.keySet().stream().filter(k -> k.startsWith(p)).collect(Collectors.toList());
+            assertEquals(keys, trie.keysWithPrefix(p).list());
+            assertEquals(keys, new ArrayList<>(trie.prefixMatch(p).keySet()));
+            String longest = expected.keySet().stream().filter(p::startsWith).max(Comparator.comparingInt(String::length)).orElse(null);
+            assertEquals(longest, trie.longestPrefix(p) == null ? null : trie.longestPrefix(p).first());
+        }
+        for (String k : new ArrayList<>(expected.keySet())) {
+            trie = trie.delete(k);
+        }
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    public void testRoutes() {
+        ITrieMap<String> routes = IMap.trie(Tuple.of("/", "root"), Tuple.of("/api", "api"), Tuple.of("/api/users", "users"), Tuple.of("/apix", "apix"));
+        assertEquals(Tuple.of("/api/users", "users"), routes.longestPrefix("/api/users/42"));
+        assertEquals(Tuple.of("/api", "api"), routes.longestPrefix("/api/orders"));
+        assertEquals(Tuple.of("/", "root"), routes.longestPrefix("/static/app.js"));
+        assertNull(routes.longestPrefix("static"));
+        assertEquals(Arrays.asList("/api", "/api/users", "/apix"), routes.keysWithPrefix("/ap").list());
+        ITrieMap<String> updated = routes.include("/api/orders", "orders").delete("/apix");
+        assertEquals(4, routes.prefixMatch("/").size());
+        assertEquals(Arrays.asList("/", "/api", "/api/orders", "/api/users"), new ArrayList<>(updated.keySet()));
+        ITrieMap<Integer> lengths = updated.filter((k, v) -> k.length() > 1).mapV(String::length);
+        assertFalse(lengths.isApplied());
+        assertEquals(Integer.valueOf(6), lengths.get("/api/orders"));
+        assertEquals(Util.asSet("/API", "/API/ORDERS", "/API/USERS", "/"), updated.mapK(String::toUpperCase).keySet());
+        assertEquals("xyz", updated.mutable().include("x", "xyz").get("x"));
+        assertFalse(updated.containsKey("x"));
+    }
+
+    private static String word(Random r) {
+        char[] c = new char[r.nextInt(5)];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = (char) ('a' + r.nextInt(3));
+        }
+        return new String(c);
+    }
+}